@@ -2,18 +2,39 @@ package pl.matgwiazda.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Map;
+
 /**
  * Application-wide configuration beans.
  */
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    /**
+     * Stores hashes as {@code {id}hash} using {@code password-hashing.algorithm}. Hashes without a prefix
+     * (stored before the prefix was introduced) are plain bcrypt and are re-hashed on the next login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(properties.getBcryptStrength());
+        Argon2PasswordEncoder argon2 = new Argon2PasswordEncoder(16, 32, properties.getArgon2Parallelism(),
+                properties.getArgon2MemoryKib(), properties.getArgon2Iterations());
+        String idForEncode = properties.getAlgorithm() == null ? BCRYPT : properties.getAlgorithm().trim().toLowerCase();
+        if (!idForEncode.equals(BCRYPT) && !idForEncode.equals(ARGON2)) {
+            throw new IllegalArgumentException("Unsupported password-hashing.algorithm: " + properties.getAlgorithm());
+        }
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(idForEncode, Map.of(BCRYPT, bcrypt, ARGON2, argon2));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 }
-
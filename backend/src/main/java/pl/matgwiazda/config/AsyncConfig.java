@@ -0,0 +1,111 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for work that must not run on servlet threads.
+ * With spring.threads.virtual.enabled=true (virtual-threads profile) they run on virtual threads instead of a pool.
+ */
+@Configuration
+public class AsyncConfig {
+
+    public static final String TASK_GENERATION_EXECUTOR = "taskGenerationExecutor";
+    public static final String OPENROUTER_HEDGE_EXECUTOR = "openRouterHedgeExecutor";
+    public static final String TASK_POOL_REFILL_EXECUTOR = "taskPoolRefillExecutor";
+    public static final String TASK_GENERATOR_EXECUTOR = "taskGeneratorExecutor";
+
+    @Bean(name = TASK_GENERATION_EXECUTOR)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor taskGenerationExecutor(TaskGenerationJobProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getCorePoolSize());
+        executor.setMaxPoolSize(properties.getMaxPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("task-gen-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = TASK_GENERATION_EXECUTOR)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualTaskGenerationExecutor(TaskGenerationJobProperties properties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("task-gen-");
+        executor.setVirtualThreads(true);
+        // no pool to bound the work any more - keep the same cap on concurrent generations, and reject beyond it
+        // (as the full pool does) instead of blocking the submitting request thread
+        executor.setConcurrencyLimit(properties.getMaxPoolSize());
+        executor.setRejectTasksWhenLimitReached(true);
+        executor.setTaskTerminationTimeout(30000);
+        return executor;
+    }
+
+    // one refill run at a time, off the shared single-thread scheduler (a run can wait minutes on the AI);
+    // no queue - a trigger while a run is still going is rejected and skipped
+    @Bean(name = TASK_POOL_REFILL_EXECUTOR)
+    public AsyncTaskExecutor taskPoolRefillExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("task-pool-");
+        executor.initialize();
+        return executor;
+    }
+
+    // remote task generators under a deadline; a call given up on keeps its thread until it returns, so the bound
+    // also caps abandoned calls. No queue - when saturated the chain skips to the local generator
+    @Bean(name = TASK_GENERATOR_EXECUTOR)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor taskGeneratorExecutor(TaskGeneratorProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getMaxRemoteCalls());
+        executor.setMaxPoolSize(properties.getMaxRemoteCalls());
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("task-generator-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = TASK_GENERATOR_EXECUTOR)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualTaskGeneratorExecutor(TaskGeneratorProperties properties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("task-generator-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(properties.getMaxRemoteCalls());
+        executor.setRejectTasksWhenLimitReached(true);
+        return executor;
+    }
+
+    // runs hedged OpenRouter requests off the caller thread;
+    // no queue - when saturated the caller makes the call itself
+    @Bean(name = OPENROUTER_HEDGE_EXECUTOR)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor openRouterHedgeExecutor(OpenRouterProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getMaxConcurrentRequests());
+        executor.setMaxPoolSize(properties.getMaxConcurrentRequests() * 2);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("openrouter-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = OPENROUTER_HEDGE_EXECUTOR)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualOpenRouterHedgeExecutor(OpenRouterProperties properties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("openrouter-");
+        executor.setVirtualThreads(true);
+        // same bound as the pool; rejected work falls back to the caller
+        executor.setConcurrencyLimit(properties.getMaxConcurrentRequests() * 2);
+        executor.setRejectTasksWhenLimitReached(true);
+        return executor;
+    }
+}
@@ -0,0 +1,31 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the admin NDJSON/CSV exports.
+ */
+@Component
+@ConfigurationProperties(prefix = "admin-export")
+public class ExportProperties {
+
+    private int fetchSize = 1000; // rows per server-side cursor fetch; bounds the heap used by one export
+    private int maxConcurrent = 2; // each running export holds a pooled connection until it finishes
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+}
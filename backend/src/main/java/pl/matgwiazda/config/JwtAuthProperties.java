@@ -0,0 +1,40 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for authenticating requests from JWT access tokens.
+ */
+@Component
+@ConfigurationProperties(prefix = "security.jwt-auth")
+public class JwtAuthProperties {
+
+    private boolean statelessClaims = false; // true = principal from verified claims only, no user lookup
+    private long denylistRefreshMs = 30000; // how often revocations are re-read from the database
+    private long refreshFamilyPurgeMs = 3600000; // how often expired refresh token families are deleted
+
+    public boolean isStatelessClaims() {
+        return statelessClaims;
+    }
+
+    public void setStatelessClaims(boolean statelessClaims) {
+        this.statelessClaims = statelessClaims;
+    }
+
+    public long getDenylistRefreshMs() {
+        return denylistRefreshMs;
+    }
+
+    public void setDenylistRefreshMs(long denylistRefreshMs) {
+        this.denylistRefreshMs = denylistRefreshMs;
+    }
+
+    public long getRefreshFamilyPurgeMs() {
+        return refreshFamilyPurgeMs;
+    }
+
+    public void setRefreshFamilyPurgeMs(long refreshFamilyPurgeMs) {
+        this.refreshFamilyPurgeMs = refreshFamilyPurgeMs;
+    }
+}
@@ -0,0 +1,106 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Additional JWT keys on top of {@code jwt.secret}, for key rotation.
+ *
+ * The newest key whose {@code activate-at} has passed and which has private material signs new tokens;
+ * every key that is not past {@code expire-at} verifies tokens carrying its {@code kid}.
+ * Keep a retired key until the last token it signed has expired (refresh tokens included).
+ * {@code jwt.secret} itself is retired the same way, with {@code secret-expire-at}, or by leaving it empty.
+ */
+@Component
+@ConfigurationProperties(prefix = "jwt")
+public class JwtKeyProperties {
+
+    private List<Key> keys = new ArrayList<>();
+    private Instant secretExpireAt; // jwt.secret stops verifying (and signing) at this time; null = never
+
+    public List<Key> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<Key> keys) {
+        this.keys = keys;
+    }
+
+    public Instant getSecretExpireAt() {
+        return secretExpireAt;
+    }
+
+    public void setSecretExpireAt(Instant secretExpireAt) {
+        this.secretExpireAt = secretExpireAt;
+    }
+
+    public static class Key {
+        private String kid;
+        private String algorithm = "HS256"; // HS256 or ES256
+        private String secret; // HS256, at least 32 characters
+        private String privateKey; // ES256, PKCS#8 PEM; absent = verification only
+        private String publicKey; // ES256, X.509 PEM
+        private Instant activateAt; // null = active at once
+        private Instant expireAt; // null = never
+
+        public String getKid() {
+            return kid;
+        }
+
+        public void setKid(String kid) {
+            this.kid = kid;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public String getPrivateKey() {
+            return privateKey;
+        }
+
+        public void setPrivateKey(String privateKey) {
+            this.privateKey = privateKey;
+        }
+
+        public String getPublicKey() {
+            return publicKey;
+        }
+
+        public void setPublicKey(String publicKey) {
+            this.publicKey = publicKey;
+        }
+
+        public Instant getActivateAt() {
+            return activateAt;
+        }
+
+        public void setActivateAt(Instant activateAt) {
+            this.activateAt = activateAt;
+        }
+
+        public Instant getExpireAt() {
+            return expireAt;
+        }
+
+        public void setExpireAt(Instant expireAt) {
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the in-memory learning level catalog and its cross-node change notifications.
+ */
+@Component
+@ConfigurationProperties(prefix = "learning-level-catalog")
+public class LearningLevelCatalogProperties {
+
+    private boolean notifyEnabled = true; // false = single node; no NOTIFY sent, no LISTEN connection held
+    private String channel = "learning_levels_changed";
+    private int listenTimeoutMs = 10000; // longest wait for a notification before checking for shutdown
+    private long reconnectDelayMs = 5000;
+    private long refreshIntervalMs = 300000; // periodic reload, in case a notification was lost
+
+    public boolean isNotifyEnabled() {
+        return notifyEnabled;
+    }
+
+    public void setNotifyEnabled(boolean notifyEnabled) {
+        this.notifyEnabled = notifyEnabled;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public int getListenTimeoutMs() {
+        return listenTimeoutMs;
+    }
+
+    public void setListenTimeoutMs(int listenTimeoutMs) {
+        this.listenTimeoutMs = listenTimeoutMs;
+    }
+
+    public long getReconnectDelayMs() {
+        return reconnectDelayMs;
+    }
+
+    public void setReconnectDelayMs(long reconnectDelayMs) {
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    public long getRefreshIntervalMs() {
+        return refreshIntervalMs;
+    }
+
+    public void setRefreshIntervalMs(long refreshIntervalMs) {
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+}
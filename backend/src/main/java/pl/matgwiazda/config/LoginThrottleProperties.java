@@ -0,0 +1,67 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for login throttling (token buckets per email and per client IP).
+ */
+@Component
+@ConfigurationProperties(prefix = "login-throttle")
+public class LoginThrottleProperties {
+
+    private boolean enabled = true;
+    private int emailCapacity = 5; // burst of attempts per email
+    private double emailRefillPerMinute = 5;
+    private int ipCapacity = 30; // a classroom shares one address, so the IP bucket is larger
+    private double ipRefillPerMinute = 60;
+    private int maxTrackedKeys = 100000; // buckets kept in memory; idle full buckets are dropped first
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getEmailCapacity() {
+        return emailCapacity;
+    }
+
+    public void setEmailCapacity(int emailCapacity) {
+        this.emailCapacity = emailCapacity;
+    }
+
+    public double getEmailRefillPerMinute() {
+        return emailRefillPerMinute;
+    }
+
+    public void setEmailRefillPerMinute(double emailRefillPerMinute) {
+        this.emailRefillPerMinute = emailRefillPerMinute;
+    }
+
+    public int getIpCapacity() {
+        return ipCapacity;
+    }
+
+    public void setIpCapacity(int ipCapacity) {
+        this.ipCapacity = ipCapacity;
+    }
+
+    public double getIpRefillPerMinute() {
+        return ipRefillPerMinute;
+    }
+
+    public void setIpRefillPerMinute(double ipRefillPerMinute) {
+        this.ipRefillPerMinute = ipRefillPerMinute;
+    }
+
+    public int getMaxTrackedKeys() {
+        return maxTrackedKeys;
+    }
+
+    public void setMaxTrackedKeys(int maxTrackedKeys) {
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+}
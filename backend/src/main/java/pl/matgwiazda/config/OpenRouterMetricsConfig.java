@@ -0,0 +1,37 @@
+package pl.matgwiazda.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.matgwiazda.service.openrouter.AdaptiveConcurrencyLimiter;
+import pl.matgwiazda.service.openrouter.OpenRouterCircuitBreaker;
+
+/**
+ * Micrometer meters for the OpenRouter circuit breaker and concurrency limiter (see /actuator/metrics).
+ */
+@Configuration
+public class OpenRouterMetricsConfig {
+
+    @Bean
+    public MeterBinder openRouterMeters(OpenRouterCircuitBreaker circuitBreaker, AdaptiveConcurrencyLimiter limiter) {
+        return registry -> {
+            Gauge.builder("openrouter.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                    .description("OpenRouter circuit breaker state: 0 closed, 1 open, 2 half-open")
+                    .register(registry);
+            FunctionCounter.builder("openrouter.circuit.rejected", circuitBreaker, OpenRouterCircuitBreaker::getRejectedCalls)
+                    .description("Calls rejected by the open circuit breaker")
+                    .register(registry);
+            Gauge.builder("openrouter.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive limit of concurrent OpenRouter calls")
+                    .register(registry);
+            Gauge.builder("openrouter.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("OpenRouter calls in flight")
+                    .register(registry);
+            FunctionCounter.builder("openrouter.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCalls)
+                    .description("Calls rejected because no concurrency slot was free in time")
+                    .register(registry);
+        };
+    }
+}
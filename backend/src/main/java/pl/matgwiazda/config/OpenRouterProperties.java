@@ -3,6 +3,9 @@ package pl.matgwiazda.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration properties for OpenRouter integration.
  */
@@ -13,9 +16,27 @@ public class OpenRouterProperties {
     private String apiKey;
     private String endpoint = "https://openrouter.ai/api/v1/chat/completions";
     private String defaultModel = "nvidia/nemotron-nano-12b-v2-vl:free"; // user requested free model
-    private int timeoutMs = 30000;
+    private int timeoutMs = 30000; // read timeout of a single call
+    private int connectTimeoutMs = 5000;
+    private String transport = "jdk"; // jdk (java.net.http, HTTP/2, pooled keep-alive) or simple (HttpURLConnection)
+    private int maxConcurrentRequests = 16; // upper bound of the adaptive concurrency limit
+    private int minConcurrentRequests = 1; // the limit never shrinks below this
+    private long slowCallThresholdMs = 15000; // successful calls slower than this shrink the limit like a 429
+    private int circuitFailureThreshold = 5; // consecutive failures that open the circuit
+    private long circuitOpenMs = 30000; // how long an open circuit rejects calls before letting a probe through
+    private int circuitHalfOpenCalls = 1; // probe calls allowed while half-open
+    private long acquireTimeoutMs = 5000; // how long a caller waits for a free slot before failing
+    // prompt templates; add a file: location to edit templates without a redeploy (reload via admin endpoint)
+    private List<String> templateLocations = new ArrayList<>(List.of("classpath*:openrouter/templates/*.json"));
     private int maxRetries = 1;
     private int backoffBaseMs = 500;
+    // candidate models for routing; empty = defaultModel only
+    private List<Model> models = new ArrayList<>();
+    private double latencyEwmaAlpha = 0.2; // weight of the newest sample in the latency / error rate averages
+    private double maxErrorRate = 0.5; // models with a higher error rate are skipped while healthy ones exist
+    private long unhealthyProbeMs = 60000; // an unhealthy model gets a probe call after this long without one
+    private boolean hedgeEnabled = true; // send a second request to the next model when the first is slower than its p95
+    private long hedgeMinDelayMs = 2000; // lower bound of the hedge delay; until a model has enough samples half of timeoutMs is used
 
     public String getApiKey() {
         return apiKey;
@@ -64,4 +85,166 @@ public class OpenRouterProperties {
     public void setBackoffBaseMs(int backoffBaseMs) {
         this.backoffBaseMs = backoffBaseMs;
     }
+
+    public int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(int connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public long getAcquireTimeoutMs() {
+        return acquireTimeoutMs;
+    }
+
+    public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    public int getMinConcurrentRequests() {
+        return minConcurrentRequests;
+    }
+
+    public void setMinConcurrentRequests(int minConcurrentRequests) {
+        this.minConcurrentRequests = minConcurrentRequests;
+    }
+
+    public long getSlowCallThresholdMs() {
+        return slowCallThresholdMs;
+    }
+
+    public void setSlowCallThresholdMs(long slowCallThresholdMs) {
+        this.slowCallThresholdMs = slowCallThresholdMs;
+    }
+
+    public int getCircuitFailureThreshold() {
+        return circuitFailureThreshold;
+    }
+
+    public void setCircuitFailureThreshold(int circuitFailureThreshold) {
+        this.circuitFailureThreshold = circuitFailureThreshold;
+    }
+
+    public long getCircuitOpenMs() {
+        return circuitOpenMs;
+    }
+
+    public void setCircuitOpenMs(long circuitOpenMs) {
+        this.circuitOpenMs = circuitOpenMs;
+    }
+
+    public int getCircuitHalfOpenCalls() {
+        return circuitHalfOpenCalls;
+    }
+
+    public void setCircuitHalfOpenCalls(int circuitHalfOpenCalls) {
+        this.circuitHalfOpenCalls = circuitHalfOpenCalls;
+    }
+
+    public List<String> getTemplateLocations() {
+        return templateLocations;
+    }
+
+    public void setTemplateLocations(List<String> templateLocations) {
+        this.templateLocations = templateLocations;
+    }
+
+    public List<Model> getModels() {
+        return models;
+    }
+
+    public void setModels(List<Model> models) {
+        this.models = models;
+    }
+
+    public double getLatencyEwmaAlpha() {
+        return latencyEwmaAlpha;
+    }
+
+    public void setLatencyEwmaAlpha(double latencyEwmaAlpha) {
+        this.latencyEwmaAlpha = latencyEwmaAlpha;
+    }
+
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    public void setMaxErrorRate(double maxErrorRate) {
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    public long getUnhealthyProbeMs() {
+        return unhealthyProbeMs;
+    }
+
+    public void setUnhealthyProbeMs(long unhealthyProbeMs) {
+        this.unhealthyProbeMs = unhealthyProbeMs;
+    }
+
+    public boolean isHedgeEnabled() {
+        return hedgeEnabled;
+    }
+
+    public void setHedgeEnabled(boolean hedgeEnabled) {
+        this.hedgeEnabled = hedgeEnabled;
+    }
+
+    public long getHedgeMinDelayMs() {
+        return hedgeMinDelayMs;
+    }
+
+    public void setHedgeMinDelayMs(long hedgeMinDelayMs) {
+        this.hedgeMinDelayMs = hedgeMinDelayMs;
+    }
+
+    /**
+     * A routing candidate: OpenRouter model id, optional pinned providers and price.
+     */
+    public static class Model {
+
+        private String id;
+        private List<String> providers = new ArrayList<>(); // empty = let OpenRouter choose
+        private double costPerMillionTokens; // USD, used to break latency ties
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public List<String> getProviders() {
+            return providers;
+        }
+
+        public void setProviders(List<String> providers) {
+            this.providers = providers;
+        }
+
+        public double getCostPerMillionTokens() {
+            return costPerMillionTokens;
+        }
+
+        public void setCostPerMillionTokens(double costPerMillionTokens) {
+            this.costPerMillionTokens = costPerMillionTokens;
+        }
+    }
 }
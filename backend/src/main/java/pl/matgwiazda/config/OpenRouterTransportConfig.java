@@ -0,0 +1,44 @@
+package pl.matgwiazda.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * HTTP transport used for OpenRouter calls, selected with {@code openrouter.transport}:
+ * - {@code jdk} (default): one shared {@link HttpClient} negotiating HTTP/2, so connections (and their TLS sessions)
+ *   are kept alive and reused between AI calls; idle connections are closed after jdk.httpclient.keepalive.timeout
+ * - {@code simple}: the previous {@code HttpURLConnection} based factory
+ */
+@Configuration
+public class OpenRouterTransportConfig {
+
+    public static final String OPENROUTER_REQUEST_FACTORY = "openRouterRequestFactory";
+
+    @Bean(name = OPENROUTER_REQUEST_FACTORY)
+    public ClientHttpRequestFactory openRouterRequestFactory(OpenRouterProperties properties) {
+        Duration connectTimeout = Duration.ofMillis(Math.max(1, properties.getConnectTimeoutMs()));
+        Duration readTimeout = Duration.ofMillis(Math.max(1, properties.getTimeoutMs()));
+
+        if ("simple".equalsIgnoreCase(properties.getTransport())) {
+            SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+            factory.setConnectTimeout(connectTimeout);
+            factory.setReadTimeout(readTimeout);
+            return factory;
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(client);
+        factory.setReadTimeout(readTimeout);
+        return factory;
+    }
+}
@@ -0,0 +1,40 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the cache of authenticated users used by the JWT filter.
+ */
+@Component
+@ConfigurationProperties(prefix = "security.principal-cache")
+public class PrincipalCacheProperties {
+
+    private boolean enabled = true;
+    private long ttlMs = 30000; // upper bound for serving a user changed outside of the invalidating services
+    private int maxSize = 10000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public void setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,66 @@
+package pl.matgwiazda.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes read-only transactions to a read replica. Only active when {@code read-replica.url} is set; without it
+ * Boot's single {@code spring.datasource} pool serves everything.
+ *
+ * Contract:
+ * - {@code @Transactional(readOnly = true)} work (and read-only TransactionTemplates) runs on the replica pool;
+ *   everything else, including reads that join a read-write transaction, runs on the primary pool
+ * - the physical connection is taken on the first statement, once the transaction's read-only flag is known;
+ *   a transaction that never reaches the database takes no connection at all
+ * - read-only transactions run with Hibernate's FlushMode.MANUAL and read-only entities (no snapshots, no dirty
+ *   checking, no flush); replica connections are also read-only, so a stray write fails instead of diverging
+ * - Spring Data finders called outside a service transaction are read-only transactions of their own and read the
+ *   replica too; read-modify-write flows must run in a read-write transaction
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "read-replica", name = "url")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(ReadReplicaProperties replica, DataSourceProperties primary) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(primary.determineDriverClassName());
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername());
+        dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword());
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * The DataSource JPA, JdbcTemplate and the transaction manager use: a lazy proxy over the primary pool that
+     * hands out a replica connection when the transaction marked it read-only before first use.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") HikariDataSource replica) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(replica);
+        return routing;
+    }
+}
@@ -0,0 +1,49 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the optional read replica pool (see {@link ReadReplicaDataSourceConfig}).
+ */
+@Component
+@ConfigurationProperties(prefix = "read-replica")
+public class ReadReplicaProperties {
+
+    private String url; // unset = no replica, every transaction uses spring.datasource
+    private String username; // null = spring.datasource.username
+    private String password; // null = spring.datasource.password
+    private int maximumPoolSize = 10;
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+}
@@ -0,0 +1,49 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for duplicate detection of generated tasks.
+ */
+@Component
+@ConfigurationProperties(prefix = "task-dedupe")
+public class TaskDedupeProperties {
+
+    private boolean enabled = true;
+    private long expectedTasks = 1_000_000; // Bloom filter sizing
+    private double falsePositiveRate = 0.01; // share of new fingerprints that still need a DB lookup
+    private int maxRerolls = 2; // extra AI calls when a user-facing generation returns a duplicate
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getExpectedTasks() {
+        return expectedTasks;
+    }
+
+    public void setExpectedTasks(long expectedTasks) {
+        this.expectedTasks = expectedTasks;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public int getMaxRerolls() {
+        return maxRerolls;
+    }
+
+    public void setMaxRerolls(int maxRerolls) {
+        this.maxRerolls = maxRerolls;
+    }
+}
@@ -0,0 +1,58 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for asynchronous task generation jobs and their executor.
+ */
+@Component
+@ConfigurationProperties(prefix = "task-generation.jobs")
+public class TaskGenerationJobProperties {
+
+    private int corePoolSize = 8;
+    private int maxPoolSize = 32;
+    private int queueCapacity = 500;
+    private long ttlMs = 600000; // finished jobs are kept for polling this long
+    private long sseTimeoutMs = 60000;
+
+    public int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    public void setCorePoolSize(int corePoolSize) {
+        this.corePoolSize = corePoolSize;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public void setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    public long getSseTimeoutMs() {
+        return sseTimeoutMs;
+    }
+
+    public void setSseTimeoutMs(long sseTimeoutMs) {
+        this.sseTimeoutMs = sseTimeoutMs;
+    }
+}
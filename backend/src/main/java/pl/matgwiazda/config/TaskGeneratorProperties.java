@@ -0,0 +1,40 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the task generator chain (AI first, local fallback).
+ */
+@Component
+@ConfigurationProperties(prefix = "task-generator")
+public class TaskGeneratorProperties {
+
+    private long aiDeadlineMs = 15000; // budget for remote generators per task, re-rolls included
+    private boolean proceduralEnabled = true; // local arithmetic generator as fallback
+    private int maxRemoteCalls = 32; // remote generator calls in flight, abandoned ones included; beyond it requests fall back
+
+    public long getAiDeadlineMs() {
+        return aiDeadlineMs;
+    }
+
+    public void setAiDeadlineMs(long aiDeadlineMs) {
+        this.aiDeadlineMs = aiDeadlineMs;
+    }
+
+    public int getMaxRemoteCalls() {
+        return maxRemoteCalls;
+    }
+
+    public void setMaxRemoteCalls(int maxRemoteCalls) {
+        this.maxRemoteCalls = maxRemoteCalls;
+    }
+
+    public boolean isProceduralEnabled() {
+        return proceduralEnabled;
+    }
+
+    public void setProceduralEnabled(boolean proceduralEnabled) {
+        this.proceduralEnabled = proceduralEnabled;
+    }
+}
@@ -0,0 +1,63 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the pre-generated task pool.
+ */
+@Component
+@ConfigurationProperties(prefix = "task-pool")
+public class TaskPoolProperties {
+
+    public static final int MAX_BATCH_SIZE = 10; // maxItems of the batch prompt template (math_batch_v1)
+
+    private boolean enabled = true;
+    private int targetSize = 20; // ready, unassigned tasks kept per learning level
+    private int maxGenerationsPerRun = 10; // upper bound of AI calls per level in a single refill run
+    private long refillIntervalMs = 60000;
+    private int batchSize = 5; // tasks requested per AI call (1 = one task per call; batch templates allow up to 10)
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getTargetSize() {
+        return targetSize;
+    }
+
+    public void setTargetSize(int targetSize) {
+        this.targetSize = targetSize;
+    }
+
+    public int getMaxGenerationsPerRun() {
+        return maxGenerationsPerRun;
+    }
+
+    public void setMaxGenerationsPerRun(int maxGenerationsPerRun) {
+        this.maxGenerationsPerRun = maxGenerationsPerRun;
+    }
+
+    public long getRefillIntervalMs() {
+        return refillIntervalMs;
+    }
+
+    public void setRefillIntervalMs(long refillIntervalMs) {
+        this.refillIntervalMs = refillIntervalMs;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("task-pool.batch-size must be between 1 and " + MAX_BATCH_SIZE + ", was " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,67 @@
+package pl.matgwiazda.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for how answer points reach the users table.
+ */
+@Component
+@ConfigurationProperties(prefix = "user-stats")
+public class UserStatsProperties {
+
+    private boolean writeBehind = false; // true = submits leave users untouched; points are added by batched flushes
+    private long flushIntervalMs = 1000;
+    private int flushThreshold = 500; // pending submits that trigger a flush before the interval
+    private int flushBatchSize = 1000; // progress rows applied per statement
+    private long recoveryIntervalMs = 60000;
+    private long recoveryAgeMs = 60000; // owed rows older than this are applied by the sweep (e.g. after a crash)
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public int getFlushThreshold() {
+        return flushThreshold;
+    }
+
+    public void setFlushThreshold(int flushThreshold) {
+        this.flushThreshold = flushThreshold;
+    }
+
+    public int getFlushBatchSize() {
+        return flushBatchSize;
+    }
+
+    public void setFlushBatchSize(int flushBatchSize) {
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    public long getRecoveryIntervalMs() {
+        return recoveryIntervalMs;
+    }
+
+    public void setRecoveryIntervalMs(long recoveryIntervalMs) {
+        this.recoveryIntervalMs = recoveryIntervalMs;
+    }
+
+    public long getRecoveryAgeMs() {
+        return recoveryAgeMs;
+    }
+
+    public void setRecoveryAgeMs(long recoveryAgeMs) {
+        this.recoveryAgeMs = recoveryAgeMs;
+    }
+}
@@ -0,0 +1,33 @@
+package pl.matgwiazda.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pl.matgwiazda.dto.CacheRegionStatsDto;
+import pl.matgwiazda.service.CacheStatsService;
+
+import java.util.List;
+
+/**
+ * Admin view of the Hibernate second-level cache.
+ */
+@RestController
+@RequestMapping(path = "/api/v1/admin/cache", produces = MediaType.APPLICATION_JSON_VALUE)
+public class AdminCacheController {
+
+    private final CacheStatsService cacheStatsService;
+
+    public AdminCacheController(CacheStatsService cacheStatsService) {
+        this.cacheStatsService = cacheStatsService;
+    }
+
+    /**
+     * Hits, misses, puts and hit ratio per cache region on this node since startup.
+     */
+    @GetMapping(path = "/stats")
+    public ResponseEntity<List<CacheRegionStatsDto>> stats() {
+        return ResponseEntity.ok(cacheStatsService.regions());
+    }
+}
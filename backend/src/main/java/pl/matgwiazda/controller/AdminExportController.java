@@ -0,0 +1,55 @@
+package pl.matgwiazda.controller;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.matgwiazda.service.ExportService;
+
+/**
+ * Admin bulk exports, streamed as NDJSON (default) or CSV.
+ * Query params: ?format=ndjson|csv
+ */
+@RestController
+@RequestMapping(path = "/api/v1/admin/export")
+public class AdminExportController {
+
+    private final ExportService exportService;
+
+    public AdminExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * All progress rows.
+     */
+    @GetMapping(path = "/progress")
+    public ResponseEntity<StreamingResponseBody> exportProgress(
+            @RequestParam(name = "format", defaultValue = "ndjson") String format
+    ) {
+        return export(ExportService.Dataset.PROGRESS, ExportService.Format.parse(format));
+    }
+
+    /**
+     * All task rows, including inactive and pooled ones.
+     */
+    @GetMapping(path = "/tasks")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(name = "format", defaultValue = "ndjson") String format
+    ) {
+        return export(ExportService.Dataset.TASKS, ExportService.Format.parse(format));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(ExportService.Dataset dataset, ExportService.Format format) {
+        StreamingResponseBody body = exportService.export(dataset, format);
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(dataset.fileName(format)).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,74 @@
+package pl.matgwiazda.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import pl.matgwiazda.dto.openrouter.ModelRouteDto;
+import pl.matgwiazda.dto.openrouter.OpenRouterStatusDto;
+import pl.matgwiazda.dto.openrouter.PromptTemplateDto;
+import pl.matgwiazda.exception.OpenRouterException;
+import pl.matgwiazda.service.openrouter.ModelRouter;
+import pl.matgwiazda.service.openrouter.OpenRouterHttpClient;
+import pl.matgwiazda.service.openrouter.PromptTemplateRegistry;
+
+import java.util.List;
+
+/**
+ * Admin endpoints for the OpenRouter integration.
+ */
+@RestController
+@RequestMapping(path = "/api/v1/admin/openrouter", produces = MediaType.APPLICATION_JSON_VALUE)
+public class AdminOpenRouterController {
+
+    private final PromptTemplateRegistry promptTemplates;
+    private final OpenRouterHttpClient httpClient;
+    private final ModelRouter modelRouter;
+
+    public AdminOpenRouterController(PromptTemplateRegistry promptTemplates, OpenRouterHttpClient httpClient, ModelRouter modelRouter) {
+        this.promptTemplates = promptTemplates;
+        this.httpClient = httpClient;
+        this.modelRouter = modelRouter;
+    }
+
+    /**
+     * Circuit breaker state and concurrency limit of OpenRouter calls.
+     */
+    @GetMapping(path = "/status")
+    public ResponseEntity<OpenRouterStatusDto> status() {
+        return ResponseEntity.ok(httpClient.status());
+    }
+
+    /**
+     * Candidate models with their latency, error rate and health as seen by the router.
+     */
+    @GetMapping(path = "/models")
+    public ResponseEntity<List<ModelRouteDto>> models() {
+        return ResponseEntity.ok(modelRouter.stats());
+    }
+
+    /**
+     * Prompt templates currently used for generation.
+     */
+    @GetMapping(path = "/prompt-templates")
+    public ResponseEntity<List<PromptTemplateDto>> listPromptTemplates() {
+        return ResponseEntity.ok(promptTemplates.list());
+    }
+
+    /**
+     * Re-read prompt templates from openrouter.template-locations. An invalid template is rejected with 422
+     * and the templates loaded before stay active.
+     */
+    @PostMapping(path = "/prompt-templates/reload")
+    public ResponseEntity<List<PromptTemplateDto>> reloadPromptTemplates() {
+        try {
+            return ResponseEntity.ok(promptTemplates.reload());
+        } catch (OpenRouterException ex) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage());
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package pl.matgwiazda.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -14,6 +16,7 @@ import pl.matgwiazda.dto.AuthLoginCommand;
 import pl.matgwiazda.dto.AuthRefreshCommand;
 import pl.matgwiazda.dto.AuthRegisterCommand;
 import pl.matgwiazda.dto.AuthResponseDto;
+import pl.matgwiazda.security.AuthenticatedUser;
 import pl.matgwiazda.service.AuthService;
 
 /**
@@ -45,11 +48,11 @@ public class AuthController {
     }
 
     /**
-     * Login and obtain JWT tokens.
+     * Login and obtain JWT tokens. Throttled per email and per client address (429 when exceeded).
      */
     @PostMapping(path = "/login", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<AuthResponseDto> login(@Valid @RequestBody AuthLoginCommand cmd) {
-        AuthResponseDto resp = authService.login(cmd);
+    public ResponseEntity<AuthResponseDto> login(@Valid @RequestBody AuthLoginCommand cmd, HttpServletRequest request) {
+        AuthResponseDto resp = authService.login(cmd, request.getRemoteAddr());
         return ResponseEntity.ok(resp);
     }
 
@@ -61,4 +64,13 @@ public class AuthController {
         AuthResponseDto resp = authService.refresh(cmd);
         return ResponseEntity.ok(resp);
     }
+
+    /**
+     * Revoke the access token sent with this request.
+     */
+    @PostMapping(path = "/logout")
+    public ResponseEntity<Void> logout(@AuthenticationPrincipal AuthenticatedUser principal) {
+        authService.logout(principal);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -6,6 +6,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import pl.matgwiazda.dto.KeysetPageDto;
 import pl.matgwiazda.dto.ProgressDto;
 import pl.matgwiazda.dto.ProgressSubmitCommand;
 import pl.matgwiazda.dto.ProgressSubmitResponseDto;
@@ -38,6 +39,19 @@ public class ProgressController {
         return ResponseEntity.status(HttpStatus.CREATED).body(resp);
     }
 
+    /**
+     * List progress attempts for the current user, newest first, one page at a time.
+     * Query params: ?limit=20&cursor={nextCursor of the previous page}
+     */
+    @GetMapping
+    public ResponseEntity<KeysetPageDto<ProgressDto>> listProgress(
+            @RequestHeader(name = "X-User-Id", required = true) UUID userId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(progressService.listProgress(userId, cursor, limit));
+    }
+
     /**
      * List ALL progress attempts for the current user (no pagination).
      * Returns all progress entries for the user without filters.
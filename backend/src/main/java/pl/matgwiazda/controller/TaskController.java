@@ -1,18 +1,27 @@
 package pl.matgwiazda.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pl.matgwiazda.dto.KeysetPageDto;
 import pl.matgwiazda.dto.TaskDto;
+import pl.matgwiazda.dto.TaskFilter;
 import pl.matgwiazda.dto.TaskGenerateCommand;
+import pl.matgwiazda.dto.TaskGenerationJobDto;
 import pl.matgwiazda.dto.TaskWithProgressDto;
+import pl.matgwiazda.service.TaskGenerationJobService;
 import pl.matgwiazda.service.TaskService;
 
+import java.net.URI;
+import java.time.Instant;
 import java.util.UUID;
 
 @RestController
@@ -20,10 +29,12 @@ import java.util.UUID;
 public class TaskController {
 
     private final TaskService taskService;
+    private final TaskGenerationJobService jobService;
 
     @Autowired
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskGenerationJobService jobService) {
         this.taskService = taskService;
+        this.jobService = jobService;
     }
 
     /**
@@ -38,21 +49,80 @@ public class TaskController {
         return ResponseEntity.status(HttpStatus.CREATED).body(generated);
     }
 
+    /**
+     * Start task generation in the background (?mode=async). Returns 202 Accepted with the job state;
+     * poll GET /api/v1/tasks/jobs/{jobId} or subscribe to GET /api/v1/tasks/jobs/{jobId}/events for the result.
+     */
+    @PostMapping(path = "/generate", params = "mode=async", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TaskGenerationJobDto> generateTaskAsync(
+            @RequestHeader(name = "X-User-Id", required = true) UUID userId,
+            @Valid @RequestBody(required = true) TaskGenerateCommand cmd) {
+        TaskGenerationJobDto job = jobService.submit(cmd, userId);
+        return ResponseEntity.accepted().location(URI.create("/api/v1/tasks/jobs/" + job.getJobId())).body(job);
+    }
+
+    /**
+     * Get the state of an asynchronous generation job owned by the caller.
+     */
+    @GetMapping(path = "/jobs/{jobId}")
+    public ResponseEntity<TaskGenerationJobDto> getJob(
+            @RequestHeader(name = "X-User-Id", required = true) UUID userId,
+            @PathVariable("jobId") UUID jobId) {
+        return ResponseEntity.ok(jobService.getJob(jobId, userId));
+    }
+
+    /**
+     * Server-sent events for an asynchronous generation job: `status` now, then `completed` or `failed`.
+     */
+    @GetMapping(path = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJob(
+            @RequestHeader(name = "X-User-Id", required = true) UUID userId,
+            @PathVariable("jobId") UUID jobId,
+            HttpServletResponse response) {
+        // nginx buffers proxied responses by default, which would hold `status` back until the job ends
+        response.setHeader("X-Accel-Buffering", "no");
+        return jobService.subscribe(jobId, userId);
+    }
+
     /**
      * List tasks with optional filters and pagination.
-     * Query params: ?level=1&isActive=true&createdById={uuid}&page=0&size=20&sort=createdAt,desc
+     * Query params: ?level=1&isActive=true&createdById={uuid}&createdFrom=2025-01-01T00:00:00Z&createdTo=...&q=text
+     * &page=0&size=20&sort=createdAt,desc
      */
     @GetMapping
     public ResponseEntity<Page<TaskDto>> listTasks(
             @RequestParam(name = "level", required = false) Short level,
             @RequestParam(name = "isActive", required = false) Boolean isActive,
             @RequestParam(name = "createdById", required = false) UUID createdById,
+            @RequestParam(name = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdFrom,
+            @RequestParam(name = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdTo,
+            @RequestParam(name = "q", required = false) String text,
             Pageable pageable
     ) {
-        Page<TaskDto> page = taskService.listTasks(level, isActive, createdById, pageable);
+        TaskFilter filter = new TaskFilter(level, isActive, createdById, createdFrom, createdTo, text);
+        Page<TaskDto> page = taskService.listTasks(filter, pageable);
         return ResponseEntity.ok(page);
     }
 
+    /**
+     * Same filters as the list, newest first, without a total count (infinite scroll).
+     * Query params: the list filters plus ?limit=20&cursor={nextCursor of the previous page}
+     */
+    @GetMapping(path = "/scroll")
+    public ResponseEntity<KeysetPageDto<TaskDto>> scrollTasks(
+            @RequestParam(name = "level", required = false) Short level,
+            @RequestParam(name = "isActive", required = false) Boolean isActive,
+            @RequestParam(name = "createdById", required = false) UUID createdById,
+            @RequestParam(name = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdFrom,
+            @RequestParam(name = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdTo,
+            @RequestParam(name = "q", required = false) String text,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        TaskFilter filter = new TaskFilter(level, isActive, createdById, createdFrom, createdTo, text);
+        return ResponseEntity.ok(taskService.scrollTasks(filter, cursor, limit));
+    }
+
     /**
      * Get a single active task by id.
      */
@@ -7,9 +7,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
-import pl.matgwiazda.domain.entity.User;
 import pl.matgwiazda.dto.UserDto;
 import pl.matgwiazda.dto.UserUpdateCommand;
+import pl.matgwiazda.security.AuthenticatedUser;
 import pl.matgwiazda.service.UserService;
 
 import java.util.UUID;
@@ -28,20 +28,21 @@ public class UsersController {
     }
 
     @GetMapping(path = "/me")
-    public ResponseEntity<UserDto> getMe(@AuthenticationPrincipal User user) {
+    public ResponseEntity<UserDto> getMe(@AuthenticationPrincipal AuthenticatedUser user) {
         if (user == null) {
             throw new ResponseStatusException(UNAUTHORIZED, "Authentication required");
         }
-        UserDto dto = userService.getUserDtoFromEntity(user);
+        // the principal holds only token data; points, stars and level come from the database
+        UserDto dto = userService.getUserDtoById(user.id());
         return ResponseEntity.ok(dto);
     }
 
     @PatchMapping(path = "/me", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<UserDto> updateMe(@AuthenticationPrincipal User user, @Valid @RequestBody UserUpdateCommand cmd) {
+    public ResponseEntity<UserDto> updateMe(@AuthenticationPrincipal AuthenticatedUser user, @Valid @RequestBody UserUpdateCommand cmd) {
         if (user == null) {
             throw new ResponseStatusException(UNAUTHORIZED, "Authentication required");
         }
-        UserDto dto = userService.updateUser(user.getId(), cmd);
+        UserDto dto = userService.updateUser(user.id(), cmd);
         return ResponseEntity.ok(dto);
     }
 
@@ -52,11 +53,11 @@ public class UsersController {
     }
 
     @DeleteMapping(path = "/me")
-    public ResponseEntity<Void> deleteMe(@AuthenticationPrincipal User user) {
+    public ResponseEntity<Void> deleteMe(@AuthenticationPrincipal AuthenticatedUser user) {
         if (user == null) {
             throw new ResponseStatusException(UNAUTHORIZED, "Authentication required");
         }
-        userService.deactivateUser(user.getId());
+        userService.deactivateUser(user.id());
         return ResponseEntity.noContent().build();
     }
 }
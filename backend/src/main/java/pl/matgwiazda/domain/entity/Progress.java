@@ -43,6 +43,10 @@ public class Progress {
     @Column(name = "finalized", nullable = false)
     private boolean finalized = false;
 
+    // false while pointsAwarded is not yet added to the user's points (write-behind stats)
+    @Column(name = "stats_applied", nullable = false, columnDefinition = "boolean default true")
+    private boolean statsApplied = true;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -140,6 +144,9 @@ public class Progress {
     public boolean isFinalized() { return finalized; }
     public void setFinalized(boolean finalized) { this.finalized = finalized; }
 
+    public boolean isStatsApplied() { return statsApplied; }
+    public void setStatsApplied(boolean statsApplied) { this.statsApplied = statsApplied; }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,83 @@
+package pl.matgwiazda.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A chain of refresh tokens started by one login. Only the token with {@code currentTokenId} may be exchanged;
+ * each exchange replaces it, so presenting an older token of the family means it was copied.
+ */
+@Entity
+@Table(name = "refresh_token_families")
+public class RefreshTokenFamily {
+
+    @Id
+    @Column(name = "id", columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "user_id", columnDefinition = "uuid", nullable = false)
+    private UUID userId;
+
+    @Column(name = "current_token_id", columnDefinition = "uuid", nullable = false)
+    private UUID currentTokenId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "rotated_at")
+    private Instant rotatedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+
+    @Column(name = "revoke_reason", length = 32)
+    private String revokeReason;
+
+    public RefreshTokenFamily() {
+    }
+
+    public RefreshTokenFamily(UUID id, UUID userId, UUID currentTokenId, Instant expiresAt) {
+        this.id = id;
+        this.userId = userId;
+        this.currentTokenId = currentTokenId;
+        this.expiresAt = expiresAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = Instant.now();
+    }
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+
+    public UUID getCurrentTokenId() { return currentTokenId; }
+    public void setCurrentTokenId(UUID currentTokenId) { this.currentTokenId = currentTokenId; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getRotatedAt() { return rotatedAt; }
+    public void setRotatedAt(Instant rotatedAt) { this.rotatedAt = rotatedAt; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+
+    public Instant getRevokedAt() { return revokedAt; }
+    public void setRevokedAt(Instant revokedAt) { this.revokedAt = revokedAt; }
+
+    public String getRevokeReason() { return revokeReason; }
+    public void setRevokeReason(String revokeReason) { this.revokeReason = revokeReason; }
+}
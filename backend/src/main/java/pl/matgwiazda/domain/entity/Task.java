@@ -1,6 +1,8 @@
 package pl.matgwiazda.domain.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -9,8 +11,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+// read-mostly: content never changes after insert; pooled flips once through the entity when claimed, is_active
+// flips once in the native submit statement, so ProgressService evicts the row after the submit commits
 @Entity
-@Table(name = "tasks")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tasks")
+@Table(name = "tasks", indexes = @Index(name = "ux_tasks_fingerprint", columnList = "fingerprint", unique = true))
 public class Task {
 
     @Id
@@ -42,6 +48,14 @@ public class Task {
     @Column(name = "is_active", nullable = false)
     private boolean isActive = true;
 
+    // true while the task sits in the pre-generated pool and has not been handed out to a user yet
+    @Column(name = "pooled", nullable = false, columnDefinition = "boolean default false")
+    private boolean pooled = false;
+
+    // SHA-256 of the normalized prompt and sorted options (see TaskFingerprint); null for tasks that are not deduplicated
+    @Column(name = "fingerprint", length = 64)
+    private String fingerprint;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -128,6 +142,14 @@ public class Task {
         isActive = active;
     }
 
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    public void setPooled(boolean pooled) {
+        this.pooled = pooled;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -143,4 +165,12 @@ public class Task {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
 }
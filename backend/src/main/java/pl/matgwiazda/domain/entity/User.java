@@ -9,12 +9,16 @@ import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.DynamicUpdate;
 import pl.matgwiazda.domain.enums.UserRole;
 
 import java.time.Instant;
 import java.util.UUID;
 
+// points, stars and level are written set-based (submit, write-behind flush) outside this entity; an UPDATE of a
+// loaded user must only touch the columns it changed, or it writes a stale read of them back
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 public class User {
 
@@ -60,6 +64,14 @@ public class User {
     @Column(name = "active_progress_id", columnDefinition = "uuid")
     private UUID activeProgressId;
 
+    // tokens with a lower "ver" claim are revoked
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion = 0;
+
+    // when tokenVersion was last raised; the raise matters only until the access tokens issued before it expire
+    @Column(name = "token_version_changed_at")
+    private Instant tokenVersionChangedAt;
+
     public User() {
     }
 
@@ -114,4 +126,10 @@ public class User {
 
     public UUID getActiveProgressId() { return activeProgressId; }
     public void setActiveProgressId(UUID activeProgressId) { this.activeProgressId = activeProgressId; }
+
+    public int getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(int tokenVersion) { this.tokenVersion = tokenVersion; }
+
+    public Instant getTokenVersionChangedAt() { return tokenVersionChangedAt; }
+    public void setTokenVersionChangedAt(Instant tokenVersionChangedAt) { this.tokenVersionChangedAt = tokenVersionChangedAt; }
 }
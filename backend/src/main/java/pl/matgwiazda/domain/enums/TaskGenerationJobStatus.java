@@ -0,0 +1,12 @@
+package pl.matgwiazda.domain.enums;
+
+public enum TaskGenerationJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
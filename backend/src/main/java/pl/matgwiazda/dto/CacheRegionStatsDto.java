@@ -0,0 +1,15 @@
+package pl.matgwiazda.dto;
+
+/**
+ * Second-level cache counters of one region since startup, on the node that answered (admin view).
+ * {@code hitRatio} is null before the first lookup; {@code entriesInMemory} is null when the provider does not report it.
+ */
+public record CacheRegionStatsDto(
+        String region,
+        long hits,
+        long misses,
+        long puts,
+        Double hitRatio,
+        Long entriesInMemory
+) {
+}
@@ -0,0 +1,25 @@
+package pl.matgwiazda.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is passed back as {@code cursor} to read the next
+ * page and is null on the last page.
+ */
+public class KeysetPageDto<T> {
+    private List<T> items;
+    private String nextCursor;
+
+    public KeysetPageDto() {}
+
+    public KeysetPageDto(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,15 @@
+package pl.matgwiazda.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Optional filters of the task listings; a null field does not restrict the result.
+ * {@code createdFrom} is inclusive, {@code createdTo} exclusive; {@code text} matches the prompt case-insensitively.
+ */
+public record TaskFilter(Short level, Boolean isActive, UUID createdById, Instant createdFrom, Instant createdTo, String text) {
+
+    public static TaskFilter none() {
+        return new TaskFilter(null, null, null, null, null, null);
+    }
+}
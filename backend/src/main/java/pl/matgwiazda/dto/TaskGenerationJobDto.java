@@ -0,0 +1,48 @@
+package pl.matgwiazda.dto;
+
+import pl.matgwiazda.domain.enums.TaskGenerationJobStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * State of an asynchronous task generation job (POST /api/v1/tasks/generate?mode=async).
+ * `result` is present once the job is COMPLETED, `error` once it FAILED.
+ */
+public class TaskGenerationJobDto {
+    private UUID jobId;
+    private TaskGenerationJobStatus status;
+    private TaskWithProgressDto result;
+    private String error;
+    private Instant createdAt;
+    private Instant completedAt;
+
+    public TaskGenerationJobDto() {}
+
+    public TaskGenerationJobDto(UUID jobId, TaskGenerationJobStatus status, TaskWithProgressDto result, String error, Instant createdAt, Instant completedAt) {
+        this.jobId = jobId;
+        this.status = status;
+        this.result = result;
+        this.error = error;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+    }
+
+    public UUID getJobId() { return jobId; }
+    public void setJobId(UUID jobId) { this.jobId = jobId; }
+
+    public TaskGenerationJobStatus getStatus() { return status; }
+    public void setStatus(TaskGenerationJobStatus status) { this.status = status; }
+
+    public TaskWithProgressDto getResult() { return result; }
+    public void setResult(TaskWithProgressDto result) { this.result = result; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Instant completedAt) { this.completedAt = completedAt; }
+}
@@ -1,10 +1,12 @@
 package pl.matgwiazda.dto.openrouter;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.JsonNode;
 import java.util.List;
 
 /**
  * DTO for the OpenRouter chat/completions request payload.
+ * {@code provider} pins the upstream provider(s) of the model and is omitted when null.
  */
 public record ChatCompletionRequest(
         String model,
@@ -12,7 +14,18 @@ public record ChatCompletionRequest(
         Double top_p,
         Integer max_tokens,
         List<ChatMessage> messages,
-        JsonNode response_format
+        JsonNode response_format,
+        @JsonInclude(JsonInclude.Include.NON_NULL) ProviderPreferences provider
 ) {
-}
 
+    public ChatCompletionRequest(String model, Double temperature, Double top_p, Integer max_tokens,
+                                 List<ChatMessage> messages, JsonNode response_format) {
+        this(model, temperature, top_p, max_tokens, messages, response_format, null);
+    }
+
+    /**
+     * OpenRouter provider routing: try the providers in {@code order}; with {@code allow_fallbacks=false} no others.
+     */
+    public record ProviderPreferences(List<String> order, Boolean allow_fallbacks) {
+    }
+}
@@ -0,0 +1,19 @@
+package pl.matgwiazda.dto.openrouter;
+
+import java.util.List;
+
+/**
+ * Routing statistics of one candidate model (admin view). Latencies are null until the model answered once.
+ */
+public record ModelRouteDto(
+        String model,
+        List<String> providers,
+        double costPerMillionTokens,
+        Double ewmaLatencyMs,
+        Long p95LatencyMs,
+        double errorRate,
+        long calls,
+        long failures,
+        boolean healthy
+) {
+}
@@ -0,0 +1,17 @@
+package pl.matgwiazda.dto.openrouter;
+
+import java.time.Instant;
+
+/**
+ * Health of the OpenRouter integration (admin view).
+ */
+public record OpenRouterStatusDto(
+        String circuitState,
+        int consecutiveFailures,
+        Instant openUntil,
+        long circuitRejectedCalls,
+        int concurrencyLimit,
+        int inFlight,
+        long limiterRejectedCalls
+) {
+}
@@ -0,0 +1,24 @@
+package pl.matgwiazda.dto.openrouter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * A prompt template as stored in {@code openrouter/templates/*.json}.
+ * The {@code userPrompt} must contain the {@code {{seed}}} placeholder; batch templates ({@code mode = "batch"})
+ * also {@code {{count}}} and ask for a {@code tasks} array.
+ */
+public record PromptTemplateDefinition(
+        String id,
+        Integer version,
+        String mode,
+        List<Short> levels,
+        String systemPrompt,
+        String userPrompt,
+        Double temperature,
+        Double topP,
+        Integer maxTokens,
+        JsonNode responseFormat
+) {
+}
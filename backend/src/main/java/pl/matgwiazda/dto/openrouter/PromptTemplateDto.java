@@ -0,0 +1,9 @@
+package pl.matgwiazda.dto.openrouter;
+
+import java.util.List;
+
+/**
+ * Summary of a loaded prompt template (admin view).
+ */
+public record PromptTemplateDto(String id, int version, String mode, List<Short> levels, String source) {
+}
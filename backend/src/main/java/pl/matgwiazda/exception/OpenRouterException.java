@@ -1,16 +1,26 @@
-// ...existing code...
 package pl.matgwiazda.exception;
 
 /**
  * Custom runtime exception for OpenRouter/AI integration errors.
  */
 public class OpenRouterException extends RuntimeException {
+
+    private final int status; // HTTP status of the OpenRouter response, 0 when there was none
+
     public OpenRouterException(String message) {
-        super(message);
+        this(message, 0, null);
     }
 
     public OpenRouterException(String message, Throwable cause) {
+        this(message, 0, cause);
+    }
+
+    public OpenRouterException(String message, int status, Throwable cause) {
         super(message, cause);
+        this.status = status;
     }
-}
 
+    public int getStatus() {
+        return status;
+    }
+}
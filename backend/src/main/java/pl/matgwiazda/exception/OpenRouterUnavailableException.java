@@ -0,0 +1,11 @@
+package pl.matgwiazda.exception;
+
+/**
+ * OpenRouter was not called at all: the circuit breaker is open or no concurrency slot was free in time.
+ */
+public class OpenRouterUnavailableException extends OpenRouterException {
+
+    public OpenRouterUnavailableException(String message) {
+        super(message);
+    }
+}
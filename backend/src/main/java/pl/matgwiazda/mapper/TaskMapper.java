@@ -6,6 +6,7 @@ import org.mapstruct.Named;
 import pl.matgwiazda.domain.entity.Task;
 import pl.matgwiazda.dto.TaskDto;
 import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.repository.TaskRow;
 
 @Mapper(componentModel = "spring")
 public interface TaskMapper {
@@ -16,12 +17,16 @@ public interface TaskMapper {
     @Mapping(source = "correctOptionIndex", target = "correctOptionIndex", qualifiedByName = "shortToInteger")
     TaskDto toDto(Task task);
 
+    // Map a read-only projection to DTO; createdById is already the FK and Short -> Integer is a built-in conversion
+    TaskDto rowToDto(TaskRow row);
+
     // Map DTO -> Entity for admin operations. We ignore createdBy and audit fields so the service
     // layer can control associations and persistence-related fields (Single Responsibility).
     @Mapping(target = "createdBy", ignore = true)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "fingerprint", ignore = true)
     Task toEntity(TaskDto dto);
 
     // Map AiTaskResult -> Task entity. Convert correctIndex (int) -> correctOptionIndex (short).
@@ -30,6 +35,7 @@ public interface TaskMapper {
     @Mapping(target = "createdBy", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "fingerprint", ignore = true)
     @Mapping(source = "correctIndex", target = "correctOptionIndex", qualifiedByName = "intToShort")
     Task fromAiResult(AiTaskResult ai);
 
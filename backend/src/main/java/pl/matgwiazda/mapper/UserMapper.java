@@ -16,12 +16,16 @@ public interface UserMapper {
     @Mapping(target = "password", ignore = true)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "activeProgressId", ignore = true)
+    @Mapping(target = "tokenVersion", ignore = true)
+    @Mapping(target = "tokenVersionChangedAt", ignore = true)
     User toEntity(UserDto dto);
 
     @SuppressWarnings("unused")
     @Mapping(target = "password", ignore = true)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "activeProgressId", ignore = true)
+    @Mapping(target = "tokenVersion", ignore = true)
+    @Mapping(target = "tokenVersionChangedAt", ignore = true)
     User fromRegister(AuthRegisterCommand cmd);
 
     // Map role enum to String for DTO
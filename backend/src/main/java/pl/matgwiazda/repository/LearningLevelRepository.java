@@ -1,10 +1,22 @@
 package pl.matgwiazda.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import pl.matgwiazda.domain.entity.LearningLevel;
 
+import java.util.List;
+
 @Repository
 public interface LearningLevelRepository extends JpaRepository<LearningLevel, Short> {
-}
 
+    String QUERY_CACHE_REGION = "learning-levels-query";
+
+    // Served from the query cache until learning_levels is written (the rows themselves from the entity cache)
+    @Override
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
+    List<LearningLevel> findAll();
+}
@@ -1,14 +1,19 @@
 package pl.matgwiazda.repository;
 
-import jakarta.persistence.LockModeType;
-import org.springframework.data.domain.Sort;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.matgwiazda.domain.entity.Progress;
+import pl.matgwiazda.dto.ProgressDto;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,12 +24,215 @@ public interface ProgressRepository extends JpaRepository<Progress, UUID> {
     // find existing progress for a user/task (optional)
     Optional<Progress> findByUserIdAndTaskId(UUID userId, UUID taskId);
 
-    // Non-paged variants for endpoints that return all items
-    List<Progress> findByUserId(UUID userId, Sort sort);
+    /**
+     * The user's progress entries as DTOs, newest first (ties broken by id), read through
+     * idx_progress_user_created_at_id without instantiating entities or touching their associations.
+     */
+    @Query("""
+            select new pl.matgwiazda.dto.ProgressDto(p.id, p.user.id, p.task.id, p.attemptNumber, p.selectedOptionIndex,
+                   p.isCorrect, p.pointsAwarded, p.timeTakenMs, p.createdAt, p.updatedAt)
+              from Progress p
+             where p.user.id = :userId
+             order by p.createdAt desc, p.id desc
+            """)
+    List<ProgressDto> findDtosByUserId(@Param("userId") UUID userId, Limit limit);
 
-    // Locked finder for update flows (uses SELECT ... FOR UPDATE / DB row lock)
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("select p from Progress p where p.id = :id")
-    Optional<Progress> findByIdForUpdate(@Param("id") UUID id);
+    /**
+     * Keyset continuation of {@link #findDtosByUserId}: entries strictly after {@code (createdAt, id)} in that order.
+     */
+    @Query("""
+            select new pl.matgwiazda.dto.ProgressDto(p.id, p.user.id, p.task.id, p.attemptNumber, p.selectedOptionIndex,
+                   p.isCorrect, p.pointsAwarded, p.timeTakenMs, p.createdAt, p.updatedAt)
+              from Progress p
+             where p.user.id = :userId
+               and (p.createdAt, p.id) < (:createdAt, :id)
+             order by p.createdAt desc, p.id desc
+            """)
+    List<ProgressDto> findDtosByUserIdBefore(@Param("userId") UUID userId, @Param("createdAt") Instant createdAt,
+                                             @Param("id") UUID id, Limit limit);
 
+    /**
+     * Finalize a progress entry, award its points to the user (with the level-ups they cross) and deactivate
+     * the task, in one statement. Guarded by {@code finalized = false}: of concurrent submits of the same entry
+     * exactly one returns a row; the others, and submits of unknown or foreign entries, return nothing.
+     * Must run in a read-write transaction.
+     */
+    @Query(value = """
+            with submitted as (
+                update progress p
+                   set selected_option_index = cast(:selected as smallint),
+                       time_taken_ms = cast(:timeTakenMs as integer),
+                       is_correct = coalesce(t.correct_option_index = cast(:selected as smallint), false),
+                       points_awarded = case when t.correct_option_index = cast(:selected as smallint) then :pointsPerCorrect else 0 end,
+                       finalized = true,
+                       updated_at = now()
+                  from tasks t
+                 where p.id = :progressId
+                   and p.finalized = false
+                   and t.id = p.task_id
+                   and (cast(:userId as uuid) is null or p.user_id = cast(:userId as uuid))
+                returning p.id, p.user_id, p.task_id, p.is_correct, p.points_awarded, t.explanation
+            ), awarded as (
+                update users u
+                   set points = u.points + s.points_awarded,
+                       stars = u.stars + ((u.points + s.points_awarded) / :pointsPerLevel - u.points / :pointsPerLevel),
+                       current_level = u.current_level + ((u.points + s.points_awarded) / :pointsPerLevel - u.points / :pointsPerLevel),
+                       active_progress_id = null,
+                       updated_at = now()
+                  from submitted s
+                 where u.id = s.user_id
+                returning u.id, u.points, u.stars, u.current_level,
+                          u.points / :pointsPerLevel - (u.points - s.points_awarded) / :pointsPerLevel as levels_gained
+            ), deactivated as (
+                update tasks t
+                   set is_active = false,
+                       updated_at = now()
+                  from submitted s
+                 where t.id = s.task_id
+                   and t.is_active = true
+            )
+            select s.id as "progressId", s.user_id as "userId", s.task_id as "taskId", s.is_correct as "correct", s.points_awarded as "pointsAwarded",
+                   a.points as "userPoints", a.stars as "stars", a.current_level as "currentLevel",
+                   a.levels_gained as "levelsGained", s.explanation as "explanation"
+              from submitted s
+              join awarded a on a.id = s.user_id
+            """, nativeQuery = true)
+    Optional<SubmitResult> submit(@Param("progressId") UUID progressId, @Param("userId") UUID userId,
+                                  @Param("selected") Short selected, @Param("timeTakenMs") Integer timeTakenMs,
+                                  @Param("pointsPerCorrect") int pointsPerCorrect, @Param("pointsPerLevel") int pointsPerLevel);
+
+    /**
+     * Write-behind variant of {@link #submit}: finalizes the entry and deactivates the task but leaves the user row
+     * alone. A correct answer is marked {@code stats_applied = false} until its points are applied by
+     * {@link #applyPendingStats} or {@link #applyStalePendingStats}. Returns the user's stored (not yet
+     * incremented) points, stars and level, with {@code levelsGained = 0}.
+     */
+    @Query(value = """
+            with submitted as (
+                update progress p
+                   set selected_option_index = cast(:selected as smallint),
+                       time_taken_ms = cast(:timeTakenMs as integer),
+                       is_correct = coalesce(t.correct_option_index = cast(:selected as smallint), false),
+                       points_awarded = case when t.correct_option_index = cast(:selected as smallint) then :pointsPerCorrect else 0 end,
+                       stats_applied = not coalesce(t.correct_option_index = cast(:selected as smallint), false),
+                       finalized = true,
+                       updated_at = now()
+                  from tasks t
+                 where p.id = :progressId
+                   and p.finalized = false
+                   and t.id = p.task_id
+                   and (cast(:userId as uuid) is null or p.user_id = cast(:userId as uuid))
+                returning p.id, p.user_id, p.task_id, p.is_correct, p.points_awarded, t.explanation
+            ), deactivated as (
+                update tasks t
+                   set is_active = false,
+                       updated_at = now()
+                  from submitted s
+                 where t.id = s.task_id
+                   and t.is_active = true
+            )
+            select s.id as "progressId", s.user_id as "userId", s.task_id as "taskId", s.is_correct as "correct", s.points_awarded as "pointsAwarded",
+                   u.points as "userPoints", u.stars as "stars", u.current_level as "currentLevel",
+                   0 as "levelsGained", s.explanation as "explanation"
+              from submitted s
+              join users u on u.id = s.user_id
+            """, nativeQuery = true)
+    Optional<SubmitResult> submitDeferred(@Param("progressId") UUID progressId, @Param("userId") UUID userId,
+                                          @Param("selected") Short selected, @Param("timeTakenMs") Integer timeTakenMs,
+                                          @Param("pointsPerCorrect") int pointsPerCorrect);
+
+    /**
+     * Add the points of the given owed entries to their users (one UPDATE per user, with the level-ups crossed)
+     * and mark them applied. Entries already applied are skipped, so each is counted exactly once.
+     *
+     * @return number of users updated
+     */
+    // declared tables: without them Hibernate treats a native update as touching every table and clears the whole second-level cache
+    @Modifying
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "progress"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users")})
+    @Query(value = """
+            with applied as (
+                update progress
+                   set stats_applied = true
+                 where id in (:ids)
+                   and stats_applied = false
+                returning user_id, points_awarded
+            ), deltas as (
+                select user_id, sum(points_awarded) as delta from applied group by user_id
+            )
+            update users u
+               set points = u.points + d.delta,
+                   stars = u.stars + ((u.points + d.delta) / :pointsPerLevel - u.points / :pointsPerLevel),
+                   current_level = u.current_level + ((u.points + d.delta) / :pointsPerLevel - u.points / :pointsPerLevel),
+                   updated_at = now()
+              from deltas d
+             where u.id = d.user_id
+            """, nativeQuery = true)
+    int applyPendingStats(@Param("ids") Collection<UUID> ids, @Param("pointsPerLevel") int pointsPerLevel);
+
+    /**
+     * Same as {@link #applyPendingStats} for up to {@code limit} owed entries last updated before {@code cutoff},
+     * whichever node submitted them; rows locked by a concurrent flush are skipped.
+     *
+     * @return number of users updated
+     */
+    // declared tables: without them Hibernate treats a native update as touching every table and clears the whole second-level cache
+    @Modifying
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "progress"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users")})
+    @Query(value = """
+            with applied as (
+                update progress
+                   set stats_applied = true
+                 where id in (select id from progress
+                               where stats_applied = false and updated_at < :cutoff
+                               order by updated_at
+                               limit :limit
+                               for update skip locked)
+                returning user_id, points_awarded
+            ), deltas as (
+                select user_id, sum(points_awarded) as delta from applied group by user_id
+            )
+            update users u
+               set points = u.points + d.delta,
+                   stars = u.stars + ((u.points + d.delta) / :pointsPerLevel - u.points / :pointsPerLevel),
+                   current_level = u.current_level + ((u.points + d.delta) / :pointsPerLevel - u.points / :pointsPerLevel),
+                   updated_at = now()
+              from deltas d
+             where u.id = d.user_id
+            """, nativeQuery = true)
+    int applyStalePendingStats(@Param("cutoff") Instant cutoff, @Param("limit") int limit, @Param("pointsPerLevel") int pointsPerLevel);
+
+    // Why a submit matched nothing: missing, owned by someone else, or already finalized
+    @Query("select p.user.id as userId, p.finalized as finalized from Progress p where p.id = :id")
+    Optional<SubmitState> findSubmitState(@Param("id") UUID id);
+
+    interface SubmitResult {
+        UUID getProgressId();
+
+        UUID getUserId();
+
+        UUID getTaskId();
+
+        boolean getCorrect();
+
+        int getPointsAwarded();
+
+        int getUserPoints();
+
+        int getStars(); // after the level-ups of this submit
+
+        short getCurrentLevel();
+
+        int getLevelsGained();
+
+        String getExplanation();
+    }
+
+    interface SubmitState {
+        UUID getUserId();
+
+        boolean getFinalized();
+    }
 }
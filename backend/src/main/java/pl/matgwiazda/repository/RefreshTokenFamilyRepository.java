@@ -0,0 +1,39 @@
+package pl.matgwiazda.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.matgwiazda.domain.entity.RefreshTokenFamily;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, UUID> {
+
+    /**
+     * Replace the current token id when the presented one is still current and the family is live.
+     *
+     * @return 1 when rotated, 0 otherwise
+     */
+    @Modifying
+    @Query("update RefreshTokenFamily f set f.currentTokenId = :next, f.rotatedAt = :now, f.expiresAt = :expiresAt "
+            + "where f.id = :id and f.userId = :userId and f.currentTokenId = :presented "
+            + "and f.revokedAt is null and f.expiresAt > :now")
+    int rotate(@Param("id") UUID id, @Param("userId") UUID userId, @Param("presented") UUID presented,
+               @Param("next") UUID next, @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("update RefreshTokenFamily f set f.revokedAt = :now, f.revokeReason = :reason where f.id = :id and f.revokedAt is null")
+    int revoke(@Param("id") UUID id, @Param("now") Instant now, @Param("reason") String reason);
+
+    @Modifying
+    @Query("update RefreshTokenFamily f set f.revokedAt = :now, f.revokeReason = :reason where f.userId = :userId and f.revokedAt is null")
+    int revokeAllForUser(@Param("userId") UUID userId, @Param("now") Instant now, @Param("reason") String reason);
+
+    @Modifying
+    @Query("delete from RefreshTokenFamily f where f.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,38 +1,44 @@
 package pl.matgwiazda.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.matgwiazda.domain.entity.Task;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, UUID> {
+public interface TaskRepository extends JpaRepository<Task, UUID>, JpaSpecificationExecutor<Task>, TaskRowQueries {
 
-    // Paged query for level and active
-    Page<Task> findByLevelAndIsActive(short level, boolean isActive, Pageable pageable);
+    // Number of ready tasks in the pool for a level
+    long countByLevelAndPooled(short level, boolean pooled);
 
-    // Paged query for level only
-    Page<Task> findByLevel(short level, Pageable pageable);
+    // Oldest pooled task for a level, row-locked; concurrent claimers skip each other instead of waiting (uses idx_tasks_pool)
+    @Query(value = "select * from tasks where level = :level and pooled = true order by created_at limit 1 for update skip locked", nativeQuery = true)
+    Optional<Task> findPooledForClaim(@Param("level") short level);
 
-    // Paged query for level and createdBy
-    Page<Task> findByLevelAndCreatedById(short level, UUID createdById, Pageable pageable);
+    // Random assigned (non-pooled) active task of a level; used as a fallback when AI generation is unavailable
+    @Query(value = "select * from tasks where level = :level and is_active = true and pooled = false "
+            + "offset floor(random() * (select count(*) from tasks where level = :level and is_active = true and pooled = false)) limit 1",
+            nativeQuery = true)
+    Optional<Task> findRandomStoredByLevel(@Param("level") short level);
 
-    // Paged query for level, createdBy and isActive
-    Page<Task> findByLevelAndCreatedByIdAndIsActive(short level, UUID createdById, boolean isActive, Pageable pageable);
+    boolean existsByFingerprint(String fingerprint);
 
-    // Paged query for active/inactive tasks
-    Page<Task> findByIsActive(boolean isActive, Pageable pageable);
+    @Query("select t.fingerprint from Task t where t.fingerprint in :fingerprints")
+    List<String> findExistingFingerprints(@Param("fingerprints") Collection<String> fingerprints);
 
-    // Paged tasks created by a specific user
-    Page<Task> findByCreatedById(UUID createdById, Pageable pageable);
-
-    // Paged tasks created by a specific user and active flag
-    Page<Task> findByCreatedByIdAndIsActive(UUID createdById, boolean isActive, Pageable pageable);
-
-    // Find active task by id
-    Optional<Task> findByIdAndIsActive(UUID id, boolean isActive);
+    // Must run in a transaction; streamed so that loading the dedupe filter does not materialize all rows
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select t.fingerprint from Task t where t.fingerprint is not null")
+    Stream<String> streamFingerprints();
 }
@@ -0,0 +1,14 @@
+package pl.matgwiazda.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read-only projection of a task with the columns {@link pl.matgwiazda.dto.TaskDto} needs; the creator is the
+ * {@code created_by} foreign key, not an association. Selected with constructor expressions, so listing tasks
+ * puts nothing into the persistence context.
+ */
+public record TaskRow(UUID id, Short level, String prompt, List<String> options, Short correctOptionIndex,
+                      String explanation, UUID createdById, Boolean active, Instant createdAt, Instant updatedAt) {
+}
@@ -0,0 +1,25 @@
+package pl.matgwiazda.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import pl.matgwiazda.domain.entity.Task;
+
+import java.util.List;
+
+/**
+ * Dynamic task queries that return {@link TaskRow} projections instead of entities.
+ */
+public interface TaskRowQueries {
+
+    /**
+     * Up to {@code limit} rows matching {@code spec}, in {@code sort} order.
+     */
+    List<TaskRow> findRows(Specification<Task> spec, Sort sort, int limit);
+
+    /**
+     * One page of rows matching {@code spec}; the total is counted only when the page does not reveal it.
+     */
+    Page<TaskRow> findRows(Specification<Task> spec, Pageable pageable);
+}
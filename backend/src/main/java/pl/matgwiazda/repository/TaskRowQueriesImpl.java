@@ -0,0 +1,66 @@
+package pl.matgwiazda.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import pl.matgwiazda.domain.entity.Task;
+
+import java.util.List;
+
+// Spring Data fragment implementation of TaskRowQueries (picked up by the Impl suffix)
+class TaskRowQueriesImpl implements TaskRowQueries {
+
+    private final EntityManager entityManager;
+
+    TaskRowQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<TaskRow> findRows(Specification<Task> spec, Sort sort, int limit) {
+        return rowQuery(spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Page<TaskRow> findRows(Specification<Task> spec, Pageable pageable) {
+        TypedQuery<TaskRow> query = rowQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    private TypedQuery<TaskRow> rowQuery(Specification<Task> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskRow> query = cb.createQuery(TaskRow.class);
+        Root<Task> t = query.from(Task.class);
+        // createdBy.id resolves to the created_by column; the users table is not joined
+        query.select(cb.construct(TaskRow.class, t.get("id"), t.get("level"), t.get("prompt"), t.get("options"),
+                t.get("correctOptionIndex"), t.get("explanation"), t.get("createdBy").get("id"), t.get("isActive"),
+                t.get("createdAt"), t.get("updatedAt")));
+        Predicate where = spec.toPredicate(t, query, cb);
+        if (where != null) query.where(where);
+        if (sort.isSorted()) query.orderBy(QueryUtils.toOrders(sort, t, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Task> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Task> t = query.from(Task.class);
+        query.select(cb.count(t));
+        Predicate where = spec.toPredicate(t, query, cb);
+        if (where != null) query.where(where);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,84 @@
+package pl.matgwiazda.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import pl.matgwiazda.domain.entity.Task;
+import pl.matgwiazda.dto.TaskFilter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Building blocks of dynamic task queries, used with {@link TaskRepository}'s specification methods.
+ */
+public final class TaskSpecifications {
+
+    /**
+     * Order of keyset-paginated listings; {@link #after} continues it.
+     */
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private TaskSpecifications() {
+    }
+
+    /**
+     * Every non-null field of the filter, combined with AND; an empty filter matches all tasks except the pooled
+     * ones, which are never listed (they are unassigned and carry their answers).
+     */
+    public static Specification<Task> matching(TaskFilter filter) {
+        List<Specification<Task>> parts = new ArrayList<>();
+        parts.add(notPooled());
+        if (filter != null) {
+            if (filter.level() != null) parts.add(hasLevel(filter.level()));
+            if (filter.isActive() != null) parts.add(isActive(filter.isActive()));
+            if (filter.createdById() != null) parts.add(createdBy(filter.createdById()));
+            if (filter.createdFrom() != null) parts.add(createdFrom(filter.createdFrom()));
+            if (filter.createdTo() != null) parts.add(createdBefore(filter.createdTo()));
+            if (filter.text() != null && !filter.text().isBlank()) parts.add(promptContains(filter.text()));
+        }
+        return Specification.allOf(parts);
+    }
+
+    public static Specification<Task> notPooled() {
+        return (root, query, cb) -> cb.isFalse(root.get("pooled"));
+    }
+
+    public static Specification<Task> hasLevel(short level) {
+        return (root, query, cb) -> cb.equal(root.get("level"), level);
+    }
+
+    public static Specification<Task> isActive(boolean active) {
+        return (root, query, cb) -> cb.equal(root.get("isActive"), active);
+    }
+
+    // compares the foreign key column; the creator is not joined
+    public static Specification<Task> createdBy(UUID userId) {
+        return (root, query, cb) -> cb.equal(root.get("createdBy").get("id"), userId);
+    }
+
+    public static Specification<Task> createdFrom(Instant from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.<Instant>get("createdAt"), from);
+    }
+
+    public static Specification<Task> createdBefore(Instant to) {
+        return (root, query, cb) -> cb.lessThan(root.<Instant>get("createdAt"), to);
+    }
+
+    public static Specification<Task> promptContains(String text) {
+        String pattern = "%" + text.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.<String>get("prompt")), pattern, '\\');
+    }
+
+    /**
+     * Tasks strictly after {@code (createdAt, id)} in {@link #NEWEST_FIRST} order.
+     */
+    public static Specification<Task> after(Instant createdAt, UUID id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.<Instant>get("createdAt"), createdAt),
+                cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.<UUID>get("id"), id)));
+    }
+}
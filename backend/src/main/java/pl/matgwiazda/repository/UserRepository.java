@@ -2,12 +2,16 @@ package pl.matgwiazda.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import pl.matgwiazda.domain.entity.User;
 
 import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -19,4 +23,26 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select u from User u where u.id = :id")
     Optional<User> findByIdForUpdate(@Param("id") UUID id);
+
+    // Password re-hash on login; touches only the hash, never other columns of a possibly stale copy
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") UUID id, @Param("password") String password);
+
+    // Token versions raised since the given instant; read incrementally by the token denylist refresh
+    @Query("""
+            select u.id as id, u.tokenVersion as tokenVersion, u.tokenVersionChangedAt as changedAt
+              from User u
+             where u.tokenVersionChangedAt >= :since
+            """)
+    List<TokenVersion> findTokenVersionsChangedSince(@Param("since") Instant since);
+
+    interface TokenVersion {
+        UUID getId();
+
+        int getTokenVersion();
+
+        Instant getChangedAt();
+    }
 }
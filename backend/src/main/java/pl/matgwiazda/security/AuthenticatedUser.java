@@ -0,0 +1,22 @@
+package pl.matgwiazda.security;
+
+import pl.matgwiazda.domain.enums.UserRole;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Principal of a request authenticated with an access token.
+ *
+ * Carries only what the token vouches for; code that needs the full {@code User} loads it by {@link #id()}.
+ * {@code tokenId} is null for tokens issued before token ids were added.
+ */
+public record AuthenticatedUser(UUID id, String email, UserRole role, UUID tokenId, int tokenVersion, Instant tokenExpiresAt)
+        implements Principal {
+
+    @Override
+    public String getName() {
+        return id.toString();
+    }
+}
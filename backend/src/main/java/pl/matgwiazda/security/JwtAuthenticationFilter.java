@@ -11,21 +11,34 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
+import pl.matgwiazda.config.JwtAuthProperties;
 import pl.matgwiazda.domain.entity.User;
-import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.domain.enums.UserRole;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Authenticates requests carrying a bearer access token. The token is parsed and verified once and
+ * checked against the {@link TokenDenylist}; the principal is an {@link AuthenticatedUser}.
+ *
+ * With {@code security.jwt-auth.stateless-claims=true} the principal is built from the verified claims only;
+ * otherwise the user is taken from the {@link PrincipalCache}, so role and token version are current.
+ */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final TokenDenylist tokenDenylist;
+    private final JwtAuthProperties properties;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserRepository userRepository) {
+    public JwtAuthenticationFilter(JwtService jwtService, PrincipalCache principalCache, TokenDenylist tokenDenylist, JwtAuthProperties properties) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.tokenDenylist = tokenDenylist;
+        this.properties = properties;
     }
 
     @Override
@@ -34,20 +47,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             try {
-                if (jwtService.isTokenValid(token)) {
-                    Claims claims = jwtService.parseClaims(token);
-                    String sub = claims.getSubject();
-                    if (sub != null) {
-                        UUID userId = UUID.fromString(sub);
-                        User user = userRepository.findById(userId).orElse(null);
-                        if (user != null) {
-                            String role = user.getRole() != null ? user.getRole().name() : "STUDENT";
-                            List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
-                            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(user, null, authorities);
-                            auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                            SecurityContextHolder.getContext().setAuthentication(auth);
-                        }
-                    }
+                // parseClaims verifies signature and expiry, so the token is parsed only once
+                Claims claims = jwtService.parseClaims(token);
+                AuthenticatedUser principal = authenticate(claims);
+                if (principal != null) {
+                    List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + principal.role().name()));
+                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(principal, null, authorities);
+                    auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(auth);
                 }
             } catch (Exception ex) {
                 // If parsing/validation fails, clear context and continue to entry point
@@ -57,4 +64,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private AuthenticatedUser authenticate(Claims claims) {
+        String sub = claims.getSubject();
+        if (sub == null || JwtService.isRefreshToken(claims)) return null;
+
+        UUID userId = UUID.fromString(sub);
+        UUID tokenId = JwtService.tokenId(claims);
+        int version = JwtService.tokenVersion(claims);
+        if (tokenDenylist.isRevoked(tokenId, userId, version)) return null;
+        Instant expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
+
+        if (properties.isStatelessClaims()) {
+            UserRole role = UserRole.fromString(claims.get(JwtService.ROLE_CLAIM, String.class));
+            String email = claims.get(JwtService.EMAIL_CLAIM, String.class);
+            return new AuthenticatedUser(userId, email, role != null ? role : UserRole.STUDENT, tokenId, version, expiresAt);
+        }
+
+        User user = principalCache.get(userId).orElse(null);
+        if (user == null || version < user.getTokenVersion()) return null;
+        UserRole role = user.getRole() != null ? user.getRole() : UserRole.STUDENT;
+        return new AuthenticatedUser(userId, user.getEmail(), role, tokenId, version, expiresAt);
+    }
 }
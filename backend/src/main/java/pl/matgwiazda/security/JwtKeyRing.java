@@ -0,0 +1,191 @@
+package pl.matgwiazda.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.matgwiazda.config.JwtKeyProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Signing and verification keys for JWTs, selected by the {@code kid} header.
+ *
+ * Contract:
+ * - {@code jwt.secret}, when set, is the HS256 key {@value #DEFAULT_KID}; tokens without a {@code kid} (issued
+ *   before key ids) are verified with it. It expires at {@code jwt.secret-expire-at} like any other key, so after
+ *   a rotation the old shared secret can be retired; an empty secret leaves it off the ring altogether
+ * - {@code jwt.keys[i]} add HS256 or ES256 keys with optional activation and expiry times; {@link #refresh()}
+ *   re-evaluates them on a schedule, so a pre-provisioned key takes over signing without a restart
+ * - the set of keys is read once at startup: adding a new key (or changing one) still needs a restart
+ * - {@link #parser()} is built once and is thread-safe; it resolves the key per token from the current ring
+ *   and rejects unknown key ids and tokens whose algorithm does not match their key
+ */
+@Component
+public class JwtKeyRing {
+
+    public static final String DEFAULT_KID = "default";
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private final List<RingKey> keys;
+    private final Clock clock;
+    private final JwtParser parser;
+    private volatile State state;
+
+    @Autowired
+    public JwtKeyRing(@Value("${jwt.secret:}") String secret, JwtKeyProperties properties) {
+        this(secret, properties, Clock.systemUTC());
+    }
+
+    public JwtKeyRing(String secret, JwtKeyProperties properties, Clock clock) {
+        List<RingKey> ring = new ArrayList<>();
+        Set<String> kids = new HashSet<>();
+        if (secret != null && !secret.isEmpty()) {
+            if (secret.length() < 32) {
+                // ensure adequate secret length
+                throw new IllegalArgumentException("JWT secret must be at least 32 characters long");
+            }
+            ring.add(new RingKey(DEFAULT_KID, SignatureAlgorithm.HS256, hmacKey(secret), hmacKey(secret), Instant.EPOCH,
+                    properties.getSecretExpireAt()));
+            kids.add(DEFAULT_KID);
+        }
+        for (JwtKeyProperties.Key configured : properties.getKeys()) {
+            RingKey key = RingKey.of(configured);
+            if (!kids.add(key.kid())) throw new IllegalArgumentException("Duplicate JWT key id: " + key.kid());
+            ring.add(key);
+        }
+        this.keys = List.copyOf(ring);
+        this.clock = clock;
+        this.parser = Jwts.parserBuilder().setSigningKeyResolver(new KidResolver()).build();
+        refresh();
+    }
+
+    /**
+     * Ring with only the given HS256 secret (tests, tools).
+     */
+    public static JwtKeyRing ofSecret(String secret) {
+        return new JwtKeyRing(secret, new JwtKeyProperties(), Clock.systemUTC());
+    }
+
+    public JwtParser parser() {
+        return parser;
+    }
+
+    /**
+     * Key that signs new tokens: the most recently activated unexpired key with private material.
+     */
+    public RingKey signingKey() {
+        return state.signing;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.key-refresh-ms:60000}")
+    public void refresh() {
+        Instant now = clock.instant();
+        Map<String, RingKey> verification = new HashMap<>();
+        RingKey signing = null;
+        for (RingKey key : keys) {
+            if (key.expireAt() != null && !key.expireAt().isAfter(now)) continue;
+            verification.put(key.kid(), key);
+            boolean active = !key.activateAt().isAfter(now);
+            if (active && key.signingKey() != null && (signing == null || !key.activateAt().isBefore(signing.activateAt()))) {
+                signing = key;
+            }
+        }
+        if (signing == null) throw new IllegalStateException("No active JWT signing key");
+
+        State previous = state;
+        state = new State(signing, Map.copyOf(verification));
+        if (previous != null && !previous.signing.kid().equals(signing.kid())) {
+            log.info("JWT signing key rotated from {} to {}", previous.signing.kid(), signing.kid());
+        }
+    }
+
+    private static Key hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * One key of the ring; {@code signingKey} is null for verification-only keys.
+     */
+    public record RingKey(String kid, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey,
+                          Instant activateAt, Instant expireAt) {
+
+        static RingKey of(JwtKeyProperties.Key configured) {
+            String kid = configured.getKid();
+            if (kid == null || kid.isBlank()) throw new IllegalArgumentException("JWT key id (kid) is required");
+            Instant activateAt = configured.getActivateAt() != null ? configured.getActivateAt() : Instant.EPOCH;
+            SignatureAlgorithm algorithm = SignatureAlgorithm.forName(configured.getAlgorithm());
+            switch (algorithm) {
+                case HS256 -> {
+                    String secret = configured.getSecret();
+                    if (secret == null || secret.length() < 32) {
+                        throw new IllegalArgumentException("JWT key " + kid + ": secret must be at least 32 characters long");
+                    }
+                    return new RingKey(kid, algorithm, hmacKey(secret), hmacKey(secret), activateAt, configured.getExpireAt());
+                }
+                case ES256 -> {
+                    if (configured.getPublicKey() == null) {
+                        throw new IllegalArgumentException("JWT key " + kid + ": publicKey is required for ES256");
+                    }
+                    try {
+                        KeyFactory ec = KeyFactory.getInstance("EC");
+                        Key publicKey = ec.generatePublic(new X509EncodedKeySpec(pem(configured.getPublicKey())));
+                        Key privateKey = configured.getPrivateKey() != null
+                                ? ec.generatePrivate(new PKCS8EncodedKeySpec(pem(configured.getPrivateKey())))
+                                : null;
+                        return new RingKey(kid, algorithm, privateKey, publicKey, activateAt, configured.getExpireAt());
+                    } catch (GeneralSecurityException | IllegalArgumentException ex) {
+                        throw new IllegalArgumentException("JWT key " + kid + ": invalid EC key", ex);
+                    }
+                }
+                default -> throw new IllegalArgumentException("JWT key " + kid + ": unsupported algorithm " + algorithm.getValue());
+            }
+        }
+
+        private static byte[] pem(String pem) {
+            String base64 = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+            return Base64.getDecoder().decode(base64);
+        }
+    }
+
+    private record State(RingKey signing, Map<String, RingKey> verification) {
+    }
+
+    private final class KidResolver extends SigningKeyResolverAdapter {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            String kid = header.getKeyId() != null ? header.getKeyId() : DEFAULT_KID;
+            RingKey key = state.verification.get(kid);
+            if (key == null) throw new UnsupportedJwtException("Unknown signing key: " + kid);
+            if (!key.algorithm().getValue().equals(header.getAlgorithm())) {
+                throw new UnsupportedJwtException("Algorithm " + header.getAlgorithm() + " does not match key " + kid);
+            }
+            return key.verificationKey();
+        }
+    }
+}
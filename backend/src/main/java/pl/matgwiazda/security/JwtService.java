@@ -1,64 +1,80 @@
 package pl.matgwiazda.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 import pl.matgwiazda.domain.entity.User;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.UUID;
 
 @Service
 public class JwtService {
 
-    private final SecretKey key;
+    public static final String ROLE_CLAIM = "role";
+    public static final String EMAIL_CLAIM = "email";
+    public static final String TYPE_CLAIM = "type";
+    public static final String VERSION_CLAIM = "ver"; // users.token_version at issue time
+    public static final String FAMILY_CLAIM = "fam"; // refresh token family (see RefreshTokenStore)
+
+    private final JwtKeyRing keyRing;
     private final long accessTokenExpirationMs;
     private final long refreshTokenExpirationMs;
 
-    public JwtService(@Value("${jwt.secret}") String secret,
+    @Autowired
+    public JwtService(JwtKeyRing keyRing,
                       @Value("${jwt.access-token-expiration-ms}") long accessTokenExpirationMs,
                       @Value("${jwt.refresh-token-expiration-ms}") long refreshTokenExpirationMs) {
-        if (secret == null || secret.length() < 32) {
-            // ensure adequate secret length
-            throw new IllegalArgumentException("JWT secret must be provided and at least 32 characters long");
-        }
-        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.keyRing = keyRing;
         this.accessTokenExpirationMs = accessTokenExpirationMs;
         this.refreshTokenExpirationMs = refreshTokenExpirationMs;
     }
 
+    public JwtService(String secret, long accessTokenExpirationMs, long refreshTokenExpirationMs) {
+        this(JwtKeyRing.ofSecret(secret), accessTokenExpirationMs, refreshTokenExpirationMs);
+    }
+
     public String generateAccessToken(User user) {
+        JwtKeyRing.RingKey signing = keyRing.signingKey();
         Date now = new Date();
         Date exp = new Date(now.getTime() + accessTokenExpirationMs);
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signing.kid())
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getId().toString())
                 .setIssuedAt(now)
                 .setExpiration(exp)
-                .claim("email", user.getEmail())
-                .claim("role", user.getRole() != null ? user.getRole().name() : "")
-                .signWith(key, SignatureAlgorithm.HS256)
+                .claim(EMAIL_CLAIM, user.getEmail())
+                .claim(ROLE_CLAIM, user.getRole() != null ? user.getRole().name() : "")
+                .claim(VERSION_CLAIM, user.getTokenVersion())
+                .signWith(signing.signingKey(), signing.algorithm())
                 .compact();
     }
 
-    public String generateRefreshToken(User user) {
+    public String generateRefreshToken(User user, RefreshTokenStore.IssuedToken token) {
+        JwtKeyRing.RingKey signing = keyRing.signingKey();
         Date now = new Date();
         Date exp = new Date(now.getTime() + refreshTokenExpirationMs);
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signing.kid())
+                .setId(token.tokenId().toString())
                 .setSubject(user.getId().toString())
                 .setIssuedAt(now)
                 .setExpiration(exp)
-                .claim("type", "refresh")
-                .signWith(key, SignatureAlgorithm.HS256)
+                .claim(TYPE_CLAIM, "refresh")
+                .claim(FAMILY_CLAIM, token.familyId().toString())
+                .claim(VERSION_CLAIM, user.getTokenVersion())
+                .signWith(signing.signingKey(), signing.algorithm())
                 .compact();
     }
 
     public Claims parseClaims(String token) {
         try {
-            Jws<Claims> jws = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+            // the parser is built once; the key is picked per token by its kid
+            Jws<Claims> jws = keyRing.parser().parseClaimsJws(token);
             return jws.getBody();
         } catch (ExpiredJwtException ex) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token expired");
@@ -76,6 +92,45 @@ public class JwtService {
         }
     }
 
+    public static boolean isRefreshToken(Claims claims) {
+        Object type = claims.get(TYPE_CLAIM);
+        return type != null && "refresh".equals(type.toString());
+    }
+
+    /**
+     * Token id ({@code jti}), or null for tokens issued without one.
+     */
+    public static UUID tokenId(Claims claims) {
+        String id = claims.getId();
+        if (id == null) return null;
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Refresh token family ({@code fam}), or null for refresh tokens issued before families.
+     */
+    public static UUID familyId(Claims claims) {
+        String family = claims.get(FAMILY_CLAIM, String.class);
+        if (family == null) return null;
+        try {
+            return UUID.fromString(family);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Token version ({@code ver}); tokens issued before versioning count as version 0.
+     */
+    public static int tokenVersion(Claims claims) {
+        Integer version = claims.get(VERSION_CLAIM, Integer.class);
+        return version != null ? version : 0;
+    }
+
     public long getAccessTokenExpirationMs() {
         return accessTokenExpirationMs;
     }
@@ -0,0 +1,128 @@
+package pl.matgwiazda.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.matgwiazda.config.LoginThrottleProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for login attempts, one per email and one per client IP, checked before any password hashing.
+ *
+ * Contract:
+ * - every attempt takes a token from the IP bucket and then from the email bucket; an empty bucket rejects it
+ * - buckets refill continuously up to their capacity ({@code login-throttle.*})
+ * - full buckets are dropped by {@link #evictIdle()}; when {@code max-tracked-keys} buckets are in use and none
+ *   is idle, attempts from new keys are rejected rather than tracked
+ * - a full table is scanned on the request path at most once per second, so spraying new keys cannot turn every
+ *   attempt into a scan of all buckets
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginRateLimiter.class);
+    private static final double NANOS_PER_MINUTE = 60_000_000_000d;
+    private static final long INLINE_EVICTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final LoginThrottleProperties properties;
+    private final LongSupplier nanoTime;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastInlineEviction;
+
+    @Autowired
+    public LoginRateLimiter(LoginThrottleProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    public LoginRateLimiter(LoginThrottleProperties properties, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+        this.lastInlineEviction = new AtomicLong(nanoTime.getAsLong() - INLINE_EVICTION_INTERVAL_NANOS);
+    }
+
+    /**
+     * Take one attempt for the email and the client IP (either may be null).
+     *
+     * @return false when the attempt must be rejected
+     */
+    public boolean tryAcquire(String email, String clientIp) {
+        if (!properties.isEnabled()) return true;
+        long now = nanoTime.getAsLong();
+        if (clientIp != null && !tryTake("ip:" + clientIp, properties.getIpCapacity(), properties.getIpRefillPerMinute(), now)) {
+            return false;
+        }
+        return email == null || tryTake("email:" + email, properties.getEmailCapacity(), properties.getEmailRefillPerMinute(), now);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long now = nanoTime.getAsLong();
+        buckets.values().removeIf(b -> b.isFull(now));
+    }
+
+    // one caller per interval scans; the others go on with the table as it is
+    private void evictIdleInline(long now) {
+        long last = lastInlineEviction.get();
+        if (now - last < INLINE_EVICTION_INTERVAL_NANOS || !lastInlineEviction.compareAndSet(last, now)) return;
+        evictIdle();
+    }
+
+    public int trackedKeys() {
+        return buckets.size();
+    }
+
+    private boolean tryTake(String key, int capacity, double refillPerMinute, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= properties.getMaxTrackedKeys()) {
+                evictIdleInline(now);
+                if (buckets.size() >= properties.getMaxTrackedKeys()) {
+                    log.warn("Login throttle: {} keys tracked, rejecting attempt from a new key", buckets.size());
+                    return false;
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerMinute / NANOS_PER_MINUTE, now));
+        }
+        return bucket.tryTake(now);
+    }
+
+    private static final class TokenBucket {
+        private final int capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long refilledAt;
+
+        private TokenBucket(int capacity, double refillPerNano, long now) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerNano;
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        synchronized boolean tryTake(long now) {
+            refill(now);
+            if (tokens < 1) return false;
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            long elapsed = now - refilledAt;
+            if (elapsed <= 0) return;
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package pl.matgwiazda.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.matgwiazda.config.PrincipalCacheProperties;
+import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.repository.UserRepository;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of authenticated users keyed by user id, so the JWT filter does not load the user on every request.
+ *
+ * Contract:
+ * - entries expire after {@code security.principal-cache.ttl-ms}; at most {@code max-size} users are kept
+ * - services that change what authentication reads (role, email, token version) must call
+ *   {@link #invalidate(UUID)}; inside a transaction the entry is dropped again after commit
+ * - a load that overlaps an invalidation is returned but not cached, so a stale row is never kept
+ * - cached users are detached snapshots shared between requests and must not be modified
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final PrincipalCacheProperties properties;
+    private final Clock clock;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public PrincipalCache(UserRepository userRepository, PrincipalCacheProperties properties) {
+        this(userRepository, properties, Clock.systemUTC());
+    }
+
+    public PrincipalCache(UserRepository userRepository, PrincipalCacheProperties properties, Clock clock) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * The user with the given id, from the cache when present and fresh, otherwise from the database.
+     */
+    public Optional<User> get(UUID userId) {
+        if (userId == null) return Optional.empty();
+        if (!properties.isEnabled()) return userRepository.findById(userId);
+
+        long now = clock.millis();
+        Entry cached = entries.get(userId);
+        if (cached != null && cached.expiresAt > now) return Optional.of(cached.user);
+
+        long generation = invalidations.get();
+        Optional<User> loaded = userRepository.findById(userId);
+        if (loaded.isEmpty()) {
+            entries.remove(userId);
+        } else if (invalidations.get() == generation) {
+            makeRoom(now);
+            entries.put(userId, new Entry(loaded.get(), now + properties.getTtlMs()));
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop the cached user. Call after changing the user row.
+     */
+    public void invalidate(UUID userId) {
+        if (userId == null) return;
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // a request running before the commit may have reloaded the old row
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(UUID userId) {
+        invalidations.incrementAndGet();
+        entries.remove(userId);
+    }
+
+    private void makeRoom(long now) {
+        if (entries.size() < properties.getMaxSize()) return;
+        entries.values().removeIf(e -> e.expiresAt <= now);
+        Iterator<UUID> it = entries.keySet().iterator();
+        while (entries.size() >= properties.getMaxSize() && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record Entry(User user, long expiresAt) {
+    }
+}
@@ -0,0 +1,153 @@
+package pl.matgwiazda.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import pl.matgwiazda.domain.entity.RefreshTokenFamily;
+import pl.matgwiazda.repository.RefreshTokenFamilyRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Refresh token families: one per login, rotated on every refresh.
+ *
+ * Contract:
+ * - {@link #start(UUID)} opens a family; {@link #rotate(UUID, UUID, UUID)} exchanges its current token id for a new one
+ *   with a single conditional update by primary key, so concurrent refreshes on any node cannot both succeed
+ * - presenting a token id that was already rotated away revokes the whole family (the token was copied)
+ * - {@link #revokeAllForUser(UUID, String)} ends every session of a user
+ * - the in-memory index mirrors families seen on this node, rejecting revoked or expired families and replays of
+ *   the token it just rotated without a database read; the table stays authoritative for everything else
+ */
+@Component
+public class RefreshTokenStore {
+
+    public static final String REASON_REUSE = "reuse";
+    public static final String REASON_PASSWORD_CHANGE = "password_change";
+    public static final String REASON_DEACTIVATION = "deactivation";
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenStore.class);
+
+    private final RefreshTokenFamilyRepository repository;
+    private final long refreshTokenExpirationMs;
+    private final Clock clock;
+    private final Map<UUID, Family> families = new ConcurrentHashMap<>(); // family id -> last known state
+
+    @Autowired
+    public RefreshTokenStore(RefreshTokenFamilyRepository repository,
+                             @Value("${jwt.refresh-token-expiration-ms}") long refreshTokenExpirationMs) {
+        this(repository, refreshTokenExpirationMs, Clock.systemUTC());
+    }
+
+    public RefreshTokenStore(RefreshTokenFamilyRepository repository, long refreshTokenExpirationMs, Clock clock) {
+        this.repository = repository;
+        this.refreshTokenExpirationMs = refreshTokenExpirationMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Open a family for a new login and return its first token id.
+     */
+    @Transactional
+    public IssuedToken start(UUID userId) {
+        UUID familyId = UUID.randomUUID();
+        UUID tokenId = UUID.randomUUID();
+        Instant expiresAt = clock.instant().plusMillis(refreshTokenExpirationMs);
+        repository.save(new RefreshTokenFamily(familyId, userId, tokenId, expiresAt));
+        families.put(familyId, new Family(userId, null, expiresAt, false));
+        return new IssuedToken(familyId, tokenId);
+    }
+
+    /**
+     * Exchange the presented token id for the family's next one.
+     *
+     * @throws ResponseStatusException 401 when the family is unknown, expired or revoked, or the token was reused
+     */
+    @Transactional(noRollbackFor = ResponseStatusException.class)
+    public IssuedToken rotate(UUID familyId, UUID presentedTokenId, UUID userId) {
+        Instant now = clock.instant();
+        Family known = families.get(familyId);
+        if (known != null) {
+            if (!known.userId().equals(userId)) throw invalid();
+            if (known.revoked() || !known.expiresAt().isAfter(now)) throw revoked();
+            if (presentedTokenId.equals(known.previousTokenId())) throw reuseDetected(familyId, userId, now);
+        }
+
+        UUID next = UUID.randomUUID();
+        Instant expiresAt = now.plusMillis(refreshTokenExpirationMs);
+        if (repository.rotate(familyId, userId, presentedTokenId, next, now, expiresAt) == 1) {
+            families.put(familyId, new Family(userId, presentedTokenId, expiresAt, false));
+            return new IssuedToken(familyId, next);
+        }
+
+        // not rotated: unknown family, family ended, or a token that is no longer current
+        RefreshTokenFamily family = repository.findById(familyId).orElse(null);
+        if (family == null || !family.getUserId().equals(userId)) throw invalid();
+        if (family.getRevokedAt() != null || !family.getExpiresAt().isAfter(now)) {
+            families.put(familyId, new Family(userId, null, family.getExpiresAt(), true));
+            throw revoked();
+        }
+        throw reuseDetected(familyId, userId, now);
+    }
+
+    /**
+     * Revoke every live family of the user, e.g. after a password change.
+     */
+    @Transactional
+    public void revokeAllForUser(UUID userId, String reason) {
+        if (userId == null) return;
+        repository.revokeAllForUser(userId, clock.instant(), reason);
+        families.replaceAll((id, family) -> family.userId().equals(userId) ? family.revoke() : family);
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt-auth.refresh-family-purge-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        int purged = repository.deleteExpired(now);
+        families.values().removeIf(family -> !family.expiresAt().isAfter(now));
+        if (purged > 0) log.debug("Refresh tokens: purged {} expired famil(ies)", purged);
+    }
+
+    public int knownFamilies() {
+        return families.size();
+    }
+
+    private ResponseStatusException reuseDetected(UUID familyId, UUID userId, Instant now) {
+        repository.revoke(familyId, now, REASON_REUSE);
+        families.computeIfPresent(familyId, (id, family) -> family.revoke());
+        log.warn("Refresh token reuse for user {}: family {} revoked", userId, familyId);
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token reuse detected");
+    }
+
+    private static ResponseStatusException invalid() {
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+    }
+
+    private static ResponseStatusException revoked() {
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token revoked");
+    }
+
+    /**
+     * Family and token id to put into a refresh token.
+     */
+    public record IssuedToken(UUID familyId, UUID tokenId) {
+    }
+
+    // previousTokenId: the token this node last rotated away, a replay of which is certain reuse
+    private record Family(UUID userId, UUID previousTokenId, Instant expiresAt, boolean revoked) {
+        Family revoke() {
+            return new Family(userId, previousTokenId, expiresAt, true);
+        }
+    }
+}
@@ -13,7 +13,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
-import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.config.JwtAuthProperties;
 
 import java.util.List;
 
@@ -22,16 +22,20 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final TokenDenylist tokenDenylist;
+    private final JwtAuthProperties jwtAuthProperties;
 
-    public SecurityConfig(JwtService jwtService, UserRepository userRepository) {
+    public SecurityConfig(JwtService jwtService, PrincipalCache principalCache, TokenDenylist tokenDenylist, JwtAuthProperties jwtAuthProperties) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.tokenDenylist = tokenDenylist;
+        this.jwtAuthProperties = jwtAuthProperties;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtService, userRepository);
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtService, principalCache, tokenDenylist, jwtAuthProperties);
 
         http
                 .csrf(csrf -> csrf.disable())
@@ -43,6 +47,9 @@ public class SecurityConfig {
                         // allow preflight OPTIONS for all endpoints
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/api/v1/admin/**").hasAnyRole("ADMIN")
+                        // liveness probes carry no token; metrics expose OpenRouter, pool and JVM internals
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasAnyRole("ADMIN")
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/api/v1/progress/**").hasAnyRole("STUDENT", "ADMIN")
                         .requestMatchers("/api/v1/tasks/**").hasAnyRole("STUDENT", "ADMIN")
@@ -0,0 +1,122 @@
+package pl.matgwiazda.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pl.matgwiazda.domain.entity.RevokedToken;
+import pl.matgwiazda.repository.RevokedTokenRepository;
+import pl.matgwiazda.repository.UserRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of revoked access tokens, so a request can be rejected without a database round trip.
+ *
+ * Contract:
+ * - a token is revoked when its id is on the list, or when its {@code ver} claim is lower than the user's
+ *   {@code token_version} (all tokens of the user issued before a password change or deactivation)
+ * - revocations made on this node apply at once; those made elsewhere are picked up by {@link #refresh()}
+ *   every {@code security.jwt-auth.denylist-refresh-ms}
+ * - only unexpired token ids are kept; expired rows are purged from the database during refresh
+ * - a raised token version is kept for one access-token lifetime ({@code jwt.access-token-expiration-ms}) after the
+ *   raise; by then every token it revokes has expired. The refresh reads only versions raised since the previous
+ *   refresh (with an overlap for slow commits and clock skew), not every user who ever changed a password
+ */
+@Component
+public class TokenDenylist {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenDenylist.class);
+    // re-read window behind the previous refresh: a raise committed late or stamped by a node with a lagging clock
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(5);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserRepository userRepository;
+    private final Duration accessTokenLifetime;
+    private final Clock clock;
+    private final Map<UUID, Instant> revokedTokens = new ConcurrentHashMap<>(); // jti -> token expiry
+    private final Map<UUID, VersionRaise> tokenVersions = new ConcurrentHashMap<>(); // user id -> lowest valid version
+    private volatile Instant lastRefresh; // null until the first refresh
+
+    private record VersionRaise(int version, Instant raisedAt) {
+    }
+
+    @Autowired
+    public TokenDenylist(RevokedTokenRepository revokedTokenRepository, UserRepository userRepository,
+                         @Value("${jwt.access-token-expiration-ms}") long accessTokenExpirationMs) {
+        this(revokedTokenRepository, userRepository, Duration.ofMillis(accessTokenExpirationMs), Clock.systemUTC());
+    }
+
+    public TokenDenylist(RevokedTokenRepository revokedTokenRepository, UserRepository userRepository,
+                         Duration accessTokenLifetime, Clock clock) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.userRepository = userRepository;
+        this.accessTokenLifetime = accessTokenLifetime;
+        this.clock = clock;
+    }
+
+    public boolean isRevoked(UUID tokenId, UUID userId, int tokenVersion) {
+        if (tokenId != null && revokedTokens.containsKey(tokenId)) return true;
+        VersionRaise lowestValid = tokenVersions.get(userId);
+        return lowestValid != null && tokenVersion < lowestValid.version();
+    }
+
+    /**
+     * Revoke a single access token until it expires.
+     */
+    public void revokeToken(UUID tokenId, UUID userId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(clock.instant())) return;
+        revokedTokenRepository.save(new RevokedToken(tokenId, userId, expiresAt));
+        revokedTokens.put(tokenId, expiresAt);
+    }
+
+    /**
+     * Record that the user's token version was raised, revoking every token with a lower version.
+     */
+    public void tokenVersionRaised(UUID userId, int tokenVersion) {
+        tokenVersionRaised(userId, tokenVersion, clock.instant());
+    }
+
+    private void tokenVersionRaised(UUID userId, int tokenVersion, Instant raisedAt) {
+        if (userId == null || raisedAt == null) return;
+        tokenVersions.merge(userId, new VersionRaise(tokenVersion, raisedAt),
+                (known, raised) -> raised.version() > known.version() ? raised : known);
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt-auth.denylist-refresh-ms:30000}")
+    @Transactional
+    public void refresh() {
+        Instant now = clock.instant();
+        int purged = revokedTokenRepository.deleteExpired(now);
+        for (RevokedToken token : revokedTokenRepository.findUnexpired(now)) {
+            revokedTokens.put(token.getJti(), token.getExpiresAt());
+        }
+        revokedTokens.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+
+        Instant stillRelevant = now.minus(accessTokenLifetime);
+        Instant since = lastRefresh == null ? stillRelevant : lastRefresh.minus(REFRESH_OVERLAP);
+        for (UserRepository.TokenVersion version : userRepository.findTokenVersionsChangedSince(since)) {
+            tokenVersionRaised(version.getId(), version.getTokenVersion(), version.getChangedAt());
+        }
+        // tokens issued before such a raise have all expired
+        tokenVersions.values().removeIf(raise -> raise.raisedAt().isBefore(stillRelevant));
+        lastRefresh = now;
+        if (purged > 0) log.debug("Token denylist: purged {} expired revocation(s)", purged);
+    }
+
+    public int revokedTokenCount() {
+        return revokedTokens.size();
+    }
+
+    public int raisedTokenVersionCount() {
+        return tokenVersions.size();
+    }
+}
@@ -2,6 +2,7 @@ package pl.matgwiazda.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import pl.matgwiazda.domain.entity.User;
 import pl.matgwiazda.dto.UserDto;
 import pl.matgwiazda.mapper.UserMapper;
@@ -30,6 +31,7 @@ public class AdminService {
      *
      * @return list of UserDto representing all users
      */
+    @Transactional(readOnly = true)
     public List<UserDto> listAllUsers() {
         List<User> users = userRepository.findAll();
         return users.stream().map(userMapper::toDto).toList();
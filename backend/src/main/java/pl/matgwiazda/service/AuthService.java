@@ -13,7 +13,12 @@ import pl.matgwiazda.dto.AuthRefreshCommand;
 import pl.matgwiazda.dto.AuthRegisterCommand;
 import pl.matgwiazda.dto.AuthResponseDto;
 import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.security.AuthenticatedUser;
 import pl.matgwiazda.security.JwtService;
+import pl.matgwiazda.security.LoginRateLimiter;
+import pl.matgwiazda.security.PrincipalCache;
+import pl.matgwiazda.security.RefreshTokenStore;
+import pl.matgwiazda.security.TokenDenylist;
 import pl.matgwiazda.mapper.UserMapper;
 
 import java.util.Optional;
@@ -26,13 +31,24 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final UserMapper userMapper;
+    private final TokenDenylist tokenDenylist;
+    private final LoginRateLimiter loginRateLimiter;
+    private final RefreshTokenStore refreshTokenStore;
+    private final PrincipalCache principalCache;
+    // hash compared against when the email is unknown, so both paths cost the same
+    private volatile String unknownUserHash;
 
     @Autowired
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, UserMapper userMapper) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, UserMapper userMapper, TokenDenylist tokenDenylist, LoginRateLimiter loginRateLimiter,
+                       RefreshTokenStore refreshTokenStore, PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.userMapper = userMapper;
+        this.tokenDenylist = tokenDenylist;
+        this.loginRateLimiter = loginRateLimiter;
+        this.refreshTokenStore = refreshTokenStore;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -48,7 +64,7 @@ public class AuthService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email already in use");
         }
 
-        // Hash password using injected PasswordEncoder (BCrypt)
+        // Hash password using injected PasswordEncoder (password-hashing.algorithm)
         String hashed = passwordEncoder.encode(cmd.getPassword());
 
         // Build User from register command using mapper; mapper ignores password so service sets it explicitly
@@ -61,37 +77,63 @@ public class AuthService {
 
         userRepository.save(user);
 
-        // Generate JWT tokens
-        String accessToken = jwtService.generateAccessToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
-        long expiresInSeconds = jwtService.getAccessTokenExpirationMs() / 1000L;
-
-        return new AuthResponseDto(accessToken, expiresInSeconds, refreshToken);
+        // Generate JWT tokens; the refresh token opens a new family
+        return issueTokens(user, refreshTokenStore.start(user.getId()));
     }
 
     /**
      * Authenticate user credentials and return JWT token pair.
      */
     public AuthResponseDto login(AuthLoginCommand cmd) {
+        return login(cmd, null);
+    }
+
+    /**
+     * Authenticate user credentials and return JWT token pair. Attempts over the per-email or per-IP budget
+     * are rejected with 429 before any password hashing; a hash made with an outdated algorithm or cost
+     * is replaced after a successful match.
+     */
+    public AuthResponseDto login(AuthLoginCommand cmd, String clientIp) {
         if (cmd == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Request body is required");
         }
         String email = cmd.getEmail().trim().toLowerCase();
-        User user = userRepository.findByEmail(email).orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials"));
+        if (!loginRateLimiter.tryAcquire(email, clientIp)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, try again later");
+        }
+
+        Optional<User> found = userRepository.findByEmail(email);
+        if (found.isEmpty()) {
+            passwordEncoder.matches(cmd.getPassword(), unknownUserHash());
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
+        }
+        User user = found.get();
 
         if (!passwordEncoder.matches(cmd.getPassword(), user.getPassword())) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
         }
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            // only the hash column: the row may have been read from the replica and be behind the primary
+            user.setPassword(passwordEncoder.encode(cmd.getPassword()));
+            userRepository.updatePassword(user.getId(), user.getPassword());
+        }
 
-        String accessToken = jwtService.generateAccessToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
-        long expiresInSeconds = jwtService.getAccessTokenExpirationMs() / 1000L;
+        return issueTokens(user, refreshTokenStore.start(user.getId()));
+    }
 
-        return new AuthResponseDto(accessToken, expiresInSeconds, refreshToken);
+    private String unknownUserHash() {
+        String hash = unknownUserHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(UUID.randomUUID().toString());
+            unknownUserHash = hash;
+        }
+        return hash;
     }
 
     /**
-     * Refresh access token using a refresh token. Validates the token type and subject, then issues new tokens.
+     * Refresh access token using a refresh token. Validates the token type and subject, rotates the token's
+     * family and issues new tokens. The user comes from the principal cache, so a valid refresh costs one
+     * conditional update by primary key.
      */
     public AuthResponseDto refresh(AuthRefreshCommand cmd) {
         String refreshToken = cmd.getRefreshToken().trim();
@@ -99,8 +141,7 @@ public class AuthService {
         // parseClaims will throw ResponseStatusException(401) when token invalid/expired
         Claims claims = jwtService.parseClaims(refreshToken);
 
-        Object typeObj = claims.get("type");
-        if (typeObj == null || !"refresh".equals(typeObj.toString())) {
+        if (!JwtService.isRefreshToken(claims)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provided token is not a refresh token");
         }
 
@@ -116,13 +157,38 @@ public class AuthService {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token subject");
         }
 
-        User user = userRepository.findById(userId).orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+        UUID familyId = JwtService.familyId(claims);
+        UUID tokenId = JwtService.tokenId(claims);
+        if (familyId == null || tokenId == null) {
+            // issued before refresh token families; cannot be checked for reuse
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token no longer accepted, please log in again");
+        }
+
+        User user = principalCache.get(userId).orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+        if (JwtService.tokenVersion(claims) < user.getTokenVersion()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token revoked");
+        }
+
+        // Issue new tokens in the same family; a reused token revokes the family instead
+        return issueTokens(user, refreshTokenStore.rotate(familyId, tokenId, userId));
+    }
 
-        // Issue new tokens
-        String newAccessToken = jwtService.generateAccessToken(user);
-        String newRefreshToken = jwtService.generateRefreshToken(user);
+    private AuthResponseDto issueTokens(User user, RefreshTokenStore.IssuedToken refresh) {
+        String accessToken = jwtService.generateAccessToken(user);
+        String refreshToken = jwtService.generateRefreshToken(user, refresh);
         long expiresInSeconds = jwtService.getAccessTokenExpirationMs() / 1000L;
 
-        return new AuthResponseDto(newAccessToken, expiresInSeconds, newRefreshToken);
+        return new AuthResponseDto(accessToken, expiresInSeconds, refreshToken);
+    }
+
+    /**
+     * Revoke the access token the caller authenticated with. Tokens without an id cannot be revoked singly
+     * and simply run until they expire.
+     */
+    public void logout(AuthenticatedUser principal) {
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
+        }
+        tokenDenylist.revokeToken(principal.tokenId(), principal.id(), principal.tokenExpiresAt());
     }
 }
@@ -0,0 +1,46 @@
+package pl.matgwiazda.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import pl.matgwiazda.dto.CacheRegionStatsDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hit ratios of the Hibernate second-level cache regions (entity and query regions), from the counters kept
+ * with {@code hibernate.generate_statistics}. Counters are per node and start at zero on every restart.
+ */
+@Service
+public class CacheStatsService {
+
+    private final SessionFactory sessionFactory;
+
+    public CacheStatsService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public List<CacheRegionStatsDto> regions() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<CacheRegionStatsDto> regions = new ArrayList<>();
+        for (String name : Arrays.stream(statistics.getSecondLevelCacheRegionNames()).sorted().toList()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) regions.add(toDto(name, region));
+        }
+        return regions;
+    }
+
+    static CacheRegionStatsDto toDto(String name, CacheRegionStatistics region) {
+        long hits = region.getHitCount();
+        long misses = region.getMissCount();
+        long lookups = hits + misses;
+        long inMemory = region.getElementCountInMemory();
+        return new CacheRegionStatsDto(name, hits, misses, region.getPutCount(),
+                lookups == 0 ? null : (double) hits / lookups,
+                inMemory < 0 ? null : inMemory);
+    }
+}
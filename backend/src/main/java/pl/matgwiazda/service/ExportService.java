@@ -0,0 +1,247 @@
+package pl.matgwiazda.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.matgwiazda.config.ExportProperties;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams whole tables to admins as NDJSON or CSV, without paging and without collecting rows.
+ *
+ * Contract:
+ * - rows are read in a read-only transaction with a JDBC fetch size of {@code admin-export.fetch-size}, so the
+ *   PostgreSQL driver reads through a server-side cursor and holds one fetch batch at a time
+ * - each row is written to the response as soon as it is read; heap use does not grow with the table
+ * - at most {@code admin-export.max-concurrent} exports run at once (each holds a pooled connection until it is done);
+ *   further requests get 429
+ * - a client that disconnects aborts the query and the transaction
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final Semaphore permits;
+
+    public ExportService(DataSource dataSource, PlatformTransactionManager txManager, ExportProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(properties.getFetchSize());
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.permits = new Semaphore(properties.getMaxConcurrent());
+    }
+
+    public enum Dataset {
+        PROGRESS("""
+                select id as "id", user_id as "userId", task_id as "taskId", attempt_number as "attemptNumber",
+                       selected_option_index as "selectedOptionIndex", is_correct as "correct",
+                       points_awarded as "pointsAwarded", time_taken_ms as "timeTakenMs", finalized as "finalized",
+                       created_at as "createdAt", updated_at as "updatedAt"
+                  from progress
+                """, Set.of()),
+        TASKS("""
+                select id as "id", level as "level", prompt as "prompt", options::text as "options",
+                       correct_option_index as "correctOptionIndex", explanation as "explanation",
+                       created_by as "createdById", is_active as "active", pooled as "pooled",
+                       created_at as "createdAt", updated_at as "updatedAt"
+                  from tasks
+                """, Set.of("options"));
+
+        private final String sql;
+        private final Set<String> jsonColumns; // already JSON text; embedded as-is in NDJSON
+
+        Dataset(String sql, Set<String> jsonColumns) {
+            this.sql = sql;
+            this.jsonColumns = jsonColumns;
+        }
+
+        public String fileName(Format format) {
+            return name().toLowerCase(Locale.ROOT) + "." + format.extension;
+        }
+    }
+
+    public enum Format {
+        NDJSON("ndjson", MediaType.APPLICATION_NDJSON),
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public static Format parse(String value) {
+            for (Format f : values()) {
+                if (f.extension.equalsIgnoreCase(value)) return f;
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or csv");
+        }
+    }
+
+    /**
+     * Reserve an export slot and return the body that streams the dataset; the slot is released when the body
+     * has been written (or has failed).
+     */
+    public StreamingResponseBody export(Dataset dataset, Format format) {
+        if (!permits.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many exports running, try again later");
+        }
+        return out -> {
+            try {
+                stream(dataset, format, out);
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    void stream(Dataset dataset, Format format, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        RowWriter writer = format == Format.CSV ? new CsvWriter(out) : new NdjsonWriter(out, dataset.jsonColumns);
+        long[] rows = {0};
+        try {
+            readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(dataset.sql, rs -> {
+                try {
+                    if (rows[0]++ == 0) writer.start(rs.getMetaData());
+                    writer.row(rs);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }));
+            writer.finish();
+        } catch (UncheckedIOException ex) {
+            log.info("Export of {} aborted after {} rows: {}", dataset, rows[0], ex.getCause().toString());
+            throw ex.getCause();
+        }
+        log.info("Exported {} {} rows as {} in {} ms", rows[0], dataset, format, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    static String csvField(String value) {
+        if (value == null) return "";
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+
+    private static Object value(ResultSet rs, int column) throws SQLException {
+        Object v = rs.getObject(column);
+        return v instanceof Timestamp ts ? ts.toInstant() : v;
+    }
+
+    private interface RowWriter {
+        // called before the first row only; an empty table produces an empty body
+        void start(ResultSetMetaData meta) throws SQLException, IOException;
+
+        void row(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class NdjsonWriter implements RowWriter {
+        private final JsonGenerator json;
+        private final Set<String> jsonColumns;
+        private String[] labels;
+
+        NdjsonWriter(OutputStream out, Set<String> jsonColumns) throws IOException {
+            this.json = JSON.createGenerator(out);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.json.setRootValueSeparator(null); // each object is terminated by its own newline instead
+            this.jsonColumns = jsonColumns;
+        }
+
+        @Override
+        public void start(ResultSetMetaData meta) throws SQLException {
+            labels = new String[meta.getColumnCount()];
+            for (int i = 0; i < labels.length; i++) labels[i] = meta.getColumnLabel(i + 1);
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            for (int i = 0; i < labels.length; i++) {
+                Object v = value(rs, i + 1);
+                json.writeFieldName(labels[i]);
+                if (v == null) json.writeNull();
+                else if (v instanceof Boolean b) json.writeBoolean(b);
+                else if (v instanceof Short || v instanceof Integer || v instanceof Long) json.writeNumber(((Number) v).longValue());
+                else if (jsonColumns.contains(labels[i])) json.writeRawValue(v.toString());
+                else json.writeString(v.toString());
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.close();
+        }
+    }
+
+    private static final class CsvWriter implements RowWriter {
+        private final Writer out;
+        private int columns;
+
+        CsvWriter(OutputStream out) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void start(ResultSetMetaData meta) throws SQLException, IOException {
+            columns = meta.getColumnCount();
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) out.write(',');
+                out.write(csvField(meta.getColumnLabel(i)));
+            }
+            out.write("\r\n");
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) out.write(',');
+                Object v = value(rs, i);
+                out.write(csvField(v != null ? v.toString() : null));
+            }
+            out.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+        }
+    }
+}
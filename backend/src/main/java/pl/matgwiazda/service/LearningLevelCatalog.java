@@ -0,0 +1,237 @@
+package pl.matgwiazda.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.matgwiazda.config.LearningLevelCatalogProperties;
+import pl.matgwiazda.domain.entity.LearningLevel;
+import pl.matgwiazda.dto.LearningLevelDto;
+import pl.matgwiazda.mapper.LearningLevelMapper;
+import pl.matgwiazda.repository.LearningLevelRepository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Learning levels held in memory for the task generation path; the table has a handful of rows and rarely changes.
+ *
+ * Contract:
+ * - a snapshot is immutable: an array indexed by level number plus the levels in order; {@link #reload()} builds
+ *   a new snapshot and swaps the reference, so lookups never lock and never see a half-built catalog
+ * - loaded when the application is ready, or by the first lookup if that comes earlier
+ * - writes to learning_levels call {@link #changed()} inside their transaction: this node reloads after commit and
+ *   the other nodes get a {@code NOTIFY} on {@code learning-level-catalog.channel}, which Postgres delivers on commit
+ * - every node LISTENs on its own connection (not taken from the pool) and reloads on each notification from
+ *   another node and after every (re)connect, since notifications sent while disconnected are lost; the node's
+ *   second-level cache of learning levels is evicted first, as Hibernate only keeps it current for local writes
+ * - a reload every {@code learning-level-catalog.refresh-interval-ms} covers rows written around the service
+ * - reloads run in a read-write transaction, so they read the primary and never a lagging replica
+ */
+@Component
+public class LearningLevelCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(LearningLevelCatalog.class);
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final LearningLevelRepository repository;
+    private final LearningLevelMapper mapper;
+    private final LearningLevelCatalogProperties properties;
+    private final DataSourceProperties dataSourceProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate txTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final String nodeId = UUID.randomUUID().toString(); // NOTIFY payload; a node ignores its own
+    private volatile Snapshot snapshot;
+    private volatile boolean listening;
+    private volatile Connection listenConnection;
+    private Thread listener;
+
+    public LearningLevelCatalog(LearningLevelRepository repository, LearningLevelMapper mapper,
+                                LearningLevelCatalogProperties properties, DataSourceProperties dataSourceProperties,
+                                JdbcTemplate jdbcTemplate, PlatformTransactionManager txManager,
+                                EntityManagerFactory entityManagerFactory) {
+        if (!CHANNEL.matcher(properties.getChannel()).matches()) {
+            throw new IllegalArgumentException("Invalid learning-level-catalog.channel: " + properties.getChannel());
+        }
+        this.repository = repository;
+        this.mapper = mapper;
+        this.properties = properties;
+        this.dataSourceProperties = dataSourceProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.txTemplate = new TransactionTemplate(txManager);
+        // also called after commit, while the finished transaction's resources are still bound
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public Optional<LearningLevelDto> find(short level) {
+        return current().find(level);
+    }
+
+    /**
+     * All levels, ordered by level number.
+     */
+    public List<LearningLevelDto> levels() {
+        return current().levels();
+    }
+
+    public void reload() {
+        List<LearningLevelDto> levels = txTemplate.execute(status ->
+                repository.findAll(Sort.by("level")).stream().map(mapper::toDto).toList());
+        snapshot = Snapshot.of(levels);
+        log.debug("Learning level catalog loaded with {} level(s)", levels.size());
+    }
+
+    /**
+     * Called by every write to learning_levels, inside its transaction (if any).
+     */
+    public void changed() {
+        if (properties.isNotifyEnabled()) {
+            jdbcTemplate.query("select pg_notify(?, ?)", (RowCallbackHandler) rs -> { }, properties.getChannel(), nodeId);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reload();
+        if (!properties.isNotifyEnabled()) return;
+        listening = true;
+        listener = new Thread(this::listen, "learning-level-listen");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Scheduled(initialDelayString = "${learning-level-catalog.refresh-interval-ms:300000}",
+            fixedDelayString = "${learning-level-catalog.refresh-interval-ms:300000}")
+    public void refresh() {
+        reloadQuietly();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        listening = false;
+        Connection con = listenConnection;
+        if (con != null) {
+            try {
+                con.close();
+            } catch (SQLException ignored) {
+                // shutting down anyway
+            }
+        }
+        if (listener != null) listener.interrupt();
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            reload();
+            s = snapshot;
+        }
+        return s;
+    }
+
+    private void listen() {
+        while (listening) {
+            try (Connection con = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                listenConnection = con;
+                try (Statement st = con.createStatement()) {
+                    st.execute("LISTEN " + properties.getChannel());
+                }
+                PGConnection pg = con.unwrap(PGConnection.class);
+                // changes committed before LISTEN took effect were never announced to this connection
+                reloadChangedElsewhere();
+                while (listening) {
+                    PGNotification[] notifications = pg.getNotifications(properties.getListenTimeoutMs());
+                    if (notifications != null && fromOtherNode(notifications)) reloadChangedElsewhere();
+                }
+            } catch (SQLException ex) {
+                if (!listening) return;
+                log.warn("Learning level catalog: LISTEN connection failed ({}), retrying in {} ms",
+                        ex.getMessage(), properties.getReconnectDelayMs());
+                try {
+                    Thread.sleep(properties.getReconnectDelayMs());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                listenConnection = null;
+            }
+        }
+    }
+
+    private boolean fromOtherNode(PGNotification[] notifications) {
+        for (PGNotification n : notifications) {
+            if (!nodeId.equals(n.getParameter())) return true;
+        }
+        return false;
+    }
+
+    private void reloadChangedElsewhere() {
+        try {
+            entityManagerFactory.getCache().evict(LearningLevel.class);
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(LearningLevelRepository.QUERY_CACHE_REGION);
+        } catch (RuntimeException ex) {
+            log.warn("Learning level catalog: could not evict the second-level cache: {}", ex.getMessage());
+        }
+        reloadQuietly();
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException ex) {
+            log.warn("Learning level catalog reload failed, keeping the previous snapshot: {}", ex.getMessage());
+        }
+    }
+
+    private record Snapshot(LearningLevelDto[] byLevel, List<LearningLevelDto> levels) {
+
+        static Snapshot of(List<LearningLevelDto> levels) {
+            int max = levels.stream().mapToInt(LearningLevelDto::level).max().orElse(-1);
+            LearningLevelDto[] byLevel = new LearningLevelDto[max + 1];
+            for (LearningLevelDto l : levels) {
+                if (l.level() >= 0) byLevel[l.level()] = l;
+            }
+            return new Snapshot(byLevel, List.copyOf(levels));
+        }
+
+        Optional<LearningLevelDto> find(short level) {
+            return level >= 0 && level < byLevel.length ? Optional.ofNullable(byLevel[level]) : Optional.empty();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package pl.matgwiazda.service;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import pl.matgwiazda.domain.entity.LearningLevel;
 import pl.matgwiazda.dto.CreateLearningLevelCommand;
 import pl.matgwiazda.dto.LearningLevelDto;
@@ -20,21 +21,26 @@ public class LearningLevelService {
 
     private final LearningLevelRepository repository;
     private final LearningLevelMapper mapper;
+    private final LearningLevelCatalog catalog;
 
-    public LearningLevelService(LearningLevelRepository repository, LearningLevelMapper mapper) {
+    public LearningLevelService(LearningLevelRepository repository, LearningLevelMapper mapper, LearningLevelCatalog catalog) {
         this.repository = repository;
         this.mapper = mapper;
+        this.catalog = catalog;
     }
 
+    @Transactional(readOnly = true)
     public List<LearningLevelDto> listAll() {
         return repository.findAll().stream().map(mapper::toDto).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public LearningLevelDto getByLevel(short level) {
         LearningLevel ll = repository.findById(level).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Learning level not found"));
         return mapper.toDto(ll);
     }
 
+    @Transactional
     public LearningLevelDto create(CreateLearningLevelCommand cmd, UUID actor) {
         short level = cmd.getLevel();
         if (repository.existsById(level)) {
@@ -47,9 +53,11 @@ public class LearningLevelService {
         ent.setCreatedAt(Instant.now());
         ent.setCreatedBy(actor);
         repository.save(ent);
+        catalog.changed();
         return mapper.toDto(ent);
     }
 
+    @Transactional
     public LearningLevelDto update(short level, UpdateLearningLevelCommand cmd, UUID actor) {
         LearningLevel ent = repository.findById(level).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Learning level not found"));
         boolean changed = false;
@@ -65,12 +73,15 @@ public class LearningLevelService {
             ent.setModifiedAt(Instant.now());
             ent.setModifiedBy(actor);
             repository.save(ent);
+            catalog.changed();
         }
         return mapper.toDto(ent);
     }
 
+    @Transactional
     public void delete(short level) {
         if (!repository.existsById(level)) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Learning level not found");
         repository.deleteById(level);
+        catalog.changed();
     }
 }
@@ -1,22 +1,31 @@
 package pl.matgwiazda.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import pl.matgwiazda.config.AsyncConfig;
 import pl.matgwiazda.config.OpenRouterProperties;
 import pl.matgwiazda.dto.openrouter.AiTaskResult;
-import pl.matgwiazda.dto.openrouter.ChatCompletionRequest;
-import pl.matgwiazda.dto.openrouter.ChatMessage;
 import pl.matgwiazda.exception.OpenRouterException;
+import pl.matgwiazda.exception.OpenRouterUnavailableException;
+import pl.matgwiazda.service.openrouter.ModelRouter;
 import pl.matgwiazda.service.openrouter.OpenRouterHttpClient;
 import pl.matgwiazda.service.openrouter.OpenRouterResponseParser;
+import pl.matgwiazda.service.openrouter.PromptTemplate;
+import pl.matgwiazda.service.openrouter.PromptTemplateRegistry;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service responsible for interacting with OpenRouter.
@@ -25,25 +34,35 @@ import java.util.List;
  * - Input: seed (non-empty), optional level (1..8)
  * - Output: a validated {@link AiTaskResult}
  * - Errors: throws {@link OpenRouterException} for any validation, transport or parsing errors
+ *
+ * The model of each call comes from {@link ModelRouter}. When the chosen model has not answered within its p95
+ * latency, the same request is also sent to the next model and the first successful answer wins; a failed first
+ * call fails over to the next model right away.
  */
 @Service
 public class OpenRouterService {
 
     private static final Logger log = LoggerFactory.getLogger(OpenRouterService.class);
 
-    private final ObjectMapper objectMapper;
     private final OpenRouterProperties properties;
     private final OpenRouterHttpClient httpClient;
     private final OpenRouterResponseParser responseParser;
+    private final PromptTemplateRegistry promptTemplates;
+    private final ModelRouter modelRouter;
+    private final Executor hedgeExecutor;
 
-    public OpenRouterService(ObjectMapper objectMapper,
-                             OpenRouterProperties properties,
+    public OpenRouterService(OpenRouterProperties properties,
                              OpenRouterHttpClient httpClient,
-                             OpenRouterResponseParser responseParser) {
-        this.objectMapper = objectMapper;
+                             OpenRouterResponseParser responseParser,
+                             PromptTemplateRegistry promptTemplates,
+                             ModelRouter modelRouter,
+                             @Qualifier(AsyncConfig.OPENROUTER_HEDGE_EXECUTOR) Executor hedgeExecutor) {
         this.properties = properties;
         this.httpClient = httpClient;
         this.responseParser = responseParser;
+        this.promptTemplates = promptTemplates;
+        this.modelRouter = modelRouter;
+        this.hedgeExecutor = hedgeExecutor;
     }
 
     /**
@@ -62,45 +81,46 @@ public class OpenRouterService {
             throw new OpenRouterException("OpenRouter API key is not configured (openrouter.apiKey is empty)");
         }
 
-        String systemPrompt = "You are a math problem generator for primary school students. " +
-                "Create a new task every time a JSON object with fields: `prompt` (a short question), `options` (array of 4 strings), `correctIndex` (0-based integer), `explanation` (short text). Only output valid JSON in Polish.";
-
-        String userPrompt = String.format("seed: %s%nProduce the JSON exactly without extra commentary.", seed.trim());
+        // request JSON is pre-serialized per template; only the seed and the model are substituted here
+        PromptTemplate template = promptTemplates.pick(level);
+        log.debug("Preparing OpenRouter request: template={} v{} endpoint={}", template.getId(), template.getVersion(), properties.getEndpoint());
+        String rawResponse = postRouted(template, seed.trim(), 1);
 
+        // Delegate parsing to the response parser which returns the domain DTO
         try {
-            log.debug("Preparing OpenRouter request: model={} endpoint={}", properties.getDefaultModel(), properties.getEndpoint());
-
-            JsonNode responseFormat = loadResponseFormatIfPresent();
-
-            List<ChatMessage> messages = List.of(
-                    new ChatMessage("system", systemPrompt),
-                    new ChatMessage("user", userPrompt)
-            );
-
-            ChatCompletionRequest chatRequest = new ChatCompletionRequest(
-                    properties.getDefaultModel(),
-                    0.0,
-                    0.8,
-                    400,
-                    messages,
-                    responseFormat
-            );
+            return responseParser.parseAiTask(rawResponse);
+        } catch (OpenRouterException ore) {
+            // Add context about the request that failed
+            throw new OpenRouterException("Failed to parse OpenRouter response: " + ore.getMessage() + "; rawResponse=" + shorten(rawResponse), ore);
+        }
+    }
 
-            String requestBody = objectMapper.writeValueAsString(chatRequest);
+    /**
+     * Generate up to {@code count} tasks in a single completion using a batch template of the level.
+     * Invalid elements of the answer are dropped, so fewer tasks than requested may be returned.
+     * Levels without a batch template fall back to a single-task call.
+     * @return at least one validated AiTaskResult
+     * @throws OpenRouterException when configuration is missing, transport fails or no element is valid
+     */
+    public List<AiTaskResult> generateTasksFromSeed(String seed, short level, int count) {
+        if (count < 1) throw new OpenRouterException("count must be positive");
+        Optional<PromptTemplate> batch = count > 1 ? promptTemplates.pickBatch(level) : Optional.empty();
+        if (batch.isEmpty()) return List.of(generateTaskFromSeed(seed, level));
 
-            String rawResponse = httpClient.post(requestBody);
+        if (!StringUtils.hasText(seed)) throw new OpenRouterException("seed must not be empty");
+        if (level < 1 || level > 8) throw new OpenRouterException("level must be in range 1..8");
+        if (!StringUtils.hasText(this.properties.getApiKey())) {
+            throw new OpenRouterException("OpenRouter API key is not configured (openrouter.apiKey is empty)");
+        }
 
-            // Delegate parsing to the response parser which returns the domain DTO
-            try {
-                return responseParser.parseAiTask(rawResponse);
-            } catch (OpenRouterException ore) {
-                // Add context about the request that failed
-                throw new OpenRouterException("Failed to parse OpenRouter response: " + ore.getMessage() + "; rawResponse=" + shorten(rawResponse), ore);
-            }
+        PromptTemplate template = batch.get();
+        log.debug("Preparing OpenRouter batch request: template={} v{} count={}", template.getId(), template.getVersion(), count);
+        String rawResponse = postRouted(template, seed.trim(), count);
 
-        } catch (IOException ex) {
-            log.error("Failed preparing request for OpenRouter: {}", ex.getMessage(), ex);
-            throw new OpenRouterException("Failed preparing request to OpenRouter: " + ex.getMessage(), ex);
+        try {
+            return responseParser.parseAiTasks(rawResponse);
+        } catch (OpenRouterException ore) {
+            throw new OpenRouterException("Failed to parse OpenRouter batch response: " + ore.getMessage() + "; rawResponse=" + shorten(rawResponse), ore);
         }
     }
 
@@ -114,10 +134,76 @@ public class OpenRouterService {
         return generateTaskFromSeed(seed, l);
     }
 
-    private JsonNode loadResponseFormatIfPresent() throws IOException {
-        try (InputStream schemaStream = getClass().getResourceAsStream("/openrouter/math_prompt_v1.json")) {
-            if (schemaStream == null) return null;
-            return objectMapper.readTree(schemaStream);
+    private String postRouted(PromptTemplate template, String seed, int count) {
+        List<ModelRouter.Route> routes = modelRouter.rank();
+        ModelRouter.Route primary = routes.get(0);
+        if (routes.size() < 2 || !properties.isHedgeEnabled()) return post(primary, template, seed, count);
+        ModelRouter.Route backup = routes.get(1);
+
+        CompletableFuture<String> first;
+        try {
+            first = CompletableFuture.supplyAsync(() -> post(primary, template, seed, count), hedgeExecutor);
+        } catch (TaskRejectedException ex) {
+            return post(primary, template, seed, count); // hedge executor saturated
+        }
+
+        long delay = modelRouter.hedgeDelayMs(primary);
+        try {
+            return first.get(delay, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException slow) {
+            log.debug("Model {} slower than {} ms, hedging with {}", primary.getModel(), delay, backup.getModel());
+            CompletableFuture<String> second;
+            try {
+                second = CompletableFuture.supplyAsync(() -> post(backup, template, seed, count), hedgeExecutor);
+            } catch (TaskRejectedException ex) {
+                return await(first);
+            }
+            return await(firstSuccessful(first, second));
+        } catch (ExecutionException failed) {
+            // circuit open or limiter full: the next model would be refused as well
+            if (failed.getCause() instanceof OpenRouterUnavailableException une) throw une;
+            log.debug("Model {} failed ({}), failing over to {}", primary.getModel(), failed.getCause().getMessage(), backup.getModel());
+            return post(backup, template, seed, count);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new OpenRouterUnavailableException("Interrupted while waiting for OpenRouter");
+        }
+    }
+
+    // one call to one model; the outcome feeds the router statistics
+    private String post(ModelRouter.Route route, PromptTemplate template, String seed, int count) {
+        long started = System.nanoTime();
+        try {
+            String body = httpClient.post(template.render(seed, count, route.getRequestFragment()));
+            modelRouter.record(route, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), true);
+            return body;
+        } catch (OpenRouterUnavailableException ex) {
+            throw ex; // refused locally, says nothing about the model
+        } catch (OpenRouterException ex) {
+            modelRouter.record(route, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), false);
+            throw ex;
+        }
+    }
+
+    private static CompletableFuture<String> firstSuccessful(CompletableFuture<String> a, CompletableFuture<String> b) {
+        CompletableFuture<String> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        for (CompletableFuture<String> f : List.of(a, b)) {
+            f.whenComplete((body, error) -> {
+                if (error == null) winner.complete(body);
+                else if (pending.decrementAndGet() == 0) winner.completeExceptionally(error);
+            });
+        }
+        return winner;
+    }
+
+    private static String await(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            throw new OpenRouterException("OpenRouter call failed: " + cause, cause);
         }
     }
 
@@ -1,20 +1,22 @@
 package pl.matgwiazda.service;
 
-import org.springframework.data.domain.Sort;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 import pl.matgwiazda.domain.entity.Progress;
 import pl.matgwiazda.domain.entity.Task;
 import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.dto.KeysetPageDto;
 import pl.matgwiazda.dto.ProgressDto;
 import pl.matgwiazda.dto.ProgressSubmitCommand;
 import pl.matgwiazda.dto.ProgressSubmitResponseDto;
-import pl.matgwiazda.mapper.ProgressMapper;
 import pl.matgwiazda.repository.ProgressRepository;
 import pl.matgwiazda.repository.UserRepository;
-import pl.matgwiazda.repository.TaskRepository;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,16 +26,21 @@ import java.util.UUID;
 @Service
 public class ProgressService {
 
+    // Simple points awarding policy: 1 point for a correct answer, 0 otherwise; a star and a level every 50 points
+    static final int POINTS_PER_CORRECT_ANSWER = 1;
+    static final int POINTS_PER_LEVEL = 50;
+
     private final ProgressRepository progressRepository;
     private final UserRepository userRepository;
-    private final ProgressMapper progressMapper;
-    private final TaskRepository taskRepository;
+    private final UserStatsBuffer userStatsBuffer;
+    private final EntityManagerFactory entityManagerFactory;
 
-    public ProgressService(ProgressRepository progressRepository, UserRepository userRepository, ProgressMapper progressMapper, TaskRepository taskRepository) {
+    public ProgressService(ProgressRepository progressRepository, UserRepository userRepository, UserStatsBuffer userStatsBuffer,
+                           EntityManagerFactory entityManagerFactory) {
         this.progressRepository = progressRepository;
         this.userRepository = userRepository;
-        this.progressMapper = progressMapper;
-        this.taskRepository = taskRepository;
+        this.userStatsBuffer = userStatsBuffer;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     /**
@@ -64,94 +71,105 @@ public class ProgressService {
 
     /**
      * Submit an answer for a previously created Progress record.
-     * This method locks the progress row for update, validates ownership, marks it finalized and
-     * updates user points. It returns a minimal response DTO used by the controller.
+     * Finalizes the entry, updates user points/stars/level and deactivates the task with a single
+     * set-based statement guarded by {@code finalized = false} (no row locks taken up front); only a
+     * rejected submit costs a second query, to report why. Returns a minimal response DTO used by the controller.
+     * With {@code user-stats.write-behind} the user row is not written; the points go through {@link UserStatsBuffer}.
+     * The task is deactivated behind Hibernate's back, so its second-level cache entry is evicted once the submit commits.
      */
     @Transactional
     public ProgressSubmitResponseDto submitProgress(UUID userId, ProgressSubmitCommand cmd) {
         if (cmd == null || cmd.getProgressId() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "progressId is required");
         }
+        if (userStatsBuffer.isEnabled()) return submitDeferred(userId, cmd);
 
-        Optional<Progress> opt = progressRepository.findByIdForUpdate(cmd.getProgressId());
-        if (opt.isEmpty()) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Progress not found");
-
-        Progress p = opt.get();
-
-        // If userId provided, ensure the progress belongs to that user
-        if (userId != null && p.getUser() != null && !userId.equals(p.getUser().getId())) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Progress does not belong to the user");
-        }
-
-        if (p.isFinalized()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Progress already finalized");
-        }
+        ProgressRepository.SubmitResult r = progressRepository.submit(cmd.getProgressId(), userId,
+                        cmd.getSelectedOptionIndex(), cmd.getTimeTakenMs(), POINTS_PER_CORRECT_ANSWER, POINTS_PER_LEVEL)
+                .orElseThrow(() -> submitRejected(userId, cmd.getProgressId()));
+        evictTaskAfterCommit(r.getTaskId());
 
-        Short selected = cmd.getSelectedOptionIndex();
-        p.setSelectedOptionIndex(selected);
-        p.setTimeTakenMs(cmd.getTimeTakenMs());
-
-        // Determine correctness
-        boolean correct = false;
-        if (selected != null && p.getTask() != null) {
-            short correctIdx = p.getTask().getCorrectOptionIndex();
-            correct = (selected.shortValue() == correctIdx);
-        }
-        p.setCorrect(correct);
-        p.setFinalized(true);
-
-        // Simple points awarding policy: 1 points for correct, 0 otherwise
-        int points = correct ? 1 : 0;
-        p.setPointsAwarded(points);
-
-        Progress saved = progressRepository.save(p);
+        int levelUp = r.getLevelsGained();
+        return new ProgressSubmitResponseDto(r.getProgressId(), r.getCorrect(), r.getPointsAwarded(), r.getUserPoints(),
+                r.getStars() + levelUp, levelUp > 0, r.getCurrentLevel(), r.getExplanation());
+    }
 
-        // Update user points if present
-        int levelUp = updateUserStatsAndReturnLevelsGained(saved.getUser(), points);
+    private ProgressSubmitResponseDto submitDeferred(UUID userId, ProgressSubmitCommand cmd) {
+        ProgressRepository.SubmitResult r = progressRepository.submitDeferred(cmd.getProgressId(), userId,
+                        cmd.getSelectedOptionIndex(), cmd.getTimeTakenMs(), POINTS_PER_CORRECT_ANSWER)
+                .orElseThrow(() -> submitRejected(userId, cmd.getProgressId()));
+        evictTaskAfterCommit(r.getTaskId());
+
+        // stored values plus what is still buffered, as UserService would report them
+        long before = r.getUserPoints() + userStatsBuffer.pendingPoints(r.getUserId());
+        long after = before + r.getPointsAwarded();
+        int levelUp = UserStatsBuffer.levelsCrossed(before, after);
+        int crossedSinceStored = UserStatsBuffer.levelsCrossed(r.getUserPoints(), after);
+        userStatsBuffer.record(r.getProgressId(), r.getUserId(), r.getPointsAwarded());
+
+        return new ProgressSubmitResponseDto(r.getProgressId(), r.getCorrect(), r.getPointsAwarded(), (int) after,
+                r.getStars() + crossedSinceStored + levelUp, levelUp > 0,
+                (short) (r.getCurrentLevel() + crossedSinceStored), r.getExplanation());
+    }
 
-        // deactivate task so it won't be served again
-        if (saved.getTask() != null && saved.getTask().getId() != null) {
-            try {
-                Task t = taskRepository.findById(saved.getTask().getId()).orElse(null);
-                if (t != null && t.isActive()) {
-                    t.setActive(false);
-                    taskRepository.save(t);
+    // after commit, so that a concurrent load cannot put the still-active row back before the update is visible
+    private void evictTaskAfterCommit(UUID taskId) {
+        if (taskId == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entityManagerFactory.getCache().evict(Task.class, taskId);
                 }
-            } catch (Exception ignored) {
-                // avoid failing submit due to task save; log if needed in real app
-            }
+            });
+        } else {
+            entityManagerFactory.getCache().evict(Task.class, taskId);
         }
-
-        String explanation = null;
-        if (saved.getTask() != null) explanation = saved.getTask().getExplanation();
-
-        return new ProgressSubmitResponseDto(saved.getId(), saved.isCorrect(), saved.getPointsAwarded(), saved.getUser().getPoints(),
-                saved.getUser().getStars() + levelUp, levelUp > 0, saved.getUser().getCurrentLevel(), explanation);
     }
 
-    private int updateUserStatsAndReturnLevelsGained(User user, int pointsAwarded) {
-        int newUserPoints = user.getPoints() + pointsAwarded;
-        int previousThresholdCount = user.getPoints() / 50;
-        int newThresholdCount = newUserPoints / 50;
-        int levelsGained = Math.max(0, newThresholdCount - previousThresholdCount);
-        user.setActiveProgressId(null);
-        user.setPoints(newUserPoints);
-        user.setStars(user.getStars() + levelsGained);
-        user.setCurrentLevel((short) (user.getCurrentLevel() + levelsGained));
-        userRepository.save(user);
-        return levelsGained;
+    private ResponseStatusException submitRejected(UUID userId, UUID progressId) {
+        Optional<ProgressRepository.SubmitState> state = progressRepository.findSubmitState(progressId);
+        if (state.isEmpty()) return new ResponseStatusException(HttpStatus.NOT_FOUND, "Progress not found");
+        // If userId provided, ensure the progress belongs to that user
+        if (userId != null && !userId.equals(state.get().getUserId())) {
+            return new ResponseStatusException(HttpStatus.FORBIDDEN, "Progress does not belong to the user");
+        }
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Progress already finalized");
     }
+
     /**
-     * List all progress entries for a user (non-paged). Returns DTOs mapped with ProgressMapper.
+     * List all progress entries for a user (non-paged), newest first. Prefer {@link #listProgress} for anything
+     * that can grow.
      */
+    @Transactional(readOnly = true)
     public List<ProgressDto> listAllProgress(UUID userId) {
         if (userId == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId is required");
-        List<Progress> list = progressRepository.findByUserId(userId, Sort.by(Sort.Direction.DESC, "createdAt"));
-        List<ProgressDto> out = new ArrayList<>();
-        for (Progress p : list) {
-            out.add(progressMapper.toDto(p));
+        return progressRepository.findDtosByUserId(userId, Limit.unlimited());
+    }
+
+    /**
+     * One page of the user's progress history, newest first, keyset-paginated on {@code (createdAt, id)}.
+     * {@code cursor} is the {@code nextCursor} of the previous page (null for the first page); {@code limit}
+     * defaults to 20 and is capped at 100.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDto<ProgressDto> listProgress(UUID userId, String cursor, Integer limit) {
+        if (userId == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId is required");
+        int size = KeysetCursor.pageSize(limit);
+
+        // one extra row tells whether another page follows
+        Limit fetch = Limit.of(size + 1);
+        List<ProgressDto> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = progressRepository.findDtosByUserId(userId, fetch);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = progressRepository.findDtosByUserIdBefore(userId, after.createdAt(), after.id(), fetch);
         }
-        return out;
+        if (rows.size() <= size) return new KeysetPageDto<>(rows, null);
+
+        List<ProgressDto> page = new ArrayList<>(rows.subList(0, size));
+        ProgressDto last = page.get(size - 1);
+        return new KeysetPageDto<>(page, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
     }
 }
-
@@ -0,0 +1,120 @@
+package pl.matgwiazda.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.matgwiazda.config.TaskDedupeProperties;
+import pl.matgwiazda.domain.entity.Task;
+import pl.matgwiazda.repository.TaskRepository;
+import pl.matgwiazda.service.dedupe.FingerprintBloomFilter;
+import pl.matgwiazda.service.dedupe.TaskFingerprint;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Detects generated tasks whose content already exists.
+ *
+ * Contract:
+ * - fingerprints are checked against an in-memory Bloom filter first; only possible hits go to the database
+ *   (the unique index on tasks.fingerprint stays the source of truth)
+ * - the filter is filled from the database once the application is ready; until then every check goes to the database
+ * - every stored fingerprint must be {@link #register(String) registered} so the filter stays complete
+ */
+@Service
+public class TaskDedupeService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskDedupeService.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskDedupeProperties properties;
+    private final FingerprintBloomFilter filter;
+    private final AtomicLong filterHits = new AtomicLong();
+    private final AtomicLong confirmedDuplicates = new AtomicLong();
+    private volatile boolean loaded;
+
+    public TaskDedupeService(TaskRepository taskRepository, TaskDedupeProperties properties) {
+        this.taskRepository = taskRepository;
+        this.properties = properties;
+        this.filter = new FingerprintBloomFilter(properties.getExpectedTasks(), properties.getFalsePositiveRate());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadExistingFingerprints() {
+        if (!properties.isEnabled()) return;
+        long count = 0;
+        try (Stream<String> fingerprints = taskRepository.streamFingerprints()) {
+            for (String fp : (Iterable<String>) fingerprints::iterator) {
+                filter.put(fp);
+                count++;
+            }
+        }
+        loaded = true;
+        log.info("Task dedupe filter loaded with {} fingerprint(s) ({} bits, {} hashes)", count, filter.bitCount(), filter.hashCount());
+    }
+
+    public String fingerprint(Task task) {
+        return TaskFingerprint.of(task.getPrompt(), task.getOptions());
+    }
+
+    public int getMaxRerolls() {
+        return properties.getMaxRerolls();
+    }
+
+    /**
+     * True when a task with this fingerprint is already stored.
+     */
+    public boolean isDuplicate(String fingerprint) {
+        if (!properties.isEnabled() || fingerprint == null) return false;
+        if (loaded && !filter.mightContain(fingerprint)) return false;
+        filterHits.incrementAndGet();
+        boolean exists = taskRepository.existsByFingerprint(fingerprint);
+        if (exists) confirmedDuplicates.incrementAndGet();
+        return exists;
+    }
+
+    /**
+     * Set the fingerprint on each task and return only those whose content is neither stored yet
+     * nor repeated earlier in the list. Uses one database query for all possible hits.
+     */
+    public List<Task> retainUnique(List<Task> tasks) {
+        if (!properties.isEnabled()) return tasks;
+        Set<String> candidates = new HashSet<>();
+        for (Task task : tasks) {
+            String fp = fingerprint(task);
+            task.setFingerprint(fp);
+            if (!loaded || filter.mightContain(fp)) candidates.add(fp);
+        }
+        Set<String> existing = candidates.isEmpty() ? Set.of() : new HashSet<>(taskRepository.findExistingFingerprints(candidates));
+        filterHits.addAndGet(candidates.size());
+        confirmedDuplicates.addAndGet(existing.size());
+
+        Set<String> seen = new HashSet<>(existing);
+        List<Task> unique = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (seen.add(task.getFingerprint())) unique.add(task);
+        }
+        if (unique.size() < tasks.size()) log.debug("Dropped {} duplicate task(s)", tasks.size() - unique.size());
+        return unique;
+    }
+
+    public void register(String fingerprint) {
+        if (fingerprint != null) filter.put(fingerprint);
+    }
+
+    public long getFilterHits() {
+        return filterHits.get();
+    }
+
+    public long getConfirmedDuplicates() {
+        return confirmedDuplicates.get();
+    }
+}
@@ -0,0 +1,171 @@
+package pl.matgwiazda.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pl.matgwiazda.config.AsyncConfig;
+import pl.matgwiazda.config.TaskGenerationJobProperties;
+import pl.matgwiazda.domain.enums.TaskGenerationJobStatus;
+import pl.matgwiazda.dto.TaskGenerateCommand;
+import pl.matgwiazda.dto.TaskGenerationJobDto;
+import pl.matgwiazda.dto.TaskWithProgressDto;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs task generation in the background so servlet threads do not block while the AI answers.
+ *
+ * Jobs live in memory only (single node); finished jobs are dropped after {@code task-generation.jobs.ttl-ms}.
+ * A user has at most one unfinished job - submitting again returns the pending one.
+ */
+@Service
+public class TaskGenerationJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskGenerationJobService.class);
+    private static final String JOB_NOT_FOUND = "Job not found";
+
+    private final TaskService taskService;
+    private final Executor executor;
+    private final TaskGenerationJobProperties properties;
+
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<UUID, UUID> pendingJobByUser = new ConcurrentHashMap<>();
+
+    public TaskGenerationJobService(TaskService taskService,
+                                    @Qualifier(AsyncConfig.TASK_GENERATION_EXECUTOR) Executor executor,
+                                    TaskGenerationJobProperties properties) {
+        this.taskService = taskService;
+        this.executor = executor;
+        this.properties = properties;
+    }
+
+    /**
+     * Start generating a task for the user and return immediately with the job state.
+     */
+    public TaskGenerationJobDto submit(TaskGenerateCommand cmd, UUID userId) {
+        if (userId == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId is required");
+
+        Job job = new Job(UUID.randomUUID(), userId);
+        jobs.put(job.id, job);
+        UUID existingId = pendingJobByUser.putIfAbsent(userId, job.id);
+        if (existingId != null) {
+            jobs.remove(job.id);
+            Job existing = jobs.get(existingId);
+            if (existing != null) return existing.toDto();
+            // stale mapping of an evicted job
+            pendingJobByUser.remove(userId, existingId);
+            return submit(cmd, userId);
+        }
+
+        try {
+            CompletableFuture.supplyAsync(() -> {
+                job.status = TaskGenerationJobStatus.RUNNING;
+                return taskService.generateTask(cmd, userId);
+            }, executor).whenComplete((result, error) -> finish(job, result, error));
+        } catch (TaskRejectedException ex) {
+            jobs.remove(job.id);
+            pendingJobByUser.remove(userId, job.id);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many task generations in progress, try again later");
+        }
+        return job.toDto();
+    }
+
+    /**
+     * Current state of a job. Jobs of other users are reported as not found.
+     */
+    public TaskGenerationJobDto getJob(UUID jobId, UUID userId) {
+        return findOwnedJob(jobId, userId).toDto();
+    }
+
+    /**
+     * Stream job state as server-sent events: one `status` event now and a final `completed` or `failed` event.
+     */
+    public SseEmitter subscribe(UUID jobId, UUID userId) {
+        Job job = findOwnedJob(jobId, userId);
+        SseEmitter emitter = new SseEmitter(properties.getSseTimeoutMs());
+        if (!send(emitter, "status", job.toDto())) return emitter;
+
+        job.completion.whenComplete((dto, error) -> {
+            if (send(emitter, dto.getStatus() == TaskGenerationJobStatus.COMPLETED ? "completed" : "failed", dto)) {
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Drop finished jobs older than the configured TTL.
+     */
+    @Scheduled(fixedDelayString = "${task-generation.jobs.ttl-ms:600000}")
+    public void evictExpiredJobs() {
+        Instant threshold = Instant.now().minusMillis(properties.getTtlMs());
+        jobs.values().removeIf(j -> j.completedAt != null && j.completedAt.isBefore(threshold));
+    }
+
+    private Job findOwnedJob(UUID jobId, UUID userId) {
+        Job job = jobs.get(jobId);
+        if (job == null || (userId != null && !userId.equals(job.userId))) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, JOB_NOT_FOUND);
+        }
+        return job;
+    }
+
+    private void finish(Job job, TaskWithProgressDto result, Throwable error) {
+        if (error == null) {
+            job.result = result;
+            job.status = TaskGenerationJobStatus.COMPLETED;
+        } else {
+            Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+            job.error = cause instanceof ResponseStatusException rse ? rse.getReason() : cause.getMessage();
+            job.status = TaskGenerationJobStatus.FAILED;
+            log.warn("Task generation job {} failed: {}", job.id, job.error);
+        }
+        job.completedAt = Instant.now();
+        pendingJobByUser.remove(job.userId, job.id);
+        job.completion.complete(job.toDto());
+    }
+
+    private boolean send(SseEmitter emitter, String event, TaskGenerationJobDto dto) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(dto));
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            // client went away or emitter already timed out
+            emitter.completeWithError(ex);
+            return false;
+        }
+    }
+
+    private static final class Job {
+        private final UUID id;
+        private final UUID userId;
+        private final Instant createdAt = Instant.now();
+        private final CompletableFuture<TaskGenerationJobDto> completion = new CompletableFuture<>();
+        private volatile TaskGenerationJobStatus status = TaskGenerationJobStatus.PENDING;
+        private volatile TaskWithProgressDto result;
+        private volatile String error;
+        private volatile Instant completedAt;
+
+        private Job(UUID id, UUID userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+
+        private TaskGenerationJobDto toDto() {
+            return new TaskGenerationJobDto(id, status, result, error, createdAt, completedAt);
+        }
+    }
+}
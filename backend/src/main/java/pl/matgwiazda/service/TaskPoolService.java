@@ -0,0 +1,169 @@
+package pl.matgwiazda.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pl.matgwiazda.config.AsyncConfig;
+import pl.matgwiazda.config.TaskPoolProperties;
+import pl.matgwiazda.domain.entity.LearningLevel;
+import pl.matgwiazda.domain.entity.Task;
+import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.exception.OpenRouterException;
+import pl.matgwiazda.mapper.TaskMapper;
+import pl.matgwiazda.repository.LearningLevelRepository;
+import pl.matgwiazda.repository.TaskRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps a pool of ready, unassigned tasks per learning level so that task generation
+ * does not have to wait for the AI on the request path.
+ *
+ * Contract:
+ * - {@link #claim(short)} must run inside the caller's transaction; it takes one pooled row with
+ *   {@code FOR UPDATE SKIP LOCKED} and marks it as no longer pooled
+ * - {@link #refill()} tops every level up to {@code task-pool.target-size}; the scheduler only hands it to the
+ *   single-thread refill executor, so AI calls never hold up the other scheduled jobs, and a trigger that finds
+ *   the previous run still going is skipped
+ */
+@Service
+public class TaskPoolService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskPoolService.class);
+
+    private final TaskRepository taskRepository;
+    private final LearningLevelRepository learningLevelRepository;
+    private final OpenRouterService openRouterService;
+    private final TaskMapper taskMapper;
+    private final TaskPoolProperties properties;
+    private final TaskDedupeService taskDedupeService;
+    private final Executor refillExecutor;
+
+    public TaskPoolService(TaskRepository taskRepository,
+                           LearningLevelRepository learningLevelRepository,
+                           OpenRouterService openRouterService,
+                           TaskMapper taskMapper,
+                           TaskPoolProperties properties,
+                           TaskDedupeService taskDedupeService,
+                           @Qualifier(AsyncConfig.TASK_POOL_REFILL_EXECUTOR) Executor refillExecutor) {
+        this.taskRepository = taskRepository;
+        this.learningLevelRepository = learningLevelRepository;
+        this.openRouterService = openRouterService;
+        this.taskMapper = taskMapper;
+        this.properties = properties;
+        this.taskDedupeService = taskDedupeService;
+        this.refillExecutor = refillExecutor;
+    }
+
+    /**
+     * Claim one pooled task for the level. Returns empty when the pool is disabled or drained.
+     */
+    public Optional<Task> claim(short level) {
+        if (!properties.isEnabled()) return Optional.empty();
+        Optional<Task> claimed = taskRepository.findPooledForClaim(level);
+        claimed.ifPresent(t -> t.setPooled(false));
+        return claimed;
+    }
+
+    @Scheduled(initialDelayString = "${task-pool.refill-interval-ms:60000}", fixedDelayString = "${task-pool.refill-interval-ms:60000}")
+    public void scheduleRefill() {
+        if (!properties.isEnabled()) return;
+        try {
+            refillExecutor.execute(this::refill);
+        } catch (TaskRejectedException ex) {
+            log.debug("Task pool refill still running, skipping this trigger");
+        }
+    }
+
+    /**
+     * Top up the pool of every learning level. Failures of a single level are logged and do not stop the run.
+     */
+    public void refill() {
+        if (!properties.isEnabled()) return;
+        for (LearningLevel level : learningLevelRepository.findAll()) {
+            try {
+                refillLevel(level);
+            } catch (RuntimeException ex) {
+                log.warn("Task pool refill failed for level {}: {}", level.getLevel(), ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Generate tasks for one level until the pool reaches its target size or the per-run budget of AI calls is used.
+     * Each call asks for up to {@code task-pool.batch-size} tasks; the valid ones whose content is not stored yet
+     * are inserted in one batch.
+     *
+     * @return number of tasks added to the pool
+     */
+    public int refillLevel(LearningLevel level) {
+        if (level == null || level.getLevel() == null) return 0;
+        short lvl = level.getLevel();
+        long missing = properties.getTargetSize() - taskRepository.countByLevelAndPooled(lvl, true);
+
+        int added = 0;
+        for (int call = 0; call < properties.getMaxGenerationsPerRun() && added < missing; call++) {
+            int count = (int) Math.min(properties.getBatchSize(), missing - added);
+            List<Task> generated = generate(level, count).stream().map(ai -> toPooledTask(ai, lvl)).toList();
+            if (generated.isEmpty()) break; // AI unavailable - try again on the next run
+            List<Task> tasks = taskDedupeService.retainUnique(generated);
+            if (tasks.isEmpty()) continue; // only duplicates - spend the next call
+            if (tasks.size() == 1) {
+                taskRepository.save(tasks.get(0));
+            } else {
+                taskRepository.saveAll(tasks);
+            }
+            tasks.forEach(t -> taskDedupeService.register(t.getFingerprint()));
+            added += tasks.size();
+        }
+        if (added > 0) log.debug("Task pool: added {} task(s) for level {}", added, lvl);
+        return added;
+    }
+
+    /**
+     * Put an already generated task into the pool of its level (e.g. an AI answer that arrived too late for its request).
+     * Duplicates and a full pool are ignored.
+     */
+    public void offer(AiTaskResult ai, short level) {
+        if (!properties.isEnabled() || ai == null) return;
+        try {
+            if (taskRepository.countByLevelAndPooled(level, true) >= properties.getTargetSize()) return;
+            List<Task> unique = taskDedupeService.retainUnique(List.of(toPooledTask(ai, level)));
+            if (unique.isEmpty()) return;
+            taskRepository.save(unique.get(0));
+            taskDedupeService.register(unique.get(0).getFingerprint());
+        } catch (RuntimeException ex) {
+            log.debug("Could not add task to the pool of level {}: {}", level, ex.getMessage());
+        }
+    }
+
+    private List<AiTaskResult> generate(LearningLevel level, int count) {
+        try {
+            if (count == 1) {
+                AiTaskResult single = openRouterService.generateTaskFromSeed(level.getDescription(), level.getLevel());
+                return single == null ? List.of() : List.of(single);
+            }
+            return openRouterService.generateTasksFromSeed(level.getDescription(), level.getLevel(), count);
+        } catch (OpenRouterException ex) {
+            log.warn("Task pool generation failed for level {}: {}", level.getLevel(), ex.getMessage());
+            return List.of();
+        }
+    }
+
+    private Task toPooledTask(AiTaskResult ai, short level) {
+        Task task = taskMapper.fromAiResult(ai);
+        task.setLevel(level);
+        task.setActive(true);
+        task.setPooled(true);
+        if (task.getOptions() != null) {
+            task.setOptions(new ArrayList<>(task.getOptions()));
+        }
+        return task;
+    }
+}
@@ -4,31 +4,40 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
-import pl.matgwiazda.domain.entity.LearningLevel;
 import pl.matgwiazda.domain.entity.Progress;
 import pl.matgwiazda.domain.entity.Task;
 import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.dto.KeysetPageDto;
+import pl.matgwiazda.dto.LearningLevelDto;
 import pl.matgwiazda.dto.TaskDto;
+import pl.matgwiazda.dto.TaskFilter;
 import pl.matgwiazda.dto.TaskGenerateCommand;
 import pl.matgwiazda.dto.TaskWithProgressDto;
 import pl.matgwiazda.dto.openrouter.AiTaskResult;
-import pl.matgwiazda.exception.OpenRouterException;
 import pl.matgwiazda.mapper.TaskMapper;
-import pl.matgwiazda.repository.LearningLevelRepository;
 import pl.matgwiazda.repository.ProgressRepository;
 import pl.matgwiazda.repository.TaskRepository;
+import pl.matgwiazda.repository.TaskRow;
+import pl.matgwiazda.repository.TaskSpecifications;
 import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.service.generator.GeneratedTask;
+import pl.matgwiazda.service.generator.TaskGeneratorChain;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 public class TaskService {
@@ -42,84 +51,178 @@ public class TaskService {
     private final TaskMapper taskMapper;
     private final ProgressRepository progressRepository;
     private final TransactionTemplate txTemplate;
-    private final LearningLevelRepository learningLevelRepository;
-    private final OpenRouterService openRouterService;
+    private final LearningLevelCatalog learningLevelCatalog;
+    private final TaskGeneratorChain taskGenerators;
     private final ProgressService progressService;
+    private final TaskPoolService taskPoolService;
+    private final TaskDedupeService taskDedupeService;
 
     @Autowired
-    public TaskService(TaskRepository taskRepository, UserRepository userRepository, TaskMapper taskMapper, ProgressRepository progressRepository, PlatformTransactionManager txManager, LearningLevelRepository learningLevelRepository, OpenRouterService openRouterService, ProgressService progressService) {
+    public TaskService(TaskRepository taskRepository, UserRepository userRepository, TaskMapper taskMapper, ProgressRepository progressRepository, PlatformTransactionManager txManager, LearningLevelCatalog learningLevelCatalog, TaskGeneratorChain taskGenerators, ProgressService progressService, TaskPoolService taskPoolService, TaskDedupeService taskDedupeService) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.taskMapper = taskMapper;
         this.progressRepository = progressRepository;
         this.txTemplate = new TransactionTemplate(txManager);
-        this.learningLevelRepository = learningLevelRepository;
-        this.openRouterService = openRouterService;
+        this.learningLevelCatalog = learningLevelCatalog;
+        this.taskGenerators = taskGenerators;
         this.progressService = progressService;
+        this.taskPoolService = taskPoolService;
+        this.taskDedupeService = taskDedupeService;
     }
 
     /**
      * Generate a task for a user (with retry on concurrency failures).
+     *
+     * Runs in three phases so that no DB connection or user row lock is held while the AI answers:
+     * 1. short transaction: lock the user, return an existing active progress or assign a pooled task
+     * 2. generation outside of any transaction: the AI within {@code task-generator.ai-deadline-ms}, else the local
+     *    generator; a result whose content is already stored is re-rolled up to {@code task-dedupe.max-rerolls} times
+     * 3. short transaction: lock the user again and persist; if a concurrent request already assigned
+     *    a task in the meantime, that one is returned and the freshly generated task goes to the pool
      */
     public TaskWithProgressDto generateTask(TaskGenerateCommand cmd, UUID userId) {
-        int attempt = 0;
+        // Learning level from the in-memory catalog (no query on the generation path)
+        Optional<LearningLevelDto> learningLevel = fetchLearningLevel(cmd);
 
-        // Fetch learning level early (avoid holding DB locks while calling external API)
-        Optional<LearningLevel> learningLevel = fetchLearningLevel(cmd);
+        Optional<TaskWithProgressDto> assigned = executeWithRetry(() -> txTemplate.execute(status -> assignExistingOrPooled(cmd, userId)));
+        if (assigned.isPresent()) return assigned.get();
 
-        while (true) {
-            attempt++;
-            try {
-                final LearningLevel finalLearningLevel = learningLevel.orElse(null); // capture for tx
-                return txTemplate.execute(status -> performGenerateTx(cmd, userId, finalLearningLevel));
-            } catch (ConcurrencyFailureException ex) {
-                if (attempt >= DEFAULT_MAX_ATTEMPTS) throw ex;
-                sleepBackoff(attempt);
-            }
+        Task generated = generateTaskOutsideTx(cmd, learningLevel.orElse(null));
+
+        TaskWithProgressDto result;
+        try {
+            result = executeWithRetry(() -> txTemplate.execute(status -> persistGenerated(cmd, userId, generated)));
+        } catch (DataIntegrityViolationException ex) {
+            if (generated.getFingerprint() == null) throw ex;
+            // the same content was stored concurrently (unique fingerprint); keep the task as a plain repeat
+            log.debug("Generated task collided with a concurrently stored duplicate, storing without fingerprint");
+            generated.setFingerprint(null);
+            result = executeWithRetry(() -> txTemplate.execute(status -> persistGenerated(cmd, userId, generated)));
         }
+        taskDedupeService.register(generated.getFingerprint());
+        return result;
     }
 
-    // Transactional worker method
-    private TaskWithProgressDto performGenerateTx(TaskGenerateCommand cmd, UUID userId, LearningLevel finalLearningLevel) {
+    // Phase 1 (transactional): existing active progress or a task claimed from the pool
+    private Optional<TaskWithProgressDto> assignExistingOrPooled(TaskGenerateCommand cmd, UUID userId) {
         // Validate and lock user (if provided)
         Optional<User> maybeUser = lockUserIfPresent(userId);
 
         // If user already has active progress, return it
         if (maybeUser.isPresent()) {
             Optional<TaskWithProgressDto> existing = getExistingActiveProgress(maybeUser.get());
-            if (existing.isPresent()) return existing.get();
+            if (existing.isPresent()) return existing;
         }
 
-        // Resolve createdBy (may throw)
+        // Resolve createdBy (may throw) - validated before the expensive AI phase
         Optional<User> createdBy = resolveCreatedBy(cmd);
 
-        // Create Task (may throw if generation failed)
-        Task task = createTaskForCmd(cmd, finalLearningLevel, createdBy.orElse(null));
+        // Prefer a ready task from the pool; only an empty pool falls back to a live AI call
+        Optional<Task> pooled = claimPooledTask(cmd);
+        if (pooled.isEmpty()) return Optional.empty();
+
+        Task task = pooled.get();
+        task.setCreatedBy(createdBy.orElse(null));
+        return Optional.of(persistTaskAndProgress(task, maybeUser.orElse(null)));
+    }
+
+    // Phase 3 (transactional): persist the generated task unless the user got a task concurrently
+    private TaskWithProgressDto persistGenerated(TaskGenerateCommand cmd, UUID userId, Task generated) {
+        // a rolled back attempt leaves the generated id behind; always persist as a new row
+        generated.setId(null);
+        Optional<User> maybeUser = lockUserIfPresent(userId);
+
+        if (maybeUser.isPresent()) {
+            Optional<TaskWithProgressDto> existing = getExistingActiveProgress(maybeUser.get());
+            if (existing.isPresent()) {
+                // keep the AI result instead of throwing it away
+                generated.setPooled(true);
+                taskRepository.save(generated);
+                return existing.get();
+            }
+        }
+
+        generated.setCreatedBy(resolveCreatedBy(cmd).orElse(null));
+        return persistTaskAndProgress(generated, maybeUser.orElse(null));
+    }
 
+    private TaskWithProgressDto persistTaskAndProgress(Task task, User user) {
         Task savedTask = taskRepository.save(task);
 
         // Create and persist progress using ProgressService
-        Progress progress = progressService.createInitialProgress(maybeUser.orElse(null), savedTask);
-        Progress savedProgress = progressService.persistProgressAndUpdateUser(progress, maybeUser.orElse(null));
+        Progress progress = progressService.createInitialProgress(user, savedTask);
+        Progress savedProgress = progressService.persistProgressAndUpdateUser(progress, user);
 
         return new TaskWithProgressDto(taskMapper.toDto(savedTask), savedProgress.getId());
     }
 
-    private Task createTaskForCmd(TaskGenerateCommand cmd, LearningLevel finalLearningLevel, User createdBy) {
-        // Attempt AI generation if we have a learning level template
-        Optional<AiTaskResult> aiResult = tryGenerateAiTask(finalLearningLevel);
+    // Phase 2 (no transaction): builds a detached Task from the generated result
+    private Task generateTaskOutsideTx(TaskGenerateCommand cmd, LearningLevelDto finalLearningLevel) {
+        Optional<Task> task = generateUniqueTask(cmd, finalLearningLevel);
 
-        Task task = aiResult.map(ai -> mapAiToTask(ai, cmd, createdBy)).orElse(null);
+        // every generator failed: serve a copy of a stored task rather than an error
+        return task.or(() -> copyStoredTask(cmd))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Task generation failed"));
+    }
 
-        if (task == null) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Task generation failed");
+    // Re-rolls results that repeat a stored task; when every attempt is a repeat, the last one is used without fingerprint
+    private Optional<Task> generateUniqueTask(TaskGenerateCommand cmd, LearningLevelDto finalLearningLevel) {
+        short level = (cmd != null && cmd.getLevel() != null) ? cmd.getLevel() : (short) 1;
+        String seed = finalLearningLevel != null ? finalLearningLevel.description() : null;
+        long deadline = taskGenerators.newDeadline();
+        Task task = null;
+        for (int attempt = 0; attempt <= taskDedupeService.getMaxRerolls(); attempt++) {
+            Optional<GeneratedTask> generated = taskGenerators.generate(level, seed, deadline);
+            if (generated.isEmpty()) break;
+            task = mapAiToTask(generated.get().task(), cmd, null);
+            String fingerprint = taskDedupeService.fingerprint(task);
+            if (!taskDedupeService.isDuplicate(fingerprint)) {
+                task.setFingerprint(fingerprint);
+                return Optional.of(task);
+            }
+            log.debug("Generated task duplicates a stored one (attempt {}), re-rolling", attempt + 1);
         }
-        return task;
+        return Optional.ofNullable(task);
     }
 
-    private Optional<LearningLevel> fetchLearningLevel(TaskGenerateCommand cmd) {
+    private <T> T executeWithRetry(Supplier<T> txWork) {
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            try {
+                return txWork.get();
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= DEFAULT_MAX_ATTEMPTS) throw ex;
+                sleepBackoff(attempt);
+            }
+        }
+    }
+
+    private Optional<Task> claimPooledTask(TaskGenerateCommand cmd) {
         if (cmd == null || cmd.getLevel() == null) return Optional.empty();
-        return learningLevelRepository.findById(cmd.getLevel());
+        return taskPoolService.claim(cmd.getLevel());
+    }
+
+    // progress.task_id is unique, so a stored task cannot be assigned twice - hand out a copy
+    private Optional<Task> copyStoredTask(TaskGenerateCommand cmd) {
+        if (cmd == null || cmd.getLevel() == null) return Optional.empty();
+        return taskRepository.findRandomStoredByLevel(cmd.getLevel()).map(stored -> {
+            Task copy = new Task();
+            copy.setLevel(stored.getLevel());
+            copy.setPrompt(stored.getPrompt());
+            copy.setOptions(new ArrayList<>(stored.getOptions()));
+            copy.setCorrectOptionIndex(stored.getCorrectOptionIndex());
+            copy.setExplanation(stored.getExplanation());
+            copy.setActive(true);
+            log.info("AI generation unavailable, serving a copy of stored task {} for level {}", stored.getId(), stored.getLevel());
+            return copy;
+        });
+    }
+
+    private Optional<LearningLevelDto> fetchLearningLevel(TaskGenerateCommand cmd) {
+        if (cmd == null || cmd.getLevel() == null) return Optional.empty();
+        return learningLevelCatalog.find(cmd.getLevel());
     }
 
     private Optional<User> lockUserIfPresent(UUID userId) {
@@ -157,16 +260,6 @@ public class TaskService {
         return opt;
     }
 
-    private Optional<AiTaskResult> tryGenerateAiTask(LearningLevel finalLearningLevel) {
-        if (finalLearningLevel == null) return Optional.empty();
-        try {
-            return Optional.ofNullable(openRouterService.generateTaskFromSeed(finalLearningLevel.getDescription()));
-        } catch (OpenRouterException ex) {
-            log.warn("OpenRouter generation failed: {}", ex.getMessage());
-            return Optional.empty();
-        }
-    }
-
     private Task mapAiToTask(AiTaskResult aiResult, TaskGenerateCommand cmd, User createdBy) {
         Task task = taskMapper.fromAiResult(aiResult);
         // assign primitive short safely with default of 1 if command level is null
@@ -190,35 +283,49 @@ public class TaskService {
         return generateTask(cmd, null).getTask();
     }
 
+    /**
+     * Loaded as an entity by id so that repeated lookups are answered from the second-level cache ("tasks" region)
+     * without a query; the read-only transaction keeps it out of dirty checking.
+     */
+    @Transactional(readOnly = true)
     public TaskDto getTaskById(UUID id) {
-        Optional<Task> opt = taskRepository.findByIdAndIsActive(id, false);
-        Task task = opt.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found"));
+        Task task = taskRepository.findById(id).filter(t -> !t.isActive())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found"));
         return taskMapper.toDto(task);
     }
 
-    public Page<TaskDto> listTasks(Short level, Boolean isActive, UUID createdById, Pageable pageable) {
-        Page<Task> page = findTasksPage(level, isActive, createdById, pageable);
-        return page.map(taskMapper::toDto);
-    }
-
-    private Page<Task> findTasksPage(Short level, Boolean isActive, UUID createdById, Pageable pageable) {
-        if (level != null && createdById != null && isActive != null) {
-            return taskRepository.findByLevelAndCreatedByIdAndIsActive(level, createdById, isActive, pageable);
-        } else if (level != null && createdById != null) {
-            return taskRepository.findByLevelAndCreatedById(level, createdById, pageable);
-        } else if (level != null && isActive != null) {
-            return taskRepository.findByLevelAndIsActive(level, isActive, pageable);
-        } else if (createdById != null && isActive != null) {
-            return taskRepository.findByCreatedByIdAndIsActive(createdById, isActive, pageable);
-        } else if (level != null) {
-            return taskRepository.findByLevel(level, pageable);
-        } else if (createdById != null) {
-            return taskRepository.findByCreatedById(createdById, pageable);
-        } else if (isActive != null) {
-            return taskRepository.findByIsActive(isActive, pageable);
-        } else {
-            return taskRepository.findAll(pageable);
+    /**
+     * Offset-paginated listing with a total count; any combination of the filter fields is one dynamic query.
+     * Rows are read as {@link TaskRow} projections, never as entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<TaskDto> listTasks(TaskFilter filter, Pageable pageable) {
+        return taskRepository.findRows(TaskSpecifications.matching(filter), pageable).map(taskMapper::rowToDto);
+    }
+
+    /**
+     * Count-free listing for infinite scroll, newest first, keyset-paginated on {@code (createdAt, id)}.
+     * {@code cursor} is the {@code nextCursor} of the previous page (null for the first page); {@code limit}
+     * defaults to 20 and is capped at 100.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDto<TaskDto> scrollTasks(TaskFilter filter, String cursor, Integer limit) {
+        int size = KeysetCursor.pageSize(limit);
+        Specification<Task> spec = TaskSpecifications.matching(filter);
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            spec = spec.and(TaskSpecifications.after(after.createdAt(), after.id()));
         }
+
+        // one extra row tells whether another page follows
+        List<TaskRow> rows = taskRepository.findRows(spec, TaskSpecifications.NEWEST_FIRST, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<TaskDto> items = new ArrayList<>(Math.min(rows.size(), size));
+        for (int i = 0; i < rows.size() && i < size; i++) items.add(taskMapper.rowToDto(rows.get(i)));
+        if (!hasMore) return new KeysetPageDto<>(items, null);
+
+        TaskRow last = rows.get(size - 1);
+        return new KeysetPageDto<>(items, new KeysetCursor(last.createdAt(), last.id()).encode());
     }
 
 }
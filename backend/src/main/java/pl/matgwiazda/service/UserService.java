@@ -4,13 +4,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import pl.matgwiazda.domain.entity.User;
 import pl.matgwiazda.dto.UserDto;
 import pl.matgwiazda.dto.UserUpdateCommand;
 import pl.matgwiazda.mapper.UserMapper;
 import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.security.PrincipalCache;
+import pl.matgwiazda.security.RefreshTokenStore;
+import pl.matgwiazda.security.TokenDenylist;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Service
@@ -21,26 +26,40 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final PrincipalCache principalCache;
+    private final TokenDenylist tokenDenylist;
+    private final RefreshTokenStore refreshTokenStore;
+    private final UserStatsBuffer userStatsBuffer;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserMapper userMapper) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserMapper userMapper, PrincipalCache principalCache, TokenDenylist tokenDenylist, RefreshTokenStore refreshTokenStore, UserStatsBuffer userStatsBuffer) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.userMapper = userMapper;
+        this.principalCache = principalCache;
+        this.tokenDenylist = tokenDenylist;
+        this.refreshTokenStore = refreshTokenStore;
+        this.userStatsBuffer = userStatsBuffer;
     }
 
+    @Transactional(readOnly = true)
     public UserDto getUserDtoById(UUID id) {
         User u = userRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, USER_NOT_FOUND));
-        return userMapper.toDto(u);
+        UserDto dto = userMapper.toDto(u);
+        // points of write-behind submits not yet flushed to the users row
+        userStatsBuffer.mergePending(dto);
+        return dto;
     }
 
     public UserDto getUserDtoFromEntity(User u) {
         return userMapper.toDto(u);
     }
 
+    @Transactional
     public UserDto updateUser(UUID id, UserUpdateCommand cmd) {
         User u = userRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, USER_NOT_FOUND));
         boolean changed = false;
+        boolean revokeTokens = false;
         if (cmd.getUserName() != null) {
             u.setUserName(cmd.getUserName().trim());
             changed = true;
@@ -48,17 +67,32 @@ public class UserService {
         if (cmd.getPassword() != null) {
             String hashed = passwordEncoder.encode(cmd.getPassword());
             u.setPassword(hashed);
+            // tokens issued with the old password stop working
+            u.setTokenVersion(u.getTokenVersion() + 1);
+            u.setTokenVersionChangedAt(Instant.now());
             changed = true;
+            revokeTokens = true;
         }
         if (changed) {
             userRepository.save(u);
+            principalCache.invalidate(id);
+            if (revokeTokens) {
+                tokenDenylist.tokenVersionRaised(id, u.getTokenVersion());
+                refreshTokenStore.revokeAllForUser(id, RefreshTokenStore.REASON_PASSWORD_CHANGE);
+            }
         }
         return userMapper.toDto(u);
     }
 
+    @Transactional
     public void deactivateUser(UUID id) {
         User u = userRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, USER_NOT_FOUND));
         u.setActive(false);
+        u.setTokenVersion(u.getTokenVersion() + 1);
+        u.setTokenVersionChangedAt(Instant.now());
         userRepository.save(u);
+        principalCache.invalidate(id);
+        tokenDenylist.tokenVersionRaised(id, u.getTokenVersion());
+        refreshTokenStore.revokeAllForUser(id, RefreshTokenStore.REASON_DEACTIVATION);
     }
 }
@@ -0,0 +1,216 @@
+package pl.matgwiazda.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.matgwiazda.config.UserStatsProperties;
+import pl.matgwiazda.dto.UserDto;
+import pl.matgwiazda.repository.ProgressRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for user points ({@code user-stats.write-behind=true}).
+ *
+ * Contract:
+ * - {@link #record} is called for every correct write-behind submit; after the submit commits, its points are
+ *   added to a per-user {@link LongAdder} (read by {@link #mergePending}) and its progress id is queued
+ * - {@link #flush()} runs every {@code flush-interval-ms}, or once {@code flush-threshold} submits are queued, and
+ *   applies the queued entries in batched statements; failed batches are re-queued
+ * - the progress rows stay the durable record: an entry is applied only while {@code stats_applied = false}, so
+ *   {@link #recoverStale()} can apply rows whose node died before flushing without ever counting one twice
+ * - a read that overlaps a flush may briefly miss or double the entries of that flush
+ */
+@Component
+public class UserStatsBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsBuffer.class);
+
+    private final ProgressRepository progressRepository;
+    private final UserStatsProperties properties;
+    private final TransactionTemplate txTemplate;
+    private final Clock clock;
+    private final Map<UUID, LongAdder> pendingPoints = new ConcurrentHashMap<>();
+    private final Queue<PendingEntry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "user-stats-flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Autowired
+    public UserStatsBuffer(ProgressRepository progressRepository, UserStatsProperties properties, PlatformTransactionManager txManager) {
+        this(progressRepository, properties, txManager, Clock.systemUTC());
+    }
+
+    public UserStatsBuffer(ProgressRepository progressRepository, UserStatsProperties properties,
+                           PlatformTransactionManager txManager, Clock clock) {
+        this.progressRepository = progressRepository;
+        this.properties = properties;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return properties.isWriteBehind();
+    }
+
+    /**
+     * Buffer the points of a finalized entry; inside a transaction they become visible once it commits.
+     */
+    public void record(UUID progressId, UUID userId, int points) {
+        if (points == 0 || userId == null) return;
+        PendingEntry entry = new PendingEntry(progressId, userId, points);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    /**
+     * Points recorded for the user but not yet flushed.
+     */
+    public long pendingPoints(UUID userId) {
+        LongAdder adder = pendingPoints.get(userId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Add the user's unflushed points, and the stars and levels they cross, to a DTO read from the database.
+     */
+    public void mergePending(UserDto dto) {
+        if (dto == null || dto.getId() == null) return;
+        long pending = pendingPoints(dto.getId());
+        if (pending == 0) return;
+        int stored = dto.getPoints();
+        int total = (int) (stored + pending);
+        int levels = levelsCrossed(stored, total);
+        dto.setPoints(total);
+        dto.setStars(dto.getStars() + levels);
+        dto.setCurrentLevel((short) (dto.getCurrentLevel() + levels));
+    }
+
+    static int levelsCrossed(long before, long after) {
+        return (int) (after / ProgressService.POINTS_PER_LEVEL - before / ProgressService.POINTS_PER_LEVEL);
+    }
+
+    @Scheduled(fixedDelayString = "${user-stats.flush-interval-ms:1000}")
+    public void flush() {
+        flushRequested.set(false);
+        if (!flushLock.tryLock()) return;
+        try {
+            List<PendingEntry> batch;
+            while (!(batch = drain(properties.getFlushBatchSize())).isEmpty()) {
+                if (!apply(batch)) break;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Apply owed entries no node has flushed within {@code recovery-age-ms}, e.g. after a crash. Runs whether or not
+     * write-behind is enabled, so switching it off never strands points.
+     */
+    @Scheduled(fixedDelayString = "${user-stats.recovery-interval-ms:60000}")
+    public void recoverStale() {
+        Instant cutoff = clock.instant().minusMillis(properties.getRecoveryAgeMs());
+        int users;
+        do {
+            users = txTemplate.execute(status -> progressRepository.applyStalePendingStats(cutoff, properties.getFlushBatchSize(), ProgressService.POINTS_PER_LEVEL));
+            if (users > 0) log.info("User stats: applied stale pending points for {} user(s)", users);
+        } while (users > 0);
+    }
+
+    public int queuedEntries() {
+        return queued.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        flush();
+    }
+
+    private void enqueue(PendingEntry entry) {
+        // added under the map's bin lock so a flush cannot drop the adder between lookup and add
+        pendingPoints.compute(entry.userId(), (id, adder) -> {
+            LongAdder points = adder != null ? adder : new LongAdder();
+            points.add(entry.points());
+            return points;
+        });
+        queue.add(entry);
+        if (queued.incrementAndGet() >= properties.getFlushThreshold() && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    private List<PendingEntry> drain(int max) {
+        List<PendingEntry> batch = new ArrayList<>();
+        PendingEntry entry;
+        while (batch.size() < max && (entry = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    private boolean apply(List<PendingEntry> batch) {
+        List<UUID> ids = new ArrayList<>(batch.size());
+        for (PendingEntry entry : batch) ids.add(entry.progressId());
+        try {
+            txTemplate.executeWithoutResult(status -> progressRepository.applyPendingStats(ids, ProgressService.POINTS_PER_LEVEL));
+        } catch (RuntimeException ex) {
+            log.warn("User stats: flush of {} entries failed, retrying later: {}", batch.size(), ex.toString());
+            for (PendingEntry entry : batch) {
+                queue.add(entry);
+                queued.incrementAndGet();
+            }
+            return false;
+        }
+        // the points are in the users table now (applied by this flush or, earlier, by the recovery sweep)
+        Map<UUID, Long> flushed = new HashMap<>();
+        for (PendingEntry entry : batch) flushed.merge(entry.userId(), (long) entry.points(), Long::sum);
+        flushed.forEach((userId, points) -> pendingPoints.computeIfPresent(userId, (id, adder) -> {
+            adder.add(-points);
+            return adder.sum() == 0 ? null : adder;
+        }));
+        return true;
+    }
+
+    private record PendingEntry(UUID progressId, UUID userId, int points) {
+    }
+}
@@ -0,0 +1,75 @@
+package pl.matgwiazda.service.dedupe;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over {@link TaskFingerprint} values.
+ *
+ * The fingerprints are already uniformly distributed SHA-256 hex strings, so the k bit positions are derived
+ * from their first 128 bits by double hashing instead of hashing again.
+ */
+public final class FingerprintBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions number of fingerprints the filter is sized for
+     * @param falsePositiveRate  target false positive probability at that size, e.g. 0.01
+     */
+    public FingerprintBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void put(String fingerprint) {
+        long h1 = high(fingerprint);
+        long h2 = low(fingerprint);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << (bit & 63);
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) break;
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * @return false if the fingerprint was certainly never added; true if it may have been
+     */
+    public boolean mightContain(String fingerprint) {
+        long h1 = high(fingerprint);
+        long h2 = low(fingerprint);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) return false;
+        }
+        return true;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private static long high(String fingerprint) {
+        return Long.parseUnsignedLong(fingerprint, 0, 16, 16);
+    }
+
+    private static long low(String fingerprint) {
+        // odd step so that all k positions differ
+        return Long.parseUnsignedLong(fingerprint, 16, 32, 16) | 1L;
+    }
+}
@@ -0,0 +1,56 @@
+package pl.matgwiazda.service.dedupe;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Content fingerprint of a task: SHA-256 (hex) of the normalized prompt and the sorted, normalized options.
+ *
+ * Normalization makes cosmetic variants of the same task collide: Unicode compatibility forms (NFKC),
+ * case, runs of whitespace, thousands separators ("1 000" = "1000") and decimal commas ("2,5" = "2.5").
+ * Option order does not matter.
+ */
+public final class TaskFingerprint {
+
+    private static final Pattern THOUSANDS_SEPARATOR = Pattern.compile("(?<=\\d)[ '](?=\\d{3}(?!\\d))");
+    private static final Pattern DECIMAL_COMMA = Pattern.compile("(?<=\\d),(?=\\d)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private TaskFingerprint() {
+    }
+
+    public static String of(String prompt, List<String> options) {
+        List<String> normalizedOptions = new ArrayList<>();
+        if (options != null) {
+            for (String option : options) normalizedOptions.add(normalize(option));
+        }
+        normalizedOptions.sort(null);
+
+        StringBuilder sb = new StringBuilder(normalize(prompt));
+        for (String option : normalizedOptions) sb.append('\u0000').append(option);
+        return HexFormat.of().formatHex(sha256().digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        String n = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        n = WHITESPACE.matcher(n).replaceAll(" ").trim();
+        n = THOUSANDS_SEPARATOR.matcher(n).replaceAll("");
+        return DECIMAL_COMMA.matcher(n).replaceAll(".");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
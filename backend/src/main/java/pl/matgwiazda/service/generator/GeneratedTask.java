@@ -0,0 +1,9 @@
+package pl.matgwiazda.service.generator;
+
+import pl.matgwiazda.dto.openrouter.AiTaskResult;
+
+/**
+ * A generated task together with the name of the {@link TaskGenerator} that produced it.
+ */
+public record GeneratedTask(AiTaskResult task, String generator) {
+}
@@ -0,0 +1,43 @@
+package pl.matgwiazda.service.generator;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.service.OpenRouterService;
+
+/**
+ * Tasks written by the AI from the learning level description.
+ */
+@Component
+@Order(0)
+public class OpenRouterTaskGenerator implements TaskGenerator {
+
+    public static final String NAME = "openrouter";
+
+    private final OpenRouterService openRouterService;
+
+    public OpenRouterTaskGenerator(OpenRouterService openRouterService) {
+        this.openRouterService = openRouterService;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(short level, String seed) {
+        return StringUtils.hasText(seed);
+    }
+
+    @Override
+    public boolean isRemote() {
+        return true;
+    }
+
+    @Override
+    public AiTaskResult generate(short level, String seed) {
+        return openRouterService.generateTaskFromSeed(seed, level);
+    }
+}
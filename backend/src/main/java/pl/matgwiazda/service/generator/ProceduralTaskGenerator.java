@@ -0,0 +1,438 @@
+package pl.matgwiazda.service.generator;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import pl.matgwiazda.config.TaskGeneratorProperties;
+import pl.matgwiazda.dto.openrouter.AiTaskResult;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * In-process arithmetic tasks for every learning level, built from templates with random numbers.
+ *
+ * Needs no network and no model; with the same {@link RandomGenerator} state it produces the same task.
+ * Wrong options come from typical mistakes (forgotten carry, wrong operation, adding denominators, ...)
+ * and are padded with near misses of the correct answer.
+ */
+@Component
+@Order(100)
+public class ProceduralTaskGenerator implements TaskGenerator {
+
+    public static final String NAME = "procedural";
+
+    @FunctionalInterface
+    private interface Recipe {
+        AiTaskResult create(RandomGenerator rnd);
+    }
+
+    private static final Recipe[][] RECIPES = {
+            {ProceduralTaskGenerator::addition100, ProceduralTaskGenerator::subtraction100, ProceduralTaskGenerator::largestNumber},
+            {ProceduralTaskGenerator::multiplicationTable, ProceduralTaskGenerator::division, ProceduralTaskGenerator::fractionOfNumber},
+            {ProceduralTaskGenerator::addition1000, ProceduralTaskGenerator::divisionWithRemainder, ProceduralTaskGenerator::unitConversion},
+            {ProceduralTaskGenerator::multiDigitAddition, ProceduralTaskGenerator::largestFraction},
+            {ProceduralTaskGenerator::decimalAddition, ProceduralTaskGenerator::percentOfNumber, ProceduralTaskGenerator::expressionValue},
+            {ProceduralTaskGenerator::fractionAddition, ProceduralTaskGenerator::proportion, ProceduralTaskGenerator::average},
+            {ProceduralTaskGenerator::power, ProceduralTaskGenerator::squareRoot, ProceduralTaskGenerator::linearEquation, ProceduralTaskGenerator::percentIncrease},
+            {ProceduralTaskGenerator::linearFunction, ProceduralTaskGenerator::pythagoras, ProceduralTaskGenerator::diceProbability}
+    };
+
+    private final TaskGeneratorProperties properties;
+
+    public ProceduralTaskGenerator(TaskGeneratorProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(short level, String seed) {
+        return properties.isProceduralEnabled() && level >= 1 && level <= RECIPES.length;
+    }
+
+    @Override
+    public AiTaskResult generate(short level, String seed) {
+        return generate(level, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Task for the level drawn from {@code rnd}; deterministic for a seeded generator.
+     */
+    public AiTaskResult generate(short level, RandomGenerator rnd) {
+        if (level < 1 || level > RECIPES.length) throw new IllegalArgumentException("level must be in range 1.." + RECIPES.length);
+        Recipe[] recipes = RECIPES[level - 1];
+        return recipes[rnd.nextInt(recipes.length)].create(rnd);
+    }
+
+    // --- level 1: addition and subtraction within 100, comparing numbers
+
+    private static AiTaskResult addition100(RandomGenerator r) {
+        int a = r.nextInt(11, 90);
+        int b = r.nextInt(1, 100 - a);
+        int sum = a + b;
+        boolean carry = a % 10 + b % 10 >= 10;
+        return numeric(r, "Ile to " + a + " + " + b + "?", sum, a + " + " + b + " = " + sum,
+                carry ? sum - 10 : sum + 10, Math.abs(a - b), sum + 1);
+    }
+
+    private static AiTaskResult subtraction100(RandomGenerator r) {
+        int a = r.nextInt(20, 100);
+        int b = r.nextInt(1, a);
+        int diff = a - b;
+        // borrowing mistake: subtracting the smaller digit from the larger one in each place
+        int digitwise = Math.abs(a / 10 - b / 10) * 10 + Math.abs(a % 10 - b % 10);
+        return numeric(r, "Ile to " + a + " − " + b + "?", diff, a + " − " + b + " = " + diff,
+                digitwise, a + b, diff - 1);
+    }
+
+    private static AiTaskResult largestNumber(RandomGenerator r) {
+        int tens = r.nextInt(1, 9);
+        int units = r.nextInt(tens + 1, 10);
+        int n = tens * 10 + units;
+        // swapped digits and neighbours are the usual confusions
+        List<Integer> candidates = List.of(n, units * 10 + tens, n + 9, n - 9, n + 1, n - 1);
+        Set<String> numbers = new LinkedHashSet<>();
+        int max = 0;
+        for (int c : candidates) {
+            if (c < 10 || c > 99 || numbers.size() == 4) continue;
+            if (numbers.add(Integer.toString(c))) max = Math.max(max, c);
+        }
+        return text(r, "Która z liczb jest największa?", Integer.toString(max),
+                "Porównujemy najpierw cyfry dziesiątek, potem jedności: największa jest liczba " + max + ".", new ArrayList<>(numbers));
+    }
+
+    // --- level 2: multiplication and division within 100, simple fractions
+
+    private static AiTaskResult multiplicationTable(RandomGenerator r) {
+        int a = r.nextInt(2, 11);
+        int b = r.nextInt(2, 11);
+        int product = a * b;
+        return numeric(r, "Ile to " + a + " · " + b + "?", product, a + " · " + b + " = " + product,
+                a * (b + 1), a * (b - 1), a + b);
+    }
+
+    private static AiTaskResult division(RandomGenerator r) {
+        int b = r.nextInt(2, 11);
+        int q = r.nextInt(2, 11);
+        int a = b * q;
+        return numeric(r, "Ile to " + a + " : " + b + "?", q, a + " : " + b + " = " + q + ", bo " + q + " · " + b + " = " + a,
+                q + 1, q - 1, a - b);
+    }
+
+    private static AiTaskResult fractionOfNumber(RandomGenerator r) {
+        int d = r.nextInt(2, 6);
+        int k = r.nextInt(2, 11);
+        int n = d * k;
+        return numeric(r, "Ile wynosi 1/" + d + " liczby " + n + "?", k, "1/" + d + " liczby " + n + " to " + n + " : " + d + " = " + k,
+                n - d, k + d, k * 2);
+    }
+
+    // --- level 3: operations up to 1000, division with remainder, units
+
+    private static AiTaskResult addition1000(RandomGenerator r) {
+        int a = r.nextInt(100, 900);
+        int b = r.nextInt(10, 1000 - a);
+        int sum = a + b;
+        boolean unitsCarry = a % 10 + b % 10 >= 10;
+        boolean tensCarry = a / 10 % 10 + b / 10 % 10 + (unitsCarry ? 1 : 0) >= 10;
+        return numeric(r, "Ile to " + a + " + " + b + "?", sum, a + " + " + b + " = " + sum,
+                unitsCarry ? sum - 10 : sum + 10, tensCarry ? sum - 100 : sum + 100, sum - 1);
+    }
+
+    private static AiTaskResult divisionWithRemainder(RandomGenerator r) {
+        int b = r.nextInt(3, 10);
+        int q = r.nextInt(3, 13);
+        int rem = r.nextInt(1, b);
+        int a = b * q + rem;
+        String correct = q + " reszta " + rem;
+        return text(r, "Podziel " + a + " przez " + b + " z resztą. Jaki jest wynik?", correct,
+                a + " = " + q + " · " + b + " + " + rem + ", a reszta jest mniejsza od dzielnika.",
+                List.of(rem + " reszta " + q, (q - 1) + " reszta " + (rem + b), (q + 1) + " reszta " + rem, q + " reszta " + (rem + 1)));
+    }
+
+    private static AiTaskResult unitConversion(RandomGenerator r) {
+        int x = r.nextInt(2, 10);
+        return switch (r.nextInt(4)) {
+            case 0 -> numeric(r, "Ile centymetrów ma " + x + " m?", x * 100, "1 m = 100 cm, więc " + x + " m = " + x * 100 + " cm", x * 10, x * 1000, x);
+            case 1 -> numeric(r, "Ile gramów ma " + x + " kg?", x * 1000, "1 kg = 1000 g, więc " + x + " kg = " + x * 1000 + " g", x * 100, x * 10, x);
+            case 2 -> numeric(r, "Ile metrów ma " + x + " km?", x * 1000, "1 km = 1000 m, więc " + x + " km = " + x * 1000 + " m", x * 100, x * 10, x);
+            default -> numeric(r, "Ile minut to " + x + " h?", x * 60, "1 h = 60 min, więc " + x + " h = " + x * 60 + " min", x * 100, x * 10, x + 60);
+        };
+    }
+
+    // --- level 4: multi-digit numbers, comparing fractions
+
+    private static AiTaskResult multiDigitAddition(RandomGenerator r) {
+        int a = r.nextInt(1000, 50000);
+        int b = r.nextInt(1000, 50000);
+        int sum = a + b;
+        return numeric(r, "Ile to " + a + " + " + b + "?", sum, a + " + " + b + " = " + sum,
+                sum - 10, sum - 100, sum + 1000);
+    }
+
+    private static AiTaskResult largestFraction(RandomGenerator r) {
+        Set<Fraction> fractions = new LinkedHashSet<>();
+        while (fractions.size() < 4) {
+            int d = r.nextInt(2, 13);
+            fractions.add(Fraction.of(r.nextInt(1, d), d));
+        }
+        Fraction max = fractions.stream().max(Fraction::compareTo).orElseThrow();
+        List<String> labels = fractions.stream().map(Fraction::toString).toList();
+        return text(r, "Który ułamek jest największy?", max.toString(),
+                "Po sprowadzeniu do wspólnego mianownika największy jest ułamek " + max + ". Większy mianownik nie oznacza większego ułamka.", labels);
+    }
+
+    // --- level 5: decimals, percentages, algebraic expressions
+
+    private static AiTaskResult decimalAddition(RandomGenerator r) {
+        BigDecimal a = BigDecimal.valueOf(r.nextInt(11, 100), 1);
+        BigDecimal b = BigDecimal.valueOf(r.nextInt(101, 1000), 2);
+        BigDecimal sum = a.add(b);
+        // digits written under each other aligned to the right instead of at the comma
+        BigDecimal misaligned = BigDecimal.valueOf(a.unscaledValue().longValue() + b.unscaledValue().longValue(), 2);
+        return decimal(r, "Ile to " + format(a) + " + " + format(b) + "?", sum,
+                format(a) + " + " + format(b) + " = " + format(sum) + " (przecinek pod przecinkiem)",
+                misaligned, sum.add(BigDecimal.ONE), sum.subtract(new BigDecimal("0.1")));
+    }
+
+    private static AiTaskResult percentOfNumber(RandomGenerator r) {
+        int[] percents = {10, 20, 25, 50, 75};
+        int p = percents[r.nextInt(percents.length)];
+        int n = 20 * r.nextInt(1, 21);
+        int correct = n * p / 100;
+        return numeric(r, "Ile to " + p + "% z " + n + "?", correct, p + "% z " + n + " to " + p + "/100 · " + n + " = " + correct,
+                n * p / 10, n - correct, correct + p);
+    }
+
+    private static AiTaskResult expressionValue(RandomGenerator r) {
+        int a = r.nextInt(2, 10);
+        int v = r.nextInt(2, 10);
+        int b = r.nextInt(1, 20);
+        int correct = a * v + b;
+        return numeric(r, "Oblicz wartość wyrażenia " + a + "x + " + b + " dla x = " + v + ".", correct,
+                a + " · " + v + " + " + b + " = " + correct, a * (v + b), a + v + b, a * v - b);
+    }
+
+    // --- level 6: fractions, proportions, average
+
+    private static AiTaskResult fractionAddition(RandomGenerator r) {
+        int b = r.nextInt(2, 10);
+        int d = r.nextInt(2, 10);
+        int a = r.nextInt(1, b);
+        int c = r.nextInt(1, d);
+        Fraction sum = Fraction.of(a * d + c * b, b * d);
+        return text(r, "Ile to " + a + "/" + b + " + " + c + "/" + d + "?", sum.toString(),
+                "Sprowadzamy do wspólnego mianownika: " + (a * d) + "/" + (b * d) + " + " + (c * b) + "/" + (b * d) + " = " + sum,
+                List.of(Fraction.of(a + c, b + d).toString(), Fraction.of(a * c, b * d).toString(), Fraction.of(a + c, b * d).toString(),
+                        Fraction.of(sum.numerator() + 1, sum.denominator()).toString(), Fraction.of(sum.numerator(), sum.denominator() + 1).toString()));
+    }
+
+    private static AiTaskResult proportion(RandomGenerator r) {
+        int k = r.nextInt(2, 6);
+        int unit = r.nextInt(2, 10);
+        int m = r.nextInt(k + 1, k + 8);
+        int cost = k * unit;
+        int correct = m * unit;
+        return numeric(r, "Jeśli " + notebooks(k) + " " + costs(k) + " " + cost + " zł, to ile złotych " + costs(m) + " " + notebooks(m) + "?", correct,
+                "Jeden zeszyt kosztuje " + cost + " : " + k + " = " + unit + " zł, więc " + notebooks(m) + " " + costs(m) + " " + correct + " zł",
+                cost * m, cost + (m - k), unit * (m - 1));
+    }
+
+    private static AiTaskResult average(RandomGenerator r) {
+        int mean;
+        int[] values = new int[4];
+        do {
+            mean = r.nextInt(5, 50);
+            int rest = 0;
+            for (int i = 0; i < 3; i++) {
+                values[i] = r.nextInt(1, 2 * mean);
+                rest += values[i];
+            }
+            values[3] = 4 * mean - rest;
+        } while (values[3] < 1 || values[3] > 99);
+        int total = 4 * mean;
+        return numeric(r, "Oblicz średnią arytmetyczną liczb: " + values[0] + ", " + values[1] + ", " + values[2] + ", " + values[3] + ".", mean,
+                "Suma " + total + " dzielona przez 4 liczby daje " + mean,
+                total, total % 3 == 0 ? total / 3 : mean + 2, Math.max(Math.max(values[0], values[1]), Math.max(values[2], values[3])));
+    }
+
+    // --- level 7: powers and roots, equations, percentage calculations
+
+    private static AiTaskResult power(RandomGenerator r) {
+        int a = r.nextInt(2, 10);
+        int n = r.nextInt(2, 4);
+        int correct = n == 2 ? a * a : a * a * a;
+        String sup = n == 2 ? "²" : "³";
+        return numeric(r, "Ile to " + a + sup + "?", correct, a + sup + " = " + (n == 2 ? a + " · " + a : a + " · " + a + " · " + a) + " = " + correct,
+                a * n, a + n, n == 2 ? a * a * a : a * a);
+    }
+
+    private static AiTaskResult squareRoot(RandomGenerator r) {
+        int k = r.nextInt(2, 16);
+        int s = k * k;
+        return numeric(r, "Ile to √" + s + "?", k, "√" + s + " = " + k + ", bo " + k + "² = " + s,
+                s % 2 == 0 ? s / 2 : k * 2, k + 1, k - 1);
+    }
+
+    private static AiTaskResult linearEquation(RandomGenerator r) {
+        int a = r.nextInt(2, 10);
+        int x = r.nextInt(1, 13);
+        int b = r.nextInt(1, 30);
+        int c = a * x + b;
+        // sign error when moving b to the other side
+        int signError = (c + b) % a == 0 ? (c + b) / a : c - b;
+        return numeric(r, "Rozwiąż równanie: " + a + "x + " + b + " = " + c + ". Ile wynosi x?", x,
+                a + "x = " + c + " − " + b + " = " + (c - b) + ", więc x = " + (c - b) + " : " + a + " = " + x,
+                signError, c - b, x + 1);
+    }
+
+    private static AiTaskResult percentIncrease(RandomGenerator r) {
+        int[] percents = {10, 20, 25, 50};
+        int q = percents[r.nextInt(percents.length)];
+        int p = 20 * r.nextInt(1, 21);
+        int correct = p * (100 + q) / 100;
+        return numeric(r, "Cena towaru wynosiła " + p + " zł i wzrosła o " + q + "%. Ile wynosi nowa cena?", correct,
+                p + " zł + " + q + "% z " + p + " zł = " + p + " + " + (p * q / 100) + " = " + correct + " zł",
+                p + q, p * q / 100, p * (100 - q) / 100);
+    }
+
+    // --- level 8: linear functions, Pythagorean theorem, probability
+
+    private static AiTaskResult linearFunction(RandomGenerator r) {
+        int a = r.nextBoolean() ? r.nextInt(1, 6) : -r.nextInt(1, 6);
+        int b = r.nextInt(-10, 11);
+        int v = r.nextInt(1, 10);
+        int correct = a * v + b;
+        String constant = b < 0 ? " − " + (-b) : b > 0 ? " + " + b : "";
+        String f = (a == 1 ? "" : a == -1 ? "−" : a < 0 ? "−" + (-a) : Integer.toString(a)) + "x" + constant;
+        return numeric(r, "Dana jest funkcja f(x) = " + f + ". Ile wynosi f(" + v + ")?", correct,
+                "f(" + v + ") = " + (a < 0 ? "(" + a + ")" : a) + " · " + v + constant + " = " + correct,
+                a * (v + b), a + v + b, a * v - b);
+    }
+
+    private static AiTaskResult pythagoras(RandomGenerator r) {
+        int[][] triples = {{3, 4, 5}, {6, 8, 10}, {5, 12, 13}, {8, 15, 17}};
+        int[] t = triples[r.nextInt(triples.length)];
+        int k = r.nextInt(1, 4);
+        int a = t[0] * k;
+        int b = t[1] * k;
+        int c = t[2] * k;
+        return numeric(r, "Przyprostokątne trójkąta prostokątnego mają długości " + a + " i " + b + ". Jaka jest długość przeciwprostokątnej?", c,
+                "c² = " + a + "² + " + b + "² = " + (a * a + b * b) + ", więc c = " + c,
+                a + b, a * a + b * b, b + 1);
+    }
+
+    private static AiTaskResult diceProbability(RandomGenerator r) {
+        int k = r.nextInt(1, 5);
+        Fraction correct = Fraction.of(6 - k, 6);
+        return text(r, "Rzucamy raz sześcienną kostką do gry. Jakie jest prawdopodobieństwo, że wypadnie liczba oczek większa niż " + k + "?", correct.toString(),
+                "Sprzyjające wyniki to " + (6 - k) + " z 6 możliwych, więc P = " + (6 - k) + "/6 = " + correct,
+                List.of(Fraction.of(k, 6).toString(), Fraction.of(5 - k, 6).toString(), Fraction.of(1, 6 - k).toString(),
+                        Fraction.of(7 - k, 6).toString(), Fraction.of(1, 6).toString()));
+    }
+
+    // Polish plural: "3 zeszyty kosztują", "5 zeszytów kosztuje"
+    private static boolean few(int n) {
+        return n % 10 >= 2 && n % 10 <= 4 && (n % 100 < 12 || n % 100 > 14);
+    }
+
+    private static String notebooks(int n) {
+        return n + (few(n) ? " zeszyty" : " zeszytów");
+    }
+
+    private static String costs(int n) {
+        return few(n) ? "kosztują" : "kosztuje";
+    }
+
+    // --- option building
+
+    private static final long[] NEAR_MISSES = {1, -1, 2, -2, 10, -10, 3, 5};
+
+    private static AiTaskResult numeric(RandomGenerator r, String prompt, long correct, String explanation, long... mistakes) {
+        Set<Long> options = new LinkedHashSet<>();
+        options.add(correct);
+        for (long m : mistakes) {
+            if (options.size() == 4) break;
+            if (correct >= 0 && m < 0) continue;
+            options.add(m);
+        }
+        for (long step : NEAR_MISSES) {
+            if (options.size() == 4) break;
+            long m = correct + step;
+            if (correct >= 0 && m < 0) continue;
+            options.add(m);
+        }
+        return shuffled(r, prompt, Long.toString(correct), explanation, options.stream().map(String::valueOf).toList());
+    }
+
+    private static AiTaskResult decimal(RandomGenerator r, String prompt, BigDecimal correct, String explanation, BigDecimal... mistakes) {
+        Set<String> options = new LinkedHashSet<>();
+        options.add(format(correct));
+        for (BigDecimal m : mistakes) {
+            if (options.size() == 4) break;
+            if (m.signum() >= 0) options.add(format(m));
+        }
+        for (long step : NEAR_MISSES) {
+            if (options.size() == 4) break;
+            BigDecimal m = correct.add(BigDecimal.valueOf(step, 1));
+            if (m.signum() >= 0) options.add(format(m));
+        }
+        return shuffled(r, prompt, format(correct), explanation, new ArrayList<>(options));
+    }
+
+    private static AiTaskResult text(RandomGenerator r, String prompt, String correct, String explanation, List<String> candidates) {
+        Set<String> options = new LinkedHashSet<>();
+        options.add(correct);
+        for (String c : candidates) {
+            if (options.size() == 4) break;
+            options.add(c);
+        }
+        if (options.size() < 4) throw new IllegalStateException("Not enough distinct options for: " + prompt);
+        return shuffled(r, prompt, correct, explanation, new ArrayList<>(options));
+    }
+
+    private static AiTaskResult shuffled(RandomGenerator r, String prompt, String correct, String explanation, List<String> options) {
+        List<String> list = new ArrayList<>(options);
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = r.nextInt(i + 1);
+            String tmp = list.get(i);
+            list.set(i, list.get(j));
+            list.set(j, tmp);
+        }
+        return new AiTaskResult(prompt, List.copyOf(list), list.indexOf(correct), explanation);
+    }
+
+    private static String format(BigDecimal value) {
+        return value.stripTrailingZeros().toPlainString().replace('.', ',');
+    }
+
+    private record Fraction(long numerator, long denominator) implements Comparable<Fraction> {
+
+        static Fraction of(long numerator, long denominator) {
+            long g = gcd(Math.abs(numerator), denominator);
+            return new Fraction(numerator / g, denominator / g);
+        }
+
+        private static long gcd(long a, long b) {
+            return b == 0 ? Math.max(a, 1) : gcd(b, a % b);
+        }
+
+        @Override
+        public int compareTo(Fraction o) {
+            return Long.compare(numerator * o.denominator, o.numerator * denominator);
+        }
+
+        @Override
+        public String toString() {
+            return denominator == 1 ? Long.toString(numerator) : numerator + "/" + denominator;
+        }
+    }
+}
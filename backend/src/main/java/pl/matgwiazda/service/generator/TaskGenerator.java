@@ -0,0 +1,33 @@
+package pl.matgwiazda.service.generator;
+
+import pl.matgwiazda.dto.openrouter.AiTaskResult;
+
+/**
+ * Source of new tasks. Implementations are tried by {@link TaskGeneratorChain} in {@code @Order} order
+ * until one returns a task.
+ */
+public interface TaskGenerator {
+
+    /**
+     * Short name used in logs, e.g. {@code openrouter}.
+     */
+    String getName();
+
+    /**
+     * Whether this generator can produce a task for the level; {@code seed} is the level description and may be null.
+     */
+    boolean supports(short level, String seed);
+
+    /**
+     * Remote generators are called off the caller thread and abandoned when they miss the generation deadline.
+     */
+    default boolean isRemote() {
+        return false;
+    }
+
+    /**
+     * @return a task with exactly four options, or null when nothing could be generated
+     * @throws RuntimeException on failure; the chain moves on to the next generator
+     */
+    AiTaskResult generate(short level, String seed);
+}
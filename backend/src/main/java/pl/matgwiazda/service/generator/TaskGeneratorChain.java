@@ -0,0 +1,103 @@
+package pl.matgwiazda.service.generator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import pl.matgwiazda.config.AsyncConfig;
+import pl.matgwiazda.config.TaskGeneratorProperties;
+import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.service.TaskPoolService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tries the {@link TaskGenerator}s in order until one produces a task.
+ *
+ * Remote generators run off the caller thread and are given up on when the deadline passes; the next
+ * (local) generator then answers immediately. A late remote result is not thrown away but offered to the task pool.
+ * Remote calls get their own bounded executor; when it is full the remote generator is skipped as if it had
+ * missed the deadline.
+ */
+@Service
+public class TaskGeneratorChain {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskGeneratorChain.class);
+
+    private final List<TaskGenerator> generators;
+    private final TaskGeneratorProperties properties;
+    private final Executor executor;
+    private final TaskPoolService taskPoolService;
+
+    public TaskGeneratorChain(List<TaskGenerator> generators,
+                              TaskGeneratorProperties properties,
+                              @Qualifier(AsyncConfig.TASK_GENERATOR_EXECUTOR) Executor executor,
+                              TaskPoolService taskPoolService) {
+        this.generators = List.copyOf(generators);
+        this.properties = properties;
+        this.executor = executor;
+        this.taskPoolService = taskPoolService;
+    }
+
+    /**
+     * Deadline (System.nanoTime based) for one task request; pass it to every {@link #generate} call of that request.
+     */
+    public long newDeadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getAiDeadlineMs());
+    }
+
+    /**
+     * @param seed learning level description, may be null
+     * @return the first task produced, or empty when every generator failed or declined
+     */
+    public Optional<GeneratedTask> generate(short level, String seed, long deadlineNanos) {
+        for (TaskGenerator generator : generators) {
+            if (!generator.supports(level, seed)) continue;
+            try {
+                AiTaskResult task = generator.isRemote()
+                        ? generateBefore(generator, level, seed, deadlineNanos)
+                        : generator.generate(level, seed);
+                if (task != null) return Optional.of(new GeneratedTask(task, generator.getName()));
+            } catch (TimeoutException ex) {
+                log.info("Task generator {} missed the deadline for level {}, falling back", generator.getName(), level);
+            } catch (RuntimeException ex) {
+                log.warn("Task generator {} failed for level {}: {}", generator.getName(), level, ex.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private AiTaskResult generateBefore(TaskGenerator generator, short level, String seed, long deadlineNanos) throws TimeoutException {
+        long remaining = deadlineNanos - System.nanoTime();
+        if (remaining <= 0) throw new TimeoutException();
+
+        CompletableFuture<AiTaskResult> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> generator.generate(level, seed), executor);
+        } catch (TaskRejectedException ex) {
+            // saturated: running it inline would wait without a deadline, exactly when the remote side is slow
+            throw new TimeoutException("task generator executor saturated");
+        }
+        try {
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            future.thenAccept(late -> {
+                if (late != null) taskPoolService.offer(late, level);
+            });
+            throw ex;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("interrupted");
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package pl.matgwiazda.service.openrouter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import pl.matgwiazda.config.OpenRouterProperties;
+import pl.matgwiazda.exception.OpenRouterUnavailableException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD limit on concurrent OpenRouter calls.
+ *
+ * The limit starts at {@code openrouter.max-concurrent-requests}. Each fast success adds 1/limit (about +1 per
+ * round of calls); a 429, a timeout or a call slower than {@code openrouter.slow-call-threshold-ms} halves it,
+ * never below {@code openrouter.min-concurrent-requests}. Callers wait up to {@code openrouter.acquire-timeout-ms}
+ * for a free slot.
+ *
+ * The limit is cut at most once per window: an overload of a call that started before the last cut, or that is
+ * reported less than one (smoothed) call latency after it, belongs to the burst already acted on and only
+ * releases its slot. Otherwise 16 calls failing together would take the limit from 16 to 1 in one round trip.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final OpenRouterProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private long rejectedCalls;
+    private long lastDecreaseNanos;
+    private double smoothedLatencyNanos;
+
+    public AdaptiveConcurrencyLimiter(OpenRouterProperties properties) {
+        this.properties = properties;
+        this.limit = maxLimit();
+        this.lastDecreaseNanos = System.nanoTime() - Long.MAX_VALUE / 2; // no cut yet: every call started after it
+    }
+
+    /**
+     * Take a slot. Every acquired slot must be released with exactly one of {@link #onSuccess(long)},
+     * {@link #onOverload(long)} or {@link #onDropped()}.
+     *
+     * @return start of the call ({@link System#nanoTime()}), to pass to {@link #onOverload(long)}
+     * @throws OpenRouterUnavailableException when no slot is free within the acquire timeout
+     */
+    public long acquire() {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(properties.getAcquireTimeoutMs());
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remainingNanos <= 0) {
+                    rejectedCalls++;
+                    throw new OpenRouterUnavailableException("Too many concurrent OpenRouter calls (limit " + (int) limit + ")");
+                }
+                remainingNanos = released.awaitNanos(remainingNanos);
+            }
+            inFlight++;
+            return System.nanoTime();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new OpenRouterUnavailableException("Interrupted while waiting for an OpenRouter call slot");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess(long latencyMs) {
+        long latencyNanos = TimeUnit.MILLISECONDS.toNanos(latencyMs);
+        if (latencyMs > properties.getSlowCallThresholdMs()) {
+            onOverload(System.nanoTime() - latencyNanos);
+            return;
+        }
+        lock.lock();
+        try {
+            smoothedLatencyNanos += LATENCY_SMOOTHING * (latencyNanos - smoothedLatencyNanos);
+            release(Math.min(maxLimit(), limit + 1.0 / limit));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param startedNanos what {@link #acquire()} returned for this call
+     */
+    public void onOverload(long startedNanos) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (startedNanos - lastDecreaseNanos < 0 || now - lastDecreaseNanos < smoothedLatencyNanos) {
+                release(limit); // same burst as the last cut
+                return;
+            }
+            lastDecreaseNanos = now;
+            double decreased = Math.max(minLimit(), limit * DECREASE_FACTOR);
+            if ((int) decreased < (int) limit) log.info("OpenRouter concurrency limit {} -> {}", (int) limit, (int) decreased);
+            release(decreased);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release the slot without changing the limit (the outcome says nothing about upstream capacity).
+     */
+    public void onDropped() {
+        lock.lock();
+        try {
+            release(limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejectedCalls() {
+        lock.lock();
+        try {
+            return rejectedCalls;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(double newLimit) {
+        lock.lock();
+        try {
+            limit = newLimit;
+            if (inFlight > 0) inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double maxLimit() {
+        return Math.max(1, properties.getMaxConcurrentRequests());
+    }
+
+    private double minLimit() {
+        return Math.max(1, Math.min(properties.getMinConcurrentRequests(), properties.getMaxConcurrentRequests()));
+    }
+}
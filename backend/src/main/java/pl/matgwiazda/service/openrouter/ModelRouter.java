@@ -0,0 +1,203 @@
+package pl.matgwiazda.service.openrouter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import pl.matgwiazda.config.OpenRouterProperties;
+import pl.matgwiazda.dto.openrouter.ChatCompletionRequest;
+import pl.matgwiazda.dto.openrouter.ModelRouteDto;
+import pl.matgwiazda.exception.OpenRouterException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Chooses the model of each OpenRouter request from {@code openrouter.models} (or {@code openrouter.defaultModel}).
+ *
+ * Per model it keeps an EWMA of the latency of successful calls, an EWMA of the error rate and a window of
+ * recent latencies for the p95. {@link #rank()} orders healthy models by latency (untried ones first, cost breaks
+ * ties) and puts models above {@code openrouter.maxErrorRate} last, except for a periodic probe that lets them recover.
+ */
+@Component
+public class ModelRouter {
+
+    private static final int LATENCY_WINDOW = 128;
+    private static final int MIN_SAMPLES_FOR_P95 = 20;
+
+    private final OpenRouterProperties properties;
+    private final Clock clock;
+    private final List<Route> routes;
+
+    @Autowired
+    public ModelRouter(OpenRouterProperties properties, ObjectMapper objectMapper) {
+        this(properties, objectMapper, Clock.systemUTC());
+    }
+
+    public ModelRouter(OpenRouterProperties properties, ObjectMapper objectMapper, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        List<OpenRouterProperties.Model> models = properties.getModels();
+        if (models == null || models.isEmpty()) {
+            OpenRouterProperties.Model fallback = new OpenRouterProperties.Model();
+            fallback.setId(properties.getDefaultModel());
+            models = List.of(fallback);
+        }
+        List<Route> built = new ArrayList<>();
+        for (OpenRouterProperties.Model model : models) {
+            if (!StringUtils.hasText(model.getId())) throw new OpenRouterException("openrouter.models[].id must not be empty");
+            List<String> providers = model.getProviders() == null ? List.of() : List.copyOf(model.getProviders());
+            ChatCompletionRequest.ProviderPreferences preferences = providers.isEmpty() ? null : new ChatCompletionRequest.ProviderPreferences(providers, false);
+            built.add(new Route(model.getId(), providers, model.getCostPerMillionTokens(),
+                    PromptTemplate.modelFragment(model.getId(), preferences, objectMapper)));
+        }
+        this.routes = List.copyOf(built);
+    }
+
+    /**
+     * Candidate models, best first. Never empty.
+     */
+    public List<Route> rank() {
+        Instant now = clock.instant();
+        double maxErrorRate = properties.getMaxErrorRate();
+        List<Route> healthy = new ArrayList<>(routes.size());
+        List<Route> unhealthy = new ArrayList<>();
+        Route probe = null;
+        for (Route route : routes) {
+            if (route.errorRate() <= maxErrorRate) {
+                healthy.add(route);
+            } else if (probe == null && route.probeDue(now, properties.getUnhealthyProbeMs())) {
+                probe = route;
+            } else {
+                unhealthy.add(route);
+            }
+        }
+        healthy.sort(Comparator.comparingDouble(Route::latencyScore).thenComparingDouble(Route::getCostPerMillionTokens));
+        unhealthy.sort(Comparator.comparingDouble(Route::errorRate));
+
+        List<Route> ranked = new ArrayList<>(routes.size());
+        if (probe != null && probe.startProbe(now, properties.getUnhealthyProbeMs())) {
+            ranked.add(probe);
+        } else if (probe != null) {
+            unhealthy.add(0, probe);
+        }
+        ranked.addAll(healthy);
+        ranked.addAll(unhealthy);
+        return ranked;
+    }
+
+    /**
+     * How long to wait for the route before hedging: its p95 latency, at least {@code openrouter.hedgeMinDelayMs}.
+     */
+    public long hedgeDelayMs(Route route) {
+        long p95 = route.p95();
+        long fallback = Math.max(properties.getHedgeMinDelayMs(), properties.getTimeoutMs() / 2L);
+        return p95 < 0 ? fallback : Math.max(properties.getHedgeMinDelayMs(), p95);
+    }
+
+    /**
+     * Record the outcome of one call. Latency only counts for successful calls.
+     */
+    public void record(Route route, long latencyMs, boolean success) {
+        route.record(latencyMs, success, properties.getLatencyEwmaAlpha(), clock.instant());
+    }
+
+    public List<ModelRouteDto> stats() {
+        double maxErrorRate = properties.getMaxErrorRate();
+        return routes.stream().map(r -> r.toDto(maxErrorRate)).toList();
+    }
+
+    /**
+     * One candidate model with its precomputed request fragment and live statistics.
+     */
+    public static final class Route {
+
+        private final String model;
+        private final List<String> providers;
+        private final double costPerMillionTokens;
+        private final String requestFragment;
+
+        private final long[] window = new long[LATENCY_WINDOW];
+        private int windowSize;
+        private int windowPos;
+        private double ewmaLatencyMs = Double.NaN;
+        private double errorRate;
+        private long calls;
+        private long failures;
+        private Instant lastCallAt = Instant.EPOCH;
+
+        private Route(String model, List<String> providers, double costPerMillionTokens, String requestFragment) {
+            this.model = model;
+            this.providers = providers;
+            this.costPerMillionTokens = costPerMillionTokens;
+            this.requestFragment = requestFragment;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public double getCostPerMillionTokens() {
+            return costPerMillionTokens;
+        }
+
+        /**
+         * {@code "model":...} members to splice into a rendered template, see {@link PromptTemplate#render(String, int, String)}.
+         */
+        public String getRequestFragment() {
+            return requestFragment;
+        }
+
+        private synchronized double latencyScore() {
+            return Double.isNaN(ewmaLatencyMs) ? 0 : ewmaLatencyMs;
+        }
+
+        private synchronized double errorRate() {
+            return errorRate;
+        }
+
+        private synchronized boolean probeDue(Instant now, long probeMs) {
+            return !now.isBefore(lastCallAt.plusMillis(probeMs));
+        }
+
+        // only one caller gets the probe per interval; any finished call also restarts the interval
+        private synchronized boolean startProbe(Instant now, long probeMs) {
+            if (!probeDue(now, probeMs)) return false;
+            lastCallAt = now;
+            return true;
+        }
+
+        private synchronized void record(long latencyMs, boolean success, double alpha, Instant now) {
+            calls++;
+            if (!success) failures++;
+            errorRate = alpha * (success ? 0 : 1) + (1 - alpha) * errorRate;
+            if (success) {
+                ewmaLatencyMs = Double.isNaN(ewmaLatencyMs) ? latencyMs : alpha * latencyMs + (1 - alpha) * ewmaLatencyMs;
+                window[windowPos] = latencyMs;
+                windowPos = (windowPos + 1) % window.length;
+                windowSize = Math.min(windowSize + 1, window.length);
+            }
+            lastCallAt = now;
+        }
+
+        // -1 until enough samples are known
+        private synchronized long p95() {
+            if (windowSize < MIN_SAMPLES_FOR_P95) return -1;
+            long[] sorted = Arrays.copyOf(window, windowSize);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(0.95 * windowSize) - 1];
+        }
+
+        private synchronized ModelRouteDto toDto(double maxErrorRate) {
+            long p95 = p95();
+            return new ModelRouteDto(model, providers, costPerMillionTokens,
+                    Double.isNaN(ewmaLatencyMs) ? null : ewmaLatencyMs,
+                    p95 < 0 ? null : p95,
+                    errorRate, calls, failures, errorRate <= maxErrorRate);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package pl.matgwiazda.service.openrouter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import pl.matgwiazda.config.OpenRouterProperties;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Circuit breaker for OpenRouter calls.
+ *
+ * - CLOSED: calls pass; {@code openrouter.circuit-failure-threshold} consecutive failures open the circuit
+ * - OPEN: calls are rejected without touching the network until {@code openrouter.circuit-open-ms} has passed
+ * - HALF_OPEN: up to {@code openrouter.circuit-half-open-calls} probes pass; a success closes, a failure re-opens
+ */
+@Component
+public class OpenRouterCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final Logger log = LoggerFactory.getLogger(OpenRouterCircuitBreaker.class);
+
+    private final OpenRouterProperties properties;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int halfOpenInFlight;
+    private Instant openUntil;
+    private long rejectedCalls;
+
+    @Autowired
+    public OpenRouterCircuitBreaker(OpenRouterProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public OpenRouterCircuitBreaker(OpenRouterProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Ask for permission to call. Every granted call must be followed by exactly one of
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openUntil)) {
+                rejectedCalls++;
+                return false;
+            }
+            transition(State.HALF_OPEN);
+            halfOpenInFlight = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight >= Math.max(1, properties.getCircuitHalfOpenCalls())) {
+                rejectedCalls++;
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight = 0;
+            transition(State.CLOSED);
+        }
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= properties.getCircuitFailureThreshold())) {
+            openUntil = clock.instant().plusMillis(properties.getCircuitOpenMs());
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * The call ended with an outcome that says nothing about OpenRouter's health (e.g. a 4xx caused by the request).
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenInFlight > 0) halfOpenInFlight--;
+    }
+
+    public synchronized State getState() {
+        // report an expired OPEN state as HALF_OPEN without waiting for the next call
+        if (state == State.OPEN && !clock.instant().isBefore(openUntil)) return State.HALF_OPEN;
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized Instant getOpenUntil() {
+        return state == State.OPEN ? openUntil : null;
+    }
+
+    public synchronized long getRejectedCalls() {
+        return rejectedCalls;
+    }
+
+    private void transition(State next) {
+        if (state == next) return;
+        if (next == State.OPEN) {
+            log.warn("OpenRouter circuit {} -> OPEN after {} consecutive failure(s), retry at {}", state, consecutiveFailures, openUntil);
+        } else {
+            log.info("OpenRouter circuit {} -> {}", state, next);
+        }
+        state = next;
+    }
+}
@@ -4,26 +4,39 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import pl.matgwiazda.config.OpenRouterProperties;
+import pl.matgwiazda.config.OpenRouterTransportConfig;
+import pl.matgwiazda.dto.openrouter.OpenRouterStatusDto;
 import pl.matgwiazda.exception.OpenRouterException;
+import pl.matgwiazda.exception.OpenRouterUnavailableException;
 
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Encapsulates HTTP communication with OpenRouter.
- * Single responsibility: perform a single POST attempt and return raw response body or throw a domain exception.
+ * {@link #post(String)} returns the raw response body or throws a domain exception.
+ *
+ * Every attempt passes the {@link OpenRouterCircuitBreaker} and the {@link AdaptiveConcurrencyLimiter}; when either
+ * refuses, an {@link OpenRouterUnavailableException} is thrown without touching the network. Network errors,
+ * timeouts, 408/429 and 5xx are retried up to {@code openrouter.max-retries} times with exponential backoff
+ * from {@code openrouter.backoff-base-ms}; other statuses fail immediately.
  */
 @Component
 public class OpenRouterHttpClient {
@@ -34,19 +47,22 @@ public class OpenRouterHttpClient {
     private final RestTemplate restTemplate;
     private final OpenRouterProperties properties;
     private final ObjectMapper objectMapper;
-
-    public OpenRouterHttpClient(RestTemplateBuilder restTemplateBuilder, OpenRouterProperties properties, ObjectMapper objectMapper) {
+    private final OpenRouterCircuitBreaker circuitBreaker;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public OpenRouterHttpClient(RestTemplateBuilder restTemplateBuilder,
+                                OpenRouterProperties properties,
+                                ObjectMapper objectMapper,
+                                @Qualifier(OpenRouterTransportConfig.OPENROUTER_REQUEST_FACTORY) ClientHttpRequestFactory requestFactory,
+                                OpenRouterCircuitBreaker circuitBreaker,
+                                AdaptiveConcurrencyLimiter limiter) {
         this.properties = properties;
         this.objectMapper = objectMapper;
-
-        // configure request factory with timeouts using the JDK-based factory (no extra Apache dependency)
-        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        int timeoutMs = Math.toIntExact(Math.max(1, properties.getTimeoutMs()));
-        requestFactory.setConnectTimeout(timeoutMs);
-        requestFactory.setReadTimeout(timeoutMs);
+        this.circuitBreaker = circuitBreaker;
+        this.limiter = limiter;
 
         // Do not call deprecated RestTemplateBuilder.setConnectTimeout / setReadTimeout (3.4+).
-        // Rely on the request factory timeouts above and build the RestTemplate normally.
+        // Timeouts are configured on the transport (see OpenRouterTransportConfig).
         this.restTemplate = restTemplateBuilder
                 .requestFactory(() -> requestFactory)
                 .build();
@@ -57,6 +73,65 @@ public class OpenRouterHttpClient {
             throw new OpenRouterException("OpenRouter API key is not configured. Set openrouter.apiKey or use environment variable.");
         }
 
+        int maxAttempts = 1 + Math.max(0, properties.getMaxRetries());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return guardedPost(requestBody);
+            } catch (OpenRouterUnavailableException ex) {
+                throw ex;
+            } catch (OpenRouterException ex) {
+                if (!isRetryable(ex) || attempt >= maxAttempts) throw ex;
+                long backoff = backoffMs(attempt);
+                log.debug("OpenRouter attempt {}/{} failed ({}), retrying in {} ms", attempt, maxAttempts, ex.getMessage(), backoff);
+                sleep(backoff);
+            }
+        }
+    }
+
+    public OpenRouterStatusDto status() {
+        return new OpenRouterStatusDto(
+                circuitBreaker.getState().name(),
+                circuitBreaker.getConsecutiveFailures(),
+                circuitBreaker.getOpenUntil(),
+                circuitBreaker.getRejectedCalls(),
+                limiter.getLimit(),
+                limiter.getInFlight(),
+                limiter.getRejectedCalls()
+        );
+    }
+
+    // one attempt under the circuit breaker and the concurrency limit
+    private String guardedPost(String requestBody) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new OpenRouterUnavailableException("OpenRouter circuit breaker is open, not calling the API");
+        }
+        long started;
+        try {
+            started = limiter.acquire();
+        } catch (OpenRouterUnavailableException ex) {
+            circuitBreaker.onIgnored();
+            throw ex;
+        }
+
+        try {
+            String body = postOnce(requestBody);
+            limiter.onSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            circuitBreaker.onSuccess();
+            return body;
+        } catch (OpenRouterException ex) {
+            if (ex.getStatus() == 429 || isTimeout(ex)) limiter.onOverload(started);
+            else limiter.onDropped();
+            if (isRetryable(ex)) circuitBreaker.onFailure();
+            else circuitBreaker.onIgnored();
+            throw ex;
+        } catch (RuntimeException ex) {
+            limiter.onDropped();
+            circuitBreaker.onIgnored();
+            throw ex;
+        }
+    }
+
+    private String postOnce(String requestBody) {
         final String url = properties.getEndpoint();
 
         HttpHeaders headers = new HttpHeaders();
@@ -76,23 +151,51 @@ public class OpenRouterHttpClient {
 
             if (status == 401) {
                 String provider = extractProviderMessage(body);
-                throw new OpenRouterException("OpenRouter returned 401 Unauthorized" + (provider != null ? ": " + provider : ""));
+                throw new OpenRouterException("OpenRouter returned 401 Unauthorized" + (provider != null ? ": " + provider : ""), status, null);
             }
 
-            throw new OpenRouterException("OpenRouter request failed with status: " + status + ", body: " + safeTruncate(body));
+            throw new OpenRouterException("OpenRouter request failed with status: " + status + ", body: " + safeTruncate(body), status, null);
 
         } catch (RestClientResponseException rcre) {
             int status = rcre.getStatusCode().value();
             String respBody = rcre.getResponseBodyAsString();
-            if (status == 401) throw new OpenRouterException("OpenRouter returned 401 Unauthorized: " + safeTruncate(respBody));
-            log.warn("RestClientResponseException while calling OpenRouter:", rcre);
-            throw new OpenRouterException("OpenRouter request failed: " + rcre.getMessage(), rcre);
+            if (status == 401) throw new OpenRouterException("OpenRouter returned 401 Unauthorized: " + safeTruncate(respBody), status, rcre);
+            log.warn("RestClientResponseException while calling OpenRouter: {}", rcre.getMessage());
+            throw new OpenRouterException("OpenRouter request failed: " + rcre.getMessage(), status, rcre);
         } catch (RestClientException ex) {
-            log.warn("Network error while calling OpenRouter:", ex);
+            log.warn("Network error while calling OpenRouter: {}", ex.getMessage());
             throw new OpenRouterException("Network error calling OpenRouter: " + ex.getMessage(), ex);
         }
     }
 
+    // no response (network error, timeout), request timeout, rate limit or server error
+    private boolean isRetryable(OpenRouterException ex) {
+        int status = ex.getStatus();
+        return status == 0 || status == 408 || status == 429 || status >= 500;
+    }
+
+    private boolean isTimeout(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SocketTimeoutException || t instanceof HttpTimeoutException) return true;
+        }
+        return false;
+    }
+
+    private long backoffMs(int attempt) {
+        long base = Math.max(0, properties.getBackoffBaseMs()) * (1L << Math.min(attempt - 1, 10));
+        // random jitter in the upper half spreads the retries of concurrent callers
+        return base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+
+    private void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new OpenRouterUnavailableException("Interrupted while waiting to retry OpenRouter call");
+        }
+    }
+
     private String extractProviderMessage(String body) {
         try {
             if (body == null) return null;
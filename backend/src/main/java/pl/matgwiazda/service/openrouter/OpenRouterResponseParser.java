@@ -1,5 +1,7 @@
 package pl.matgwiazda.service.openrouter;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -13,7 +15,9 @@ import pl.matgwiazda.dto.openrouter.response.Message;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Parses raw OpenRouter responses into AiTaskResult.
@@ -30,6 +34,8 @@ public class OpenRouterResponseParser {
     private static final String FIELD_CORRECT_INDEX = "correctIndex";
     private static final String FIELD_PROMPT = "prompt";
     private static final String FIELD_EXPLANATION = "explanation";
+    private static final String FIELD_TASKS = "tasks";
+    private static final int BATCH_OPTIONS = 4; // tasks.options must hold exactly 4 answers
 
     private final ObjectMapper objectMapper;
 
@@ -38,14 +44,83 @@ public class OpenRouterResponseParser {
     }
 
     public AiTaskResult parseAiTask(String rawResponse) {
+        return parseTaskFromContent(extractContent(rawResponse));
+    }
+
+    /**
+     * Parse a batch answer: a {@code tasks} array (or a bare array) of task objects.
+     *
+     * Elements are read one at a time from a streaming parser and validated on their own; invalid elements and
+     * duplicate prompts are skipped. Output cut off by {@code max_tokens} still yields the elements completed before.
+     *
+     * @throws OpenRouterException when no valid element could be read
+     */
+    public List<AiTaskResult> parseAiTasks(String rawResponse) {
+        String content = extractContent(rawResponse);
+        int start = firstJsonStart(content);
+        if (start < 0) throw new OpenRouterException("AI batch output is not JSON");
+
+        List<AiTaskResult> results = new ArrayList<>();
+        Set<String> prompts = new HashSet<>();
+        int rejected = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(content.substring(start))) {
+            if (!moveToTasksArray(parser)) throw new OpenRouterException("AI batch output does not contain a `" + FIELD_TASKS + "` array");
+            while (parser.nextToken() != JsonToken.END_ARRAY && parser.currentToken() != null) {
+                JsonNode element = objectMapper.readTree(parser);
+                try {
+                    AiTaskResult task = nodeToAiTask(element);
+                    if (task.options().size() != BATCH_OPTIONS || !prompts.add(task.prompt())) {
+                        rejected++;
+                        continue;
+                    }
+                    results.add(task);
+                } catch (OpenRouterException ex) {
+                    rejected++;
+                    log.debug("Skipping invalid task in AI batch output: {}", ex.getMessage());
+                }
+            }
+        } catch (IOException ex) {
+            // typically a truncated answer; keep what was complete
+            if (results.isEmpty()) throw new OpenRouterException("Failed to parse AI batch output as JSON: " + ex.getMessage(), ex);
+            log.warn("AI batch output is incomplete, keeping {} parsed task(s): {}", results.size(), ex.getMessage());
+        }
+
+        if (rejected > 0) log.info("AI batch output: {} valid, {} rejected task(s)", results.size(), rejected);
+        if (results.isEmpty()) throw new OpenRouterException("AI batch output contained no valid task");
+        return results;
+    }
+
+    private String extractContent(String rawResponse) {
         if (rawResponse == null) throw new OpenRouterException("Empty response from OpenRouter");
 
         JsonNode contentNode = tryParseWithDto(rawResponse);
         if (contentNode == null) contentNode = tryParseGenericJson(rawResponse);
         if (contentNode == null || contentNode.isNull()) throw new OpenRouterException("AI response did not contain a message content");
 
-        String content = extractContentText(contentNode);
-        return parseTaskFromContent(content);
+        return extractContentText(contentNode);
+    }
+
+    // positions the parser on the START_ARRAY of the task list
+    private boolean moveToTasksArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) return true;
+        if (token != JsonToken.START_OBJECT) return false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (FIELD_TASKS.equals(field) && value == JsonToken.START_ARRAY) return true;
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private int firstJsonStart(String content) {
+        if (content == null) return -1;
+        int obj = content.indexOf('{');
+        int arr = content.indexOf('[');
+        if (obj < 0) return arr;
+        if (arr < 0) return obj;
+        return Math.min(obj, arr);
     }
 
     private JsonNode tryParseWithDto(String rawResponse) {
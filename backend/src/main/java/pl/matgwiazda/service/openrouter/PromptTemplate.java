@@ -0,0 +1,217 @@
+package pl.matgwiazda.service.openrouter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import pl.matgwiazda.dto.openrouter.ChatCompletionRequest;
+import pl.matgwiazda.dto.openrouter.ChatMessage;
+import pl.matgwiazda.dto.openrouter.PromptTemplateDefinition;
+import pl.matgwiazda.dto.openrouter.PromptTemplateDto;
+import pl.matgwiazda.exception.OpenRouterException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A validated template with its chat/completions request serialized once.
+ * The serialized request is kept as the JSON text around each placeholder occurrence,
+ * so {@link #render(String, int)} only has to JSON-escape the seed and concatenate.
+ * The {@code "model"} member is a placeholder as well, so one template serves every routed model
+ * (see {@link #modelFragment}).
+ */
+public final class PromptTemplate {
+
+    public static final String MODE_SINGLE = "single";
+    public static final String MODE_BATCH = "batch";
+    public static final String SEED_PLACEHOLDER = "{{seed}}";
+    public static final String COUNT_PLACEHOLDER = "{{count}}";
+    // plain ASCII markers that survive JSON serialization unchanged
+    private static final String SEED_MARKER = "@@MATGWIAZDA_SEED@@";
+    private static final String COUNT_MARKER = "@@MATGWIAZDA_COUNT@@";
+    private static final String MODEL_MARKER = "@@MATGWIAZDA_MODEL@@";
+    private static final String MODEL_MEMBER = "\"model\":\"" + MODEL_MARKER + "\"";
+    private static final byte SEED = 0;
+    private static final byte COUNT = 1;
+    private static final byte MODEL = 2;
+
+    private final String id;
+    private final int version;
+    private final String mode;
+    private final List<Short> levels;
+    private final String source;
+    private final String[] segments; // request JSON split at the placeholder positions
+    private final byte[] gaps; // per gap between segments: SEED, COUNT or MODEL
+    private final String defaultModelFragment;
+
+    private PromptTemplate(String id, int version, String mode, List<Short> levels, String source, String[] segments, byte[] gaps, String defaultModelFragment) {
+        this.id = id;
+        this.version = version;
+        this.mode = mode;
+        this.levels = levels;
+        this.source = source;
+        this.segments = segments;
+        this.gaps = gaps;
+        this.defaultModelFragment = defaultModelFragment;
+    }
+
+    /**
+     * Validate a definition and pre-serialize its request; {@code model} is used by the renders without a route.
+     *
+     * @throws OpenRouterException when the definition is invalid
+     */
+    public static PromptTemplate compile(PromptTemplateDefinition def, String source, String model, ObjectMapper objectMapper) {
+        validate(def, source);
+        String mode = def.mode() != null ? def.mode() : MODE_SINGLE;
+
+        List<ChatMessage> messages = List.of(
+                new ChatMessage("system", def.systemPrompt()),
+                new ChatMessage("user", def.userPrompt().replace(SEED_PLACEHOLDER, SEED_MARKER).replace(COUNT_PLACEHOLDER, COUNT_MARKER))
+        );
+        ChatCompletionRequest request = new ChatCompletionRequest(
+                MODEL_MARKER,
+                def.temperature() != null ? def.temperature() : 0.0,
+                def.topP() != null ? def.topP() : 0.8,
+                def.maxTokens() != null ? def.maxTokens() : 400,
+                messages,
+                def.responseFormat()
+        );
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException ex) {
+            throw new OpenRouterException("Failed to serialize prompt template " + def.id() + " (" + source + "): " + ex.getMessage(), ex);
+        }
+
+        List<String> parts = new ArrayList<>();
+        List<Byte> kinds = new ArrayList<>();
+        String[] markers = {SEED_MARKER, COUNT_MARKER, MODEL_MEMBER};
+        int from = 0;
+        while (true) {
+            int at = -1;
+            byte kind = SEED;
+            for (byte k = 0; k < markers.length; k++) {
+                int found = json.indexOf(markers[k], from);
+                if (found >= 0 && (at < 0 || found < at)) {
+                    at = found;
+                    kind = k;
+                }
+            }
+            if (at < 0) break;
+            parts.add(json.substring(from, at));
+            kinds.add(kind);
+            from = at + markers[kind].length();
+        }
+        parts.add(json.substring(from));
+        byte[] gaps = new byte[kinds.size()];
+        for (int i = 0; i < gaps.length; i++) gaps[i] = kinds.get(i);
+
+        return new PromptTemplate(def.id(), def.version(), mode, List.copyOf(def.levels()), source, parts.toArray(new String[0]), gaps,
+                modelFragment(model, null, objectMapper));
+    }
+
+    /**
+     * JSON members that select the model of a request, e.g. {@code "model":"x","provider":{...}}.
+     * Computed once per routed model and spliced into {@link #render(String, int, String)}.
+     */
+    public static String modelFragment(String model, ChatCompletionRequest.ProviderPreferences provider, ObjectMapper objectMapper) {
+        StringBuilder sb = new StringBuilder("\"model\":\"");
+        sb.append(JsonStringEncoder.getInstance().quoteAsString(model == null ? "" : model)).append('"');
+        if (provider != null) {
+            try {
+                sb.append(",\"provider\":").append(objectMapper.writeValueAsString(provider));
+            } catch (JsonProcessingException ex) {
+                throw new OpenRouterException("Failed to serialize provider preferences of model " + model + ": " + ex.getMessage(), ex);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Request body for the given seed (single-task templates).
+     */
+    public String render(String seed) {
+        return render(seed, 1);
+    }
+
+    /**
+     * Request body for the given seed and number of tasks.
+     */
+    public String render(String seed, int count) {
+        return render(seed, count, defaultModelFragment);
+    }
+
+    /**
+     * Request body for the given seed and number of tasks, sent to the model described by {@code modelFragment}.
+     */
+    public String render(String seed, int count, String modelFragment) {
+        char[] escaped = JsonStringEncoder.getInstance().quoteAsString(seed);
+        String countText = Integer.toString(count);
+        StringBuilder sb = new StringBuilder(segments[0].length() * 2 + escaped.length);
+        sb.append(segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            switch (gaps[i - 1]) {
+                case SEED -> sb.append(escaped);
+                case COUNT -> sb.append(countText);
+                default -> sb.append(modelFragment);
+            }
+            sb.append(segments[i]);
+        }
+        return sb.toString();
+    }
+
+    public boolean supports(short level) {
+        return levels.contains(level);
+    }
+
+    public boolean isBatch() {
+        return MODE_BATCH.equals(mode);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public List<Short> getLevels() {
+        return levels;
+    }
+
+    public PromptTemplateDto toDto() {
+        return new PromptTemplateDto(id, version, mode, levels, source);
+    }
+
+    private static void validate(PromptTemplateDefinition def, String source) {
+        if (def == null) throw invalid(source, "empty template");
+        if (def.id() == null || def.id().isBlank()) throw invalid(source, "`id` is required");
+        if (def.version() == null || def.version() < 1) throw invalid(source, "`version` must be >= 1");
+        if (def.mode() != null && !MODE_SINGLE.equals(def.mode()) && !MODE_BATCH.equals(def.mode())) {
+            throw invalid(source, "`mode` must be " + MODE_SINGLE + " or " + MODE_BATCH);
+        }
+        if (def.levels() == null || def.levels().isEmpty()) throw invalid(source, "`levels` must not be empty");
+        for (Short level : def.levels()) {
+            if (level == null || level < 1 || level > 8) throw invalid(source, "`levels` must be in range 1..8");
+        }
+        if (def.systemPrompt() == null || def.systemPrompt().isBlank()) throw invalid(source, "`systemPrompt` is required");
+        if (def.userPrompt() == null || !def.userPrompt().contains(SEED_PLACEHOLDER)) {
+            throw invalid(source, "`userPrompt` must contain " + SEED_PLACEHOLDER);
+        }
+        if (MODE_BATCH.equals(def.mode()) && !def.userPrompt().contains(COUNT_PLACEHOLDER)) {
+            throw invalid(source, "batch `userPrompt` must contain " + COUNT_PLACEHOLDER);
+        }
+        for (String marker : List.of(SEED_MARKER, COUNT_MARKER, MODEL_MARKER)) {
+            if (def.systemPrompt().contains(marker) || def.userPrompt().contains(marker)) {
+                throw invalid(source, "prompts must not contain " + marker);
+            }
+        }
+        if (def.maxTokens() != null && def.maxTokens() < 1) throw invalid(source, "`maxTokens` must be positive");
+        if (def.responseFormat() != null && !def.responseFormat().isObject()) throw invalid(source, "`responseFormat` must be an object");
+    }
+
+    private static OpenRouterException invalid(String source, String reason) {
+        return new OpenRouterException("Invalid prompt template " + source + ": " + reason);
+    }
+}
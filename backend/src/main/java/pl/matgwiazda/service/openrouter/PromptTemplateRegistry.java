@@ -0,0 +1,129 @@
+package pl.matgwiazda.service.openrouter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import pl.matgwiazda.config.OpenRouterProperties;
+import pl.matgwiazda.dto.openrouter.PromptTemplateDefinition;
+import pl.matgwiazda.dto.openrouter.PromptTemplateDto;
+import pl.matgwiazda.exception.OpenRouterException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Loads the prompt templates from {@code openrouter.template-locations} once at startup.
+ *
+ * Contract:
+ * - all templates are validated and compiled up front; an invalid template fails startup
+ * - when several versions of the same template id exist only the highest version is used
+ * - {@link #pick(short)} chooses randomly among the single-task templates of a level,
+ *   {@link #pickBatch(short)} among the batch templates
+ * - {@link #reload()} swaps the whole set atomically; on error the current set stays active
+ */
+@Component
+public class PromptTemplateRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(PromptTemplateRegistry.class);
+
+    private final ObjectMapper objectMapper;
+    private final OpenRouterProperties properties;
+    private final ResourcePatternResolver resourceResolver;
+    private final AtomicReference<List<PromptTemplate>> templates = new AtomicReference<>(List.of());
+
+    public PromptTemplateRegistry(ObjectMapper objectMapper, OpenRouterProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.resourceResolver = new PathMatchingResourcePatternResolver();
+        reload();
+    }
+
+    /**
+     * Random template for the level.
+     *
+     * @throws OpenRouterException when no template covers the level
+     */
+    public PromptTemplate pick(short level) {
+        return pickRandom(level, false).orElseThrow(() -> new OpenRouterException("No prompt template configured for level " + level));
+    }
+
+    /**
+     * Random batch template for the level, empty when the level has none.
+     */
+    public Optional<PromptTemplate> pickBatch(short level) {
+        return pickRandom(level, true);
+    }
+
+    private Optional<PromptTemplate> pickRandom(short level, boolean batch) {
+        List<PromptTemplate> matching = templates.get().stream().filter(t -> t.isBatch() == batch && t.supports(level)).toList();
+        if (matching.isEmpty()) return Optional.empty();
+        if (matching.size() == 1) return Optional.of(matching.get(0));
+        return Optional.of(matching.get(ThreadLocalRandom.current().nextInt(matching.size())));
+    }
+
+    public List<PromptTemplateDto> list() {
+        return templates.get().stream().map(PromptTemplate::toDto).toList();
+    }
+
+    /**
+     * Re-read and re-compile all templates, then replace the active set.
+     *
+     * @return the templates now active
+     * @throws OpenRouterException when a template is invalid or none were found; the previous set stays active
+     */
+    public List<PromptTemplateDto> reload() {
+        Map<String, PromptTemplate> latestById = new HashMap<>();
+        for (String location : properties.getTemplateLocations()) {
+            for (Resource resource : resolve(location)) {
+                PromptTemplate compiled = PromptTemplate.compile(read(resource), describe(resource), properties.getDefaultModel(), objectMapper);
+                latestById.merge(compiled.getId(), compiled, (a, b) -> {
+                    if (a.getVersion() == b.getVersion()) {
+                        throw new OpenRouterException("Duplicate prompt template " + a.getId() + " v" + a.getVersion());
+                    }
+                    return a.getVersion() > b.getVersion() ? a : b;
+                });
+            }
+        }
+        if (latestById.isEmpty()) {
+            throw new OpenRouterException("No prompt templates found in " + properties.getTemplateLocations());
+        }
+
+        List<PromptTemplate> loaded = new ArrayList<>(latestById.values());
+        loaded.sort(Comparator.comparing(PromptTemplate::getId));
+        templates.set(List.copyOf(loaded));
+        log.info("Loaded {} prompt template(s): {}", loaded.size(), loaded.stream().map(t -> t.getId() + " v" + t.getVersion()).toList());
+        return list();
+    }
+
+    private Resource[] resolve(String location) {
+        try {
+            return resourceResolver.getResources(location);
+        } catch (IOException ex) {
+            throw new OpenRouterException("Failed to list prompt templates in " + location + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    private PromptTemplateDefinition read(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            return objectMapper.readValue(in, PromptTemplateDefinition.class);
+        } catch (IOException ex) {
+            throw new OpenRouterException("Failed to read prompt template " + describe(resource) + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    private String describe(Resource resource) {
+        return resource.getFilename() != null ? resource.getFilename() : resource.getDescription();
+    }
+}
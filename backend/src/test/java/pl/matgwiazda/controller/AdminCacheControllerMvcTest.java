@@ -0,0 +1,45 @@
+package pl.matgwiazda.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.matgwiazda.dto.CacheRegionStatsDto;
+import pl.matgwiazda.service.CacheStatsService;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = AdminCacheController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class AdminCacheControllerMvcTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CacheStatsService cacheStatsService;
+
+    @Test
+    void statsShouldReturnCountersPerRegion() throws Exception {
+        when(cacheStatsService.regions()).thenReturn(List.of(
+                new CacheRegionStatsDto("learning-levels", 0, 0, 0, null, null),
+                new CacheRegionStatsDto("tasks", 90, 10, 10, 0.9, 10L)));
+
+        mockMvc.perform(get("/api/v1/admin/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].hitRatio").doesNotExist())
+                .andExpect(jsonPath("$[1].region").value("tasks"))
+                .andExpect(jsonPath("$[1].hitRatio").value(0.9))
+                .andExpect(jsonPath("$[1].entriesInMemory").value(10));
+    }
+}
@@ -0,0 +1,78 @@
+package pl.matgwiazda.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.matgwiazda.service.ExportService;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = AdminExportController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class AdminExportControllerMvcTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ExportService exportService;
+
+    @Test
+    void exportTasksAsCsv_streamsAttachment() throws Exception {
+        StreamingResponseBody body = out -> out.write("id,level\r\n".getBytes(StandardCharsets.UTF_8));
+        when(exportService.export(ExportService.Dataset.TASKS, ExportService.Format.CSV)).thenReturn(body);
+
+        MvcResult started = mockMvc.perform(get("/api/v1/admin/export/tasks").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks.csv\""))
+                .andExpect(content().string("id,level\r\n"));
+    }
+
+    @Test
+    void exportProgress_defaultsToNdjson() throws Exception {
+        StreamingResponseBody body = out -> out.write("{}\n".getBytes(StandardCharsets.UTF_8));
+        when(exportService.export(ExportService.Dataset.PROGRESS, ExportService.Format.NDJSON)).thenReturn(body);
+
+        MvcResult started = mockMvc.perform(get("/api/v1/admin/export/progress"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+    }
+
+    @Test
+    void exportWhenBusy_isTooManyRequests() throws Exception {
+        when(exportService.export(ExportService.Dataset.PROGRESS, ExportService.Format.NDJSON))
+                .thenThrow(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "busy"));
+
+        mockMvc.perform(get("/api/v1/admin/export/progress"))
+                .andExpect(status().isTooManyRequests());
+    }
+}
@@ -0,0 +1,83 @@
+package pl.matgwiazda.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.matgwiazda.dto.openrouter.ModelRouteDto;
+import pl.matgwiazda.dto.openrouter.OpenRouterStatusDto;
+import pl.matgwiazda.dto.openrouter.PromptTemplateDto;
+import pl.matgwiazda.exception.OpenRouterException;
+import pl.matgwiazda.service.openrouter.ModelRouter;
+import pl.matgwiazda.service.openrouter.OpenRouterHttpClient;
+import pl.matgwiazda.service.openrouter.PromptTemplateRegistry;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = AdminOpenRouterController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class AdminOpenRouterControllerMvcTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PromptTemplateRegistry promptTemplates;
+
+    @MockitoBean
+    private OpenRouterHttpClient httpClient;
+
+    @MockitoBean
+    private ModelRouter modelRouter;
+
+    @Test
+    void statusShouldReturnCircuitAndLimiterState() throws Exception {
+        when(httpClient.status()).thenReturn(new OpenRouterStatusDto("OPEN", 5, Instant.parse("2026-01-01T00:00:30Z"), 12, 4, 1, 0));
+
+        mockMvc.perform(get("/api/v1/admin/openrouter/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.circuitState").value("OPEN"))
+                .andExpect(jsonPath("$.concurrencyLimit").value(4));
+    }
+
+    @Test
+    void modelsShouldReturnRoutingStats() throws Exception {
+        when(modelRouter.stats()).thenReturn(List.of(new ModelRouteDto("fast/model", List.of(), 0.1, 850.0, 1400L, 0.02, 120, 3, true)));
+
+        mockMvc.perform(get("/api/v1/admin/openrouter/models"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].model").value("fast/model"))
+                .andExpect(jsonPath("$[0].p95LatencyMs").value(1400))
+                .andExpect(jsonPath("$[0].healthy").value(true));
+    }
+
+    @Test
+    void reloadPromptTemplatesShouldReturnActiveTemplates() throws Exception {
+        when(promptTemplates.reload()).thenReturn(List.of(new PromptTemplateDto("math-single", 2, "single", List.of((short) 1, (short) 2), "math_single_v2.json")));
+
+        mockMvc.perform(post("/api/v1/admin/openrouter/prompt-templates/reload"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("math-single"))
+                .andExpect(jsonPath("$[0].version").value(2));
+    }
+
+    @Test
+    void reloadPromptTemplatesInvalidShouldReturn422() throws Exception {
+        when(promptTemplates.reload()).thenThrow(new OpenRouterException("Invalid prompt template broken.json: `userPrompt` must contain {{seed}}"));
+
+        mockMvc.perform(post("/api/v1/admin/openrouter/prompt-templates/reload"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+}
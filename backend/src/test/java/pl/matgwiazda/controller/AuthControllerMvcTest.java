@@ -19,6 +19,7 @@ import pl.matgwiazda.security.JwtService;
 import pl.matgwiazda.service.AuthService;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -74,7 +75,7 @@ class AuthControllerMvcTest {
         resp.setAccessToken("acc");
         resp.setRefreshToken("ref");
 
-        when(authService.login(any(AuthLoginCommand.class))).thenReturn(resp);
+        when(authService.login(any(AuthLoginCommand.class), eq("127.0.0.1"))).thenReturn(resp);
 
         mockMvc.perform(post("/api/v1/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -82,7 +83,7 @@ class AuthControllerMvcTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken").value("acc"));
 
-        verify(authService).login(any(AuthLoginCommand.class));
+        verify(authService).login(any(AuthLoginCommand.class), eq("127.0.0.1"));
     }
 
     @Test
@@ -9,10 +9,15 @@ import pl.matgwiazda.dto.AuthLoginCommand;
 import pl.matgwiazda.dto.AuthRegisterCommand;
 import pl.matgwiazda.dto.AuthResponseDto;
 import pl.matgwiazda.dto.AuthRefreshCommand;
+import pl.matgwiazda.domain.enums.UserRole;
+import pl.matgwiazda.security.AuthenticatedUser;
 import pl.matgwiazda.service.AuthService;
 import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.UUID;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -58,13 +63,15 @@ class AuthControllerTest {
 
         AuthResponseDto resp = new AuthResponseDto();
         resp.setAccessToken("acc");
-        when(authService.login(cmd)).thenReturn(resp);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+        when(authService.login(cmd, "10.0.0.7")).thenReturn(resp);
 
-        var response = authController.login(cmd);
+        var response = authController.login(cmd, request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertSame(resp, response.getBody());
-        verify(authService).login(cmd);
+        verify(authService).login(cmd, "10.0.0.7");
     }
 
     @Test
@@ -82,5 +89,14 @@ class AuthControllerTest {
         assertSame(resp, response.getBody());
         verify(authService).refresh(cmd);
     }
-}
 
+    @Test
+    void logoutShouldRevokeTokenAndReturnNoContent() {
+        AuthenticatedUser principal = new AuthenticatedUser(UUID.randomUUID(), "a@b.com", UserRole.STUDENT, UUID.randomUUID(), 0, null);
+
+        var response = authController.logout(principal);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(authService).logout(principal);
+    }
+}
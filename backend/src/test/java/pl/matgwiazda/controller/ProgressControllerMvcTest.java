@@ -14,6 +14,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import pl.matgwiazda.domain.entity.User;
 import pl.matgwiazda.domain.enums.UserRole;
+import pl.matgwiazda.dto.KeysetPageDto;
 import pl.matgwiazda.dto.ProgressDto;
 import pl.matgwiazda.dto.ProgressSubmitCommand;
 import pl.matgwiazda.dto.ProgressSubmitResponseDto;
@@ -23,6 +24,7 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
@@ -103,4 +105,25 @@ class ProgressControllerMvcTest {
 
         verify(progressService).listAllProgress(any(java.util.UUID.class));
     }
+
+    @Test
+    void listProgressShouldReturnPageWithCursor() throws Exception {
+        UUID userId = UUID.randomUUID();
+        User user = basicUser(userId);
+
+        ProgressDto p = new ProgressDto();
+        p.setId(UUID.randomUUID());
+        when(progressService.listProgress(userId, "abc", 10)).thenReturn(new KeysetPageDto<>(List.of(p), "def"));
+
+        mockMvc.perform(get("/api/v1/progress")
+                        .with(authentication(authFor(user)))
+                        .header("X-User-Id", userId.toString())
+                        .param("cursor", "abc")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(p.getId().toString()))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+
+        verify(progressService).listProgress(eq(userId), eq("abc"), eq(10));
+    }
 }
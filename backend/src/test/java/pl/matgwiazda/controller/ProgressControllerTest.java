@@ -5,6 +5,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import pl.matgwiazda.dto.KeysetPageDto;
 import pl.matgwiazda.dto.ProgressDto;
 import pl.matgwiazda.dto.ProgressSubmitCommand;
 import pl.matgwiazda.dto.ProgressSubmitResponseDto;
@@ -60,4 +61,17 @@ class ProgressControllerTest {
         assertSame(list, response.getBody());
         verify(progressService).listAllProgress(userId);
     }
+
+    @Test
+    void listProgressShouldReturnPage() {
+        UUID userId = UUID.randomUUID();
+        KeysetPageDto<ProgressDto> page = new KeysetPageDto<>(List.of(), null);
+
+        when(progressService.listProgress(userId, null, null)).thenReturn(page);
+
+        var response = progressController.listProgress(userId, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(page, response.getBody());
+    }
 }
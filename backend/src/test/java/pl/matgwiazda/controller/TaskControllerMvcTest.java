@@ -11,22 +11,31 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import pl.matgwiazda.domain.entity.User;
 import pl.matgwiazda.domain.enums.UserRole;
+import pl.matgwiazda.dto.KeysetPageDto;
 import pl.matgwiazda.dto.TaskDto;
+import pl.matgwiazda.dto.TaskFilter;
+import pl.matgwiazda.domain.enums.TaskGenerationJobStatus;
 import pl.matgwiazda.dto.TaskGenerateCommand;
+import pl.matgwiazda.dto.TaskGenerationJobDto;
 import pl.matgwiazda.dto.TaskWithProgressDto;
+import pl.matgwiazda.service.TaskGenerationJobService;
 import pl.matgwiazda.service.TaskService;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -44,6 +53,9 @@ class TaskControllerMvcTest {
     @MockitoBean
     private TaskService taskService;
 
+    @MockitoBean
+    private TaskGenerationJobService jobService;
+
     // no security principal needed; controller uses X-User-Id header
     @Test
     void generateTaskShouldReturnCreated() throws Exception {
@@ -67,19 +79,88 @@ class TaskControllerMvcTest {
         verify(taskService).generateTask(any(TaskGenerateCommand.class), eq(userId));
     }
 
+    @Test
+    void generateTaskAsyncShouldReturnAcceptedWithJob() throws Exception {
+        UUID userId = UUID.randomUUID();
+        UUID jobId = UUID.randomUUID();
+        TaskGenerateCommand cmd = new TaskGenerateCommand();
+        cmd.setLevel((short) 2);
+
+        TaskGenerationJobDto job = new TaskGenerationJobDto(jobId, TaskGenerationJobStatus.PENDING, null, null, Instant.now(), null);
+        when(jobService.submit(any(TaskGenerateCommand.class), eq(userId))).thenReturn(job);
+
+        mockMvc.perform(post("/api/v1/tasks/generate")
+                        .param("mode", "async")
+                        .header("X-User-Id", userId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cmd)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/tasks/jobs/" + jobId))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(taskService, never()).generateTask(any(TaskGenerateCommand.class), any());
+    }
+
+    @Test
+    void getJobShouldReturnJobState() throws Exception {
+        UUID userId = UUID.randomUUID();
+        UUID jobId = UUID.randomUUID();
+        TaskWithProgressDto result = new TaskWithProgressDto(new TaskDto(), UUID.randomUUID());
+        when(jobService.getJob(jobId, userId)).thenReturn(new TaskGenerationJobDto(jobId, TaskGenerationJobStatus.COMPLETED, result, null, Instant.now(), Instant.now()));
+
+        mockMvc.perform(get("/api/v1/tasks/jobs/" + jobId).header("X-User-Id", userId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.result.progressId").isNotEmpty());
+    }
+
     @Test
     void listTasksShouldReturnPageWithContent() throws Exception {
         User user = basicUser(UUID.randomUUID());
         TaskDto t = new TaskDto();
         t.setId(UUID.randomUUID());
 
-        when(taskService.listTasks(any(), any(), any(), any())).thenReturn(new PageImpl<>(List.of(t)));
+        when(taskService.listTasks(any(), any())).thenReturn(new PageImpl<>(List.of(t)));
 
         mockMvc.perform(get("/api/v1/tasks"))
                  .andExpect(status().isOk())
                  .andExpect(jsonPath("$.content[0].id").isNotEmpty());
 
-        verify(taskService).listTasks(any(), any(), any(), any());
+        verify(taskService).listTasks(any(), any());
+    }
+
+    @Test
+    void scrollTasksShouldPassFiltersAndCursor() throws Exception {
+        UUID creator = UUID.randomUUID();
+        TaskDto t = new TaskDto();
+        t.setId(UUID.randomUUID());
+        TaskFilter filter = new TaskFilter((short) 2, true, creator, Instant.parse("2026-01-01T00:00:00Z"), null, "ułamki");
+        when(taskService.scrollTasks(filter, "abc", 5)).thenReturn(new KeysetPageDto<>(List.of(t), "next"));
+
+        mockMvc.perform(get("/api/v1/tasks/scroll")
+                        .param("level", "2")
+                        .param("isActive", "true")
+                        .param("createdById", creator.toString())
+                        .param("createdFrom", "2026-01-01T00:00:00Z")
+                        .param("q", "ułamki")
+                        .param("cursor", "abc")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(t.getId().toString()))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void streamJobShouldDisableProxyBuffering() throws Exception {
+        UUID userId = UUID.randomUUID();
+        UUID jobId = UUID.randomUUID();
+        when(jobService.subscribe(jobId, userId)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/tasks/jobs/{jobId}/events", jobId)
+                        .header("X-User-Id", userId.toString())
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Accel-Buffering", "no"));
     }
 
     private User basicUser(UUID id) {
@@ -6,6 +6,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.matgwiazda.dto.TaskDto;
+import pl.matgwiazda.dto.TaskFilter;
 import pl.matgwiazda.dto.TaskGenerateCommand;
 import pl.matgwiazda.dto.TaskWithProgressDto;
 import pl.matgwiazda.service.TaskService;
@@ -53,13 +54,13 @@ class TaskControllerTest {
         t.setId(UUID.randomUUID());
         Page<TaskDto> page = new PageImpl<>(List.of(t));
 
-        when(taskService.listTasks(null, null, null, null)).thenReturn(page);
+        when(taskService.listTasks(TaskFilter.none(), null)).thenReturn(page);
 
-        var response = taskController.listTasks(null, null, null, null);
+        var response = taskController.listTasks(null, null, null, null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertSame(page, response.getBody());
-        verify(taskService).listTasks(null, null, null, null);
+        verify(taskService).listTasks(TaskFilter.none(), null);
     }
 
     @Test
@@ -21,10 +21,10 @@ import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
 import org.springframework.web.bind.support.WebDataBinderFactory;
-import pl.matgwiazda.domain.entity.User;
 import pl.matgwiazda.domain.enums.UserRole;
 import pl.matgwiazda.dto.UserDto;
 import pl.matgwiazda.dto.UserUpdateCommand;
+import pl.matgwiazda.security.AuthenticatedUser;
 import pl.matgwiazda.service.UserService;
 
 import java.util.List;
@@ -52,17 +52,12 @@ class UsersControllerMvcTest {
     @Mock
     private UserService userService;
 
-    private User basicUser(UUID id) {
-        User user = new User();
-        user.setId(id);
-        user.setEmail("u@example.com");
-        user.setUserName("u");
-        user.setRole(UserRole.STUDENT);
-        return user;
+    private AuthenticatedUser basicUser(UUID id) {
+        return new AuthenticatedUser(id, "u@example.com", UserRole.STUDENT, UUID.randomUUID(), 0, null);
     }
 
-    private UsernamePasswordAuthenticationToken authFor(User user) {
-        var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
+    private UsernamePasswordAuthenticationToken authFor(AuthenticatedUser user) {
+        var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.role().name()));
         return new UsernamePasswordAuthenticationToken(user, null, authorities);
     }
 
@@ -77,7 +72,7 @@ class UsersControllerMvcTest {
                     @Override
                     public boolean supportsParameter(MethodParameter parameter) {
                         return parameter.hasParameterAnnotation(org.springframework.security.core.annotation.AuthenticationPrincipal.class)
-                                && User.class.equals(parameter.getParameterType());
+                                && AuthenticatedUser.class.equals(parameter.getParameterType());
                     }
 
                     @Override
@@ -100,10 +95,10 @@ class UsersControllerMvcTest {
     @Test
     void getMeShouldReturnUserDto() throws Exception {
         UUID id = UUID.randomUUID();
-        User user = basicUser(id);
+        AuthenticatedUser user = basicUser(id);
 
         UserDto dto = new UserDto(id, "u@example.com", "u", "STUDENT", true);
-        when(userService.getUserDtoFromEntity(any(User.class))).thenReturn(dto);
+        when(userService.getUserDtoById(id)).thenReturn(dto);
 
         // set Authentication in SecurityContext so our resolver can return the principal to @AuthenticationPrincipal
         SecurityContextHolder.getContext().setAuthentication(authFor(user));
@@ -113,13 +108,13 @@ class UsersControllerMvcTest {
                 .andExpect(jsonPath("$.id").isNotEmpty())
                 .andExpect(jsonPath("$.email").value("u@example.com"));
 
-        verify(userService).getUserDtoFromEntity(any(User.class));
+        verify(userService).getUserDtoById(id);
     }
 
     @Test
     void updateMeShouldReturnDto() throws Exception {
         UUID id = UUID.randomUUID();
-        User user = basicUser(id);
+        AuthenticatedUser user = basicUser(id);
 
         UserUpdateCommand cmd = new UserUpdateCommand();
         cmd.setUserName("newname");
@@ -148,7 +143,7 @@ class UsersControllerMvcTest {
     @Test
     void deleteMeShouldReturnNoContent() throws Exception {
         UUID id = UUID.randomUUID();
-        User user = basicUser(id);
+        AuthenticatedUser user = basicUser(id);
 
         // ensure mock service does not throw
         org.mockito.Mockito.doNothing().when(userService).deactivateUser(id);
@@ -5,11 +5,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.domain.enums.UserRole;
 import pl.matgwiazda.dto.UserDto;
 import pl.matgwiazda.dto.UserUpdateCommand;
+import pl.matgwiazda.security.AuthenticatedUser;
 import pl.matgwiazda.service.UserService;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.UUID;
 
@@ -25,29 +27,33 @@ class UsersControllerTest {
     @InjectMocks
     private UsersController usersController;
 
+    private static AuthenticatedUser principal(UUID id) {
+        return new AuthenticatedUser(id, "u@example.com", UserRole.STUDENT, UUID.randomUUID(), 0, null);
+    }
+
     @Test
-    void getMeShouldReturnUserDto() {
-        User user = new User();
+    void getMeShouldLoadUserAndReturnDto() {
         UUID id = UUID.randomUUID();
-        user.setId(id);
-        user.setEmail("u@example.com");
-        user.setUserName("u");
 
         UserDto dto = new UserDto(id, "u@example.com", "u", "STUDENT", true);
-        when(userService.getUserDtoFromEntity(user)).thenReturn(dto);
+        when(userService.getUserDtoById(id)).thenReturn(dto);
 
-        var response = usersController.getMe(user);
+        var response = usersController.getMe(principal(id));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertSame(dto, response.getBody());
-        verify(userService).getUserDtoFromEntity(user);
+        verify(userService).getUserDtoById(id);
+    }
+
+    @Test
+    void getMeWithoutPrincipalShouldThrowUnauthorized() {
+        var ex = assertThrows(ResponseStatusException.class, () -> usersController.getMe(null));
+        assertEquals(HttpStatus.UNAUTHORIZED, ex.getStatusCode());
     }
 
     @Test
     void updateMeShouldCallServiceAndReturnDto() {
-        User user = new User();
         UUID id = UUID.randomUUID();
-        user.setId(id);
 
         UserUpdateCommand cmd = new UserUpdateCommand();
         cmd.setUserName("newname");
@@ -55,7 +61,7 @@ class UsersControllerTest {
         UserDto dto = new UserDto(id, "u@example.com", "newname", "STUDENT", true);
         when(userService.updateUser(id, cmd)).thenReturn(dto);
 
-        var response = usersController.updateMe(user, cmd);
+        var response = usersController.updateMe(principal(id), cmd);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertSame(dto, response.getBody());
@@ -64,11 +70,9 @@ class UsersControllerTest {
 
     @Test
     void deleteMeShouldDeactivateAndReturnNoContent() {
-        User user = new User();
         UUID id = UUID.randomUUID();
-        user.setId(id);
 
-        var response = usersController.deleteMe(user);
+        var response = usersController.deleteMe(principal(id));
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
         verify(userService).deactivateUser(id);
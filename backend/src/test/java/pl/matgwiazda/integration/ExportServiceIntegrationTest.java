@@ -0,0 +1,107 @@
+package pl.matgwiazda.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.matgwiazda.domain.entity.Progress;
+import pl.matgwiazda.domain.entity.Task;
+import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.repository.ProgressRepository;
+import pl.matgwiazda.repository.TaskRepository;
+import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.service.ExportService;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// small fetch size so the export crosses several cursor fetches
+@SpringBootTest(properties = "admin-export.fetch-size=2")
+public class ExportServiceIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportNdjson_writesOneJsonObjectPerRow() throws Exception {
+        User u = new User();
+        u.setEmail("export@example.com");
+        u.setPassword("p");
+        u.setUserName("export");
+        User savedUser = userRepository.save(u);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Task t = new Task();
+            t.setLevel((short) 1);
+            t.setPrompt("Eksport, \"zadanie\" " + i);
+            t.setOptions(List.of("a" + i, "b" + i));
+            t.setCorrectOptionIndex((short) 1);
+            tasks.add(taskRepository.save(t));
+        }
+        Progress p = new Progress();
+        p.setUser(savedUser);
+        p.setTask(tasks.get(0));
+        Progress savedProgress = progressRepository.save(p);
+
+        List<JsonNode> taskRows = new ArrayList<>();
+        for (String line : export(ExportService.Dataset.TASKS, ExportService.Format.NDJSON).split("\n")) {
+            taskRows.add(objectMapper.readTree(line));
+        }
+        List<JsonNode> progressRows = new ArrayList<>();
+        for (String line : export(ExportService.Dataset.PROGRESS, ExportService.Format.NDJSON).split("\n")) {
+            progressRows.add(objectMapper.readTree(line));
+        }
+
+        JsonNode first = taskRows.stream()
+                .filter(n -> n.get("id").asText().equals(tasks.get(0).getId().toString()))
+                .findFirst().orElseThrow();
+        assertThat(taskRows).hasSizeGreaterThanOrEqualTo(5);
+        assertThat(first.get("prompt").asText()).isEqualTo("Eksport, \"zadanie\" 0");
+        assertThat(first.get("options").isArray()).isTrue();
+        assertThat(first.get("correctOptionIndex").asInt()).isEqualTo(1);
+        assertThat(progressRows).anySatisfy(n -> {
+            assertThat(n.get("id").asText()).isEqualTo(savedProgress.getId().toString());
+            assertThat(n.get("userId").asText()).isEqualTo(savedUser.getId().toString());
+            assertThat(n.get("correct").asBoolean()).isFalse();
+        });
+    }
+
+    @Test
+    void exportCsv_writesHeaderAndQuotesFields() throws Exception {
+        Task t = new Task();
+        t.setLevel((short) 1);
+        t.setPrompt("Ile to 1, 2 czy 3?");
+        t.setOptions(List.of("1", "2", "3"));
+        t.setCorrectOptionIndex((short) 0);
+        Task saved = taskRepository.save(t);
+
+        String[] lines = export(ExportService.Dataset.TASKS, ExportService.Format.CSV).split("\r\n");
+
+        assertThat(lines[0]).isEqualTo("id,level,prompt,options,correctOptionIndex,explanation,createdById,active,pooled,createdAt,updatedAt");
+        assertThat(lines).anySatisfy(line -> assertThat(line)
+                .startsWith(saved.getId() + ",1,\"Ile to 1, 2 czy 3?\",\"[\"\"1\"\", \"\"2\"\", \"\"3\"\"]\",0,,,true,false,"));
+    }
+
+    private String export(ExportService.Dataset dataset, ExportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(dataset, format).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,79 @@
+package pl.matgwiazda.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.matgwiazda.domain.entity.LearningLevel;
+import pl.matgwiazda.dto.CreateLearningLevelCommand;
+import pl.matgwiazda.dto.LearningLevelDto;
+import pl.matgwiazda.service.LearningLevelCatalog;
+import pl.matgwiazda.service.LearningLevelService;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "task-pool.enabled=false")
+class LearningLevelCatalogIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    LearningLevelCatalog catalog;
+
+    @Autowired
+    LearningLevelService learningLevelService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from learning_levels where level in (70, 71)");
+        // deleted around Hibernate, so its second-level cache has to be told
+        entityManagerFactory.getCache().evict(LearningLevel.class);
+        catalog.reload();
+    }
+
+    @Test
+    void serviceWrite_isVisibleOnThisNode_rightAfterCommit() {
+        CreateLearningLevelCommand create = new CreateLearningLevelCommand((short) 70, "L70", "local");
+
+        learningLevelService.create(create, UUID.randomUUID());
+
+        assertThat(catalog.find((short) 70)).map(LearningLevelDto::description).contains("local");
+    }
+
+    @Test
+    void notificationFromAnotherNode_reloadsCatalog() throws Exception {
+        assertThat(catalog.find((short) 71)).isEmpty();
+
+        // another node: its own connection writes the row and notifies in the same transaction
+        try (Connection con = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())) {
+            con.setAutoCommit(false);
+            try (PreparedStatement insert = con.prepareStatement(
+                    "insert into learning_levels (level, title, description) values (71, 'L71', 'remote')");
+                 PreparedStatement notify = con.prepareStatement("select pg_notify('learning_levels_changed', 'other-node')")) {
+                insert.executeUpdate();
+                notify.execute();
+            }
+            con.commit();
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        Optional<LearningLevelDto> found = catalog.find((short) 71);
+        while (found.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            found = catalog.find((short) 71);
+        }
+        assertThat(found).map(LearningLevelDto::description).contains("remote");
+    }
+}
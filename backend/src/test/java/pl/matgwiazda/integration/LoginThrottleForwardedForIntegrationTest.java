@@ -0,0 +1,51 @@
+package pl.matgwiazda.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Behind the nginx proxy every login arrives from the proxy's address; the per-IP bucket has to follow the
+ * forwarded client address instead. The test client connects from loopback, a trusted proxy address.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "login-throttle.ip-capacity=2",
+        "login-throttle.ip-refill-per-minute=1",
+        "task-pool.enabled=false"
+})
+class LoginThrottleForwardedForIntegrationTest extends IntegrationTestBase {
+
+    @LocalServerPort
+    int port;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void clientsBehindTheProxy_getSeparateIpBuckets() throws Exception {
+        assertThat(login("203.0.113.10")).isEqualTo(401);
+        assertThat(login("203.0.113.10")).isEqualTo(401);
+        assertThat(login("203.0.113.10")).isEqualTo(429);
+
+        // same proxy, another client
+        assertThat(login("203.0.113.20")).isEqualTo(401);
+    }
+
+    // a fresh email per attempt, so only the IP bucket can run out
+    private int login(String clientIp) throws Exception {
+        String body = "{\"email\":\"" + UUID.randomUUID() + "@example.com\",\"password\":\"wrong-password\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/v1/auth/login"))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", clientIp)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
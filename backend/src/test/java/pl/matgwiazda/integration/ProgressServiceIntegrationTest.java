@@ -3,9 +3,12 @@ package pl.matgwiazda.integration;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
 import pl.matgwiazda.domain.entity.Progress;
 import pl.matgwiazda.domain.entity.Task;
 import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.dto.KeysetPageDto;
+import pl.matgwiazda.dto.ProgressDto;
 import pl.matgwiazda.dto.ProgressSubmitCommand;
 import pl.matgwiazda.dto.ProgressSubmitResponseDto;
 import pl.matgwiazda.repository.ProgressRepository;
@@ -13,7 +16,12 @@ import pl.matgwiazda.repository.TaskRepository;
 import pl.matgwiazda.repository.UserRepository;
 import pl.matgwiazda.service.ProgressService;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 public class ProgressServiceIntegrationTest extends IntegrationTestBase {
@@ -77,6 +85,47 @@ public class ProgressServiceIntegrationTest extends IntegrationTestBase {
         assertThat(taskFromDb.isActive()).isFalse();
         User userFromDb = userRepository.findById(savedUser.getId()).orElseThrow();
         assertThat(userFromDb.getActiveProgressId()).isNull();
+        assertThat(userFromDb.getPoints()).isEqualTo(resp.getUserPoints());
+
+        // a second submit of the same entry is rejected and awards nothing
+        assertThatThrownBy(() -> progressService.submitProgress(savedUser.getId(), cmd))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(userRepository.findById(savedUser.getId()).orElseThrow().getPoints()).isEqualTo(resp.getUserPoints());
     }
-}
 
+    @Test
+    void listProgress_walksHistoryNewestFirst_withoutGapsOrRepeats() {
+        User u = new User();
+        u.setEmail("history@example.com");
+        u.setPassword("p");
+        u.setUserName("history");
+        User savedUser = userRepository.save(u);
+        List<Progress> entries = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Task t = new Task();
+            t.setLevel((short) 1);
+            t.setPrompt("Ile to " + i + " + 2?");
+            t.setOptions(List.of(String.valueOf(i + 2), String.valueOf(i + 3)));
+            t.setCorrectOptionIndex((short) 0);
+            Progress p = new Progress();
+            p.setUser(savedUser);
+            p.setTask(taskRepository.save(t));
+            entries.add(p);
+        }
+        progressRepository.saveAll(entries);
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            KeysetPageDto<ProgressDto> page = progressService.listProgress(savedUser.getId(), cursor, 2);
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        List<UUID> expected = progressService.listAllProgress(savedUser.getId()).stream().map(ProgressDto::getId).toList();
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(5).doesNotHaveDuplicates().containsExactlyElementsOf(expected);
+    }
+}
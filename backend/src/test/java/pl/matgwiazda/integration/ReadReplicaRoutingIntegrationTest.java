@@ -0,0 +1,156 @@
+package pl.matgwiazda.integration;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.PostgreSQLContainer;
+import pl.matgwiazda.domain.entity.LearningLevel;
+import pl.matgwiazda.dto.CreateLearningLevelCommand;
+import pl.matgwiazda.dto.LearningLevelDto;
+import pl.matgwiazda.repository.LearningLevelRepository;
+import pl.matgwiazda.service.LearningLevelService;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A second, unreplicated Postgres container stands in for the replica: rows that exist only there show which
+ * pool a read went to.
+ */
+@SpringBootTest(properties = {"task-pool.enabled=false", "task-dedupe.enabled=false"})
+class ReadReplicaRoutingIntegrationTest extends IntegrationTestBase {
+
+    private static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("replicadb")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    static {
+        REPLICA.start();
+    }
+
+    @DynamicPropertySource
+    static void registerReplica(DynamicPropertyRegistry registry) {
+        registry.add("read-replica.url", REPLICA::getJdbcUrl);
+        registry.add("read-replica.username", REPLICA::getUsername);
+        registry.add("read-replica.password", REPLICA::getPassword);
+    }
+
+    @BeforeAll
+    static void seedReplica() throws SQLException {
+        try (Connection con = DriverManager.getConnection(REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword());
+             Statement st = con.createStatement()) {
+            st.execute("""
+                    create table if not exists learning_levels (
+                      level smallint primary key, title varchar(128) not null, description text not null,
+                      created_by uuid, created_at timestamptz, modified_by uuid, modified_at timestamptz)
+                    """);
+            st.execute("insert into learning_levels (level, title, description) values (90, 'Replica only', 'r') on conflict do nothing");
+        }
+    }
+
+    @AfterAll
+    static void stopReplica() {
+        REPLICA.stop();
+    }
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Autowired
+    LearningLevelService learningLevelService;
+
+    @Autowired
+    LearningLevelRepository learningLevelRepository;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    // a second-level cache hit never reaches either database
+    @BeforeEach
+    void evictSecondLevelCache() {
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    @Test
+    void readOnlyTransactions_useReplica_everythingElseThePrimary() {
+        TransactionTemplate readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(txManager);
+
+        assertThat(readOnly.execute(status -> currentDatabase())).isEqualTo("replicadb");
+        assertThat(readWrite.execute(status -> currentDatabase())).isEqualTo(POSTGRES.getDatabaseName());
+        assertThat(currentDatabase()).isEqualTo(POSTGRES.getDatabaseName());
+    }
+
+    @Test
+    void readOnlyServiceCalls_readReplica_writesGoToPrimary() {
+        assertThat(learningLevelService.listAll()).extracting(LearningLevelDto::level).containsExactly((short) 90);
+
+        CreateLearningLevelCommand create = new CreateLearningLevelCommand();
+        create.setLevel((short) 91);
+        create.setTitle("Primary only");
+        create.setDescription("p");
+        learningLevelService.create(create, UUID.randomUUID());
+        try {
+            // the insert also put the row into this node's second-level cache
+            entityManagerFactory.getCache().evict(LearningLevel.class);
+            // not replicated, so the read-only lookup cannot see it while a read-write transaction can
+            assertThatThrownBy(() -> learningLevelService.getByLevel((short) 91))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+            assertThat(new TransactionTemplate(txManager).execute(status -> learningLevelRepository.existsById((short) 91))).isTrue();
+        } finally {
+            learningLevelService.delete((short) 91);
+        }
+    }
+
+    @Test
+    void readOnlyTransactions_neverFlush_andCannotWrite() {
+        TransactionTemplate readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+            assertThat(session.isDefaultReadOnly()).isTrue();
+        });
+        assertThatThrownBy(() -> readOnly.executeWithoutResult(status ->
+                jdbcTemplate.update("insert into learning_levels (level, title, description) values (92, 'x', 'x')")))
+                .isInstanceOf(DataAccessException.class);
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("select current_database()", String.class);
+    }
+}
@@ -0,0 +1,84 @@
+package pl.matgwiazda.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.matgwiazda.domain.entity.Task;
+import pl.matgwiazda.dto.CacheRegionStatsDto;
+import pl.matgwiazda.dto.CreateLearningLevelCommand;
+import pl.matgwiazda.dto.LearningLevelDto;
+import pl.matgwiazda.repository.LearningLevelRepository;
+import pl.matgwiazda.repository.TaskRepository;
+import pl.matgwiazda.service.CacheStatsService;
+import pl.matgwiazda.service.LearningLevelService;
+import pl.matgwiazda.service.TaskService;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "task-pool.enabled=false")
+class SecondLevelCacheIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    LearningLevelService learningLevelService;
+
+    @Autowired
+    CacheStatsService cacheStatsService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void taskLookupById_isServedFromCache_afterFirstRead() {
+        Task task = new Task();
+        task.setLevel((short) 1);
+        task.setPrompt("Ile to 6 * 7?");
+        task.setOptions(List.of("42", "48", "36"));
+        task.setCorrectOptionIndex((short) 0);
+        task.setActive(false);
+        UUID id = taskRepository.save(task).getId();
+        entityManagerFactory.getCache().evict(Task.class, id);
+        Statistics statistics = statistics();
+
+        taskService.getTaskById(id);
+        long fetches = statistics.getEntityStatistics(Task.class.getName()).getFetchCount();
+        long hits = statistics.getCacheRegionStatistics("tasks").getHitCount();
+
+        assertThat(taskService.getTaskById(id).getPrompt()).isEqualTo("Ile to 6 * 7?");
+        assertThat(statistics.getEntityStatistics(Task.class.getName()).getFetchCount()).isEqualTo(fetches);
+        assertThat(statistics.getCacheRegionStatistics("tasks").getHitCount()).isEqualTo(hits + 1);
+        assertThat(cacheStatsService.regions()).extracting(CacheRegionStatsDto::region).contains("tasks", "learning-levels");
+    }
+
+    @Test
+    void learningLevelList_isCachedUntilTheTableIsWritten() {
+        learningLevelService.listAll();
+        long hits = statistics().getQueryRegionStatistics(LearningLevelRepository.QUERY_CACHE_REGION).getHitCount();
+
+        learningLevelService.listAll();
+        assertThat(statistics().getQueryRegionStatistics(LearningLevelRepository.QUERY_CACHE_REGION).getHitCount()).isEqualTo(hits + 1);
+
+        learningLevelService.create(new CreateLearningLevelCommand((short) 60, "L60", "cached"), UUID.randomUUID());
+        try {
+            // the insert invalidated the cached result
+            assertThat(learningLevelService.listAll()).extracting(LearningLevelDto::level).contains((short) 60);
+        } finally {
+            learningLevelService.delete((short) 60);
+        }
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
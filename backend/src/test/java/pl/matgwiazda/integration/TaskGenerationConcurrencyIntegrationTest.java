@@ -0,0 +1,116 @@
+package pl.matgwiazda.integration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import pl.matgwiazda.domain.entity.LearningLevel;
+import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.dto.TaskGenerateCommand;
+import pl.matgwiazda.dto.TaskWithProgressDto;
+import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.repository.LearningLevelRepository;
+import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.service.LearningLevelCatalog;
+import pl.matgwiazda.service.OpenRouterService;
+import pl.matgwiazda.service.TaskService;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Shows that a stalled AI call does not pin Hikari connections: more concurrent generations
+ * than pool connections can wait on the AI at the same time while the pool stays idle.
+ */
+@SpringBootTest(properties = "task-pool.enabled=false")
+public class TaskGenerationConcurrencyIntegrationTest extends IntegrationTestBase {
+
+    private static final int CONCURRENT_REQUESTS = 15; // more than spring.datasource.hikari.maximum-pool-size
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LearningLevelRepository learningLevelRepository;
+
+    @Autowired
+    private LearningLevelCatalog learningLevelCatalog;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockitoBean
+    private OpenRouterService openRouterService;
+
+    @Test
+    void generateTask_aiStall_holdsNoConnections() throws Exception {
+        LearningLevel lvl = new LearningLevel();
+        lvl.setLevel((short)6);
+        lvl.setTitle("L6");
+        lvl.setDescription("stall seed");
+        learningLevelRepository.save(lvl);
+        // saved around LearningLevelService, so the catalog has to be told
+        learningLevelCatalog.reload();
+
+        List<UUID> userIds = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            User u = new User();
+            u.setEmail("stall" + i + "@example.com");
+            u.setPassword("p");
+            u.setUserName("stall" + i);
+            userIds.add(userRepository.save(u).getId());
+        }
+
+        CountDownLatch inAi = new CountDownLatch(CONCURRENT_REQUESTS);
+        CountDownLatch releaseAi = new CountDownLatch(1);
+        when(openRouterService.generateTaskFromSeed(anyString(), anyShort())).thenAnswer(inv -> {
+            inAi.countDown();
+            releaseAi.await(30, TimeUnit.SECONDS);
+            return new AiTaskResult("Ile to 3+4?", List.of("6", "7", "8", "9"), 1, "3+4=7");
+        });
+
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        try {
+            List<Future<TaskWithProgressDto>> futures = new ArrayList<>();
+            for (UUID userId : userIds) {
+                TaskGenerateCommand cmd = new TaskGenerateCommand();
+                cmd.setLevel((short)6);
+                futures.add(pool.submit(() -> taskService.generateTask(cmd, userId)));
+            }
+
+            // every request reaches the AI phase even though there are fewer connections than requests
+            assertThat(inAi.await(20, TimeUnit.SECONDS)).isTrue();
+            assertThat(activeConnections(hikari)).isZero();
+
+            releaseAi.countDown();
+            for (Future<TaskWithProgressDto> f : futures) {
+                TaskWithProgressDto dto = f.get(30, TimeUnit.SECONDS);
+                assertThat(dto.getProgressId()).isNotNull();
+            }
+        } finally {
+            releaseAi.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private int activeConnections(HikariDataSource hikari) {
+        return hikari.getHikariPoolMXBean().getActiveConnections();
+    }
+}
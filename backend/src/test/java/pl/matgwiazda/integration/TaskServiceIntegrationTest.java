@@ -5,8 +5,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 import pl.matgwiazda.domain.entity.LearningLevel;
+import pl.matgwiazda.domain.entity.Task;
 import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.dto.KeysetPageDto;
+import pl.matgwiazda.dto.ProgressSubmitCommand;
+import pl.matgwiazda.dto.TaskDto;
+import pl.matgwiazda.dto.TaskFilter;
 import pl.matgwiazda.dto.TaskGenerateCommand;
 import pl.matgwiazda.dto.TaskWithProgressDto;
 import pl.matgwiazda.repository.LearningLevelRepository;
@@ -14,12 +22,19 @@ import pl.matgwiazda.repository.ProgressRepository;
 import pl.matgwiazda.repository.TaskRepository;
 import pl.matgwiazda.repository.UserRepository;
 import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.service.LearningLevelCatalog;
 import pl.matgwiazda.service.OpenRouterService;
+import pl.matgwiazda.service.ProgressService;
 import pl.matgwiazda.service.TaskService;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyShort;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -41,6 +56,12 @@ public class TaskServiceIntegrationTest extends IntegrationTestBase {
     @Autowired
     private LearningLevelRepository learningLevelRepository;
 
+    @Autowired
+    private LearningLevelCatalog learningLevelCatalog;
+
+    @Autowired
+    private ProgressService progressService;
+
     @MockitoBean
     private OpenRouterService openRouterService;
 
@@ -52,6 +73,8 @@ public class TaskServiceIntegrationTest extends IntegrationTestBase {
         lvl.setTitle("L5");
         lvl.setDescription("seed description");
         learningLevelRepository.save(lvl);
+        // saved around LearningLevelService, so the catalog has to be told
+        learningLevelCatalog.reload();
 
         // prepare user
         User u = new User();
@@ -62,7 +85,7 @@ public class TaskServiceIntegrationTest extends IntegrationTestBase {
 
         // mock AI result
         AiTaskResult ai = new AiTaskResult("Solve 2+2", Arrays.asList("3","4","5"), 1, "Because 2+2=4");
-        when(openRouterService.generateTaskFromSeed(anyString())).thenReturn(ai);
+        when(openRouterService.generateTaskFromSeed(anyString(), anyShort())).thenReturn(ai);
 
         TaskGenerateCommand cmd = new TaskGenerateCommand();
         cmd.setLevel((short)5);
@@ -79,5 +102,93 @@ public class TaskServiceIntegrationTest extends IntegrationTestBase {
         assertThat(taskRepository.count()).isGreaterThan(0);
         assertThat(progressRepository.count()).isGreaterThan(0);
     }
+
+    @Test
+    void getTaskById_afterSubmit_seesTheDeactivatedTask_despiteTheCachedActiveCopy() {
+        LearningLevel lvl = new LearningLevel();
+        lvl.setLevel((short) 6);
+        lvl.setTitle("L6");
+        lvl.setDescription("submit seed");
+        learningLevelRepository.save(lvl);
+        learningLevelCatalog.reload();
+        User u = new User();
+        u.setEmail("tasksubmit@example.com");
+        u.setPassword("p");
+        u.setUserName("tasksubmit");
+        User savedUser = userRepository.save(u);
+        when(openRouterService.generateTaskFromSeed(anyString(), anyShort()))
+                .thenReturn(new AiTaskResult("Ile to 3*3?", Arrays.asList("6", "9", "12"), 1, "3*3=9"));
+        TaskGenerateCommand cmd = new TaskGenerateCommand();
+        cmd.setLevel((short) 6);
+
+        TaskWithProgressDto generated = taskService.generateTask(cmd, savedUser.getId());
+        UUID taskId = generated.getTask().getId();
+        // still active: not found, and the active row is now in the second-level cache
+        assertThatThrownBy(() -> taskService.getTaskById(taskId))
+                .isInstanceOfSatisfying(ResponseStatusException.class, ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+
+        progressService.submitProgress(savedUser.getId(), new ProgressSubmitCommand(generated.getProgressId(), (short) 1, 500));
+
+        assertThat(taskService.getTaskById(taskId).getId()).isEqualTo(taskId);
+    }
+
+    @Test
+    void scrollTasks_combinesFilters_andWalksPagesWithoutCount() {
+        User creator = new User();
+        creator.setEmail("scroll@example.com");
+        creator.setPassword("p");
+        creator.setUserName("scroll");
+        User savedCreator = userRepository.save(creator);
+        for (int i = 0; i < 5; i++) {
+            Task t = new Task();
+            t.setLevel((short) 3);
+            t.setPrompt("Przewijanie 100% nr " + i);
+            t.setOptions(List.of("a", "b"));
+            t.setCorrectOptionIndex((short) 0);
+            t.setCreatedBy(savedCreator);
+            t.setActive(i != 4);
+            taskRepository.save(t);
+        }
+        TaskFilter filter = new TaskFilter((short) 3, true, savedCreator.getId(), null, null, "PRZEWIJANIE 100%");
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPageDto<TaskDto> page = taskService.scrollTasks(filter, cursor, 2);
+            page.getItems().forEach(dto -> seen.add(dto.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(4).doesNotHaveDuplicates();
+        TaskDto first = taskService.scrollTasks(filter, null, 1).getItems().get(0);
+        assertThat(first.getCreatedById()).isEqualTo(savedCreator.getId());
+        assertThat(first.getOptions()).containsExactly("a", "b");
+        assertThat(taskService.listTasks(filter, PageRequest.of(0, 10)).getTotalElements()).isEqualTo(4);
+        // wildcards in the text filter are matched literally ("1_0" would otherwise match "100")
+        assertThat(taskService.scrollTasks(new TaskFilter(null, null, savedCreator.getId(), null, null, "1_0%"), null, 10).getItems()).isEmpty();
+    }
+
+    @Test
+    void listings_neverIncludePooledTasks() {
+        User creator = new User();
+        creator.setEmail("pooled@example.com");
+        creator.setPassword("p");
+        creator.setUserName("pooled");
+        User savedCreator = userRepository.save(creator);
+        Task pooled = new Task();
+        pooled.setLevel((short) 3);
+        pooled.setPrompt("Zadanie z puli");
+        pooled.setOptions(List.of("a", "b"));
+        pooled.setCorrectOptionIndex((short) 0);
+        pooled.setCreatedBy(savedCreator);
+        pooled.setActive(true);
+        pooled.setPooled(true);
+        taskRepository.save(pooled);
+        TaskFilter filter = new TaskFilter(null, true, savedCreator.getId(), null, null, null);
+
+        assertThat(taskService.scrollTasks(filter, null, 10).getItems()).isEmpty();
+        assertThat(taskService.listTasks(filter, PageRequest.of(0, 10)).getContent()).isEmpty();
+        assertThat(taskService.listTasks(filter, PageRequest.of(1, 10)).getTotalElements()).isZero();
+    }
 }
 // ...existing code...
@@ -4,12 +4,22 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.matgwiazda.domain.entity.Progress;
+import pl.matgwiazda.domain.entity.Task;
 import pl.matgwiazda.domain.entity.User;
 import pl.matgwiazda.dto.UserDto;
 import pl.matgwiazda.dto.UserUpdateCommand;
+import pl.matgwiazda.repository.ProgressRepository;
+import pl.matgwiazda.repository.TaskRepository;
 import pl.matgwiazda.repository.UserRepository;
 import pl.matgwiazda.service.UserService;
 
+import java.util.List;
+import java.util.UUID;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
@@ -24,6 +34,15 @@ public class UserServiceIntegrationTest extends IntegrationTestBase {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Test
     void getUserDtoById_returnsDto() {
         User u = new User();
@@ -70,5 +89,42 @@ public class UserServiceIntegrationTest extends IntegrationTestBase {
         User fromDb = userRepository.findById(saved.getId()).orElseThrow();
         assertThat(fromDb.isActive()).isFalse();
     }
-}
 
+    @Test
+    void updateUser_afterAStatsFlushOnTheLoadedUser_keepsTheFlushedPoints() {
+        User u = new User();
+        u.setEmail("flushrace@example.com");
+        u.setPassword(passwordEncoder.encode("oldpwd"));
+        u.setUserName("flushrace");
+        User saved = userRepository.save(u);
+        Task t = new Task();
+        t.setLevel((short) 1);
+        t.setPrompt("Ile to 1+2?");
+        t.setOptions(List.of("3", "4"));
+        t.setCorrectOptionIndex((short) 0);
+        Task savedTask = taskRepository.save(t);
+        Progress owed = new Progress();
+        owed.setUser(saved);
+        owed.setTask(savedTask);
+        owed.setAttemptNumber(1);
+        owed.setCorrect(true);
+        owed.setPointsAwarded(3);
+        owed.setFinalized(true);
+        owed.setStatsApplied(false);
+        UUID owedId = progressRepository.save(owed).getId();
+        UserUpdateCommand cmd = new UserUpdateCommand();
+        cmd.setPassword("newpwd");
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        TransactionTemplate flushTx = new TransactionTemplate(transactionManager);
+        flushTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tx.executeWithoutResult(status -> {
+            // the user is read (points 0) before the write-behind flush commits its points
+            userRepository.findById(saved.getId()).orElseThrow();
+            flushTx.executeWithoutResult(s -> progressRepository.applyPendingStats(List.of(owedId), 50));
+            userService.updateUser(saved.getId(), cmd);
+        });
+
+        assertThat(userRepository.findById(saved.getId()).orElseThrow().getPoints()).isEqualTo(3);
+    }
+}
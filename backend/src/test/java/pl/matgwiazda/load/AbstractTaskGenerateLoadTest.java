@@ -0,0 +1,145 @@
+package pl.matgwiazda.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import pl.matgwiazda.domain.entity.LearningLevel;
+import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.integration.IntegrationTestBase;
+import pl.matgwiazda.repository.LearningLevelRepository;
+import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.security.JwtService;
+import pl.matgwiazda.service.LearningLevelCatalog;
+import pl.matgwiazda.service.OpenRouterService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires a burst of concurrent POST /api/v1/tasks/generate requests against a running server whose AI
+ * answers after a fixed delay, and reports how many generations were in flight at once and the p99 latency.
+ * Subclasses select the threading model; compare their output (./gradlew performanceTest).
+ */
+@Tag("performance")
+abstract class AbstractTaskGenerateLoadTest extends IntegrationTestBase {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractTaskGenerateLoadTest.class);
+
+    static final int REQUESTS = 200;
+    static final long AI_DELAY_MS = 500;
+    static final short LEVEL = 7;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    LearningLevelRepository learningLevelRepository;
+
+    @Autowired
+    LearningLevelCatalog learningLevelCatalog;
+
+    @Autowired
+    JwtService jwtService;
+
+    @MockitoBean
+    OpenRouterService openRouterService;
+
+    abstract String threadingModel();
+
+    @Test
+    void generateBurst_reportsConcurrencyAndLatency() throws Exception {
+        LearningLevel lvl = new LearningLevel();
+        lvl.setLevel(LEVEL);
+        lvl.setTitle("L" + LEVEL);
+        lvl.setDescription("load seed");
+        learningLevelRepository.save(lvl);
+        // saved around LearningLevelService, so the catalog has to be told
+        learningLevelCatalog.reload();
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(openRouterService.generateTaskFromSeed(anyString(), anyShort())).thenAnswer(inv -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(AI_DELAY_MS);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return new AiTaskResult("Ile to 6*7?", List.of("42", "36", "48", "13"), 0, "6*7=42");
+        });
+
+        List<User> users = new ArrayList<>();
+        String runId = threadingModel() + System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            User u = new User();
+            u.setEmail(runId + "-" + i + "@example.com");
+            u.setPassword("p");
+            u.setUserName("load" + i);
+            users.add(userRepository.save(u));
+        }
+
+        ExecutorService clients = Executors.newFixedThreadPool(REQUESTS);
+        HttpClient http = HttpClient.newBuilder().executor(clients).connectTimeout(Duration.ofSeconds(5)).build();
+        List<CompletableFuture<long[]>> calls = new ArrayList<>();
+        long started = System.nanoTime();
+        try {
+            for (User u : users) {
+                String token = jwtService.generateAccessToken(u);
+                calls.add(CompletableFuture.supplyAsync(() -> call(http, token, u.getId().toString()), clients));
+            }
+            CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+        } finally {
+            clients.shutdownNow();
+        }
+        long wallMs = (System.nanoTime() - started) / 1_000_000;
+
+        long[] latencies = calls.stream().mapToLong(f -> f.join()[1]).sorted().toArray();
+        long created = calls.stream().filter(f -> f.join()[0] == 201).count();
+        long p50 = latencies[(int) Math.ceil(latencies.length * 0.50) - 1];
+        long p99 = latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+
+        log.info("[{}] requests={} created={} maxConcurrentGenerations={} p50={}ms p99={}ms wall={}ms",
+                threadingModel(), REQUESTS, created, maxInFlight.get(), p50, p99, wallMs);
+
+        assertThat(created).isEqualTo(REQUESTS);
+    }
+
+    private long[] call(HttpClient http, String token, String userId) {
+        HttpRequest req = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/tasks/generate"))
+                .timeout(Duration.ofSeconds(120))
+                .header("Authorization", "Bearer " + token)
+                .header("X-User-Id", userId)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"level\":" + LEVEL + "}"))
+                .build();
+        long t0 = System.nanoTime();
+        try {
+            HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
+            return new long[]{resp.statusCode(), (System.nanoTime() - t0) / 1_000_000};
+        } catch (Exception ex) {
+            return new long[]{-1, (System.nanoTime() - t0) / 1_000_000};
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package pl.matgwiazda.load;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.matgwiazda.config.JwtKeyProperties;
+import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.domain.enums.UserRole;
+import pl.matgwiazda.security.JwtKeyRing;
+import pl.matgwiazda.security.JwtService;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parse + validate throughput of access tokens: a parser built per call (the previous JwtService behaviour)
+ * against the parser cached by {@link JwtKeyRing}, for HS256 and ES256. Run with ./gradlew performanceTest.
+ */
+@Tag("performance")
+class JwtParseBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtParseBenchmarkTest.class);
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+    private static final long ROUND_NANOS = 500_000_000L;
+
+    @Test
+    void parse_perCallParserVsCachedParser() throws Exception {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("bench@example.com");
+        user.setRole(UserRole.STUDENT);
+
+        SecretKey hmac = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        JwtService hs256 = new JwtService(SECRET, 3600000, 3600000);
+        String hsToken = hs256.generateAccessToken(user);
+
+        JwtKeyRing ecRing = ecRing();
+        JwtService es256 = new JwtService(ecRing, 3600000, 3600000);
+        String ecToken = es256.generateAccessToken(user);
+
+        double perCall = measure("HS256 parser per call", hsToken,
+                t -> Jwts.parserBuilder().setSigningKey(hmac).build().parseClaimsJws(t).getBody().getSubject());
+        double cached = measure("HS256 cached parser", hsToken, t -> hs256.parseClaims(t).getSubject());
+        double ecCached = measure("ES256 cached parser", ecToken, t -> es256.parseClaims(t).getSubject());
+
+        log.info("cached/per-call HS256 throughput ratio {}", String.format("%.2f", cached / perCall));
+        assertThat(perCall).isPositive();
+        assertThat(cached).isPositive();
+        assertThat(ecCached).isPositive();
+    }
+
+    private static double measure(String name, String token, Function<String, String> parse) {
+        String expected = parse.apply(token);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) run(token, parse, expected);
+        double best = 0;
+        for (int i = 0; i < ROUNDS; i++) best = Math.max(best, run(token, parse, expected));
+        log.info("[{}] {} ops/s (best of {} rounds)", name, String.format("%.0f", best), ROUNDS);
+        return best;
+    }
+
+    // ops per second over one round
+    private static double run(String token, Function<String, String> parse, String expected) {
+        long ops = 0;
+        long started = System.nanoTime();
+        long elapsed;
+        do {
+            if (!expected.equals(parse.apply(token))) throw new IllegalStateException("unexpected subject");
+            ops++;
+            elapsed = System.nanoTime() - started;
+        } while (elapsed < ROUND_NANOS);
+        return ops * 1e9 / elapsed;
+    }
+
+    private static JwtKeyRing ecRing() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+        JwtKeyProperties.Key key = new JwtKeyProperties.Key();
+        key.setKid("bench-ec");
+        key.setAlgorithm("ES256");
+        key.setPrivateKey(Base64.getEncoder().encodeToString(pair.getPrivate().getEncoded()));
+        key.setPublicKey(Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()));
+        JwtKeyProperties properties = new JwtKeyProperties();
+        properties.setKeys(List.of(key));
+        return new JwtKeyRing(SECRET, properties, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,100 @@
+package pl.matgwiazda.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import pl.matgwiazda.config.OpenRouterProperties;
+import pl.matgwiazda.config.OpenRouterTransportConfig;
+import pl.matgwiazda.service.openrouter.AdaptiveConcurrencyLimiter;
+import pl.matgwiazda.service.openrouter.OpenRouterCircuitBreaker;
+import pl.matgwiazda.service.openrouter.OpenRouterHttpClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of OpenRouterHttpClient against a WireMock endpoint answering after a fixed delay, per transport.
+ * The difference between the transports is connection setup; run with ./gradlew performanceTest.
+ */
+@Tag("performance")
+class OpenRouterTransportBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenRouterTransportBenchmarkTest.class);
+
+    private static final int WARMUP_CALLS = 50;
+    private static final int CALLS = 500;
+    private static final int CLIENT_THREADS = 16;
+    private static final int SERVER_DELAY_MS = 20;
+    private static final String BODY = "{\"choices\":[{\"message\":{\"content\":\"{}\"}}]}";
+
+    private static WireMockServer wireMock;
+
+    @BeforeAll
+    static void startServer() {
+        wireMock = new WireMockServer(options().dynamicPort().containerThreads(64));
+        wireMock.start();
+        wireMock.stubFor(post(urlEqualTo("/chat")).willReturn(aResponse().withStatus(200).withBody(BODY).withFixedDelay(SERVER_DELAY_MS)));
+    }
+
+    @AfterAll
+    static void stopServer() {
+        wireMock.stop();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"simple", "jdk"})
+    void post_latencyPerTransport(String transport) throws Exception {
+        OpenRouterProperties properties = new OpenRouterProperties();
+        properties.setApiKey("bench-key");
+        properties.setEndpoint("http://localhost:" + wireMock.port() + "/chat");
+        properties.setTransport(transport);
+        properties.setMaxConcurrentRequests(CLIENT_THREADS);
+        OpenRouterHttpClient client = new OpenRouterHttpClient(new RestTemplateBuilder(), properties, new ObjectMapper(),
+                new OpenRouterTransportConfig().openRouterRequestFactory(properties),
+                new OpenRouterCircuitBreaker(properties), new AdaptiveConcurrencyLimiter(properties));
+
+        for (int i = 0; i < WARMUP_CALLS; i++) client.post("{}");
+
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENT_THREADS);
+        List<CompletableFuture<Long>> calls = new ArrayList<>();
+        long started = System.nanoTime();
+        try {
+            for (int i = 0; i < CALLS; i++) {
+                calls.add(CompletableFuture.supplyAsync(() -> {
+                    long t0 = System.nanoTime();
+                    client.post("{}");
+                    return (System.nanoTime() - t0) / 1_000;
+                }, pool));
+            }
+            CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+        } finally {
+            pool.shutdownNow();
+        }
+        long wallMs = (System.nanoTime() - started) / 1_000_000;
+
+        long[] micros = calls.stream().mapToLong(CompletableFuture::join).sorted().toArray();
+        long overheadP50 = micros[micros.length / 2] / 1000 - SERVER_DELAY_MS;
+        long overheadP99 = micros[(int) Math.ceil(micros.length * 0.99) - 1] / 1000 - SERVER_DELAY_MS;
+
+        log.info("[{}] calls={} threads={} overhead p50={}ms p99={}ms wall={}ms",
+                transport, CALLS, CLIENT_THREADS, overheadP50, overheadP99, wallMs);
+
+        assertThat(micros).hasSize(CALLS);
+    }
+}
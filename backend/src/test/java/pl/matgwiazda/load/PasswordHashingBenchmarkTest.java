@@ -0,0 +1,61 @@
+package pl.matgwiazda.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import pl.matgwiazda.config.AppConfig;
+import pl.matgwiazda.config.PasswordHashingProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Password verifications per second on one thread (= logins per core) for the configurable hashing
+ * settings, to pick {@code password-hashing.*} for the expected login peak. Run with ./gradlew performanceTest.
+ */
+@Tag("performance")
+class PasswordHashingBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingBenchmarkTest.class);
+
+    private static final String PASSWORD = "correct horse battery staple";
+    private static final long ROUND_NANOS = 2_000_000_000L;
+
+    @Test
+    void matches_perSecondPerCore() {
+        double bcrypt10 = measure("bcrypt strength 10", properties("bcrypt", 10));
+        double bcrypt12 = measure("bcrypt strength 12", properties("bcrypt", 12));
+        double argon2 = measure("argon2id 19 MiB / 2 iterations", properties("argon2", 10));
+
+        log.info("bcrypt 10/12 throughput ratio {}", String.format("%.2f", bcrypt10 / bcrypt12));
+        assertThat(bcrypt10).isGreaterThan(bcrypt12);
+        assertThat(argon2).isPositive();
+    }
+
+    private static double measure(String name, PasswordHashingProperties properties) {
+        PasswordEncoder encoder = new AppConfig().passwordEncoder(properties);
+        String hash = encoder.encode(PASSWORD);
+        if (!encoder.matches(PASSWORD, hash)) throw new IllegalStateException("hash does not verify");
+
+        long ops = 0;
+        long started = System.nanoTime();
+        long elapsed;
+        do {
+            encoder.matches(PASSWORD, hash);
+            ops++;
+            elapsed = System.nanoTime() - started;
+        } while (elapsed < ROUND_NANOS);
+        double perSecond = ops * 1e9 / elapsed;
+        log.info("[{}] {} verifications/s per core ({} ms each)", name, String.format("%.1f", perSecond),
+                String.format("%.1f", elapsed / 1e6 / ops));
+        return perSecond;
+    }
+
+    private static PasswordHashingProperties properties(String algorithm, int bcryptStrength) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setBcryptStrength(bcryptStrength);
+        return properties;
+    }
+}
@@ -0,0 +1,18 @@
+package pl.matgwiazda.load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Baseline: Tomcat platform worker pool (capped to make the limit visible at this request volume).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "task-pool.enabled=false",
+        "server.tomcat.threads.max=50"
+})
+class PlatformThreadsTaskGenerateLoadTest extends AbstractTaskGenerateLoadTest {
+
+    @Override
+    String threadingModel() {
+        return "platform";
+    }
+}
@@ -0,0 +1,135 @@
+package pl.matgwiazda.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+import pl.matgwiazda.domain.entity.Progress;
+import pl.matgwiazda.domain.entity.Task;
+import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.dto.ProgressSubmitCommand;
+import pl.matgwiazda.integration.IntegrationTestBase;
+import pl.matgwiazda.repository.ProgressRepository;
+import pl.matgwiazda.repository.TaskRepository;
+import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.service.ProgressService;
+import pl.matgwiazda.service.UserStatsBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent answer submissions through ProgressService: every progress entry is submitted twice at once
+ * (a double-clicked submit) and several entries share a user, so both the progress and the user rows are
+ * contended. Reports submits per second and checks that each entry was counted exactly once.
+ * {@link WriteBehindProgressSubmitBenchmarkTest} runs the same load with {@code user-stats.write-behind=true}.
+ * Run with ./gradlew performanceTest.
+ */
+@Tag("performance")
+@SpringBootTest(properties = "task-pool.enabled=false")
+class ProgressSubmitBenchmarkTest extends IntegrationTestBase {
+
+    private static final Logger log = LoggerFactory.getLogger(ProgressSubmitBenchmarkTest.class);
+
+    private static final int USERS = 20;
+    private static final int ENTRIES_PER_USER = 50;
+    private static final int THREADS = 32;
+
+    @Autowired
+    ProgressService progressService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    ProgressRepository progressRepository;
+
+    @Autowired
+    UserStatsBuffer userStatsBuffer;
+
+    @Test
+    void concurrentSubmits_reportThroughput_andCountEachEntryOnce() {
+        String runId = "submit" + System.nanoTime();
+        List<User> users = new ArrayList<>();
+        List<Progress> entries = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User u = new User();
+            u.setEmail(runId + "-" + i + "@example.com");
+            u.setPassword("p");
+            u.setUserName("bench" + i);
+            users.add(userRepository.save(u));
+        }
+        for (User u : users) {
+            List<Task> tasks = new ArrayList<>();
+            for (int j = 0; j < ENTRIES_PER_USER; j++) {
+                Task t = new Task();
+                t.setLevel((short) 1);
+                t.setPrompt("Ile to " + j + " + 1?");
+                t.setOptions(List.of(String.valueOf(j + 1), String.valueOf(j + 2)));
+                t.setCorrectOptionIndex((short) 0);
+                tasks.add(t);
+            }
+            for (Task t : taskRepository.saveAll(tasks)) {
+                Progress p = new Progress();
+                p.setUser(u);
+                p.setTask(t);
+                entries.add(p);
+            }
+        }
+        entries = progressRepository.saveAll(entries);
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        long started = System.nanoTime();
+        try {
+            for (Progress p : entries) {
+                for (int attempt = 0; attempt < 2; attempt++) {
+                    ProgressSubmitCommand cmd = new ProgressSubmitCommand(p.getId(), (short) 0, 1000);
+                    calls.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            progressService.submitProgress(p.getUser().getId(), cmd);
+                            accepted.incrementAndGet();
+                        } catch (ResponseStatusException ex) {
+                            rejected.incrementAndGet();
+                        }
+                    }, pool));
+                }
+            }
+            CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+        } finally {
+            pool.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+
+        double perSecond = calls.size() * 1e9 / elapsedNanos;
+        log.info("[{}] submits={} accepted={} rejected={} threads={} -> {} submits/s ({} ms wall)",
+                userStatsBuffer.isEnabled() ? "write-behind" : "inline", calls.size(), accepted.get(), rejected.get(), THREADS, String.format("%.0f", perSecond), elapsedNanos / 1_000_000);
+
+        assertThat(accepted.get()).isEqualTo(entries.size());
+        assertThat(rejected.get()).isEqualTo(entries.size());
+        // write-behind: wait until the buffered points are in the users table (a scheduled flush may hold the lock)
+        while (users.stream().anyMatch(u -> userStatsBuffer.pendingPoints(u.getId()) > 0)) {
+            userStatsBuffer.flush();
+            Thread.onSpinWait();
+        }
+        for (User u : users) {
+            User fromDb = userRepository.findById(u.getId()).orElseThrow();
+            assertThat(fromDb.getPoints()).isEqualTo(ENTRIES_PER_USER);
+            assertThat(fromDb.getCurrentLevel()).isEqualTo((short) (1 + ENTRIES_PER_USER / 50));
+        }
+    }
+}
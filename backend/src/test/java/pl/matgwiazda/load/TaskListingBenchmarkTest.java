@@ -0,0 +1,99 @@
+package pl.matgwiazda.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.matgwiazda.domain.entity.Task;
+import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.dto.TaskDto;
+import pl.matgwiazda.integration.IntegrationTestBase;
+import pl.matgwiazda.mapper.TaskMapper;
+import pl.matgwiazda.repository.TaskRepository;
+import pl.matgwiazda.repository.TaskSpecifications;
+import pl.matgwiazda.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows per second of a task listing read as entities (then mapped, inside a transaction, so the persistence
+ * context and dirty checking take part) against the same query read as TaskRow projections.
+ * Run with ./gradlew performanceTest.
+ */
+@Tag("performance")
+@SpringBootTest(properties = {"task-pool.enabled=false", "spring.jpa.show-sql=false"})
+class TaskListingBenchmarkTest extends IntegrationTestBase {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskListingBenchmarkTest.class);
+
+    private static final int TASKS = 5000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    TaskMapper taskMapper;
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Test
+    void listing_entitiesVsProjections() {
+        User creator = new User();
+        creator.setEmail("listing" + System.nanoTime() + "@example.com");
+        creator.setPassword("p");
+        creator.setUserName("listing");
+        User saved = userRepository.save(creator);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task t = new Task();
+            t.setLevel((short) (1 + i % 8));
+            t.setPrompt("Ile to " + i + " * 3?");
+            t.setOptions(List.of(String.valueOf(i * 3), String.valueOf(i * 3 + 1), String.valueOf(i * 3 - 1)));
+            t.setCorrectOptionIndex((short) 0);
+            t.setExplanation("Mnożenie " + i + " razy 3");
+            t.setCreatedBy(saved);
+            tasks.add(t);
+        }
+        taskRepository.saveAll(tasks);
+        Specification<Task> byCreator = TaskSpecifications.createdBy(saved.getId());
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+
+        double entities = measure("entities + TaskMapper.toDto", () -> tx.execute(status ->
+                taskRepository.findAll(byCreator, TaskSpecifications.NEWEST_FIRST).stream().map(taskMapper::toDto).toList()));
+        double projections = measure("TaskRow projections", () ->
+                taskRepository.findRows(byCreator, TaskSpecifications.NEWEST_FIRST, Integer.MAX_VALUE).stream().map(taskMapper::rowToDto).toList());
+
+        log.info("projection/entity throughput ratio {}", String.format("%.2f", projections / entities));
+        assertThat(entities).isPositive();
+        assertThat(projections).isPositive();
+    }
+
+    private static double measure(String name, Supplier<List<TaskDto>> listing) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) assertThat(listing.get()).hasSize(TASKS);
+        double best = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            List<TaskDto> rows = listing.get();
+            long elapsed = System.nanoTime() - started;
+            assertThat(rows).hasSize(TASKS);
+            best = Math.max(best, rows.size() * 1e9 / elapsed);
+        }
+        log.info("[{}] {} rows/s (best of {} rounds, {} rows)", name, String.format("%.0f", best), ROUNDS, TASKS);
+        return best;
+    }
+}
@@ -0,0 +1,22 @@
+package pl.matgwiazda.load;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Same burst with spring.threads.virtual.enabled=true; needs a Java 21 toolchain (./gradlew performanceTest -PvirtualThreads).
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "task-pool.enabled=false",
+        "server.tomcat.threads.max=50",
+        "spring.threads.virtual.enabled=true"
+})
+class VirtualThreadsTaskGenerateLoadTest extends AbstractTaskGenerateLoadTest {
+
+    @Override
+    String threadingModel() {
+        return "virtual";
+    }
+}
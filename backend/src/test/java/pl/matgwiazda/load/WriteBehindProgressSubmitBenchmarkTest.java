@@ -0,0 +1,10 @@
+package pl.matgwiazda.load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * {@link ProgressSubmitBenchmarkTest} with user points buffered in memory and flushed in batches.
+ */
+@SpringBootTest(properties = {"task-pool.enabled=false", "user-stats.write-behind=true"})
+class WriteBehindProgressSubmitBenchmarkTest extends ProgressSubmitBenchmarkTest {
+}
@@ -6,6 +6,7 @@ import pl.matgwiazda.domain.entity.Task;
 import pl.matgwiazda.domain.entity.User;
 import pl.matgwiazda.dto.TaskDto;
 import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.repository.TaskRow;
 
 import java.time.Instant;
 import java.util.List;
@@ -80,4 +81,22 @@ class TaskMapperTest {
         assertEquals(Integer.valueOf(0), dto.getCorrectOptionIndex());
         assertEquals(t.getOptions(), dto.getOptions());
     }
+
+    @Test
+    void rowToDto_mapsProjectionFields() {
+        UUID taskId = UUID.randomUUID();
+        UUID creatorId = UUID.randomUUID();
+        Instant created = Instant.parse("2026-01-01T00:00:00Z");
+        TaskRow row = new TaskRow(taskId, (short) 2, "row prompt", List.of("a", "b"), (short) 1, "why", creatorId, true, created, created);
+
+        TaskDto dto = mapper.rowToDto(row);
+
+        assertEquals(taskId, dto.getId());
+        assertEquals((short) 2, dto.getLevel());
+        assertEquals(List.of("a", "b"), dto.getOptions());
+        assertEquals(Integer.valueOf(1), dto.getCorrectOptionIndex());
+        assertEquals(creatorId, dto.getCreatedById());
+        assertTrue(dto.isActive());
+        assertEquals(created, dto.getCreatedAt());
+    }
 }
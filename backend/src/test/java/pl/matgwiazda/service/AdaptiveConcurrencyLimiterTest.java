@@ -0,0 +1,93 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.matgwiazda.config.OpenRouterProperties;
+import pl.matgwiazda.exception.OpenRouterUnavailableException;
+import pl.matgwiazda.service.openrouter.AdaptiveConcurrencyLimiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private OpenRouterProperties properties;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenRouterProperties();
+        properties.setMaxConcurrentRequests(8);
+        properties.setMinConcurrentRequests(1);
+        properties.setSlowCallThresholdMs(1000);
+        properties.setAcquireTimeoutMs(0);
+        limiter = new AdaptiveConcurrencyLimiter(properties);
+    }
+
+    @Test
+    void overload_halvesLimit_downToMinimum() {
+        overload();
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        overload();
+        overload();
+        overload();
+        overload();
+        assertThat(limiter.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentOverloads_cutTheLimitOnce() {
+        long[] started = new long[8];
+        for (int i = 0; i < started.length; i++) started[i] = limiter.acquire();
+
+        for (long s : started) limiter.onOverload(s);
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getInFlight()).isZero();
+
+        // a call admitted after the cut reports a new overload
+        overload();
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void fastSuccesses_growLimitBackAdditively() {
+        overload();
+        overload(); // limit 2
+
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+            limiter.onSuccess(10);
+        }
+
+        assertThat(limiter.getLimit()).isBetween(3, 4);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void slowSuccess_countsAsOverload() {
+        limiter.acquire();
+        limiter.onSuccess(5000);
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void acquire_atLimit_rejectsAfterTimeout() {
+        overload();
+        overload();
+        overload(); // limit 1
+        limiter.acquire();
+
+        assertThrows(OpenRouterUnavailableException.class, limiter::acquire);
+        assertThat(limiter.getRejectedCalls()).isEqualTo(1);
+
+        limiter.onDropped();
+        limiter.acquire();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    private void overload() {
+        limiter.onOverload(limiter.acquire());
+    }
+}
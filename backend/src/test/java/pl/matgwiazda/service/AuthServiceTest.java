@@ -7,6 +7,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 import pl.matgwiazda.domain.entity.User;
 import pl.matgwiazda.dto.AuthLoginCommand;
@@ -14,9 +15,16 @@ import pl.matgwiazda.dto.AuthRegisterCommand;
 import pl.matgwiazda.dto.AuthRefreshCommand;
 import pl.matgwiazda.dto.AuthResponseDto;
 import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.domain.enums.UserRole;
+import pl.matgwiazda.security.AuthenticatedUser;
 import pl.matgwiazda.security.JwtService;
+import pl.matgwiazda.security.LoginRateLimiter;
+import pl.matgwiazda.security.PrincipalCache;
+import pl.matgwiazda.security.RefreshTokenStore;
+import pl.matgwiazda.security.TokenDenylist;
 import pl.matgwiazda.mapper.UserMapper;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -35,6 +43,14 @@ class AuthServiceTest {
     JwtService jwtService;
     @Mock
     UserMapper userMapper;
+    @Mock
+    TokenDenylist tokenDenylist;
+    @Mock
+    LoginRateLimiter loginRateLimiter;
+    @Mock
+    RefreshTokenStore refreshTokenStore;
+    @Mock
+    PrincipalCache principalCache;
 
     @InjectMocks
     AuthService authService;
@@ -45,7 +61,7 @@ class AuthServiceTest {
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
         when(passwordEncoder.encode("pass")).thenReturn("hashed");
         when(jwtService.generateAccessToken(any())).thenReturn("acc");
-        when(jwtService.generateRefreshToken(any())).thenReturn("ref");
+        when(jwtService.generateRefreshToken(any(), any())).thenReturn("ref");
         when(jwtService.getAccessTokenExpirationMs()).thenReturn(3600000L);
 
         // stub mapper to produce a User instance (mapper normally maps DTO to entity)
@@ -65,6 +81,7 @@ class AuthServiceTest {
         verify(userRepository).save(cap.capture());
         assertThat(cap.getValue().getEmail()).isEqualTo("test@example.com");
         assertThat(cap.getValue().getPassword()).isEqualTo("hashed");
+        verify(refreshTokenStore).start(any());
     }
 
     @Test
@@ -81,23 +98,67 @@ class AuthServiceTest {
         cmd.setPassword("pw");
         User u = new User();
         u.setPassword("hash");
+        when(loginRateLimiter.tryAcquire("x@y.com", null)).thenReturn(true);
         when(userRepository.findByEmail("x@y.com")).thenReturn(Optional.of(u));
         when(passwordEncoder.matches("pw", "hash")).thenReturn(true);
         when(jwtService.generateAccessToken(u)).thenReturn("a");
-        when(jwtService.generateRefreshToken(u)).thenReturn("r");
+        when(jwtService.generateRefreshToken(eq(u), any())).thenReturn("r");
         when(jwtService.getAccessTokenExpirationMs()).thenReturn(60000L);
 
         AuthResponseDto resp = authService.login(cmd);
 
         assertThat(resp.getAccessToken()).isEqualTo("a");
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void login_outdatedHash_isReplacedAfterSuccessfulMatch() {
+        AuthLoginCommand cmd = new AuthLoginCommand();
+        cmd.setEmail("x@y.com");
+        cmd.setPassword("pw");
+        User u = new User();
+        u.setPassword("$2a$04$legacy");
+        when(loginRateLimiter.tryAcquire("x@y.com", "10.0.0.1")).thenReturn(true);
+        when(userRepository.findByEmail("x@y.com")).thenReturn(Optional.of(u));
+        when(passwordEncoder.matches("pw", "$2a$04$legacy")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$04$legacy")).thenReturn(true);
+        when(passwordEncoder.encode("pw")).thenReturn("{bcrypt}$2a$10$fresh");
+        when(jwtService.generateAccessToken(u)).thenReturn("a");
+        when(jwtService.generateRefreshToken(eq(u), any())).thenReturn("r");
+        when(jwtService.getAccessTokenExpirationMs()).thenReturn(60000L);
+
+        authService.login(cmd, "10.0.0.1");
+
+        assertThat(u.getPassword()).isEqualTo("{bcrypt}$2a$10$fresh");
+        verify(userRepository).updatePassword(u.getId(), "{bcrypt}$2a$10$fresh");
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void login_throttled_rejectsBeforeLookupAndHashing() {
+        AuthLoginCommand cmd = new AuthLoginCommand();
+        cmd.setEmail("X@y.com ");
+        cmd.setPassword("pw");
+        when(loginRateLimiter.tryAcquire("x@y.com", "10.0.0.1")).thenReturn(false);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> authService.login(cmd, "10.0.0.1"));
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        verifyNoInteractions(userRepository, passwordEncoder);
     }
 
     @Test
     void login_invalidUser_throws() {
         AuthLoginCommand cmd = new AuthLoginCommand();
         cmd.setEmail("no@one.com");
+        cmd.setPassword("pw");
+        when(loginRateLimiter.tryAcquire("no@one.com", null)).thenReturn(true);
         when(userRepository.findByEmail("no@one.com")).thenReturn(Optional.empty());
+        when(passwordEncoder.encode(anyString())).thenReturn("dummy");
+
         assertThrows(ResponseStatusException.class, () -> authService.login(cmd));
+        // an unknown email still pays for one hash comparison
+        verify(passwordEncoder).matches("pw", "dummy");
     }
 
     @Test
@@ -106,29 +167,68 @@ class AuthServiceTest {
         cmd.setEmail("u@u.com");
         cmd.setPassword("pw");
         User u = new User(); u.setPassword("h");
+        when(loginRateLimiter.tryAcquire("u@u.com", null)).thenReturn(true);
         when(userRepository.findByEmail("u@u.com")).thenReturn(Optional.of(u));
         when(passwordEncoder.matches("pw", "h")).thenReturn(false);
         assertThrows(ResponseStatusException.class, () -> authService.login(cmd));
     }
 
     @Test
-    void refresh_success_returnsNewTokens() {
+    void refresh_success_rotatesFamily_andReturnsNewTokens() {
         AuthRefreshCommand cmd = new AuthRefreshCommand();
         cmd.setRefreshToken("rt");
-        Claims claims = mock(Claims.class);
-        when(claims.get("type")).thenReturn("refresh");
-        when(claims.getSubject()).thenReturn(UUID.randomUUID().toString());
-        when(jwtService.parseClaims("rt")).thenReturn(claims);
         UUID id = UUID.randomUUID();
-        when(claims.getSubject()).thenReturn(id.toString());
+        UUID familyId = UUID.randomUUID();
+        UUID tokenId = UUID.randomUUID();
+        Claims claims = refreshClaims(id, familyId, tokenId, 0);
+        when(jwtService.parseClaims("rt")).thenReturn(claims);
         User u = new User(); u.setId(id);
-        when(userRepository.findById(id)).thenReturn(Optional.of(u));
+        when(principalCache.get(id)).thenReturn(Optional.of(u));
+        RefreshTokenStore.IssuedToken next = new RefreshTokenStore.IssuedToken(familyId, UUID.randomUUID());
+        when(refreshTokenStore.rotate(familyId, tokenId, id)).thenReturn(next);
         when(jwtService.generateAccessToken(u)).thenReturn("a");
-        when(jwtService.generateRefreshToken(u)).thenReturn("r");
+        when(jwtService.generateRefreshToken(u, next)).thenReturn("r");
         when(jwtService.getAccessTokenExpirationMs()).thenReturn(1000L);
 
         AuthResponseDto resp = authService.refresh(cmd);
+
         assertThat(resp.getAccessToken()).isEqualTo("a");
+        assertThat(resp.getRefreshToken()).isEqualTo("r");
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void refresh_reusedToken_propagatesRejection() {
+        AuthRefreshCommand cmd = new AuthRefreshCommand();
+        cmd.setRefreshToken("rt");
+        UUID id = UUID.randomUUID();
+        UUID familyId = UUID.randomUUID();
+        UUID tokenId = UUID.randomUUID();
+        Claims claims = refreshClaims(id, familyId, tokenId, 0);
+        when(jwtService.parseClaims("rt")).thenReturn(claims);
+        User u = new User(); u.setId(id);
+        when(principalCache.get(id)).thenReturn(Optional.of(u));
+        when(refreshTokenStore.rotate(familyId, tokenId, id))
+                .thenThrow(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token reuse detected"));
+
+        assertThrows(ResponseStatusException.class, () -> authService.refresh(cmd));
+        verify(jwtService, never()).generateAccessToken(any());
+    }
+
+    @Test
+    void refresh_tokenWithoutFamily_throws() {
+        AuthRefreshCommand cmd = new AuthRefreshCommand();
+        cmd.setRefreshToken("rt");
+        Claims claims = mock(Claims.class);
+        when(claims.get("type")).thenReturn("refresh");
+        when(claims.getSubject()).thenReturn(UUID.randomUUID().toString());
+        when(claims.get("fam", String.class)).thenReturn(null);
+        when(jwtService.parseClaims("rt")).thenReturn(claims);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> authService.refresh(cmd));
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        verifyNoInteractions(refreshTokenStore);
     }
 
     @Test
@@ -140,4 +240,46 @@ class AuthServiceTest {
         when(jwtService.parseClaims("t")).thenReturn(claims);
         assertThrows(ResponseStatusException.class, () -> authService.refresh(cmd));
     }
+
+    @Test
+    void refresh_tokenOlderThanUserVersion_throws() {
+        AuthRefreshCommand cmd = new AuthRefreshCommand();
+        cmd.setRefreshToken("rt");
+        UUID id = UUID.randomUUID();
+        Claims claims = refreshClaims(id, UUID.randomUUID(), UUID.randomUUID(), 1);
+        when(jwtService.parseClaims("rt")).thenReturn(claims);
+        User u = new User(); u.setId(id); u.setTokenVersion(2);
+        when(principalCache.get(id)).thenReturn(Optional.of(u));
+
+        assertThrows(ResponseStatusException.class, () -> authService.refresh(cmd));
+        verify(jwtService, never()).generateAccessToken(any());
+        verifyNoInteractions(refreshTokenStore);
+    }
+
+    @Test
+    void logout_revokesPresentedToken() {
+        UUID id = UUID.randomUUID();
+        UUID tokenId = UUID.randomUUID();
+        Instant expiresAt = Instant.now().plusSeconds(600);
+
+        authService.logout(new AuthenticatedUser(id, "a@b.com", UserRole.STUDENT, tokenId, 0, expiresAt));
+
+        verify(tokenDenylist).revokeToken(tokenId, id, expiresAt);
+    }
+
+    @Test
+    void logout_withoutPrincipal_throws() {
+        assertThrows(ResponseStatusException.class, () -> authService.logout(null));
+        verifyNoInteractions(tokenDenylist);
+    }
+
+    private static Claims refreshClaims(UUID userId, UUID familyId, UUID tokenId, int version) {
+        Claims claims = mock(Claims.class);
+        when(claims.get("type")).thenReturn("refresh");
+        when(claims.getSubject()).thenReturn(userId.toString());
+        when(claims.get("fam", String.class)).thenReturn(familyId.toString());
+        when(claims.getId()).thenReturn(tokenId.toString());
+        when(claims.get("ver", Integer.class)).thenReturn(version);
+        return claims;
+    }
 }
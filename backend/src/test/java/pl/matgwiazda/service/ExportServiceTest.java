@@ -0,0 +1,47 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+import pl.matgwiazda.config.ExportProperties;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class ExportServiceTest {
+
+    @Test
+    void csvField_quotesOnlyWhenNeeded() {
+        assertThat(ExportService.csvField(null)).isEmpty();
+        assertThat(ExportService.csvField("plain")).isEqualTo("plain");
+        assertThat(ExportService.csvField("a,b")).isEqualTo("\"a,b\"");
+        assertThat(ExportService.csvField("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(ExportService.csvField("two\nlines")).isEqualTo("\"two\nlines\"");
+    }
+
+    @Test
+    void format_parsesCaseInsensitively_andRejectsUnknown() {
+        assertThat(ExportService.Format.parse("CSV")).isEqualTo(ExportService.Format.CSV);
+        assertThat(ExportService.Format.parse("ndjson")).isEqualTo(ExportService.Format.NDJSON);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> ExportService.Format.parse("xml"));
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void export_beyondMaxConcurrent_isRejected() {
+        ExportProperties properties = new ExportProperties();
+        properties.setMaxConcurrent(1);
+        ExportService service = new ExportService(mock(DataSource.class), mock(PlatformTransactionManager.class), properties);
+
+        service.export(ExportService.Dataset.TASKS, ExportService.Format.CSV);
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> service.export(ExportService.Dataset.PROGRESS, ExportService.Format.CSV));
+
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+}
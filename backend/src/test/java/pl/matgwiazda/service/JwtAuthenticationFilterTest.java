@@ -0,0 +1,118 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import pl.matgwiazda.config.JwtAuthProperties;
+import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.domain.enums.UserRole;
+import pl.matgwiazda.security.AuthenticatedUser;
+import pl.matgwiazda.security.JwtAuthenticationFilter;
+import pl.matgwiazda.security.JwtService;
+import pl.matgwiazda.security.PrincipalCache;
+import pl.matgwiazda.security.RefreshTokenStore;
+import pl.matgwiazda.security.TokenDenylist;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private final JwtService jwtService = new JwtService("0123456789abcdef0123456789abcdef", 60000, 120000);
+    private PrincipalCache principalCache;
+    private TokenDenylist tokenDenylist;
+    private JwtAuthProperties properties;
+    private JwtAuthenticationFilter filter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = mock(PrincipalCache.class);
+        tokenDenylist = mock(TokenDenylist.class);
+        properties = new JwtAuthProperties();
+        filter = new JwtAuthenticationFilter(jwtService, principalCache, tokenDenylist, properties);
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("a@b.com");
+        user.setRole(UserRole.ADMIN);
+        user.setTokenVersion(1);
+        when(principalCache.get(user.getId())).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void accessToken_authenticatesWithCachedUser() throws Exception {
+        Authentication auth = filter(jwtService.generateAccessToken(user));
+
+        assertThat(auth).isNotNull();
+        AuthenticatedUser principal = (AuthenticatedUser) auth.getPrincipal();
+        assertThat(principal.id()).isEqualTo(user.getId());
+        assertThat(principal.tokenId()).isNotNull();
+        assertThat(principal.tokenVersion()).isEqualTo(1);
+        assertThat(auth.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+        verify(principalCache).get(user.getId());
+    }
+
+    @Test
+    void statelessClaims_authenticatesWithoutUserLookup() throws Exception {
+        properties.setStatelessClaims(true);
+
+        Authentication auth = filter(jwtService.generateAccessToken(user));
+
+        assertThat(auth).isNotNull();
+        assertThat(((AuthenticatedUser) auth.getPrincipal()).role()).isEqualTo(UserRole.ADMIN);
+        assertThat(((AuthenticatedUser) auth.getPrincipal()).email()).isEqualTo("a@b.com");
+        verifyNoInteractions(principalCache);
+    }
+
+    @Test
+    void revokedToken_isNotAuthenticated() throws Exception {
+        when(tokenDenylist.isRevoked(any(), eq(user.getId()), anyInt())).thenReturn(true);
+
+        assertThat(filter(jwtService.generateAccessToken(user))).isNull();
+    }
+
+    @Test
+    void tokenOlderThanUserVersion_isNotAuthenticated() throws Exception {
+        String token = jwtService.generateAccessToken(user);
+        user.setTokenVersion(2);
+
+        assertThat(filter(token)).isNull();
+    }
+
+    @Test
+    void refreshToken_isNotAcceptedAsAccessToken() throws Exception {
+        assertThat(filter(jwtService.generateRefreshToken(user, new RefreshTokenStore.IssuedToken(UUID.randomUUID(), UUID.randomUUID())))).isNull();
+    }
+
+    @Test
+    void invalidToken_isNotAuthenticated() throws Exception {
+        assertThat(filter("not-a-jwt")).isNull();
+        verifyNoInteractions(principalCache);
+    }
+
+    private Authentication filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest()).isNotNull();
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
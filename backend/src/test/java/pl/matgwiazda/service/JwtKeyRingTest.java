@@ -0,0 +1,228 @@
+package pl.matgwiazda.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+import pl.matgwiazda.config.JwtKeyProperties;
+import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.security.JwtKeyRing;
+import pl.matgwiazda.security.JwtService;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtKeyRingTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final String NEXT_SECRET = "fedcba9876543210fedcba9876543210";
+
+    private final MutableClock clock = new MutableClock();
+    private final User user = user();
+
+    @Test
+    void defaultRing_signsWithDefaultKid() {
+        JwtService jwt = new JwtService(SECRET, 60000, 120000);
+
+        String token = jwt.generateAccessToken(user);
+
+        assertThat(kid(token)).isEqualTo(JwtKeyRing.DEFAULT_KID);
+        assertThat(jwt.parseClaims(token).getSubject()).isEqualTo(user.getId().toString());
+    }
+
+    @Test
+    void tokenWithoutKid_isVerifiedWithDefaultKey() {
+        JwtService jwt = new JwtService(SECRET, 60000, 120000);
+        String legacy = Jwts.builder()
+                .setSubject(user.getId().toString())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(jwt.parseClaims(legacy).getSubject()).isEqualTo(user.getId().toString());
+    }
+
+    @Test
+    void scheduledKey_takesOverSigningOnceActive_andOldTokensStayValid() {
+        JwtKeyProperties.Key next = hmacKey("2026-02", NEXT_SECRET);
+        next.setActivateAt(clock.instant().plus(Duration.ofHours(1)));
+        JwtKeyRing ring = ring(next);
+        JwtService jwt = new JwtService(ring, 60000, 120000);
+        String before = jwt.generateAccessToken(user);
+
+        clock.advance(Duration.ofHours(2));
+        ring.refresh();
+        String after = jwt.generateAccessToken(user);
+
+        assertThat(kid(before)).isEqualTo(JwtKeyRing.DEFAULT_KID);
+        assertThat(kid(after)).isEqualTo("2026-02");
+        assertThat(jwt.parseClaims(before).getSubject()).isEqualTo(user.getId().toString());
+        assertThat(jwt.parseClaims(after).getSubject()).isEqualTo(user.getId().toString());
+    }
+
+    @Test
+    void expiredKey_noLongerVerifies() {
+        JwtKeyProperties.Key old = hmacKey("2025-12", NEXT_SECRET);
+        old.setExpireAt(clock.instant().plus(Duration.ofMinutes(5)));
+        JwtKeyRing ring = ring(old);
+        JwtService jwt = new JwtService(ring, 60000, 120000);
+        String token = jwt.generateAccessToken(user);
+        assertThat(kid(token)).isEqualTo("2025-12");
+
+        clock.advance(Duration.ofMinutes(10));
+        ring.refresh();
+
+        assertThrows(ResponseStatusException.class, () -> jwt.parseClaims(token));
+        assertThat(ring.signingKey().kid()).isEqualTo(JwtKeyRing.DEFAULT_KID);
+    }
+
+    @Test
+    void es256Key_signsAndVerifies() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+        JwtKeyProperties.Key ec = new JwtKeyProperties.Key();
+        ec.setKid("ec-1");
+        ec.setAlgorithm("ES256");
+        ec.setPrivateKey(pem("PRIVATE KEY", pair.getPrivate().getEncoded()));
+        ec.setPublicKey(pem("PUBLIC KEY", pair.getPublic().getEncoded()));
+        JwtService jwt = new JwtService(ring(ec), 60000, 120000);
+
+        String token = jwt.generateAccessToken(user);
+
+        assertThat(kid(token)).isEqualTo("ec-1");
+        Claims claims = jwt.parseClaims(token);
+        assertThat(claims.getSubject()).isEqualTo(user.getId().toString());
+    }
+
+    @Test
+    void unknownKidOrMismatchedAlgorithm_isRejected() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        JwtKeyProperties.Key verifyOnly = new JwtKeyProperties.Key();
+        verifyOnly.setKid("ec-verify");
+        verifyOnly.setAlgorithm("ES256");
+        verifyOnly.setPublicKey(pem("PUBLIC KEY", generator.generateKeyPair().getPublic().getEncoded()));
+        JwtService jwt = new JwtService(ring(verifyOnly), 60000, 120000);
+
+        String unknownKid = hs256WithKid("nope");
+        String hsPretendingEc = hs256WithKid("ec-verify");
+
+        assertThrows(ResponseStatusException.class, () -> jwt.parseClaims(unknownKid));
+        assertThrows(ResponseStatusException.class, () -> jwt.parseClaims(hsPretendingEc));
+    }
+
+    @Test
+    void retiredSecret_stopsVerifying_tokensWithoutKid() {
+        JwtKeyProperties properties = new JwtKeyProperties();
+        properties.setKeys(List.of(hmacKey("2026-02", NEXT_SECRET)));
+        properties.setSecretExpireAt(clock.instant().plus(Duration.ofMinutes(5)));
+        JwtKeyRing ring = new JwtKeyRing(SECRET, properties, clock);
+        JwtService jwt = new JwtService(ring, 60000, 120000);
+        String legacy = Jwts.builder()
+                .setSubject(user.getId().toString())
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+        assertThat(jwt.parseClaims(legacy).getSubject()).isEqualTo(user.getId().toString());
+
+        clock.advance(Duration.ofMinutes(10));
+        ring.refresh();
+
+        assertThrows(ResponseStatusException.class, () -> jwt.parseClaims(legacy));
+        assertThat(ring.signingKey().kid()).isEqualTo("2026-02");
+    }
+
+    @Test
+    void ringWithoutSecret_usesConfiguredKeysOnly() {
+        JwtKeyProperties properties = new JwtKeyProperties();
+        properties.setKeys(List.of(hmacKey("2026-02", NEXT_SECRET)));
+        JwtService jwt = new JwtService(new JwtKeyRing("", properties, clock), 60000, 120000);
+
+        assertThat(kid(jwt.generateAccessToken(user))).isEqualTo("2026-02");
+        assertThrows(ResponseStatusException.class, () -> jwt.parseClaims(hs256WithKid(JwtKeyRing.DEFAULT_KID)));
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing(null, new JwtKeyProperties(), clock));
+    }
+
+    @Test
+    void duplicateKid_failsAtStartup() {
+        assertThrows(IllegalArgumentException.class, () -> ring(hmacKey("k", NEXT_SECRET), hmacKey("k", NEXT_SECRET)));
+    }
+
+    private JwtKeyRing ring(JwtKeyProperties.Key... keys) {
+        JwtKeyProperties properties = new JwtKeyProperties();
+        properties.setKeys(List.of(keys));
+        return new JwtKeyRing(SECRET, properties, clock);
+    }
+
+    private static JwtKeyProperties.Key hmacKey(String kid, String secret) {
+        JwtKeyProperties.Key key = new JwtKeyProperties.Key();
+        key.setKid(kid);
+        key.setSecret(secret);
+        return key;
+    }
+
+    private static String hs256WithKid(String kid) {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, kid)
+                .setSubject(UUID.randomUUID().toString())
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static String kid(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+        int start = header.indexOf("\"kid\":\"") + 7;
+        return header.substring(start, header.indexOf('"', start));
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder().encodeToString(der) + "\n-----END " + type + "-----";
+    }
+
+    private static User user() {
+        User u = new User();
+        u.setId(UUID.randomUUID());
+        u.setEmail("a@b.com");
+        return u;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package pl.matgwiazda.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.matgwiazda.config.LearningLevelCatalogProperties;
+import pl.matgwiazda.domain.entity.LearningLevel;
+import pl.matgwiazda.dto.LearningLevelDto;
+import pl.matgwiazda.mapper.LearningLevelMapper;
+import pl.matgwiazda.repository.LearningLevelRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LearningLevelCatalogTest {
+
+    private final LearningLevelRepository repository = mock(LearningLevelRepository.class);
+    private final LearningLevelMapper mapper = mock(LearningLevelMapper.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final LearningLevelCatalogProperties properties = new LearningLevelCatalogProperties();
+    private LearningLevelCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        when(mapper.toDto(any())).thenAnswer(inv -> {
+            LearningLevel l = inv.getArgument(0);
+            return new LearningLevelDto(l.getLevel(), l.getTitle(), l.getDescription(), null, null, null, null);
+        });
+        catalog = newCatalog();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void find_byLevel_loadsOnce() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(level(1, "one"), level(3, "three")));
+
+        assertThat(catalog.find((short) 3)).map(LearningLevelDto::description).contains("three");
+        assertThat(catalog.find((short) 2)).isEmpty();
+        assertThat(catalog.find((short) 9)).isEmpty();
+        assertThat(catalog.find((short) -1)).isEmpty();
+        assertThat(catalog.levels()).extracting(LearningLevelDto::level).containsExactly((short) 1, (short) 3);
+
+        verify(repository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void reload_swapsSnapshot() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(level(1, "old")), List.of(level(1, "new"), level(2, "added")));
+        List<LearningLevelDto> before = catalog.levels();
+
+        catalog.reload();
+
+        assertThat(catalog.find((short) 1)).map(LearningLevelDto::description).contains("new");
+        assertThat(catalog.find((short) 2)).isPresent();
+        // a snapshot handed out earlier is never modified
+        assertThat(before).extracting(LearningLevelDto::description).containsExactly("old");
+    }
+
+    @Test
+    void changed_insideTransaction_notifiesAndReloadsAfterCommit() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(level(1, "old")), List.of(level(1, "new")));
+        catalog.levels();
+        TransactionSynchronizationManager.initSynchronization();
+
+        catalog.changed();
+
+        verify(jdbcTemplate).query(eq("select pg_notify(?, ?)"), any(RowCallbackHandler.class), eq(properties.getChannel()), anyString());
+        assertThat(catalog.find((short) 1)).map(LearningLevelDto::description).contains("old");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(catalog.find((short) 1)).map(LearningLevelDto::description).contains("new");
+    }
+
+    @Test
+    void changed_notifyDisabled_onlyReloads() {
+        properties.setNotifyEnabled(false);
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(level(1, "one")));
+
+        catalog.changed();
+
+        verifyNoInteractions(jdbcTemplate);
+        assertThat(catalog.find((short) 1)).isPresent();
+    }
+
+    @Test
+    void invalidChannel_isRejected() {
+        properties.setChannel("levels; drop table tasks");
+
+        assertThrows(IllegalArgumentException.class, this::newCatalog);
+    }
+
+    private LearningLevelCatalog newCatalog() {
+        return new LearningLevelCatalog(repository, mapper, properties, new DataSourceProperties(), jdbcTemplate,
+                mock(PlatformTransactionManager.class), mock(EntityManagerFactory.class));
+    }
+
+    private static LearningLevel level(int level, String description) {
+        LearningLevel l = new LearningLevel();
+        l.setLevel((short) level);
+        l.setTitle("L" + level);
+        l.setDescription(description);
+        return l;
+    }
+}
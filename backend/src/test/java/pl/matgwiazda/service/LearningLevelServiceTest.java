@@ -37,6 +37,9 @@ class LearningLevelServiceTest {
     @Mock
     LearningLevelMapper mapper;
 
+    @Mock
+    LearningLevelCatalog catalog;
+
     @InjectMocks
     LearningLevelService service;
 
@@ -100,6 +103,7 @@ class LearningLevelServiceTest {
 
         assertThrows(ResponseStatusException.class, () -> service.create(cmd, UUID.randomUUID()));
         verify(repository, never()).save(any());
+        verify(catalog, never()).changed();
     }
 
     @Test
@@ -116,6 +120,7 @@ class LearningLevelServiceTest {
         ArgumentCaptor<LearningLevel> cap = ArgumentCaptor.forClass(LearningLevel.class);
         verify(repository).save(cap.capture());
         assertThat(cap.getValue().getCreatedBy()).isEqualTo(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        verify(catalog).changed();
     }
 
     @Test
@@ -136,6 +141,7 @@ class LearningLevelServiceTest {
         assertThat(dto.title()).isEqualTo("New");
         assertThat(dto.description()).isEqualTo("NewDesc");
         verify(repository).save(any());
+        verify(catalog).changed();
     }
 
     @Test
@@ -149,5 +155,6 @@ class LearningLevelServiceTest {
         when(repository.existsById((short)1)).thenReturn(true);
         service.delete((short)1);
         verify(repository).deleteById((short)1);
+        verify(catalog).changed();
     }
 }
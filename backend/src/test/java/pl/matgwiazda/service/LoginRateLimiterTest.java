@@ -0,0 +1,108 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.Test;
+import pl.matgwiazda.config.LoginThrottleProperties;
+import pl.matgwiazda.security.LoginRateLimiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void emailBucket_emptiesAfterCapacity_andRefillsOverTime() {
+        LoginRateLimiter limiter = limiter(properties(3, 3, 100, 100, 1000));
+
+        for (int i = 0; i < 3; i++) assertThat(limiter.tryAcquire("a@b.com", "10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquire("a@b.com", "10.0.0.1")).isFalse();
+        // another account from the same address is unaffected
+        assertThat(limiter.tryAcquire("c@d.com", "10.0.0.1")).isTrue();
+
+        advanceSeconds(20); // 3 per minute -> one token
+        assertThat(limiter.tryAcquire("a@b.com", "10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquire("a@b.com", "10.0.0.1")).isFalse();
+    }
+
+    @Test
+    void ipBucket_limitsSprayingAcrossAccounts() {
+        LoginRateLimiter limiter = limiter(properties(5, 5, 2, 2, 1000));
+
+        assertThat(limiter.tryAcquire("u1@x.com", "10.0.0.9")).isTrue();
+        assertThat(limiter.tryAcquire("u2@x.com", "10.0.0.9")).isTrue();
+        assertThat(limiter.tryAcquire("u3@x.com", "10.0.0.9")).isFalse();
+        assertThat(limiter.tryAcquire("u3@x.com", "10.0.0.10")).isTrue();
+    }
+
+    @Test
+    void evictIdle_dropsRefilledBuckets() {
+        LoginRateLimiter limiter = limiter(properties(5, 5, 5, 5, 1000));
+        limiter.tryAcquire("a@b.com", "10.0.0.1");
+        assertThat(limiter.trackedKeys()).isEqualTo(2);
+
+        limiter.evictIdle();
+        assertThat(limiter.trackedKeys()).isEqualTo(2);
+
+        advanceSeconds(60);
+        limiter.evictIdle();
+        assertThat(limiter.trackedKeys()).isZero();
+    }
+
+    @Test
+    void fullTable_rejectsNewKeysUntilBucketsGoIdle() {
+        LoginRateLimiter limiter = limiter(properties(5, 5, 5, 5, 2));
+        assertThat(limiter.tryAcquire("a@b.com", "10.0.0.1")).isTrue();
+
+        assertThat(limiter.tryAcquire("c@d.com", "10.0.0.1")).isFalse();
+
+        advanceSeconds(60);
+        assertThat(limiter.tryAcquire("c@d.com", "10.0.0.1")).isTrue();
+    }
+
+    @Test
+    void fullTable_isScannedInlineAtMostOncePerSecond() {
+        LoginRateLimiter limiter = limiter(properties(5, 600, 5, 600, 2)); // one token back every 100 ms
+        assertThat(limiter.tryAcquire("a@b.com", "10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquire("c@d.com", "10.0.0.1")).isFalse(); // scanned, nothing idle yet
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        // the buckets are idle by now, but the last scan was too recent
+        assertThat(limiter.tryAcquire("c@d.com", "10.0.0.1")).isFalse();
+        assertThat(limiter.trackedKeys()).isEqualTo(2);
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        assertThat(limiter.tryAcquire("c@d.com", "10.0.0.1")).isTrue();
+    }
+
+    @Test
+    void disabled_allowsEverything() {
+        LoginThrottleProperties properties = properties(1, 1, 1, 1, 1);
+        properties.setEnabled(false);
+        LoginRateLimiter limiter = limiter(properties);
+
+        for (int i = 0; i < 10; i++) assertThat(limiter.tryAcquire("a@b.com", "10.0.0.1")).isTrue();
+        assertThat(limiter.trackedKeys()).isZero();
+    }
+
+    private LoginRateLimiter limiter(LoginThrottleProperties properties) {
+        return new LoginRateLimiter(properties, nanos::get);
+    }
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private static LoginThrottleProperties properties(int emailCapacity, double emailPerMinute, int ipCapacity,
+                                                      double ipPerMinute, int maxKeys) {
+        LoginThrottleProperties p = new LoginThrottleProperties();
+        p.setEmailCapacity(emailCapacity);
+        p.setEmailRefillPerMinute(emailPerMinute);
+        p.setIpCapacity(ipCapacity);
+        p.setIpRefillPerMinute(ipPerMinute);
+        p.setMaxTrackedKeys(maxKeys);
+        return p;
+    }
+}
@@ -0,0 +1,140 @@
+package pl.matgwiazda.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.matgwiazda.config.OpenRouterProperties;
+import pl.matgwiazda.service.openrouter.ModelRouter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelRouterTest {
+
+    private final MutableClock clock = new MutableClock();
+    private OpenRouterProperties properties;
+    private ModelRouter router;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenRouterProperties();
+        properties.setModels(List.of(model("a", 0.5, List.of()), model("b", 0.1, List.of("groq")), model("c", 0.0, List.of())));
+        properties.setLatencyEwmaAlpha(0.5);
+        properties.setMaxErrorRate(0.5);
+        properties.setUnhealthyProbeMs(1000);
+        properties.setHedgeMinDelayMs(100);
+        properties.setTimeoutMs(10000);
+        router = new ModelRouter(properties, new ObjectMapper(), clock);
+    }
+
+    @Test
+    void rank_prefersUntriedThenFastestModel() {
+        record("a", 300, 5);
+        record("b", 100, 5);
+
+        // c has no samples yet and is tried first
+        assertThat(models(router.rank())).containsExactly("c", "b", "a");
+
+        record("c", 500, 5);
+        assertThat(models(router.rank())).containsExactly("b", "a", "c");
+    }
+
+    @Test
+    void rank_untriedModels_orderedByCost() {
+        assertThat(models(router.rank())).containsExactly("c", "b", "a");
+    }
+
+    @Test
+    void rank_unhealthyModelGoesLast_untilProbeIsDue() {
+        record("a", 100, 1);
+        record("b", 200, 1);
+        record("c", 300, 1);
+        fail("a", 3);
+
+        assertThat(models(router.rank())).containsExactly("b", "c", "a");
+
+        clock.advance(Duration.ofMillis(1001));
+        assertThat(models(router.rank())).first().isEqualTo("a"); // probe
+        assertThat(models(router.rank())).containsExactly("b", "c", "a"); // one probe per interval
+    }
+
+    @Test
+    void hedgeDelay_usesP95OnceEnoughSamplesAreKnown() {
+        ModelRouter.Route a = route("a");
+        assertThat(router.hedgeDelayMs(a)).isEqualTo(5000); // half of the timeout while unknown
+
+        for (int i = 1; i <= 100; i++) router.record(a, i * 10L, true);
+
+        assertThat(router.hedgeDelayMs(a)).isEqualTo(950);
+    }
+
+    @Test
+    void requestFragment_pinsProviders() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertThat(objectMapper.readTree("{" + route("a").getRequestFragment() + "}"))
+                .isEqualTo(objectMapper.readTree("{\"model\":\"a\"}"));
+        assertThat(objectMapper.readTree("{" + route("b").getRequestFragment() + "}"))
+                .isEqualTo(objectMapper.readTree("{\"model\":\"b\",\"provider\":{\"order\":[\"groq\"],\"allow_fallbacks\":false}}"));
+    }
+
+    @Test
+    void noModelsConfigured_routesToDefaultModel() {
+        OpenRouterProperties props = new OpenRouterProperties();
+        props.setDefaultModel("default/model");
+
+        assertThat(models(new ModelRouter(props, new ObjectMapper()).rank())).containsExactly("default/model");
+    }
+
+    private void record(String model, long latencyMs, int times) {
+        for (int i = 0; i < times; i++) router.record(route(model), latencyMs, true);
+    }
+
+    private void fail(String model, int times) {
+        for (int i = 0; i < times; i++) router.record(route(model), 0, false);
+    }
+
+    private ModelRouter.Route route(String model) {
+        return router.rank().stream().filter(r -> r.getModel().equals(model)).findFirst().orElseThrow();
+    }
+
+    private static List<String> models(List<ModelRouter.Route> routes) {
+        return routes.stream().map(ModelRouter.Route::getModel).toList();
+    }
+
+    private static OpenRouterProperties.Model model(String id, double cost, List<String> providers) {
+        OpenRouterProperties.Model m = new OpenRouterProperties.Model();
+        m.setId(id);
+        m.setCostPerMillionTokens(cost);
+        m.setProviders(providers);
+        return m;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.matgwiazda.config.OpenRouterProperties;
+import pl.matgwiazda.service.openrouter.OpenRouterCircuitBreaker;
+import pl.matgwiazda.service.openrouter.OpenRouterCircuitBreaker.State;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenRouterCircuitBreakerTest {
+
+    private final MutableClock clock = new MutableClock();
+    private OpenRouterCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        OpenRouterProperties properties = new OpenRouterProperties();
+        properties.setCircuitFailureThreshold(3);
+        properties.setCircuitOpenMs(1000);
+        properties.setCircuitHalfOpenCalls(1);
+        breaker = new OpenRouterCircuitBreaker(properties, clock);
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures_andRejectsUntilOpenPeriodEnds() {
+        failTimes(3);
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getRejectedCalls()).isEqualTo(1);
+
+        clock.advance(Duration.ofMillis(1001));
+        assertThat(breaker.tryAcquire()).isTrue();
+        // only one probe while half-open
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        failTimes(2);
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess();
+        failTimes(2);
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void halfOpenProbe_successCloses_failureReopens() {
+        failTimes(3);
+        clock.advance(Duration.ofMillis(1001));
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+
+        clock.advance(Duration.ofMillis(1001));
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private void failTimes(int n) {
+        for (int i = 0; i < n; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package pl.matgwiazda.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import pl.matgwiazda.config.OpenRouterProperties;
+import pl.matgwiazda.config.OpenRouterTransportConfig;
+import pl.matgwiazda.exception.OpenRouterException;
+import pl.matgwiazda.exception.OpenRouterUnavailableException;
+import pl.matgwiazda.service.openrouter.AdaptiveConcurrencyLimiter;
+import pl.matgwiazda.service.openrouter.OpenRouterCircuitBreaker;
+import pl.matgwiazda.service.openrouter.OpenRouterHttpClient;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OpenRouterHttpClientTest {
+
+    private WireMockServer wireMock;
+    private OpenRouterProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        wireMock = new WireMockServer(options().dynamicPort());
+        wireMock.start();
+        properties = new OpenRouterProperties();
+        properties.setApiKey("test-key");
+        properties.setEndpoint("http://localhost:" + wireMock.port() + "/chat");
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMock.stop();
+    }
+
+    @Test
+    void post_jdkTransport_returnsBodyAndSendsBearer() {
+        wireMock.stubFor(post(urlEqualTo("/chat")).willReturn(aResponse().withStatus(200).withBody("{\"ok\":true}")));
+
+        String body = client().post("{}");
+
+        assertThat(body).isEqualTo("{\"ok\":true}");
+        wireMock.verify(postRequestedFor(urlEqualTo("/chat")).withHeader("Authorization", equalTo("Bearer test-key")));
+    }
+
+    @Test
+    void post_readTimeout_throwsOpenRouterException() {
+        properties.setTimeoutMs(100);
+        properties.setMaxRetries(0);
+        wireMock.stubFor(post(urlEqualTo("/chat")).willReturn(aResponse().withStatus(200).withBody("{}").withFixedDelay(1000)));
+
+        OpenRouterHttpClient client = client();
+
+        assertThrows(OpenRouterException.class, () -> client.post("{}"));
+    }
+
+    @Test
+    void post_concurrencyLimitReached_failsFastInsteadOfQueueingForever() throws Exception {
+        properties.setMaxConcurrentRequests(1);
+        properties.setAcquireTimeoutMs(50);
+        properties.setMaxRetries(0);
+        wireMock.stubFor(post(urlEqualTo("/chat")).willReturn(aResponse().withStatus(200).withBody("{}").withFixedDelay(1000)));
+        OpenRouterHttpClient client = client();
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> client.post("{}"));
+        // wait until the first call holds the only slot
+        long deadline = System.currentTimeMillis() + 2000;
+        while (wireMock.getAllServeEvents().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        OpenRouterException ex = assertThrows(OpenRouterException.class, () -> client.post("{}"));
+        assertThat(ex.getMessage()).contains("Too many concurrent");
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("{}");
+    }
+
+    @Test
+    void post_serverErrorThenSuccess_retriesWithBackoff() {
+        properties.setMaxRetries(2);
+        properties.setBackoffBaseMs(10);
+        wireMock.stubFor(post(urlEqualTo("/chat")).inScenario("flaky").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withStatus(503)).willSetStateTo("recovered"));
+        wireMock.stubFor(post(urlEqualTo("/chat")).inScenario("flaky").whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withBody("{}")));
+
+        assertThat(client().post("{}")).isEqualTo("{}");
+        wireMock.verify(2, postRequestedFor(urlEqualTo("/chat")));
+    }
+
+    @Test
+    void post_clientError_isNotRetried() {
+        properties.setMaxRetries(3);
+        wireMock.stubFor(post(urlEqualTo("/chat")).willReturn(aResponse().withStatus(400).withBody("{\"error\":{}}")));
+
+        OpenRouterException ex = assertThrows(OpenRouterException.class, () -> client().post("{}"));
+
+        assertThat(ex.getStatus()).isEqualTo(400);
+        wireMock.verify(1, postRequestedFor(urlEqualTo("/chat")));
+    }
+
+    @Test
+    void post_openCircuit_failsFastWithoutCallingApi() {
+        properties.setMaxRetries(0);
+        properties.setCircuitFailureThreshold(2);
+        wireMock.stubFor(post(urlEqualTo("/chat")).willReturn(aResponse().withStatus(500)));
+        OpenRouterHttpClient client = client();
+
+        assertThrows(OpenRouterException.class, () -> client.post("{}"));
+        assertThrows(OpenRouterException.class, () -> client.post("{}"));
+        assertThrows(OpenRouterUnavailableException.class, () -> client.post("{}"));
+
+        wireMock.verify(2, postRequestedFor(urlEqualTo("/chat")));
+        assertThat(client.status().circuitState()).isEqualTo("OPEN");
+        assertThat(client.status().circuitRejectedCalls()).isEqualTo(1);
+    }
+
+    private OpenRouterHttpClient client() {
+        return new OpenRouterHttpClient(new RestTemplateBuilder(), properties, new ObjectMapper(),
+                new OpenRouterTransportConfig().openRouterRequestFactory(properties),
+                new OpenRouterCircuitBreaker(properties), new AdaptiveConcurrencyLimiter(properties));
+    }
+}
@@ -0,0 +1,59 @@
+package pl.matgwiazda.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.exception.OpenRouterException;
+import pl.matgwiazda.service.openrouter.OpenRouterResponseParser;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OpenRouterResponseParserTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OpenRouterResponseParser parser = new OpenRouterResponseParser(objectMapper);
+
+    @Test
+    void parseAiTasks_skipsInvalidAndDuplicateElements() throws Exception {
+        String content = "{\"tasks\":["
+                + task("2+2?", "[\"4\",\"3\",\"5\",\"6\"]", 0) + ","
+                + task("bad index", "[\"1\",\"2\",\"3\",\"4\"]", 7) + ","
+                + task("three options", "[\"1\",\"2\",\"3\"]", 0) + ","
+                + task("2+2?", "[\"4\",\"3\",\"5\",\"6\"]", 0) + ","
+                + task("3+3?", "[\"5\",\"6\",\"7\",\"8\"]", 1)
+                + "]}";
+
+        List<AiTaskResult> tasks = parser.parseAiTasks(response(content));
+
+        assertThat(tasks).extracting(AiTaskResult::prompt).containsExactly("2+2?", "3+3?");
+    }
+
+    @Test
+    void parseAiTasks_truncatedOutput_keepsCompletedElements() throws Exception {
+        String content = "```json\n{\"tasks\":[" + task("2+2?", "[\"4\",\"3\",\"5\",\"6\"]", 0) + ",{\"prompt\":\"3+3?\",\"opti";
+
+        List<AiTaskResult> tasks = parser.parseAiTasks(response(content));
+
+        assertThat(tasks).hasSize(1);
+        assertThat(tasks.get(0).options()).containsExactly("4", "3", "5", "6");
+    }
+
+    @Test
+    void parseAiTasks_noValidElement_throws() throws Exception {
+        String content = "{\"tasks\":[" + task("bad", "[\"1\"]", 0) + "]}";
+
+        assertThrows(OpenRouterException.class, () -> parser.parseAiTasks(response(content)));
+        assertThrows(OpenRouterException.class, () -> parser.parseAiTasks(response("{\"other\":[]}")));
+    }
+
+    private String task(String prompt, String options, int correctIndex) {
+        return "{\"prompt\":\"" + prompt + "\",\"options\":" + options + ",\"correctIndex\":" + correctIndex + ",\"explanation\":\"e\"}";
+    }
+
+    private String response(String content) throws Exception {
+        return "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":" + objectMapper.writeValueAsString(content) + "}}]}";
+    }
+}
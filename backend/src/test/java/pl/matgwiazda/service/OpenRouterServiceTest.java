@@ -1,6 +1,5 @@
 package pl.matgwiazda.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,25 +10,32 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import pl.matgwiazda.config.OpenRouterProperties;
 import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.dto.openrouter.PromptTemplateDefinition;
 import pl.matgwiazda.exception.OpenRouterException;
+import pl.matgwiazda.service.openrouter.ModelRouter;
 import pl.matgwiazda.service.openrouter.OpenRouterHttpClient;
 import pl.matgwiazda.service.openrouter.OpenRouterResponseParser;
+import pl.matgwiazda.service.openrouter.PromptTemplate;
+import pl.matgwiazda.service.openrouter.PromptTemplateRegistry;
 
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.lenient;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
 class OpenRouterServiceTest {
 
-    @Mock
-    ObjectMapper objectMapper;
-
     @Mock
     OpenRouterProperties properties;
 
@@ -39,23 +45,29 @@ class OpenRouterServiceTest {
     @Mock
     OpenRouterResponseParser responseParser;
 
+    @Mock
+    PromptTemplateRegistry promptTemplates;
+
+    @Mock
+    ModelRouter modelRouter;
+
     @InjectMocks
     OpenRouterService openRouterService;
 
+    private PromptTemplate template() {
+        PromptTemplateDefinition def = new PromptTemplateDefinition("t", 1, null, List.of((short) 2), "system", "seed: {{seed}}", null, null, null, null);
+        return PromptTemplate.compile(def, "t.json", "o-model", new ObjectMapper());
+    }
+
     @Test
     void generateTaskFromSeed_success_delegatesAndReturnsResult() {
-        when(properties.getDefaultModel()).thenReturn("o-model");
         when(properties.getEndpoint()).thenReturn("/v1");
         when(properties.getApiKey()).thenReturn("k");
-        // lenient stub for serialization (may be unused in some code paths)
-        try {
-            lenient().when(objectMapper.writeValueAsString(any())).thenReturn("request-body");
-        } catch (JsonProcessingException e) {
-            // won't happen during stubbing, but the compiler requires handling the checked exception
-            throw new RuntimeException(e);
-        }
+        PromptTemplate template = template();
+        when(promptTemplates.pick((short) 2)).thenReturn(template);
+        when(modelRouter.rank()).thenReturn(routes("o-model"));
 
-        when(httpClient.post("request-body")).thenReturn("raw-response");
+        when(httpClient.post(template.render("seed123"))).thenReturn("raw-response");
 
         AiTaskResult expected = new AiTaskResult("p", List.of("a", "b", "c", "d"), 1, "exp");
         when(responseParser.parseAiTask("raw-response")).thenReturn(expected);
@@ -78,22 +90,84 @@ class OpenRouterServiceTest {
     }
 
     @Test
-    void generateTaskFromSeed_serializationIOException_wrappedAsOpenRouterException() {
+    void generateTaskFromSeed_noTemplateForLevel_throwsWithoutCallingApi() {
         when(properties.getApiKey()).thenReturn("k");
-        when(properties.getDefaultModel()).thenReturn("m");
-        when(properties.getEndpoint()).thenReturn("e");
+        when(promptTemplates.pick((short) 3)).thenThrow(new OpenRouterException("No prompt template configured for level 3"));
+
+        assertThrows(OpenRouterException.class, () -> openRouterService.generateTaskFromSeed("seed", (short)3));
+        verify(httpClient, never()).post(anyString());
+    }
+
+    @Test
+    void generateTaskFromSeed_slowModel_isHedgedWithNextModel() throws Exception {
+        OpenRouterProperties props = new OpenRouterProperties();
+        props.setApiKey("k");
+        props.setModels(List.of(model("slow/model"), model("fast/model")));
+        props.setHedgeMinDelayMs(50);
+        props.setTimeoutMs(100);
+        ModelRouter router = new ModelRouter(props, new ObjectMapper());
+        PromptTemplate template = template();
+        when(promptTemplates.pick((short) 2)).thenReturn(template);
+
+        CountDownLatch releaseSlow = new CountDownLatch(1);
+        when(httpClient.post(contains("slow/model"))).thenAnswer(inv -> {
+            releaseSlow.await(5, TimeUnit.SECONDS);
+            return "slow-response";
+        });
+        when(httpClient.post(contains("fast/model"))).thenReturn("fast-response");
+        AiTaskResult expected = new AiTaskResult("p", List.of("a", "b", "c", "d"), 1, "exp");
+        when(responseParser.parseAiTask("fast-response")).thenReturn(expected);
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            OpenRouterService service = new OpenRouterService(props, httpClient, responseParser, promptTemplates, router, executor);
+
+            AiTaskResult result = service.generateTaskFromSeed("seed", (short) 2);
+
+            assertThat(result).isEqualTo(expected);
+            verify(httpClient).post(contains("slow/model"));
+        } finally {
+            releaseSlow.countDown();
+            executor.shutdownNow();
+        }
+    }
 
-        // Mockito cannot always stub checked exceptions for methods that don't declare them in some contexts.
-        // Create a real ObjectMapper that throws IOException from writeValueAsString and construct the service
-        ObjectMapper failingMapper = new ObjectMapper() {
-            @Override
-            public String writeValueAsString(Object value) throws JsonProcessingException {
-                throw new JsonProcessingException("boom") {};
-            }
-        };
+    @Test
+    void generateTaskFromSeed_failedModel_failsOverToNextModel() {
+        OpenRouterProperties props = new OpenRouterProperties();
+        props.setApiKey("k");
+        props.setModels(List.of(model("broken/model"), model("ok/model")));
+        ModelRouter router = new ModelRouter(props, new ObjectMapper());
+        PromptTemplate template = template();
+        when(promptTemplates.pick((short) 2)).thenReturn(template);
+        when(httpClient.post(contains("broken/model"))).thenThrow(new OpenRouterException("boom", 502, null));
+        when(httpClient.post(contains("ok/model"))).thenReturn("ok-response");
+        AiTaskResult expected = new AiTaskResult("p", List.of("a", "b", "c", "d"), 1, "exp");
+        when(responseParser.parseAiTask("ok-response")).thenReturn(expected);
 
-        OpenRouterService svc = new OpenRouterService(failingMapper, properties, httpClient, responseParser);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            OpenRouterService service = new OpenRouterService(props, httpClient, responseParser, promptTemplates, router, executor);
+
+            assertThat(service.generateTaskFromSeed("seed", (short) 2)).isEqualTo(expected);
+            assertThat(router.stats()).anySatisfy(s -> {
+                assertThat(s.model()).isEqualTo("broken/model");
+                assertThat(s.failures()).isEqualTo(1);
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<ModelRouter.Route> routes(String model) {
+        OpenRouterProperties props = new OpenRouterProperties();
+        props.setDefaultModel(model);
+        return new ModelRouter(props, new ObjectMapper()).rank();
+    }
 
-        assertThrows(OpenRouterException.class, () -> svc.generateTaskFromSeed("seed", (short)1));
+    private static OpenRouterProperties.Model model(String id) {
+        OpenRouterProperties.Model m = new OpenRouterProperties.Model();
+        m.setId(id);
+        return m;
     }
 }
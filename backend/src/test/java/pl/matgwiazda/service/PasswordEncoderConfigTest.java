@@ -0,0 +1,62 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import pl.matgwiazda.config.AppConfig;
+import pl.matgwiazda.config.PasswordHashingProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PasswordEncoderConfigTest {
+
+    @Test
+    void legacyUnprefixedBcryptHash_stillMatches_andIsFlaggedForUpgrade() {
+        PasswordEncoder encoder = encoder("bcrypt", 4);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(encoder.matches("secret", legacy)).isTrue();
+        assertThat(encoder.matches("wrong", legacy)).isFalse();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+    }
+
+    @Test
+    void newHashes_arePrefixed_andUpgradeOnlyWhenCostIsRaised() {
+        String hash = encoder("bcrypt", 4).encode("secret");
+
+        assertThat(hash).startsWith("{bcrypt}");
+        assertThat(encoder("bcrypt", 4).upgradeEncoding(hash)).isFalse();
+        assertThat(encoder("bcrypt", 5).upgradeEncoding(hash)).isTrue();
+        assertThat(encoder("bcrypt", 5).matches("secret", hash)).isTrue();
+    }
+
+    @Test
+    void switchingToArgon2_keepsBcryptHashesValid_andMigratesThem() {
+        String bcryptHash = encoder("bcrypt", 4).encode("secret");
+        PasswordEncoder argon2 = encoder("argon2", 4);
+
+        String argon2Hash = argon2.encode("secret");
+
+        assertThat(argon2Hash).startsWith("{argon2}");
+        assertThat(argon2.matches("secret", argon2Hash)).isTrue();
+        assertThat(argon2.matches("secret", bcryptHash)).isTrue();
+        assertThat(argon2.upgradeEncoding(bcryptHash)).isTrue();
+        assertThat(argon2.upgradeEncoding(argon2Hash)).isFalse();
+    }
+
+    @Test
+    void unknownAlgorithm_failsAtStartup() {
+        assertThrows(IllegalArgumentException.class, () -> encoder("md5", 4));
+    }
+
+    private static PasswordEncoder encoder(String algorithm, int bcryptStrength) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setBcryptStrength(bcryptStrength);
+        // cheap argon2 parameters keep the test fast
+        properties.setArgon2MemoryKib(1024);
+        properties.setArgon2Iterations(1);
+        return new AppConfig().passwordEncoder(properties);
+    }
+}
@@ -0,0 +1,162 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.matgwiazda.config.PrincipalCacheProperties;
+import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.security.PrincipalCache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PrincipalCacheTest {
+
+    private final MutableClock clock = new MutableClock();
+    private UserRepository userRepository;
+    private PrincipalCacheProperties properties;
+    private PrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        properties = new PrincipalCacheProperties();
+        properties.setTtlMs(1000);
+        properties.setMaxSize(2);
+        cache = new PrincipalCache(userRepository, properties, clock);
+    }
+
+    @Test
+    void get_loadsOnceWithinTtl() {
+        User user = user();
+
+        assertThat(cache.get(user.getId())).containsSame(user);
+        assertThat(cache.get(user.getId())).containsSame(user);
+
+        verify(userRepository, times(1)).findById(user.getId());
+    }
+
+    @Test
+    void get_reloadsAfterTtl() {
+        User user = user();
+        cache.get(user.getId());
+
+        clock.advance(Duration.ofMillis(1001));
+        cache.get(user.getId());
+
+        verify(userRepository, times(2)).findById(user.getId());
+    }
+
+    @Test
+    void invalidate_dropsEntry() {
+        User user = user();
+        cache.get(user.getId());
+
+        cache.invalidate(user.getId());
+        cache.get(user.getId());
+
+        verify(userRepository, times(2)).findById(user.getId());
+    }
+
+    @Test
+    void invalidate_insideTransaction_dropsEntryAgainAfterCompletion() {
+        User user = user();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate(user.getId());
+            cache.get(user.getId()); // reloaded before commit, may still see the old row
+            assertThat(cache.size()).isEqualTo(1);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            assertThat(cache.size()).isZero();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_doesNotCacheLoadOverlappingInvalidation() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        when(userRepository.findById(user.getId())).thenAnswer(inv -> {
+            cache.invalidate(user.getId());
+            return Optional.of(user);
+        });
+
+        assertThat(cache.get(user.getId())).containsSame(user);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_missingUserIsNotCached() {
+        UUID id = UUID.randomUUID();
+        when(userRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(id)).isEmpty();
+        assertThat(cache.get(id)).isEmpty();
+
+        verify(userRepository, times(2)).findById(id);
+    }
+
+    @Test
+    void get_staysWithinMaxSize() {
+        cache.get(user().getId());
+        cache.get(user().getId());
+        cache.get(user().getId());
+
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void get_disabled_alwaysLoads() {
+        properties.setEnabled(false);
+        User user = user();
+
+        cache.get(user.getId());
+        cache.get(user.getId());
+
+        verify(userRepository, times(2)).findById(user.getId());
+        assertThat(cache.size()).isZero();
+    }
+
+    private User user() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        return user;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+import pl.matgwiazda.config.TaskGeneratorProperties;
+import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.service.generator.ProceduralTaskGenerator;
+
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProceduralTaskGeneratorTest {
+
+    private final TaskGeneratorProperties properties = new TaskGeneratorProperties();
+    private final ProceduralTaskGenerator generator = new ProceduralTaskGenerator(properties);
+
+    @ParameterizedTest
+    @ValueSource(shorts = {1, 2, 3, 4, 5, 6, 7, 8})
+    void generate_everyLevel_producesFourDistinctOptionsWithValidAnswer(short level) {
+        SplittableRandom rnd = new SplittableRandom(level);
+        for (int i = 0; i < 2000; i++) {
+            AiTaskResult task = generator.generate(level, rnd);
+
+            assertThat(task.prompt()).isNotBlank();
+            assertThat(task.options()).hasSize(4).doesNotContainNull();
+            assertThat(new HashSet<>(task.options())).hasSize(4);
+            assertThat(task.correctIndex()).isBetween(0, 3);
+            assertThat(task.explanation()).isNotBlank();
+        }
+    }
+
+    @Test
+    void generate_sameSeed_sameTask() {
+        AiTaskResult a = generator.generate((short) 6, new SplittableRandom(42));
+        AiTaskResult b = generator.generate((short) 6, new SplittableRandom(42));
+
+        assertThat(a).isEqualTo(b);
+    }
+
+    @Test
+    void generate_additionTask_hasCorrectAnswer() {
+        SplittableRandom rnd = new SplittableRandom(7);
+        for (int i = 0; i < 200; i++) {
+            AiTaskResult task = generator.generate((short) 1, rnd);
+            if (!task.prompt().contains("+")) continue;
+            String[] operands = task.prompt().replace("Ile to ", "").replace("?", "").split(" \\+ ");
+            int expected = Integer.parseInt(operands[0]) + Integer.parseInt(operands[1]);
+            assertThat(task.options().get(task.correctIndex())).isEqualTo(Integer.toString(expected));
+        }
+    }
+
+    @Test
+    void supports_onlyLevelsOneToEight_andOnlyWhenEnabled() {
+        assertThat(generator.supports((short) 1, null)).isTrue();
+        assertThat(generator.supports((short) 9, null)).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> generator.generate((short) 0, new SplittableRandom(1)));
+
+        properties.setProceduralEnabled(false);
+        assertThat(generator.supports((short) 1, null)).isFalse();
+    }
+}
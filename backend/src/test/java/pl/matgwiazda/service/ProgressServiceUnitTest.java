@@ -1,14 +1,20 @@
 package pl.matgwiazda.service;
 
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
-import pl.matgwiazda.domain.entity.Progress;
-import pl.matgwiazda.domain.entity.Task;
-import pl.matgwiazda.domain.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+import pl.matgwiazda.dto.ProgressDto;
 import pl.matgwiazda.dto.ProgressSubmitCommand;
-import pl.matgwiazda.mapper.ProgressMapper;
+import pl.matgwiazda.repository.ProgressRepository;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,14 +24,14 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class ProgressServiceUnitTest {
 
+    private final EntityManagerFactory cache = mock(EntityManagerFactory.class, RETURNS_DEEP_STUBS);
+
     @Test
     void listAllProgress_nullUser_throws() {
         var progressRepo = mock(pl.matgwiazda.repository.ProgressRepository.class);
         var userRepo = mock(pl.matgwiazda.repository.UserRepository.class);
-        var progressMapper = mock(ProgressMapper.class);
-        var taskRepo = mock(pl.matgwiazda.repository.TaskRepository.class);
 
-        ProgressService svc = new ProgressService(progressRepo, userRepo, progressMapper, taskRepo);
+        ProgressService svc = new ProgressService(progressRepo, userRepo, mock(UserStatsBuffer.class), cache);
 
         assertThrows(org.springframework.web.server.ResponseStatusException.class, () -> svc.listAllProgress(null));
     }
@@ -34,34 +40,13 @@ class ProgressServiceUnitTest {
     void submitProgress_correctAnswer_updatesUserPointsAndReturnsResponse() {
         var progressRepo = mock(pl.matgwiazda.repository.ProgressRepository.class);
         var userRepo = mock(pl.matgwiazda.repository.UserRepository.class);
-        var progressMapper = mock(ProgressMapper.class);
-        var taskRepo = mock(pl.matgwiazda.repository.TaskRepository.class);
 
-        ProgressService svc = new ProgressService(progressRepo, userRepo, progressMapper, taskRepo);
+        ProgressService svc = new ProgressService(progressRepo, userRepo, mock(UserStatsBuffer.class), cache);
 
-        // Arrange existing progress with task and user
         UUID progId = UUID.randomUUID();
         UUID userId = UUID.randomUUID();
-
-        User user = new User();
-        user.setId(userId);
-        user.setPoints(40);
-        user.setStars(0);
-        user.setCurrentLevel((short)1);
-
-        Task task = new Task();
-        task.setCorrectOptionIndex((short)1);
-        task.setExplanation("explanation test");
-
-        Progress p = new Progress();
-        p.setId(progId);
-        p.setUser(user);
-        p.setTask(task);
-        p.setFinalized(false);
-
-        when(progressRepo.findByIdForUpdate(progId)).thenReturn(Optional.of(p));
-        when(progressRepo.save(any())).thenAnswer(inv -> inv.getArgument(0));
-        when(userRepo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(progressRepo.submit(progId, userId, (short) 1, 123, 1, 50))
+                .thenReturn(Optional.of(submitResult(progId, userId, true, 1, 41, 0, (short) 1, 0, "explanation test")));
 
         // Act
         ProgressSubmitCommand cmd = new ProgressSubmitCommand();
@@ -76,14 +61,140 @@ class ProgressServiceUnitTest {
         assertTrue(resp.isCorrect());
         assertEquals(1, resp.getPointsAwarded());
         assertEquals(41, resp.getUserPoints());
-        assertEquals(user.getStars(), resp.getStarsAwarded());
+        assertEquals(0, resp.getStarsAwarded());
         assertFalse(resp.isLeveledUp());
-        assertEquals(user.getCurrentLevel(), resp.getNewLevel());
+        assertEquals(1, resp.getNewLevel());
         assertEquals("explanation test", resp.getExplanation());
 
-        verify(progressRepo).findByIdForUpdate(progId);
-        verify(progressRepo).save(any());
-        verify(userRepo).save(any());
+        verify(progressRepo, never()).findSubmitState(any());
+        verifyNoInteractions(userRepo);
+    }
+
+    @Test
+    void submitProgress_crossingThreshold_reportsLevelUp() {
+        var progressRepo = mock(pl.matgwiazda.repository.ProgressRepository.class);
+        ProgressService svc = new ProgressService(progressRepo, mock(pl.matgwiazda.repository.UserRepository.class), mock(UserStatsBuffer.class), cache);
+        UUID progId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        when(progressRepo.submit(progId, userId, (short) 2, null, 1, 50))
+                .thenReturn(Optional.of(submitResult(progId, userId, true, 1, 50, 2, (short) 2, 1, null)));
+
+        var resp = svc.submitProgress(userId, new ProgressSubmitCommand(progId, (short) 2, null));
+
+        assertTrue(resp.isLeveledUp());
+        assertEquals(2, resp.getNewLevel());
+        assertEquals(50, resp.getUserPoints());
+    }
+
+    @Test
+    void submitProgress_writeBehind_leavesUserRow_andBuffersPoints() {
+        var progressRepo = mock(pl.matgwiazda.repository.ProgressRepository.class);
+        var buffer = mock(UserStatsBuffer.class);
+        ProgressService svc = new ProgressService(progressRepo, mock(pl.matgwiazda.repository.UserRepository.class), buffer, cache);
+        UUID progId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        when(buffer.isEnabled()).thenReturn(true);
+        // stored: 47 points, 2 buffered -> this correct answer makes 50 and reaches level 2
+        when(buffer.pendingPoints(userId)).thenReturn(2L);
+        when(progressRepo.submitDeferred(progId, userId, (short) 0, null, 1))
+                .thenReturn(Optional.of(submitResult(progId, userId, true, 1, 47, 0, (short) 1, 0, null)));
+
+        var resp = svc.submitProgress(userId, new ProgressSubmitCommand(progId, (short) 0, null));
+
+        assertEquals(50, resp.getUserPoints());
+        assertTrue(resp.isLeveledUp());
+        assertEquals(2, resp.getNewLevel());
+        assertEquals(2, resp.getStarsAwarded());
+        verify(buffer).record(progId, userId, 1);
+        verify(progressRepo, never()).submit(any(), any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void submitProgress_rejected_reportsReason() {
+        var progressRepo = mock(pl.matgwiazda.repository.ProgressRepository.class);
+        ProgressService svc = new ProgressService(progressRepo, mock(pl.matgwiazda.repository.UserRepository.class), mock(UserStatsBuffer.class), cache);
+        UUID missing = UUID.randomUUID();
+        UUID foreign = UUID.randomUUID();
+        UUID finalized = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        when(progressRepo.submit(any(), any(), any(), any(), anyInt(), anyInt())).thenReturn(Optional.empty());
+        when(progressRepo.findSubmitState(missing)).thenReturn(Optional.empty());
+        when(progressRepo.findSubmitState(foreign)).thenReturn(Optional.of(submitState(UUID.randomUUID(), false)));
+        when(progressRepo.findSubmitState(finalized)).thenReturn(Optional.of(submitState(userId, true)));
+
+        assertEquals(HttpStatus.NOT_FOUND, statusOf(() -> svc.submitProgress(userId, new ProgressSubmitCommand(missing, (short) 0, null))));
+        assertEquals(HttpStatus.FORBIDDEN, statusOf(() -> svc.submitProgress(userId, new ProgressSubmitCommand(foreign, (short) 0, null))));
+        assertEquals(HttpStatus.BAD_REQUEST, statusOf(() -> svc.submitProgress(userId, new ProgressSubmitCommand(finalized, (short) 0, null))));
+    }
+
+    private static HttpStatusCode statusOf(org.junit.jupiter.api.function.Executable call) {
+        return assertThrows(ResponseStatusException.class, call).getStatusCode();
+    }
+
+    @Test
+    void listProgress_fullPage_returnsCursorOfLastRow_andNextPageContinuesFromIt() {
+        var progressRepo = mock(pl.matgwiazda.repository.ProgressRepository.class);
+        ProgressService svc = new ProgressService(progressRepo, mock(pl.matgwiazda.repository.UserRepository.class), mock(UserStatsBuffer.class), cache);
+        UUID userId = UUID.randomUUID();
+        List<ProgressDto> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) rows.add(progressDto(Instant.parse("2026-01-01T10:00:00.123456Z").minusSeconds(i)));
+        when(progressRepo.findDtosByUserId(userId, Limit.of(3))).thenReturn(rows);
+
+        var page = svc.listProgress(userId, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+
+        ProgressDto last = rows.get(1);
+        when(progressRepo.findDtosByUserIdBefore(userId, last.getCreatedAt(), last.getId(), Limit.of(3)))
+                .thenReturn(List.of(rows.get(2)));
+
+        var next = svc.listProgress(userId, page.getNextCursor(), 2);
+
+        assertEquals(List.of(rows.get(2)), next.getItems());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void listProgress_invalidCursorOrLimit_isBadRequest() {
+        var progressRepo = mock(pl.matgwiazda.repository.ProgressRepository.class);
+        ProgressService svc = new ProgressService(progressRepo, mock(pl.matgwiazda.repository.UserRepository.class), mock(UserStatsBuffer.class), cache);
+        UUID userId = UUID.randomUUID();
+
+        var badCursor = assertThrows(ResponseStatusException.class, () -> svc.listProgress(userId, "not-a-cursor", null));
+        var badLimit = assertThrows(ResponseStatusException.class, () -> svc.listProgress(userId, null, KeysetCursor.MAX_PAGE_SIZE + 1));
+
+        assertEquals(HttpStatus.BAD_REQUEST, badCursor.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, badLimit.getStatusCode());
+        verifyNoInteractions(progressRepo);
+    }
+
+    private static ProgressDto progressDto(Instant createdAt) {
+        return new ProgressDto(UUID.randomUUID(), null, UUID.randomUUID(), 1, null, false, 0, null, createdAt, createdAt);
+    }
+
+    private static ProgressRepository.SubmitResult submitResult(UUID progressId, UUID userId, boolean correct, int pointsAwarded, int userPoints,
+                                                                int stars, short level, int levelsGained, String explanation) {
+        UUID taskId = UUID.randomUUID();
+        return new ProgressRepository.SubmitResult() {
+            public UUID getProgressId() { return progressId; }
+            public UUID getUserId() { return userId; }
+            public UUID getTaskId() { return taskId; }
+            public boolean getCorrect() { return correct; }
+            public int getPointsAwarded() { return pointsAwarded; }
+            public int getUserPoints() { return userPoints; }
+            public int getStars() { return stars; }
+            public short getCurrentLevel() { return level; }
+            public int getLevelsGained() { return levelsGained; }
+            public String getExplanation() { return explanation; }
+        };
+    }
+
+    private static ProgressRepository.SubmitState submitState(UUID userId, boolean finalized) {
+        return new ProgressRepository.SubmitState() {
+            public UUID getUserId() { return userId; }
+            public boolean getFinalized() { return finalized; }
+        };
     }
 
 }
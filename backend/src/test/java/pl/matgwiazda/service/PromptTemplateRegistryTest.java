@@ -0,0 +1,105 @@
+package pl.matgwiazda.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.matgwiazda.config.OpenRouterProperties;
+import pl.matgwiazda.dto.openrouter.ChatCompletionRequest;
+import pl.matgwiazda.dto.openrouter.ChatMessage;
+import pl.matgwiazda.dto.openrouter.PromptTemplateDefinition;
+import pl.matgwiazda.dto.openrouter.PromptTemplateDto;
+import pl.matgwiazda.exception.OpenRouterException;
+import pl.matgwiazda.service.openrouter.PromptTemplate;
+import pl.matgwiazda.service.openrouter.PromptTemplateRegistry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PromptTemplateRegistryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void render_matchesFullSerialization_andEscapesSeed() throws Exception {
+        JsonNode format = objectMapper.readTree("{\"type\":\"json_object\"}");
+        PromptTemplateDefinition def = new PromptTemplateDefinition("t", 1, null, List.of((short) 1), "sys", "seed: {{seed}} / {{seed}}", 0.2, 0.9, 300, format);
+        String seed = "Dodawanie \"do 10\"\nz przejściem \\ przez próg";
+
+        String rendered = PromptTemplate.compile(def, "t.json", "m", objectMapper).render(seed);
+
+        ChatCompletionRequest expected = new ChatCompletionRequest("m", 0.2, 0.9, 300,
+                List.of(new ChatMessage("system", "sys"), new ChatMessage("user", "seed: " + seed + " / " + seed)), format);
+        assertThat(objectMapper.readTree(rendered)).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsString(expected)));
+    }
+
+    @Test
+    void render_batchTemplate_substitutesCount() throws Exception {
+        PromptTemplateDefinition def = new PromptTemplateDefinition("b", 1, "batch", List.of((short) 1), "sys", "{{count}} tasks for {{seed}}", null, null, null, null);
+
+        PromptTemplate template = PromptTemplate.compile(def, "b.json", "m", objectMapper);
+
+        assertThat(template.isBatch()).isTrue();
+        JsonNode user = objectMapper.readTree(template.render("ułamki", 5)).get("messages").get(1);
+        assertThat(user.get("content").asText()).isEqualTo("5 tasks for ułamki");
+    }
+
+    @Test
+    void registry_bundledBatchTemplate_isNotPickedForSingleTasks() {
+        PromptTemplateRegistry registry = new PromptTemplateRegistry(objectMapper, new OpenRouterProperties());
+
+        assertThat(registry.pickBatch((short) 4)).isPresent();
+        for (int i = 0; i < 20; i++) {
+            assertThat(registry.pick((short) 4).isBatch()).isFalse();
+        }
+    }
+
+    @Test
+    void compile_missingSeedPlaceholder_throws() {
+        PromptTemplateDefinition def = new PromptTemplateDefinition("t", 1, null, List.of((short) 1), "sys", "no placeholder", null, null, null, null);
+
+        assertThrows(OpenRouterException.class, () -> PromptTemplate.compile(def, "t.json", "m", objectMapper));
+    }
+
+    @Test
+    void registry_loadsBundledTemplates_forEveryLevel() {
+        PromptTemplateRegistry registry = new PromptTemplateRegistry(objectMapper, new OpenRouterProperties());
+
+        assertThat(registry.list()).isNotEmpty();
+        for (short level = 1; level <= 8; level++) {
+            assertThat(registry.pick(level)).isNotNull();
+        }
+    }
+
+    @Test
+    void reload_keepsHighestVersion_andInvalidReloadKeepsCurrentSet() throws Exception {
+        write("a_v1.json", "a", 1, "[1,2]");
+        write("a_v2.json", "a", 2, "[1,2]");
+        write("b_v1.json", "b", 1, "[2]");
+        OpenRouterProperties properties = new OpenRouterProperties();
+        properties.setTemplateLocations(List.of("file:" + dir.toAbsolutePath() + "/*.json"));
+        PromptTemplateRegistry registry = new PromptTemplateRegistry(objectMapper, properties);
+
+        assertThat(registry.list()).extracting(PromptTemplateDto::id, PromptTemplateDto::version)
+                .containsExactly(tuple("a", 2), tuple("b", 1));
+        assertThat(registry.pick((short) 1).getId()).isEqualTo("a");
+        assertThrows(OpenRouterException.class, () -> registry.pick((short) 3));
+
+        Files.writeString(dir.resolve("broken.json"), "{\"id\":\"c\",\"version\":1,\"levels\":[1],\"systemPrompt\":\"s\",\"userPrompt\":\"no seed\"}");
+        assertThrows(OpenRouterException.class, registry::reload);
+        assertThat(registry.list()).hasSize(2);
+    }
+
+    private void write(String file, String id, int version, String levels) throws Exception {
+        Files.writeString(dir.resolve(file), "{\"id\":\"" + id + "\",\"version\":" + version + ",\"levels\":" + levels
+                + ",\"systemPrompt\":\"s\",\"userPrompt\":\"seed: {{seed}}\"}");
+    }
+}
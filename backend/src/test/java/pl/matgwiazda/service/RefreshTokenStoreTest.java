@@ -0,0 +1,126 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+import pl.matgwiazda.domain.entity.RefreshTokenFamily;
+import pl.matgwiazda.repository.RefreshTokenFamilyRepository;
+import pl.matgwiazda.security.RefreshTokenStore;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenStoreTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    private static final long TTL_MS = 600000;
+
+    private final UUID userId = UUID.randomUUID();
+    private RefreshTokenFamilyRepository repository;
+    private RefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RefreshTokenFamilyRepository.class);
+        store = new RefreshTokenStore(repository, TTL_MS, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void start_persistsFamilyWithFirstToken() {
+        RefreshTokenStore.IssuedToken issued = store.start(userId);
+
+        verify(repository).save(argThat(f -> f.getId().equals(issued.familyId())
+                && f.getCurrentTokenId().equals(issued.tokenId())
+                && f.getExpiresAt().equals(NOW.plusMillis(TTL_MS))));
+        assertThat(store.knownFamilies()).isEqualTo(1);
+    }
+
+    @Test
+    void rotate_currentToken_issuesNextTokenInSameFamily() {
+        RefreshTokenStore.IssuedToken first = store.start(userId);
+        when(repository.rotate(eq(first.familyId()), eq(userId), eq(first.tokenId()), any(), eq(NOW), eq(NOW.plusMillis(TTL_MS))))
+                .thenReturn(1);
+
+        RefreshTokenStore.IssuedToken next = store.rotate(first.familyId(), first.tokenId(), userId);
+
+        assertThat(next.familyId()).isEqualTo(first.familyId());
+        assertThat(next.tokenId()).isNotEqualTo(first.tokenId());
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void rotate_replayOfRotatedToken_revokesFamilyWithoutRead() {
+        RefreshTokenStore.IssuedToken first = store.start(userId);
+        when(repository.rotate(any(), any(), any(), any(), any(), any())).thenReturn(1);
+        RefreshTokenStore.IssuedToken next = store.rotate(first.familyId(), first.tokenId(), userId);
+
+        assertThrows(ResponseStatusException.class, () -> store.rotate(first.familyId(), first.tokenId(), userId));
+
+        verify(repository).revoke(first.familyId(), NOW, RefreshTokenStore.REASON_REUSE);
+        verify(repository, never()).findById(any());
+        // the legitimate holder is logged out too
+        assertThrows(ResponseStatusException.class, () -> store.rotate(first.familyId(), next.tokenId(), userId));
+        verify(repository, times(1)).rotate(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void rotate_staleTokenRotatedOnAnotherNode_isReuse() {
+        UUID familyId = UUID.randomUUID();
+        UUID stale = UUID.randomUUID();
+        when(repository.rotate(any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(repository.findById(familyId)).thenReturn(Optional.of(family(familyId, UUID.randomUUID(), null)));
+
+        assertThrows(ResponseStatusException.class, () -> store.rotate(familyId, stale, userId));
+
+        verify(repository).revoke(familyId, NOW, RefreshTokenStore.REASON_REUSE);
+    }
+
+    @Test
+    void rotate_revokedFamily_isRejectedAndRemembered() {
+        UUID familyId = UUID.randomUUID();
+        UUID token = UUID.randomUUID();
+        when(repository.rotate(any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(repository.findById(familyId)).thenReturn(Optional.of(family(familyId, token, NOW.minusSeconds(5))));
+
+        assertThrows(ResponseStatusException.class, () -> store.rotate(familyId, token, userId));
+        assertThrows(ResponseStatusException.class, () -> store.rotate(familyId, token, userId));
+
+        verify(repository, times(1)).findById(familyId);
+        verify(repository, never()).revoke(any(), any(), any());
+    }
+
+    @Test
+    void rotate_familyOfAnotherUser_isRejected() {
+        RefreshTokenStore.IssuedToken issued = store.start(userId);
+
+        assertThrows(ResponseStatusException.class, () -> store.rotate(issued.familyId(), issued.tokenId(), UUID.randomUUID()));
+
+        verify(repository, never()).rotate(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void revokeAllForUser_rejectsKnownFamiliesAtOnce() {
+        RefreshTokenStore.IssuedToken issued = store.start(userId);
+
+        store.revokeAllForUser(userId, RefreshTokenStore.REASON_PASSWORD_CHANGE);
+
+        verify(repository).revokeAllForUser(userId, NOW, RefreshTokenStore.REASON_PASSWORD_CHANGE);
+        assertThrows(ResponseStatusException.class, () -> store.rotate(issued.familyId(), issued.tokenId(), userId));
+        verify(repository, never()).rotate(any(), any(), any(), any(), any(), any());
+    }
+
+    private RefreshTokenFamily family(UUID familyId, UUID currentTokenId, Instant revokedAt) {
+        RefreshTokenFamily family = new RefreshTokenFamily(familyId, userId, currentTokenId, NOW.plusMillis(TTL_MS));
+        family.setRevokedAt(revokedAt);
+        return family;
+    }
+}
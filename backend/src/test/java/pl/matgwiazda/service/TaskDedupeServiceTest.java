@@ -0,0 +1,114 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import pl.matgwiazda.config.TaskDedupeProperties;
+import pl.matgwiazda.domain.entity.Task;
+import pl.matgwiazda.repository.TaskRepository;
+import pl.matgwiazda.service.dedupe.TaskFingerprint;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TaskDedupeServiceTest {
+
+    @Mock
+    TaskRepository taskRepository;
+
+    TaskDedupeProperties properties;
+    TaskDedupeService dedupe;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TaskDedupeProperties();
+        properties.setExpectedTasks(1000);
+        dedupe = new TaskDedupeService(taskRepository, properties);
+    }
+
+    @Test
+    void isDuplicate_afterLoad_unknownFingerprintSkipsDatabase() {
+        when(taskRepository.streamFingerprints()).thenReturn(Stream.of(fp("stored")));
+        dedupe.loadExistingFingerprints();
+
+        assertThat(dedupe.isDuplicate(fp("fresh"))).isFalse();
+        verify(taskRepository, never()).existsByFingerprint(anyString());
+    }
+
+    @Test
+    void isDuplicate_filterHit_isConfirmedInDatabase() {
+        when(taskRepository.streamFingerprints()).thenReturn(Stream.of(fp("stored")));
+        when(taskRepository.existsByFingerprint(fp("stored"))).thenReturn(true);
+        dedupe.loadExistingFingerprints();
+
+        assertThat(dedupe.isDuplicate(fp("stored"))).isTrue();
+        assertThat(dedupe.getConfirmedDuplicates()).isEqualTo(1);
+    }
+
+    @Test
+    void isDuplicate_beforeLoad_asksDatabase() {
+        when(taskRepository.existsByFingerprint(anyString())).thenReturn(false);
+
+        assertThat(dedupe.isDuplicate(fp("fresh"))).isFalse();
+        verify(taskRepository).existsByFingerprint(fp("fresh"));
+    }
+
+    @Test
+    void retainUnique_dropsStoredAndRepeatedTasks() {
+        when(taskRepository.streamFingerprints()).thenReturn(Stream.of(fp("stored")));
+        when(taskRepository.findExistingFingerprints(anyCollection())).thenReturn(List.of(fp("stored")));
+        dedupe.loadExistingFingerprints();
+
+        Task stored = task("stored");
+        Task fresh = task("fresh");
+        Task repeated = task("FRESH");
+
+        List<Task> unique = dedupe.retainUnique(List.of(stored, fresh, repeated));
+
+        assertThat(unique).containsExactly(fresh);
+        assertThat(fresh.getFingerprint()).isEqualTo(fp("fresh"));
+    }
+
+    @Test
+    void register_makesFingerprintVisibleToFilter() {
+        when(taskRepository.streamFingerprints()).thenReturn(Stream.empty());
+        dedupe.loadExistingFingerprints();
+        dedupe.register(fp("new"));
+        when(taskRepository.existsByFingerprint(fp("new"))).thenReturn(true);
+
+        assertThat(dedupe.isDuplicate(fp("new"))).isTrue();
+    }
+
+    @Test
+    void disabled_neverReportsDuplicates() {
+        properties.setEnabled(false);
+        Task a = task("same");
+        Task b = task("same");
+
+        assertThat(dedupe.isDuplicate(fp("same"))).isFalse();
+        assertThat(dedupe.retainUnique(List.of(a, b))).hasSize(2);
+        verifyNoInteractions(taskRepository);
+    }
+
+    private static Task task(String prompt) {
+        Task t = new Task();
+        t.setPrompt(prompt);
+        t.setOptions(List.of("a", "b", "c", "d"));
+        return t;
+    }
+
+    private static String fp(String prompt) {
+        return TaskFingerprint.of(prompt, List.of("a", "b", "c", "d"));
+    }
+}
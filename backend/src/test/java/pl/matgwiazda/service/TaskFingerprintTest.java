@@ -0,0 +1,54 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.Test;
+import pl.matgwiazda.service.dedupe.FingerprintBloomFilter;
+import pl.matgwiazda.service.dedupe.TaskFingerprint;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskFingerprintTest {
+
+    @Test
+    void of_cosmeticVariants_collide() {
+        String a = TaskFingerprint.of("Ile to  1 000 + 2,5?", List.of("1002.5", "1000", "2.5", "0"));
+        String b = TaskFingerprint.of("ile to 1000 +\n2.5?", List.of("0", "2,5", "1000", "1002,5"));
+
+        assertThat(a).isEqualTo(b).hasSize(64);
+    }
+
+    @Test
+    void of_differentNumbers_doNotCollide() {
+        String a = TaskFingerprint.of("Ile to 3+4?", List.of("6", "7", "8", "9"));
+        String b = TaskFingerprint.of("Ile to 3+5?", List.of("6", "7", "8", "9"));
+
+        assertThat(a).isNotEqualTo(b);
+    }
+
+    @Test
+    void bloomFilter_addedFingerprints_areAlwaysReported() {
+        FingerprintBloomFilter filter = new FingerprintBloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(TaskFingerprint.of("Ile to " + i + "+1?", List.of("a", "b", "c", "d")));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain(TaskFingerprint.of("Ile to " + i + "+1?", List.of("a", "b", "c", "d")))).isTrue();
+        }
+    }
+
+    @Test
+    void bloomFilter_falsePositiveRate_staysNearTarget() {
+        FingerprintBloomFilter filter = new FingerprintBloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(TaskFingerprint.of("added " + i, List.of()));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(TaskFingerprint.of("other " + i, List.of()))) falsePositives++;
+        }
+        assertThat(falsePositives).isLessThan(300); // 1% target, generous bound
+    }
+}
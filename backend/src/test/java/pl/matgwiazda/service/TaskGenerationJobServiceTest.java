@@ -0,0 +1,137 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import pl.matgwiazda.config.AsyncConfig;
+import pl.matgwiazda.config.TaskGenerationJobProperties;
+import pl.matgwiazda.domain.enums.TaskGenerationJobStatus;
+import pl.matgwiazda.dto.TaskDto;
+import pl.matgwiazda.dto.TaskGenerateCommand;
+import pl.matgwiazda.dto.TaskGenerationJobDto;
+import pl.matgwiazda.dto.TaskWithProgressDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskGenerationJobServiceTest {
+
+    @Mock
+    TaskService taskService;
+
+    // queued executor: jobs run only when the test says so
+    final List<Runnable> queued = new ArrayList<>();
+
+    TaskGenerationJobService jobs;
+
+    @BeforeEach
+    void setUp() {
+        jobs = new TaskGenerationJobService(taskService, queued::add, new TaskGenerationJobProperties());
+    }
+
+    @Test
+    void submit_returnsPendingJob_andCompletesInBackground() {
+        UUID userId = UUID.randomUUID();
+        TaskWithProgressDto result = new TaskWithProgressDto(new TaskDto(), UUID.randomUUID());
+        when(taskService.generateTask(any(), eq(userId))).thenReturn(result);
+
+        TaskGenerationJobDto submitted = jobs.submit(cmd(), userId);
+
+        assertThat(submitted.getStatus()).isEqualTo(TaskGenerationJobStatus.PENDING);
+        verifyNoInteractions(taskService);
+
+        runQueued();
+
+        TaskGenerationJobDto done = jobs.getJob(submitted.getJobId(), userId);
+        assertThat(done.getStatus()).isEqualTo(TaskGenerationJobStatus.COMPLETED);
+        assertThat(done.getResult()).isSameAs(result);
+        assertThat(done.getCompletedAt()).isNotNull();
+    }
+
+    @Test
+    void submit_whileJobPending_returnsSameJob() {
+        UUID userId = UUID.randomUUID();
+
+        TaskGenerationJobDto first = jobs.submit(cmd(), userId);
+        TaskGenerationJobDto second = jobs.submit(cmd(), userId);
+
+        assertThat(second.getJobId()).isEqualTo(first.getJobId());
+        assertThat(queued).hasSize(1);
+    }
+
+    @Test
+    void failedGeneration_marksJobFailedWithReason() {
+        UUID userId = UUID.randomUUID();
+        when(taskService.generateTask(any(), eq(userId)))
+                .thenThrow(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Task generation failed"));
+
+        TaskGenerationJobDto submitted = jobs.submit(cmd(), userId);
+        runQueued();
+
+        TaskGenerationJobDto failed = jobs.getJob(submitted.getJobId(), userId);
+        assertThat(failed.getStatus()).isEqualTo(TaskGenerationJobStatus.FAILED);
+        assertThat(failed.getError()).isEqualTo("Task generation failed");
+    }
+
+    @Test
+    void getJob_ofAnotherUser_isNotFound() {
+        TaskGenerationJobDto submitted = jobs.submit(cmd(), UUID.randomUUID());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> jobs.getJob(submitted.getJobId(), UUID.randomUUID()));
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void submit_saturatedVirtualExecutor_isServiceUnavailable_insteadOfBlocking() throws Exception {
+        TaskGenerationJobProperties properties = new TaskGenerationJobProperties();
+        properties.setMaxPoolSize(1);
+        SimpleAsyncTaskExecutor executor = (SimpleAsyncTaskExecutor) new AsyncConfig().virtualTaskGenerationExecutor(properties);
+        jobs = new TaskGenerationJobService(taskService, executor, properties);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(taskService.generateTask(any(), any())).thenAnswer(inv -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new TaskWithProgressDto(new TaskDto(), UUID.randomUUID());
+        });
+        try {
+            jobs.submit(cmd(), UUID.randomUUID());
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+            ResponseStatusException ex = assertTimeoutPreemptively(Duration.ofSeconds(2),
+                    () -> assertThrows(ResponseStatusException.class, () -> jobs.submit(cmd(), UUID.randomUUID())));
+            assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        } finally {
+            release.countDown();
+            executor.close();
+        }
+    }
+
+    private void runQueued() {
+        List<Runnable> toRun = new ArrayList<>(queued);
+        queued.clear();
+        toRun.forEach(Runnable::run);
+    }
+
+    private TaskGenerateCommand cmd() {
+        TaskGenerateCommand cmd = new TaskGenerateCommand();
+        cmd.setLevel((short)1);
+        return cmd;
+    }
+}
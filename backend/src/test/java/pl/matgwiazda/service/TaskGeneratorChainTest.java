@@ -0,0 +1,161 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import pl.matgwiazda.config.TaskGeneratorProperties;
+import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.exception.OpenRouterException;
+import pl.matgwiazda.service.generator.GeneratedTask;
+import pl.matgwiazda.service.generator.ProceduralTaskGenerator;
+import pl.matgwiazda.service.generator.TaskGenerator;
+import pl.matgwiazda.service.generator.TaskGeneratorChain;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskGeneratorChainTest {
+
+    private static final AiTaskResult AI_TASK = new AiTaskResult("Ile to 2+2?", List.of("4", "3", "5", "6"), 0, "2+2=4");
+
+    private final TaskGeneratorProperties properties = new TaskGeneratorProperties();
+    private final TaskPoolService taskPoolService = mock(TaskPoolService.class);
+    private final CountDownLatch releaseAi = new CountDownLatch(1);
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseAi.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void generate_aiAnswersInTime_usesAi() {
+        TaskGeneratorChain chain = chain(remote(() -> AI_TASK));
+
+        Optional<GeneratedTask> result = chain.generate((short) 2, "seed", chain.newDeadline());
+
+        assertThat(result).map(GeneratedTask::generator).contains("ai");
+    }
+
+    @Test
+    void generate_aiMissesDeadline_fallsBackToProcedural_andPoolsLateResult() {
+        properties.setAiDeadlineMs(50);
+        TaskGeneratorChain chain = chain(remote(() -> {
+            releaseAi.await(5, TimeUnit.SECONDS);
+            return AI_TASK;
+        }));
+
+        long started = System.nanoTime();
+        Optional<GeneratedTask> result = chain.generate((short) 2, "seed", chain.newDeadline());
+
+        assertThat(result).map(GeneratedTask::generator).contains(ProceduralTaskGenerator.NAME);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(2000);
+
+        releaseAi.countDown();
+        verify(taskPoolService, timeout(2000)).offer(eq(AI_TASK), eq((short) 2));
+    }
+
+    @Test
+    void generate_aiFails_fallsBackToProcedural() {
+        TaskGeneratorChain chain = chain(remote(() -> {
+            throw new OpenRouterException("down");
+        }));
+
+        Optional<GeneratedTask> result = chain.generate((short) 5, "seed", chain.newDeadline());
+
+        assertThat(result).map(GeneratedTask::generator).contains(ProceduralTaskGenerator.NAME);
+    }
+
+    @Test
+    void generate_deadlineAlreadyPassed_skipsAi() {
+        TaskGenerator ai = remote(() -> AI_TASK);
+        TaskGeneratorChain chain = chain(ai);
+
+        Optional<GeneratedTask> result = chain.generate((short) 3, "seed", System.nanoTime() - 1);
+
+        assertThat(result).map(GeneratedTask::generator).contains(ProceduralTaskGenerator.NAME);
+    }
+
+    @Test
+    void generate_executorSaturated_fallsBackWithoutCallingAiInline() {
+        TaskGenerator ai = mock(TaskGenerator.class);
+        when(ai.isRemote()).thenReturn(true);
+        when(ai.supports(anyShort(), any())).thenReturn(true);
+        TaskGeneratorChain chain = new TaskGeneratorChain(List.of(ai, new ProceduralTaskGenerator(properties)), properties,
+                r -> { throw new TaskRejectedException("full"); }, taskPoolService);
+
+        Optional<GeneratedTask> result = chain.generate((short) 3, "seed", chain.newDeadline());
+
+        assertThat(result).map(GeneratedTask::generator).contains(ProceduralTaskGenerator.NAME);
+        verify(ai, never()).generate(anyShort(), any());
+    }
+
+    @Test
+    void generate_allGeneratorsDecline_returnsEmpty() {
+        properties.setProceduralEnabled(false);
+        TaskGeneratorChain chain = chain(remote(() -> AI_TASK));
+
+        assertThat(chain.generate((short) 3, null, chain.newDeadline())).isEmpty();
+    }
+
+    private TaskGeneratorChain chain(TaskGenerator ai) {
+        return new TaskGeneratorChain(List.of(ai, new ProceduralTaskGenerator(properties)), properties, executor, taskPoolService);
+    }
+
+    @FunctionalInterface
+    private interface AiCall {
+        AiTaskResult call() throws Exception;
+    }
+
+    // remote generator that needs a seed, like the OpenRouter one
+    private static TaskGenerator remote(AiCall call) {
+        return new TaskGenerator() {
+            @Override
+            public String getName() {
+                return "ai";
+            }
+
+            @Override
+            public boolean supports(short level, String seed) {
+                return seed != null;
+            }
+
+            @Override
+            public boolean isRemote() {
+                return true;
+            }
+
+            @Override
+            public AiTaskResult generate(short level, String seed) {
+                try {
+                    return call.call();
+                } catch (RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        };
+    }
+}
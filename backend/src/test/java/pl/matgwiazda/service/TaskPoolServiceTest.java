@@ -0,0 +1,203 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import pl.matgwiazda.config.TaskPoolProperties;
+import pl.matgwiazda.domain.entity.LearningLevel;
+import pl.matgwiazda.domain.entity.Task;
+import pl.matgwiazda.dto.openrouter.AiTaskResult;
+import pl.matgwiazda.exception.OpenRouterException;
+import pl.matgwiazda.mapper.TaskMapper;
+import pl.matgwiazda.repository.LearningLevelRepository;
+import pl.matgwiazda.repository.TaskRepository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TaskPoolServiceTest {
+
+    @Mock
+    TaskRepository taskRepository;
+    @Mock
+    LearningLevelRepository learningLevelRepository;
+    @Mock
+    OpenRouterService openRouterService;
+    @Mock
+    TaskMapper taskMapper;
+    @Mock
+    TaskDedupeService taskDedupeService;
+
+    TaskPoolProperties properties;
+    TaskPoolService pool;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TaskPoolProperties();
+        properties.setTargetSize(5);
+        properties.setMaxGenerationsPerRun(3);
+        pool = new TaskPoolService(taskRepository, learningLevelRepository, openRouterService, taskMapper, properties, taskDedupeService, Runnable::run);
+        when(taskDedupeService.retainUnique(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        when(taskMapper.fromAiResult(any())).thenAnswer(inv -> {
+            Task t = new Task();
+            t.setPrompt("p");
+            t.setOptions(List.of("a", "b", "c", "d"));
+            return t;
+        });
+    }
+
+    @Test
+    void claim_marksTaskAsNoLongerPooled() {
+        Task t = new Task();
+        t.setId(UUID.randomUUID());
+        t.setPooled(true);
+        when(taskRepository.findPooledForClaim((short)3)).thenReturn(Optional.of(t));
+
+        Optional<Task> claimed = pool.claim((short)3);
+
+        assertThat(claimed).contains(t);
+        assertThat(t.isPooled()).isFalse();
+    }
+
+    @Test
+    void claim_disabledPool_returnsEmpty() {
+        properties.setEnabled(false);
+
+        assertThat(pool.claim((short)3)).isEmpty();
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void refillLevel_generatesUpToPerRunBudget() {
+        properties.setBatchSize(1);
+        when(taskRepository.countByLevelAndPooled((short)1, true)).thenReturn(0L);
+        when(openRouterService.generateTaskFromSeed(anyString(), any(Short.class)))
+                .thenReturn(new AiTaskResult("p", List.of("a", "b", "c", "d"), 0, "e"));
+
+        int added = pool.refillLevel(level((short)1));
+
+        assertThat(added).isEqualTo(3);
+        ArgumentCaptor<Task> saved = ArgumentCaptor.forClass(Task.class);
+        verify(taskRepository, times(3)).save(saved.capture());
+        assertThat(saved.getAllValues()).allSatisfy(t -> {
+            assertThat(t.isPooled()).isTrue();
+            assertThat(t.getLevel()).isEqualTo((short)1);
+        });
+    }
+
+    @Test
+    void refillLevel_batchMode_savesEachBatchAtOnce() {
+        properties.setBatchSize(2);
+        when(taskRepository.countByLevelAndPooled((short)1, true)).thenReturn(0L);
+        AiTaskResult ai = new AiTaskResult("p", List.of("a", "b", "c", "d"), 0, "e");
+        when(openRouterService.generateTasksFromSeed(anyString(), anyShort(), anyInt())).thenAnswer(inv -> {
+            int count = inv.getArgument(2);
+            return Collections.nCopies(count, ai);
+        });
+        when(openRouterService.generateTaskFromSeed(anyString(), any(Short.class))).thenReturn(ai);
+
+        int added = pool.refillLevel(level((short)1));
+
+        // target 5, 3 calls: 2 + 2 + 1
+        assertThat(added).isEqualTo(5);
+        verify(openRouterService, times(2)).generateTasksFromSeed("seed 1", (short)1, 2);
+        verify(openRouterService).generateTaskFromSeed(anyString(), any(Short.class));
+        verify(taskRepository, times(2)).saveAll(anyList());
+        verify(taskRepository, times(1)).save(any());
+    }
+
+    @Test
+    void refillLevel_batchReturnsFewerTasks_countsOnlyValidOnes() {
+        properties.setBatchSize(5);
+        properties.setMaxGenerationsPerRun(1);
+        when(taskRepository.countByLevelAndPooled((short)1, true)).thenReturn(0L);
+        AiTaskResult ai = new AiTaskResult("p", List.of("a", "b", "c", "d"), 0, "e");
+        when(openRouterService.generateTasksFromSeed(anyString(), anyShort(), anyInt())).thenReturn(List.of(ai, ai, ai));
+
+        assertThat(pool.refillLevel(level((short)1))).isEqualTo(3);
+    }
+
+    @Test
+    void refillLevel_onlyDuplicates_spendsNextCall() {
+        properties.setBatchSize(2);
+        properties.setTargetSize(2);
+        when(taskRepository.countByLevelAndPooled((short)1, true)).thenReturn(0L);
+        AiTaskResult ai = new AiTaskResult("p", List.of("a", "b", "c", "d"), 0, "e");
+        when(openRouterService.generateTasksFromSeed(anyString(), anyShort(), anyInt())).thenReturn(List.of(ai, ai));
+        when(taskDedupeService.retainUnique(anyList()))
+                .thenReturn(List.of())
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        assertThat(pool.refillLevel(level((short)1))).isEqualTo(2);
+        verify(openRouterService, times(2)).generateTasksFromSeed("seed 1", (short)1, 2);
+        verify(taskRepository, times(1)).saveAll(anyList());
+        verify(taskDedupeService, times(2)).register(any());
+    }
+
+    @Test
+    void refillLevel_fullPool_doesNotCallAi() {
+        when(taskRepository.countByLevelAndPooled((short)1, true)).thenReturn(5L);
+
+        assertThat(pool.refillLevel(level((short)1))).isZero();
+        verifyNoInteractions(openRouterService);
+    }
+
+    @Test
+    void refillLevel_stopsOnAiFailure() {
+        properties.setBatchSize(1);
+        when(taskRepository.countByLevelAndPooled((short)1, true)).thenReturn(0L);
+        when(openRouterService.generateTaskFromSeed(anyString(), any(Short.class))).thenThrow(new OpenRouterException("down"));
+
+        assertThat(pool.refillLevel(level((short)1))).isZero();
+        verify(openRouterService, times(1)).generateTaskFromSeed(anyString(), any(Short.class));
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    void scheduleRefill_handsTheRunToTheRefillExecutor_andSkipsWhenItIsBusy() {
+        List<Runnable> handedOff = new java.util.ArrayList<>();
+        pool = new TaskPoolService(taskRepository, learningLevelRepository, openRouterService, taskMapper, properties, taskDedupeService,
+                handedOff::add);
+
+        pool.scheduleRefill();
+
+        assertThat(handedOff).hasSize(1);
+        verifyNoInteractions(learningLevelRepository); // nothing ran on the scheduler thread
+
+        pool = new TaskPoolService(taskRepository, learningLevelRepository, openRouterService, taskMapper, properties, taskDedupeService,
+                r -> { throw new org.springframework.core.task.TaskRejectedException("busy"); });
+        pool.scheduleRefill();
+        verifyNoInteractions(learningLevelRepository);
+    }
+
+    @Test
+    void batchSize_outsideTheTemplateLimit_isRejected() {
+        assertThatThrownBy(() -> properties.setBatchSize(TaskPoolProperties.MAX_BATCH_SIZE + 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> properties.setBatchSize(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private LearningLevel level(short l) {
+        LearningLevel ll = new LearningLevel();
+        ll.setLevel(l);
+        ll.setDescription("seed " + l);
+        return ll;
+    }
+}
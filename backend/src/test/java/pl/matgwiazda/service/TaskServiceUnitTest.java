@@ -11,14 +11,16 @@ import org.mockito.quality.Strictness;
 import pl.matgwiazda.domain.entity.Progress;
 import pl.matgwiazda.domain.entity.Task;
 import pl.matgwiazda.domain.entity.User;
+import pl.matgwiazda.dto.LearningLevelDto;
 import pl.matgwiazda.dto.TaskDto;
 import pl.matgwiazda.dto.TaskGenerateCommand;
 import pl.matgwiazda.dto.openrouter.AiTaskResult;
 import pl.matgwiazda.mapper.TaskMapper;
-import pl.matgwiazda.repository.LearningLevelRepository;
 import pl.matgwiazda.repository.ProgressRepository;
 import pl.matgwiazda.repository.TaskRepository;
 import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.service.generator.GeneratedTask;
+import pl.matgwiazda.service.generator.TaskGeneratorChain;
 
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.SimpleTransactionStatus;
@@ -32,6 +34,8 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyShort;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,13 +51,17 @@ class TaskServiceUnitTest {
     @Mock
     ProgressRepository progressRepository;
     @Mock
-    LearningLevelRepository learningLevelRepository;
+    LearningLevelCatalog learningLevelCatalog;
     @Mock
-    OpenRouterService openRouterService;
+    TaskGeneratorChain taskGenerators;
     @Mock
     PlatformTransactionManager txManager;
     @Mock
     ProgressService progressService;
+    @Mock
+    TaskPoolService taskPoolService;
+    @Mock
+    TaskDedupeService taskDedupeService;
 
     @InjectMocks
     TaskService svc;
@@ -113,8 +121,9 @@ class TaskServiceUnitTest {
         when(userRepository.findByIdForUpdate(userId)).thenReturn(Optional.of(user));
 
         // Provide learning level present to trigger AI call
-        when(learningLevelRepository.findById(any())).thenReturn(Optional.of(new pl.matgwiazda.domain.entity.LearningLevel()));
-        org.mockito.Mockito.lenient().when(openRouterService.generateTaskFromSeed(any())).thenReturn(new AiTaskResult("p", java.util.List.of("a","b","c","d"), 1, "exp"));
+        when(learningLevelCatalog.find(anyShort())).thenReturn(Optional.of(new LearningLevelDto((short) 1, "L1", "seed", null, null, null, null)));
+        org.mockito.Mockito.lenient().when(taskGenerators.generate(anyShort(), any(), anyLong()))
+                .thenReturn(Optional.of(new GeneratedTask(new AiTaskResult("p", java.util.List.of("a","b","c","d"), 1, "exp"), "openrouter")));
 
         when(taskRepository.save(any())).thenAnswer(inv -> {
             Task t = inv.getArgument(0);
@@ -160,10 +169,148 @@ class TaskServiceUnitTest {
 
         assertThat(res.getTask()).isNotNull();
         verify(taskRepository).save(any());
+        // the level's description seeds the generator, read from the catalog
+        verify(taskGenerators).generate(eq((short) 1), eq("seed"), anyLong());
         // progress persistence is delegated to ProgressService and may be stubbed/mock-implemented in tests;
         // assert primary outcome: task was created and saved
     }
 
+    @Test
+    void generateTask_usesPooledTask_withoutCallingAi() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        when(userRepository.findByIdForUpdate(userId)).thenReturn(Optional.of(user));
+
+        Task pooled = new Task();
+        pooled.setId(UUID.randomUUID());
+        pooled.setLevel((short)2);
+        when(taskPoolService.claim((short)2)).thenReturn(Optional.of(pooled));
+        when(taskRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(taskMapper.toDto(any())).thenReturn(new TaskDto());
+        when(progressService.createInitialProgress(any(), any())).thenAnswer(inv -> new Progress());
+        when(progressService.persistProgressAndUpdateUser(any(), any())).thenAnswer(inv -> {
+            Progress p = inv.getArgument(0);
+            p.setId(UUID.randomUUID());
+            return p;
+        });
+
+        var cmd = new TaskGenerateCommand();
+        cmd.setLevel((short)2);
+
+        var res = svc.generateTask(cmd, userId);
+
+        assertThat(res.getProgressId()).isNotNull();
+        verify(taskRepository).save(pooled);
+        verify(taskGenerators, never()).generate(anyShort(), any(), anyLong());
+    }
+
+    @Test
+    void generateTask_allGeneratorsFail_servesCopyOfStoredTask() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        when(userRepository.findByIdForUpdate(userId)).thenReturn(Optional.of(user));
+        when(learningLevelCatalog.find(anyShort())).thenReturn(Optional.of(new LearningLevelDto((short) 1, "L1", "seed", null, null, null, null)));
+        when(taskGenerators.generate(anyShort(), any(), anyLong())).thenReturn(Optional.empty());
+
+        Task stored = new Task();
+        stored.setId(UUID.randomUUID());
+        stored.setLevel((short)3);
+        stored.setPrompt("2+2?");
+        stored.setOptions(java.util.List.of("4", "3", "5", "6"));
+        when(taskRepository.findRandomStoredByLevel((short)3)).thenReturn(Optional.of(stored));
+        when(taskRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(taskMapper.toDto(any())).thenReturn(new TaskDto());
+        when(progressService.createInitialProgress(any(), any())).thenAnswer(inv -> new Progress());
+        when(progressService.persistProgressAndUpdateUser(any(), any())).thenAnswer(inv -> {
+            Progress p = inv.getArgument(0);
+            p.setId(UUID.randomUUID());
+            return p;
+        });
+
+        var cmd = new TaskGenerateCommand();
+        cmd.setLevel((short)3);
+
+        var res = svc.generateTask(cmd, userId);
+
+        assertThat(res.getProgressId()).isNotNull();
+        org.mockito.ArgumentCaptor<Task> saved = org.mockito.ArgumentCaptor.forClass(Task.class);
+        verify(taskRepository).save(saved.capture());
+        assertThat(saved.getValue()).isNotSameAs(stored);
+        assertThat(saved.getValue().getId()).isNull();
+        assertThat(saved.getValue().getPrompt()).isEqualTo("2+2?");
+    }
+
+    @Test
+    void generateTask_duplicateAiResult_isRerolled() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        when(userRepository.findByIdForUpdate(userId)).thenReturn(Optional.of(user));
+        when(learningLevelCatalog.find(anyShort())).thenReturn(Optional.of(new LearningLevelDto((short) 1, "L1", "seed", null, null, null, null)));
+        when(taskGenerators.generate(anyShort(), any(), anyLong()))
+                .thenReturn(Optional.of(new GeneratedTask(new AiTaskResult("old", java.util.List.of("a","b","c","d"), 1, "exp"), "openrouter")))
+                .thenReturn(Optional.of(new GeneratedTask(new AiTaskResult("new", java.util.List.of("a","b","c","d"), 1, "exp"), "openrouter")));
+        when(taskMapper.fromAiResult(any())).thenAnswer(inv -> {
+            AiTaskResult ai = inv.getArgument(0);
+            Task t = new Task();
+            t.setPrompt(ai.prompt());
+            t.setOptions(ai.options());
+            return t;
+        });
+        when(taskDedupeService.getMaxRerolls()).thenReturn(2);
+        when(taskDedupeService.fingerprint(any())).thenAnswer(inv -> "fp-" + ((Task) inv.getArgument(0)).getPrompt());
+        when(taskDedupeService.isDuplicate("fp-old")).thenReturn(true);
+        when(taskRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(taskMapper.toDto(any())).thenReturn(new TaskDto());
+        when(progressService.createInitialProgress(any(), any())).thenAnswer(inv -> new Progress());
+        when(progressService.persistProgressAndUpdateUser(any(), any())).thenAnswer(inv -> {
+            Progress p = inv.getArgument(0);
+            p.setId(UUID.randomUUID());
+            return p;
+        });
+
+        var cmd = new TaskGenerateCommand();
+        cmd.setLevel((short)1);
+
+        svc.generateTask(cmd, userId);
+
+        org.mockito.ArgumentCaptor<Task> saved = org.mockito.ArgumentCaptor.forClass(Task.class);
+        verify(taskRepository).save(saved.capture());
+        assertThat(saved.getValue().getPrompt()).isEqualTo("new");
+        assertThat(saved.getValue().getFingerprint()).isEqualTo("fp-new");
+        verify(taskGenerators, times(2)).generate(anyShort(), any(), anyLong());
+        verify(taskDedupeService).register("fp-new");
+    }
+
+    @Test
+    void getTaskById_loadsEntityById_soTheSecondLevelCacheApplies() {
+        UUID id = UUID.randomUUID();
+        Task task = new Task();
+        task.setId(id);
+        task.setActive(false);
+        TaskDto dto = new TaskDto();
+        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
+        when(taskMapper.toDto(task)).thenReturn(dto);
+
+        assertThat(svc.getTaskById(id)).isSameAs(dto);
+    }
+
+    @Test
+    void getTaskById_missingOrActive_isNotFound() {
+        UUID missing = UUID.randomUUID();
+        Task active = new Task();
+        active.setId(UUID.randomUUID());
+        when(taskRepository.findById(missing)).thenReturn(Optional.empty());
+        when(taskRepository.findById(active.getId())).thenReturn(Optional.of(active));
+
+        org.assertj.core.api.Assertions.assertThatThrownBy(() -> svc.getTaskById(missing))
+                .isInstanceOf(org.springframework.web.server.ResponseStatusException.class);
+        org.assertj.core.api.Assertions.assertThatThrownBy(() -> svc.getTaskById(active.getId()))
+                .isInstanceOf(org.springframework.web.server.ResponseStatusException.class);
+    }
+
     // helper to avoid raw reference
     private ProgressRepository progress_repository() { return progressRepository; }
 }
@@ -0,0 +1,142 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.matgwiazda.domain.entity.RevokedToken;
+import pl.matgwiazda.repository.RevokedTokenRepository;
+import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.security.TokenDenylist;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenDenylistTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Duration TOKEN_LIFETIME = Duration.ofHours(1);
+
+    private RevokedTokenRepository revokedTokenRepository;
+    private UserRepository userRepository;
+    private MutableClock clock;
+    private TokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        userRepository = mock(UserRepository.class);
+        clock = new MutableClock(NOW);
+        denylist = new TokenDenylist(revokedTokenRepository, userRepository, TOKEN_LIFETIME, clock);
+    }
+
+    @Test
+    void revokeToken_storesAndRejectsAtOnce() {
+        UUID jti = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+
+        denylist.revokeToken(jti, userId, NOW.plusSeconds(60));
+
+        assertThat(denylist.isRevoked(jti, userId, 0)).isTrue();
+        assertThat(denylist.isRevoked(UUID.randomUUID(), userId, 0)).isFalse();
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void revokeToken_alreadyExpiredOrWithoutId_isIgnored() {
+        denylist.revokeToken(UUID.randomUUID(), UUID.randomUUID(), NOW.minusSeconds(1));
+        denylist.revokeToken(null, UUID.randomUUID(), NOW.plusSeconds(60));
+
+        assertThat(denylist.revokedTokenCount()).isZero();
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void tokenVersionRaised_rejectsOlderVersionsOnly() {
+        UUID userId = UUID.randomUUID();
+
+        denylist.tokenVersionRaised(userId, 2);
+        denylist.tokenVersionRaised(userId, 1); // never lowered
+
+        assertThat(denylist.isRevoked(null, userId, 1)).isTrue();
+        assertThat(denylist.isRevoked(null, userId, 2)).isFalse();
+        assertThat(denylist.isRevoked(null, UUID.randomUUID(), 0)).isFalse();
+    }
+
+    @Test
+    void refresh_loadsRevocationsFromDatabaseAndDropsExpired() {
+        UUID remoteJti = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        when(revokedTokenRepository.findUnexpired(NOW)).thenReturn(List.of(new RevokedToken(remoteJti, userId, NOW.plusSeconds(30))));
+        UserRepository.TokenVersion version = version(userId, 3, NOW.minusSeconds(10));
+        when(userRepository.findTokenVersionsChangedSince(any())).thenReturn(List.of(version));
+
+        denylist.refresh();
+
+        assertThat(denylist.isRevoked(remoteJti, userId, 3)).isTrue();
+        assertThat(denylist.isRevoked(UUID.randomUUID(), userId, 2)).isTrue();
+        assertThat(denylist.isRevoked(UUID.randomUUID(), userId, 3)).isFalse();
+        verify(revokedTokenRepository).deleteExpired(NOW);
+        verify(userRepository).findTokenVersionsChangedSince(NOW.minus(TOKEN_LIFETIME));
+    }
+
+    @Test
+    void refresh_readsOnlyRecentRaises_andForgetsRaisesOlderThanTheTokenLifetime() {
+        UUID userId = UUID.randomUUID();
+        UserRepository.TokenVersion raised = version(userId, 2, NOW);
+        when(userRepository.findTokenVersionsChangedSince(any())).thenReturn(List.of(raised));
+        denylist.refresh();
+        assertThat(denylist.isRevoked(null, userId, 1)).isTrue();
+
+        clock.now = NOW.plusSeconds(30);
+        when(userRepository.findTokenVersionsChangedSince(any())).thenReturn(List.of());
+        denylist.refresh();
+        // incremental: from the previous refresh, minus the overlap
+        verify(userRepository).findTokenVersionsChangedSince(NOW.minus(Duration.ofMinutes(5)));
+        assertThat(denylist.isRevoked(null, userId, 1)).isTrue();
+
+        clock.now = NOW.plus(TOKEN_LIFETIME).plusSeconds(1);
+        denylist.refresh();
+        // every token issued before the raise has expired by now
+        assertThat(denylist.isRevoked(null, userId, 1)).isFalse();
+        assertThat(denylist.raisedTokenVersionCount()).isZero();
+    }
+
+    private static UserRepository.TokenVersion version(UUID userId, int version, Instant changedAt) {
+        UserRepository.TokenVersion v = mock(UserRepository.TokenVersion.class);
+        when(v.getId()).thenReturn(userId);
+        when(v.getTokenVersion()).thenReturn(version);
+        when(v.getChangedAt()).thenReturn(changedAt);
+        return v;
+    }
+
+    private static final class MutableClock extends Clock {
+        Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -14,6 +14,9 @@ import pl.matgwiazda.dto.UserDto;
 import pl.matgwiazda.dto.UserUpdateCommand;
 import pl.matgwiazda.mapper.UserMapper;
 import pl.matgwiazda.repository.UserRepository;
+import pl.matgwiazda.security.PrincipalCache;
+import pl.matgwiazda.security.RefreshTokenStore;
+import pl.matgwiazda.security.TokenDenylist;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -31,6 +34,14 @@ class UserServiceTest {
     PasswordEncoder passwordEncoder;
     @Mock
     UserMapper userMapper;
+    @Mock
+    PrincipalCache principalCache;
+    @Mock
+    TokenDenylist tokenDenylist;
+    @Mock
+    RefreshTokenStore refreshTokenStore;
+    @Mock
+    UserStatsBuffer userStatsBuffer;
 
     @InjectMocks
     UserService userService;
@@ -56,6 +67,7 @@ class UserServiceTest {
 
         assertThat(dto.getId()).isEqualTo(sample.getId());
         verify(userRepository).findById(sample.getId());
+        verify(userStatsBuffer).mergePending(dto);
     }
 
     @Test
@@ -80,6 +92,11 @@ class UserServiceTest {
         ArgumentCaptor<User> cap = ArgumentCaptor.forClass(User.class);
         verify(userRepository).save(cap.capture());
         assertThat(cap.getValue().getPassword()).isEqualTo("hashed");
+        assertThat(cap.getValue().getTokenVersion()).isEqualTo(1);
+        assertThat(cap.getValue().getTokenVersionChangedAt()).isNotNull();
+        verify(principalCache).invalidate(sample.getId());
+        verify(tokenDenylist).tokenVersionRaised(sample.getId(), 1);
+        verify(refreshTokenStore).revokeAllForUser(sample.getId(), RefreshTokenStore.REASON_PASSWORD_CHANGE);
     }
 
     @Test
@@ -98,6 +115,9 @@ class UserServiceTest {
         ArgumentCaptor<User> cap = ArgumentCaptor.forClass(User.class);
         verify(userRepository).save(cap.capture());
         assertThat(cap.getValue().isActive()).isFalse();
+        verify(principalCache).invalidate(sample.getId());
+        verify(tokenDenylist).tokenVersionRaised(sample.getId(), 1);
+        verify(refreshTokenStore).revokeAllForUser(sample.getId(), RefreshTokenStore.REASON_DEACTIVATION);
     }
 
     @Test
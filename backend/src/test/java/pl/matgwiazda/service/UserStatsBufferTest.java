@@ -0,0 +1,129 @@
+package pl.matgwiazda.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.matgwiazda.config.UserStatsProperties;
+import pl.matgwiazda.dto.UserDto;
+import pl.matgwiazda.repository.ProgressRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class UserStatsBufferTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-01T12:00:00Z");
+
+    private final ProgressRepository progressRepository = mock(ProgressRepository.class);
+    private final UserStatsProperties properties = new UserStatsProperties();
+    private UserStatsBuffer buffer;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        properties.setWriteBehind(true);
+        buffer = new UserStatsBuffer(progressRepository, properties, mock(PlatformTransactionManager.class),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void record_accumulatesPendingPoints_andIgnoresZero() {
+        buffer.record(UUID.randomUUID(), userId, 1);
+        buffer.record(UUID.randomUUID(), userId, 1);
+        buffer.record(UUID.randomUUID(), userId, 0);
+
+        assertThat(buffer.pendingPoints(userId)).isEqualTo(2);
+        assertThat(buffer.queuedEntries()).isEqualTo(2);
+    }
+
+    @Test
+    void record_insideTransaction_waitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        buffer.record(UUID.randomUUID(), userId, 1);
+        assertThat(buffer.pendingPoints(userId)).isZero();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(buffer.pendingPoints(userId)).isEqualTo(1);
+    }
+
+    @Test
+    void mergePending_addsPointsAndCrossedLevels() {
+        for (int i = 0; i < 3; i++) buffer.record(UUID.randomUUID(), userId, 1);
+        UserDto dto = new UserDto(userId, "a@b.com", "u", "STUDENT", (short) 1, 48, 0, true, null, null, null);
+
+        buffer.mergePending(dto);
+
+        assertThat(dto.getPoints()).isEqualTo(51);
+        assertThat(dto.getStars()).isEqualTo(1);
+        assertThat(dto.getCurrentLevel()).isEqualTo((short) 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_appliesQueuedIds_andClearsPending() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        buffer.record(first, userId, 1);
+        buffer.record(second, userId, 1);
+
+        buffer.flush();
+
+        ArgumentCaptor<Collection<UUID>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(progressRepository).applyPendingStats(ids.capture(), eq(ProgressService.POINTS_PER_LEVEL));
+        assertThat(ids.getValue()).containsExactly(first, second);
+        assertThat(buffer.pendingPoints(userId)).isZero();
+        assertThat(buffer.queuedEntries()).isZero();
+    }
+
+    @Test
+    void flush_inBatches() {
+        properties.setFlushBatchSize(2);
+        for (int i = 0; i < 5; i++) buffer.record(UUID.randomUUID(), userId, 1);
+
+        buffer.flush();
+
+        verify(progressRepository, times(3)).applyPendingStats(anyCollection(), anyInt());
+        assertThat(buffer.pendingPoints(userId)).isZero();
+    }
+
+    @Test
+    void failedFlush_keepsEntriesQueued() {
+        buffer.record(UUID.randomUUID(), userId, 1);
+        when(progressRepository.applyPendingStats(anyCollection(), anyInt())).thenThrow(new IllegalStateException("db down"));
+
+        buffer.flush();
+
+        assertThat(buffer.queuedEntries()).isEqualTo(1);
+        assertThat(buffer.pendingPoints(userId)).isEqualTo(1);
+    }
+
+    @Test
+    void recoverStale_usesCutoff_andRepeatsUntilNothingIsLeft() {
+        properties.setRecoveryAgeMs(60000);
+        when(progressRepository.applyStalePendingStats(any(), anyInt(), anyInt())).thenReturn(3, 0);
+
+        buffer.recoverStale();
+
+        verify(progressRepository, times(2)).applyStalePendingStats(NOW.minusMillis(60000),
+                properties.getFlushBatchSize(), ProgressService.POINTS_PER_LEVEL);
+    }
+}
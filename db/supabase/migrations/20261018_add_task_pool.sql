@@ -0,0 +1,18 @@
+-- migration: add pre-generated task pool support to tasks
+-- filename: 20261018_add_task_pool.sql
+-- purpose: add `pooled` flag (task generated ahead of time and not yet handed out) and a partial index for claiming
+-- note: safe to run idempotently.
+
+BEGIN;
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS pooled boolean;
+UPDATE tasks SET pooled = false WHERE pooled IS NULL;
+ALTER TABLE tasks ALTER COLUMN pooled SET DEFAULT false;
+ALTER TABLE tasks ALTER COLUMN pooled SET NOT NULL;
+
+COMMENT ON COLUMN tasks.pooled IS 'true while the task waits in the pre-generated pool; cleared when the task is assigned to a user';
+
+-- claim query: where level = ? and pooled order by created_at limit 1 for update skip locked
+CREATE INDEX IF NOT EXISTS idx_tasks_pool ON tasks (level, created_at) WHERE pooled;
+
+COMMIT;
@@ -0,0 +1,15 @@
+-- migration: add content fingerprint to tasks for semantic deduplication
+-- filename: 20261019_add_task_fingerprint.sql
+-- purpose: store a sha-256 of the normalized prompt and options so the same problem is not stored twice
+-- note: safe to run idempotently.
+
+BEGIN;
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS fingerprint varchar(64);
+
+COMMENT ON COLUMN tasks.fingerprint IS 'sha-256 (hex) of normalized prompt and sorted options; null for tasks stored before dedupe or deliberate repeats';
+
+-- nulls do not conflict, so legacy rows and copies of stored tasks stay allowed
+CREATE UNIQUE INDEX IF NOT EXISTS ux_tasks_fingerprint ON tasks (fingerprint);
+
+COMMIT;
@@ -0,0 +1,27 @@
+-- migration: add token versions and a denylist of revoked access tokens
+-- filename: 20261020_add_token_revocation.sql
+-- purpose: revoke all tokens of a user by bumping users.token_version, or single tokens by their jti
+-- note: safe to run idempotently.
+
+BEGIN;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version integer NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN users.token_version IS 'tokens carrying a lower "ver" claim are rejected; bumped on password change and deactivation';
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti uuid PRIMARY KEY,
+    user_id uuid NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    expires_at timestamptz NOT NULL,
+    revoked_at timestamptz NOT NULL DEFAULT now()
+);
+
+COMMENT ON TABLE revoked_tokens IS 'access tokens revoked before their expiry (e.g. logout); rows are purged once the token expires';
+
+-- the denylist refresh reads only unexpired rows and the purge deletes expired ones
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+
+-- the refresh loads only users whose tokens were ever revoked
+CREATE INDEX IF NOT EXISTS idx_users_token_version ON users (id, token_version) WHERE token_version > 0;
+
+COMMIT;
@@ -0,0 +1,28 @@
+-- migration: add refresh token families for rotation and reuse detection
+-- filename: 20261021_add_refresh_token_families.sql
+-- purpose: every login starts a family; each refresh rotates its current token id, and presenting a superseded token revokes the family
+-- note: safe to run idempotently.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS refresh_token_families (
+    id uuid PRIMARY KEY,
+    user_id uuid NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    current_token_id uuid NOT NULL,
+    created_at timestamptz NOT NULL DEFAULT now(),
+    rotated_at timestamptz,
+    expires_at timestamptz NOT NULL,
+    revoked_at timestamptz,
+    revoke_reason varchar(32)
+);
+
+COMMENT ON TABLE refresh_token_families IS 'one row per login session; rotation is a conditional update on current_token_id';
+COMMENT ON COLUMN refresh_token_families.revoke_reason IS 'reuse, password_change or deactivation';
+
+-- bulk revocation of a user's live sessions
+CREATE INDEX IF NOT EXISTS idx_refresh_token_families_user_live ON refresh_token_families (user_id) WHERE revoked_at IS NULL;
+
+-- purge of expired families
+CREATE INDEX IF NOT EXISTS idx_refresh_token_families_expires_at ON refresh_token_families (expires_at);
+
+COMMIT;
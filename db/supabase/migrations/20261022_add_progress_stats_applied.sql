@@ -0,0 +1,15 @@
+-- migration: track which finalized progress rows are already counted in the user's points
+-- filename: 20261022_add_progress_stats_applied.sql
+-- purpose: with user-stats.write-behind the points of a submit reach users later; rows with stats_applied = false are still owed and are applied exactly once
+-- note: safe to run idempotently.
+
+BEGIN;
+
+ALTER TABLE progress ADD COLUMN IF NOT EXISTS stats_applied boolean NOT NULL DEFAULT true;
+
+COMMENT ON COLUMN progress.stats_applied IS 'false while points_awarded has not yet been added to users.points (write-behind); flipped by the flush or the recovery sweep';
+
+-- the flush and the recovery sweep only look at owed rows, which are few at any time
+CREATE INDEX IF NOT EXISTS idx_progress_stats_pending ON progress (updated_at) WHERE stats_applied = false;
+
+COMMIT;
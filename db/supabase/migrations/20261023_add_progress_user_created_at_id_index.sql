@@ -0,0 +1,13 @@
+-- migration: extend the per-user history index with the id tie-breaker
+-- filename: 20261023_add_progress_user_created_at_id_index.sql
+-- purpose: GET /api/v1/progress pages on (created_at, id) newest first; with id in the index each page is a single ordered index range scan
+-- note: safe to run idempotently.
+
+BEGIN;
+
+CREATE INDEX IF NOT EXISTS idx_progress_user_created_at_id ON progress (user_id, created_at DESC, id DESC);
+
+-- the new index covers every query idx_progress_user_created_at served
+DROP INDEX IF EXISTS idx_progress_user_created_at;
+
+COMMIT;
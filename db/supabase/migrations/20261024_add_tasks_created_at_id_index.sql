@@ -0,0 +1,10 @@
+-- migration: index for keyset-paginated task listings
+-- filename: 20261024_add_tasks_created_at_id_index.sql
+-- purpose: GET /api/v1/tasks/scroll reads tasks newest first on (created_at, id); each page is a bounded index range scan instead of a sort of the filtered table
+-- note: safe to run idempotently.
+
+BEGIN;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_created_at_id ON tasks (created_at DESC, id DESC);
+
+COMMIT;
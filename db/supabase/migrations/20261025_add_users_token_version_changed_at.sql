@@ -0,0 +1,20 @@
+-- migration: record when a user's token version was raised
+-- filename: 20261025_add_users_token_version_changed_at.sql
+-- purpose: the token denylist refresh reads only versions raised since its previous run, and forgets a raise once every access token issued before it has expired
+-- note: safe to run idempotently.
+
+BEGIN;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version_changed_at timestamptz;
+
+COMMENT ON COLUMN users.token_version_changed_at IS 'when token_version was last raised; null if it never was';
+
+-- existing raises have no timestamp; treat them as raised now so they stay revoked for one more token lifetime
+UPDATE users SET token_version_changed_at = now() WHERE token_version > 0 AND token_version_changed_at IS NULL;
+
+-- replaced: the refresh no longer scans every user with token_version > 0
+DROP INDEX IF EXISTS idx_users_token_version;
+
+CREATE INDEX IF NOT EXISTS idx_users_token_version_changed_at ON users (token_version_changed_at) WHERE token_version_changed_at IS NOT NULL;
+
+COMMIT;